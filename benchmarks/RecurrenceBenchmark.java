@@ -0,0 +1,142 @@
+package benchmarks;
+
+import modules.MedicineApplication.models.MedicineApplication.Frequency;
+import modules.MedicineApplication.models.Recurrence;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.Random;
+
+/**
+ * Benchmark da expansão local de recorrências (Recurrence): milhares de aplicações com
+ * tratamentos de vários anos, expandidas por completo, consultadas por dia e por janela.
+ * Não acessa o banco nem o Google. Antes de medir, confere as regras de calendário da Recurrence
+ * (fins de mês, 29/02, dias úteis) e que a contagem direta bate com a expansão.
+ */
+public class RecurrenceBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int applications = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int years = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        List<Recurrence> recurrences = generate(applications, years, new Random(42));
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = from.plusYears(years);
+        System.out.println("Aplicações: " + applications + ", tratamentos de até " + years + " anos");
+
+        checkDates();
+        checkCounts(recurrences, from, to);
+
+        run("Expansão completa (stream)", recurrences.size(), () -> {
+            long total = 0;
+            for (Recurrence r : recurrences) total += r.occurrences().takeWhile(d -> !d.isAfter(to)).count();
+            return total;
+        });
+        run("Doses em uma janela de 30 dias", recurrences.size(), () -> {
+            LocalDate windowStart = from.plusYears(years / 2L);
+            long total = 0;
+            for (Recurrence r : recurrences) total += r.between(windowStart, windowStart.plusDays(29)).count();
+            return total;
+        });
+        run("Doses devidas em 365 dias (occursOn)", recurrences.size() * 365L, () -> {
+            long total = 0;
+            for (int day = 0; day < 365; day++) {
+                LocalDate date = from.plusDays(day);
+                for (Recurrence r : recurrences) if (r.occursOn(date)) total++;
+            }
+            return total;
+        });
+        run("Contagem sem expandir (count)", recurrences.size(), () -> {
+            long total = 0;
+            for (Recurrence r : recurrences) total += r.count(from, to);
+            return total;
+        });
+    }
+
+    private interface Task {
+        long run();
+    }
+
+    private static void run(String name, long operations, Task task) {
+        long result = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) result += task.run();
+
+        long best = Long.MAX_VALUE;
+        long occurrences = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long startNanos = System.nanoTime();
+            occurrences = task.run();
+            best = Math.min(best, System.nanoTime() - startNanos);
+            result += occurrences;
+        }
+        System.out.printf("%-40s %10.2f ms  %,14d doses  %,12.0f ops/s  (checksum %d)%n",
+                name, best / 1e6, occurrences, operations / (best / 1e9), result);
+    }
+
+    /**
+     * Confere datas conhecidas nos casos que a geração aleatória pode não cobrir.
+     */
+    private static void checkDates() {
+        // Mensal no dia 31 em ano bissexto: cai no último dia dos meses curtos e volta ao 31
+        expect(new Recurrence(Frequency.MONTHLY, LocalDate.of(2024, 1, 31), null),
+                "2024-01-31", "2024-02-29", "2024-03-31", "2024-04-30", "2024-05-31");
+        // Dias úteis começando em um sábado: a primeira dose vale, as seguintes pulam o fim de semana
+        expect(new Recurrence(Frequency.EVERY_WEEKDAY, LocalDate.of(2025, 1, 4), null),
+                "2025-01-04", "2025-01-06", "2025-01-07", "2025-01-08", "2025-01-09", "2025-01-10", "2025-01-13");
+        // Anual em 29/02: 28/02 nos anos não bissextos, 29/02 de novo no próximo bissexto
+        expect(new Recurrence(Frequency.ANNUALLY, LocalDate.of(2024, 2, 29), null),
+                "2024-02-29", "2025-02-28", "2026-02-28", "2027-02-28", "2028-02-29");
+    }
+
+    private static void expect(Recurrence recurrence, String... dates) {
+        List<LocalDate> expected = new ArrayList<>();
+        for (String date : dates) expected.add(LocalDate.parse(date));
+        List<LocalDate> actual = recurrence.occurrences().limit(dates.length).collect(Collectors.toList());
+        LocalDate last = expected.get(expected.size() - 1);
+        long counted = recurrence.count(recurrence.getStart(), last);
+        if (!actual.equals(expected) || counted != expected.size()) {
+            throw new IllegalStateException("Datas divergentes para " + recurrence.getFrequency() + " desde "
+                    + recurrence.getStart() + ": esperado " + expected + ", obtido " + actual + " (" + counted + " contadas)");
+        }
+    }
+
+    /**
+     * Confere que a contagem direta e a expansão completa chegam ao mesmo resultado.
+     */
+    private static void checkCounts(List<Recurrence> recurrences, LocalDate from, LocalDate to) {
+        for (Recurrence r : recurrences) {
+            long expanded = r.between(from, to).count();
+            long counted = r.count(from, to);
+            if (expanded != counted) {
+                throw new IllegalStateException("Contagem divergente para " + r.getFrequency() + " desde "
+                        + r.getStart() + ": " + expanded + " expandidas, " + counted + " contadas");
+            }
+        }
+    }
+
+    /**
+     * Gera aplicações com a distribuição esperada: a maioria diária, começando em qualquer dia
+     * (inclusive fins de mês), com e sem data de término.
+     */
+    private static List<Recurrence> generate(int count, int years, Random random) {
+        Frequency[] weighted = {
+                Frequency.DAILY, Frequency.DAILY, Frequency.DAILY, Frequency.DAILY,
+                Frequency.EVERY_WEEKDAY, Frequency.WEEKLY, Frequency.MONTHLY, Frequency.ANNUALLY,
+                Frequency.DOES_NOT_REPEAT
+        };
+        LocalDate base = LocalDate.of(2025, 1, 1);
+        List<Recurrence> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Frequency frequency = weighted[random.nextInt(weighted.length)];
+            LocalDate start = base.plusDays(random.nextInt(365));
+            LocalDate until = random.nextInt(4) == 0 ? null : start.plusDays(30 + random.nextInt(365 * years));
+            out.add(new Recurrence(frequency, start, until));
+        }
+        return out;
+    }
+}
@@ -5,6 +5,18 @@ import javafx.stage.Stage;
 import modules.User.views.UserAuthForm;
 import modules.Shared.views.MenuView;
 import modules.User.models.User;
+import modules.MedicineApplication.services.CalendarOutboxWorker;
+import modules.MedicineApplication.services.CalendarReconciler;
+import modules.MedicineApplication.services.CalendarSyncJob;
+import modules.MedicineApplication.services.MedicineApplicationOccurrenceJob;
+import modules.Medicine.services.MedicineStockAlertJob;
+import modules.Medicine.services.MedicineStockSnapshotJob;
+import modules.Attachment.services.AttachmentDeletionWorker;
+import modules.Attachment.services.AttachmentUploadQueue;
+import modules.Attachment.services.DriveOrphanReconciler;
+import config.AsyncDatabase;
+import config.BackgroundJobs;
+import config.Database;
 
 public class MainApp extends Application {
 
@@ -19,6 +31,17 @@ public class MainApp extends Application {
 
         // O conteúdo inicial do mainLayout será a tela de login
         UserAuthForm login = new UserAuthForm((User u) -> {
+            // Com o banco pronto, inicia a sincronização do Google Calendar em background
+            CalendarOutboxWorker.start();
+            CalendarSyncJob.start();
+            CalendarReconciler.start();
+            // e a remoção dos arquivos de anexos excluídos
+            AttachmentDeletionWorker.start();
+            DriveOrphanReconciler.start();
+            MedicineStockSnapshotJob.start();
+            MedicineStockAlertJob.start();
+            MedicineApplicationOccurrenceJob.start();
+
             // Após o login, o conteúdo do mainLayout muda para o menu principal
             MenuView mainMenu = new MenuView(this.mainLayout, stage);
             this.mainLayout.setCenter(mainMenu);
@@ -33,6 +56,15 @@ public class MainApp extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        // Encerra os jobs e consultas em background e devolve as conexões físicas ao encerrar a aplicação
+        BackgroundJobs.shutdown();
+        AttachmentUploadQueue.shutdown();
+        AsyncDatabase.shutdown();
+        Database.close();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,78 @@
+package config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor compartilhado para acesso ao banco fora da JavaFX Application Thread.
+ * Cada operação pega uma conexão do pool de {@link Database} e a devolve ao terminar.
+ */
+public class AsyncDatabase {
+
+    // Não adianta ter mais threads que conexões no pool: elas só ficariam esperando
+    private static final int THREADS = Env.intValue("DB_ASYNC_THREADS", 4, 1);
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ThreadFactory THREAD_FACTORY = runnable -> {
+        Thread t = new Thread(runnable, "db-async-" + THREAD_COUNTER.incrementAndGet());
+        // Não impede a JVM de encerrar se a janela for fechada com consultas em andamento
+        t.setDaemon(true);
+        return t;
+    };
+
+    private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(
+            THREADS, THREADS,
+            30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            THREAD_FACTORY
+    );
+
+    static {
+        ((ThreadPoolExecutor) EXECUTOR).allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Executa a operação em background com uma conexão emprestada do pool.
+     * Cancelar o future antes da execução descarta a operação sem pegar conexão;
+     * durante a execução, a thread é interrompida e o resultado é descartado.
+     *
+     * @param work Operação a ser executada
+     * @param <T> Tipo do resultado
+     * @return Future completado com o resultado ou com a exceção lançada pela operação
+     */
+    public static <T> CompletableFuture<T> supply(Database.SqlFunction<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> task = EXECUTOR.submit(() -> {
+            if (future.isDone()) return; // cancelado enquanto estava na fila
+            try {
+                future.complete(Database.withConnection(work));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) task.cancel(true);
+        });
+        return future;
+    }
+
+    /**
+     * Encerra o executor, aguardando brevemente as operações em andamento.
+     * Chamado no encerramento da aplicação, antes de fechar o pool.
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+        try {
+            EXECUTOR.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
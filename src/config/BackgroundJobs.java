@@ -0,0 +1,98 @@
+package config;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Agendador compartilhado para os jobs de background da aplicação (workers de sincronização,
+ * reconciliações periódicas etc.). Nunca use a JavaFX Application Thread para esse tipo de trabalho.
+ */
+public class BackgroundJobs {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ThreadFactory THREAD_FACTORY = runnable -> {
+        Thread t = new Thread(runnable, "background-job-" + THREAD_COUNTER.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    };
+
+    private static final ScheduledExecutorService SCHEDULER =
+            Executors.newScheduledThreadPool(Env.intValue("BACKGROUND_JOB_THREADS", 2, 1), THREAD_FACTORY);
+
+    // Reconciliações demoradas (listam o Drive ou o calendário inteiro) ficam em uma thread própria,
+    // para não segurar as threads dos workers de sincronização e dos alertas
+    private static final ScheduledExecutorService LONG_RUNNING_SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY);
+
+    /**
+     * Agenda um job para rodar repetidamente, com intervalo fixo entre o fim de uma execução e o início da próxima.
+     * Exceções do job são logadas e não cancelam os agendamentos seguintes.
+     *
+     * @param name Nome do job (usado nos logs)
+     * @param job Trabalho a ser executado
+     * @param initialDelay Atraso até a primeira execução
+     * @param delay Intervalo entre execuções
+     * @param unit Unidade de tempo dos atrasos
+     * @return Future do agendamento (pode ser cancelado)
+     */
+    public static ScheduledFuture<?> scheduleWithFixedDelay(String name, Runnable job, long initialDelay, long delay, TimeUnit unit) {
+        return SCHEDULER.scheduleWithFixedDelay(guarded(name, job), initialDelay, delay, unit);
+    }
+
+    /**
+     * Agenda um job demorado (ex.: reconciliação que percorre o Drive ou o calendário inteiro) para rodar
+     * repetidamente, em uma thread separada dos demais jobs. Os jobs demorados rodam um de cada vez.
+     *
+     * @param name Nome do job (usado nos logs)
+     * @param job Trabalho a ser executado
+     * @param initialDelay Atraso até a primeira execução
+     * @param delay Intervalo entre execuções
+     * @param unit Unidade de tempo dos atrasos
+     * @return Future do agendamento (pode ser cancelado)
+     */
+    public static ScheduledFuture<?> scheduleLongRunning(String name, Runnable job, long initialDelay, long delay, TimeUnit unit) {
+        return LONG_RUNNING_SCHEDULER.scheduleWithFixedDelay(guarded(name, job), initialDelay, delay, unit);
+    }
+
+    /**
+     * Executa um job uma única vez, o mais cedo possível.
+     *
+     * @param name Nome do job (usado nos logs)
+     * @param job Trabalho a ser executado
+     */
+    public static void execute(String name, Runnable job) {
+        SCHEDULER.execute(guarded(name, job));
+    }
+
+    /**
+     * Encerra o agendador, aguardando brevemente os jobs em andamento.
+     * Chamado no encerramento da aplicação, antes de fechar o pool de conexões.
+     */
+    public static void shutdown() {
+        SCHEDULER.shutdownNow();
+        LONG_RUNNING_SCHEDULER.shutdownNow();
+        try {
+            SCHEDULER.awaitTermination(5, TimeUnit.SECONDS);
+            LONG_RUNNING_SCHEDULER.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Runnable guarded(String name, Runnable job) {
+        return () -> {
+            try {
+                job.run();
+            } catch (Throwable t) {
+                // Uma exceção não tratada cancelaria silenciosamente as próximas execuções agendadas
+                System.err.println("Falha no job " + name + ": " + t.getMessage());
+                t.printStackTrace();
+            }
+        };
+    }
+}
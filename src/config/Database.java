@@ -1,9 +1,14 @@
 package config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import migrations.MigrationRunner;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public class Database {
@@ -12,22 +17,176 @@ public class Database {
     private static final String USER = System.getenv("DB_USER");
     private static final String PASSWORD = System.getenv("DB_PASSWORD");
 
-    private static volatile boolean MIGRATIONS_RAN = false;
+    // Limites do pool (podem ser ajustados por variáveis de ambiente)
+    private static final int POOL_MIN_IDLE = Env.intValue("DB_POOL_MIN_IDLE", 2, 0);
+    private static final int POOL_MAX_SIZE = Env.intValue("DB_POOL_MAX_SIZE", 10, 1);
+    private static final long POOL_IDLE_TIMEOUT_MS = Env.longValue("DB_POOL_IDLE_TIMEOUT_MS", 5 * 60_000L, 0);
+    private static final long POOL_MAX_LIFETIME_MS = Env.longValue("DB_POOL_MAX_LIFETIME_MS", 30 * 60_000L, 0);
+    private static final long POOL_CONNECTION_TIMEOUT_MS = Env.longValue("DB_POOL_CONNECTION_TIMEOUT_MS", 10_000L, 0);
+    private static final long POOL_LEAK_DETECTION_MS = Env.longValue("DB_POOL_LEAK_DETECTION_MS", 30_000L, 0);
+
+    private static volatile HikariDataSource dataSource;
 
     static {
         try { Class.forName("org.postgresql.Driver"); }
         catch (ClassNotFoundException e) { throw new IllegalStateException("PostgreSQL JDBC driver not found", e); }
     }
 
+    /**
+     * Operação executada com uma conexão emprestada do pool.
+     *
+     * @param <T> Tipo do resultado da operação
+     */
+    @FunctionalInterface
+    public interface SqlFunction<T> {
+        T apply(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Trabalho executado por {@link #runExclusively}.
+     *
+     * @param <T> Tipo do resultado do trabalho
+     */
+    @FunctionalInterface
+    public interface ExclusiveWork<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Retorna o DataSource do pool, criando-o (e rodando as migrations) na primeira chamada.
+     *
+     * @return DataSource com pool de conexões
+     * @throws SQLException Se ocorrer erro ao criar o pool ou ao rodar as migrations
+     */
+    public static DataSource getDataSource() throws SQLException {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (Database.class) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = createDataSource();
+                    dataSource = ds;
+                }
+            }
+        }
+        return ds;
+    }
+
+    /**
+     * Empresta uma conexão do pool.
+     * A conexão DEVE ser fechada (try-with-resources) para ser devolvida ao pool.
+     *
+     * @return Conexão emprestada do pool
+     * @throws SQLException Se não houver conexão disponível dentro do timeout
+     */
     public static Connection getConnection() throws SQLException {
-        Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
-        runMigrationsOnce(conn);
-        return conn;
+        return getDataSource().getConnection();
+    }
+
+    /**
+     * Executa uma operação com uma conexão emprestada e a devolve ao pool ao final.
+     *
+     * @param work Operação a ser executada
+     * @param <T> Tipo do resultado
+     * @return Resultado da operação
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static <T> T withConnection(SqlFunction<T> work) throws SQLException {
+        try (Connection conn = getConnection()) {
+            return work.apply(conn);
+        }
     }
 
-    private static synchronized void runMigrationsOnce(Connection conn) throws SQLException {
-        if (MIGRATIONS_RAN) return;
-        MigrationRunner.runAll(conn);
-        MIGRATIONS_RAN = true;
+    /**
+     * Executa uma operação dentro de uma transação (commit no sucesso, rollback em caso de erro).
+     *
+     * @param work Operação a ser executada
+     * @param <T> Tipo do resultado
+     * @return Resultado da operação
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static <T> T inTransaction(SqlFunction<T> work) throws SQLException {
+        try (Connection conn = getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                T result = work.apply(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * Executa um trabalho só se nenhuma outra estação (nem esta) estiver executando o mesmo trabalho,
+     * usando uma trava consultiva de sessão no PostgreSQL. Para jobs de background que percorrem o
+     * Google Drive ou o Google Calendar inteiro: rodar em todas as estações só multiplica as chamadas.
+     * <p>
+     * A trava fica em uma conexão própria, fora do pool (o job pode levar horas e não deve ocupar
+     * uma conexão do pool); fechar a conexão, inclusive por queda, libera a trava.
+     *
+     * @param lockName Nome do trabalho (identifica a trava)
+     * @param work Trabalho a ser executado
+     * @param <T> Tipo do resultado
+     * @return Resultado do trabalho, ou null se outra estação já o estiver executando
+     * @throws Exception Se ocorrer erro ao obter a trava ou no trabalho
+     */
+    public static <T> T runExclusively(String lockName, ExclusiveWork<T> work) throws Exception {
+        try (Connection lockConn = DriverManager.getConnection(URL, USER, PASSWORD)) {
+            try (PreparedStatement ps = lockConn.prepareStatement("SELECT pg_try_advisory_lock(hashtext(?))")) {
+                ps.setString(1, "job:" + lockName);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next() || !rs.getBoolean(1)) return null;
+                }
+            }
+            return work.run();
+        }
+    }
+
+    /**
+     * Fecha o pool e todas as conexões físicas. Chamado no encerramento da aplicação.
+     */
+    public static synchronized void close() {
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+
+    private static HikariDataSource createDataSource() throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("friendly-paw");
+        config.setJdbcUrl(URL);
+        config.setUsername(USER);
+        config.setPassword(PASSWORD);
+        config.setMinimumIdle(POOL_MIN_IDLE);
+        config.setMaximumPoolSize(POOL_MAX_SIZE);
+        config.setIdleTimeout(POOL_IDLE_TIMEOUT_MS);
+        config.setMaxLifetime(POOL_MAX_LIFETIME_MS);
+        config.setConnectionTimeout(POOL_CONNECTION_TIMEOUT_MS);
+        // Loga a stack trace de quem pegou a conexão e não devolveu dentro do limite
+        config.setLeakDetectionThreshold(POOL_LEAK_DETECTION_MS);
+        // Valida a conexão (Connection.isValid) ao emprestar se ficou ociosa
+        config.setValidationTimeout(3_000L);
+
+        HikariDataSource ds;
+        try {
+            ds = new HikariDataSource(config);
+        } catch (RuntimeException e) {
+            throw new SQLException("Falha ao inicializar o pool de conexões: " + e.getMessage(), e);
+        }
+
+        try (Connection conn = ds.getConnection()) {
+            MigrationRunner.runAll(conn);
+        } catch (SQLException e) {
+            ds.close();
+            throw e;
+        }
+        return ds;
     }
 }
@@ -0,0 +1,41 @@
+package config;
+
+/**
+ * Leitura das configurações numéricas das variáveis de ambiente.
+ * Valor ausente ou inválido usa o padrão; valor abaixo do mínimo usa o mínimo.
+ */
+public final class Env {
+
+    private Env() {
+    }
+
+    /**
+     * Lê uma variável de ambiente inteira.
+     *
+     * @param name Nome da variável
+     * @param fallback Valor padrão, se a variável não estiver definida ou não for um número
+     * @param min Menor valor aceito
+     * @return Valor da variável, ou o padrão
+     */
+    public static int intValue(String name, int fallback, int min) {
+        return (int) Math.min(Integer.MAX_VALUE, longValue(name, fallback, min));
+    }
+
+    /**
+     * Lê uma variável de ambiente inteira (long).
+     *
+     * @param name Nome da variável
+     * @param fallback Valor padrão, se a variável não estiver definida ou não for um número
+     * @param min Menor valor aceito
+     * @return Valor da variável, ou o padrão
+     */
+    public static long longValue(String name, long fallback, long min) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) return fallback;
+        try {
+            return Math.max(min, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
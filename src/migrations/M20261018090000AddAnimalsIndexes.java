@@ -0,0 +1,37 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018090000AddAnimalsIndexes implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018090000_add_animals_indexes";
+    }
+
+    @Override
+    public boolean transactional() {
+        // CREATE INDEX CONCURRENTLY não pode rodar dentro de transação
+        return false;
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        // Paginação por keyset da listagem (AnimalController.getAnimalsPage)
+        MigrationRunner.createIndexConcurrently(conn, "idx_animals_name_uuid",
+                "ON public.animals (name, uuid)");
+        // Contagem por status e espécie do dashboard (AnimalController.getStatistics)
+        MigrationRunner.createIndexConcurrently(conn, "idx_animals_status_species",
+                "ON public.animals (status, species)");
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX IF EXISTS public.idx_animals_name_uuid;");
+            st.execute("DROP INDEX IF EXISTS public.idx_animals_status_species;");
+        }
+    }
+}
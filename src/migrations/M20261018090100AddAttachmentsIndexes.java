@@ -0,0 +1,33 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018090100AddAttachmentsIndexes implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018090100_add_attachments_indexes";
+    }
+
+    @Override
+    public boolean transactional() {
+        // CREATE INDEX CONCURRENTLY não pode rodar dentro de transação
+        return false;
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        // Anexos de um animal (AttachmentController.getAttachmentsForAnimal) e FK para animals
+        MigrationRunner.createIndexConcurrently(conn, "idx_attachments_animal_uuid",
+                "ON public.attachments (animal_uuid)");
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX IF EXISTS public.idx_attachments_animal_uuid;");
+        }
+    }
+}
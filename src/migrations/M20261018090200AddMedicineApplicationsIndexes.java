@@ -0,0 +1,45 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018090200AddMedicineApplicationsIndexes implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018090200_add_medicine_applications_indexes";
+    }
+
+    @Override
+    public boolean transactional() {
+        // CREATE INDEX CONCURRENTLY não pode rodar dentro de transação
+        return false;
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        // Listagem por animal já na ordem da tela (MedicineApplicationController.getApplicationsForAnimal).
+        // As demais colunas do SELECT ficam no INCLUDE para permitir index-only scan.
+        MigrationRunner.createIndexConcurrently(conn, "idx_medicine_applications_animal_applied",
+                """
+                ON public.medicine_applications (animal_uuid, applied_at DESC, created_at DESC)
+                INCLUDE (application_uuid, medicine_uuid, user_uuid, quantity,
+                         next_application_at, frequency, ends_at, google_calendar_id)
+                """);
+        // FKs: evitam seq scan ao remover/verificar medicamentos e usuários referenciados
+        MigrationRunner.createIndexConcurrently(conn, "idx_medicine_applications_medicine_uuid",
+                "ON public.medicine_applications (medicine_uuid)");
+        MigrationRunner.createIndexConcurrently(conn, "idx_medicine_applications_user_uuid",
+                "ON public.medicine_applications (user_uuid)");
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX IF EXISTS public.idx_medicine_applications_animal_applied;");
+            st.execute("DROP INDEX IF EXISTS public.idx_medicine_applications_medicine_uuid;");
+            st.execute("DROP INDEX IF EXISTS public.idx_medicine_applications_user_uuid;");
+        }
+    }
+}
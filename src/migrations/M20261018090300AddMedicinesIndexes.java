@@ -0,0 +1,37 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018090300AddMedicinesIndexes implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018090300_add_medicines_indexes";
+    }
+
+    @Override
+    public boolean transactional() {
+        // CREATE INDEX CONCURRENTLY não pode rodar dentro de transação
+        return false;
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        // Join medicamento/marca e ON DELETE CASCADE ao remover uma marca
+        MigrationRunner.createIndexConcurrently(conn, "idx_medicines_brand_uuid",
+                "ON public.medicines (brand_uuid)");
+        // Listagem ordenada por data de cadastro (MedicineController.listAll)
+        MigrationRunner.createIndexConcurrently(conn, "idx_medicines_created_at",
+                "ON public.medicines (created_at DESC)");
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX IF EXISTS public.idx_medicines_brand_uuid;");
+            st.execute("DROP INDEX IF EXISTS public.idx_medicines_created_at;");
+        }
+    }
+}
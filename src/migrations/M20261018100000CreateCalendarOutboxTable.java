@@ -0,0 +1,50 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018100000CreateCalendarOutboxTable implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018100000_create_calendar_outbox_table";
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // Sem FK para medicine_applications: o pedido de exclusão do evento
+            // precisa sobreviver à remoção da aplicação
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS public.calendar_outbox (
+                    uuid UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+                    application_uuid UUID NOT NULL,
+                    operation VARCHAR(10) NOT NULL CHECK (operation IN ('create','delete')),
+                    event_id TEXT NOT NULL,
+                    attempts INTEGER NOT NULL DEFAULT 0,
+                    next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+                    last_error TEXT,
+                    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+                );
+            """);
+
+            st.execute("""
+                CREATE INDEX IF NOT EXISTS idx_calendar_outbox_next_attempt
+                    ON public.calendar_outbox (next_attempt_at, created_at);
+            """);
+
+            st.execute("""
+                CREATE INDEX IF NOT EXISTS idx_calendar_outbox_application
+                    ON public.calendar_outbox (application_uuid);
+            """);
+        }
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS public.calendar_outbox;");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018110000CreateAnimalDriveFoldersTable implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018110000_create_animal_drive_folders_table";
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS public.animal_drive_folders (
+                    animal_uuid UUID PRIMARY KEY,
+                    folder_id TEXT NOT NULL,
+                    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+                    CONSTRAINT fk_animal
+                        FOREIGN KEY(animal_uuid)
+                        REFERENCES public.animals(uuid)
+                        ON DELETE CASCADE
+                );
+            """);
+        }
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS public.animal_drive_folders;");
+        }
+    }
+}
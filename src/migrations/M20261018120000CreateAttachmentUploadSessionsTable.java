@@ -0,0 +1,46 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018120000CreateAttachmentUploadSessionsTable implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018120000_create_attachment_upload_sessions_table";
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // Sessões de upload resumable do Google Drive ainda não concluídas.
+            // O arquivo é identificado pelo caminho, tamanho e data de modificação:
+            // se qualquer um mudar, o upload recomeça do zero em uma nova sessão
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS public.attachment_upload_sessions (
+                    uuid UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+                    animal_uuid UUID NOT NULL,
+                    file_path TEXT NOT NULL,
+                    file_size BIGINT NOT NULL,
+                    file_modified_at TIMESTAMPTZ NOT NULL,
+                    session_uri TEXT NOT NULL,
+                    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+                    CONSTRAINT fk_animal
+                        FOREIGN KEY(animal_uuid)
+                        REFERENCES public.animals(uuid)
+                        ON DELETE CASCADE,
+                    CONSTRAINT uq_attachment_upload_sessions_file
+                        UNIQUE (animal_uuid, file_path, file_size, file_modified_at)
+                );
+            """);
+        }
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS public.attachment_upload_sessions;");
+        }
+    }
+}
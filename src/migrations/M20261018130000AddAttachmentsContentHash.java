@@ -0,0 +1,38 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018130000AddAttachmentsContentHash implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018130000_add_attachments_content_hash";
+    }
+
+    @Override
+    public boolean transactional() {
+        // CREATE INDEX CONCURRENTLY não pode rodar dentro de transação
+        return false;
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // SHA-256 (hex) do arquivo enviado; null nos anexos anteriores a esta migration
+            st.execute("ALTER TABLE public.attachments ADD COLUMN IF NOT EXISTS content_hash CHAR(64);");
+        }
+        // Busca de anexo com o mesmo conteúdo para o mesmo animal (deduplicação)
+        MigrationRunner.createIndexConcurrently(conn, "idx_attachments_animal_content_hash",
+                "ON public.attachments (animal_uuid, content_hash) WHERE content_hash IS NOT NULL");
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX IF EXISTS public.idx_attachments_animal_content_hash;");
+            st.execute("ALTER TABLE public.attachments DROP COLUMN IF EXISTS content_hash;");
+        }
+    }
+}
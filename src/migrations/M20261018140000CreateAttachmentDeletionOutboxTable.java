@@ -0,0 +1,44 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018140000CreateAttachmentDeletionOutboxTable implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018140000_create_attachment_deletion_outbox_table";
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // Sem FK para attachments/animals: o pedido de remoção do arquivo
+            // precisa sobreviver à remoção do anexo e do animal
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS public.attachment_deletion_outbox (
+                    uuid UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+                    file TEXT NOT NULL,
+                    animal_uuid UUID NOT NULL,
+                    attempts INTEGER NOT NULL DEFAULT 0,
+                    next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+                    last_error TEXT,
+                    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+                );
+            """);
+
+            st.execute("""
+                CREATE INDEX IF NOT EXISTS idx_attachment_deletion_outbox_next_attempt
+                    ON public.attachment_deletion_outbox (next_attempt_at, created_at);
+            """);
+        }
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS public.attachment_deletion_outbox;");
+        }
+    }
+}
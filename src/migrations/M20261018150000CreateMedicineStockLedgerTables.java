@@ -0,0 +1,88 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018150000CreateMedicineStockLedgerTables implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018150000_create_medicine_stock_ledger_tables";
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // Livro de movimentações (só inserção). Sem FK para medicine_applications:
+            // o histórico do estoque sobrevive à remoção da aplicação
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS public.medicine_stock_movements (
+                    id BIGSERIAL PRIMARY KEY,
+                    medicine_uuid UUID NOT NULL REFERENCES public.medicines(uuid) ON DELETE CASCADE,
+                    movement_type VARCHAR(20) NOT NULL
+                        CHECK (movement_type IN ('receipt','application','adjustment','expiry')),
+                    delta INTEGER NOT NULL,
+                    application_uuid UUID,
+                    user_uuid UUID,
+                    note TEXT,
+                    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+                );
+            """);
+
+            st.execute("""
+                CREATE INDEX IF NOT EXISTS idx_medicine_stock_movements_medicine
+                    ON public.medicine_stock_movements (medicine_uuid, id);
+            """);
+
+            st.execute("""
+                CREATE OR REPLACE FUNCTION public.medicine_stock_movements_append_only()
+                RETURNS trigger AS $$
+                BEGIN
+                    RAISE EXCEPTION 'medicine_stock_movements aceita apenas inserções; registre um ajuste';
+                END;
+                $$ LANGUAGE plpgsql;
+            """);
+            st.execute("DROP TRIGGER IF EXISTS trg_medicine_stock_movements_append_only ON public.medicine_stock_movements;");
+            st.execute("""
+                CREATE TRIGGER trg_medicine_stock_movements_append_only
+                    BEFORE UPDATE ON public.medicine_stock_movements
+                    FOR EACH ROW EXECUTE FUNCTION public.medicine_stock_movements_append_only();
+            """);
+
+            // Saldo em um ponto do livro: saldo atual = último snapshot + movimentações com id maior.
+            // balance = -1 indica estoque ilimitado
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS public.medicine_stock_snapshots (
+                    id BIGSERIAL PRIMARY KEY,
+                    medicine_uuid UUID NOT NULL REFERENCES public.medicines(uuid) ON DELETE CASCADE,
+                    balance INTEGER NOT NULL,
+                    last_movement_id BIGINT NOT NULL,
+                    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+                );
+            """);
+
+            st.execute("""
+                CREATE INDEX IF NOT EXISTS idx_medicine_stock_snapshots_latest
+                    ON public.medicine_stock_snapshots (medicine_uuid, last_movement_id DESC, id DESC);
+            """);
+
+            // Saldo inicial dos medicamentos já cadastrados
+            st.execute("""
+                INSERT INTO public.medicine_stock_snapshots (medicine_uuid, balance, last_movement_id)
+                SELECT m.uuid, CASE WHEN m.quantity IS NULL OR m.quantity < 0 THEN -1 ELSE m.quantity END, 0
+                  FROM public.medicines m
+                 WHERE NOT EXISTS (SELECT 1 FROM public.medicine_stock_snapshots s WHERE s.medicine_uuid = m.uuid);
+            """);
+        }
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS public.medicine_stock_snapshots;");
+            st.execute("DROP TABLE IF EXISTS public.medicine_stock_movements;");
+            st.execute("DROP FUNCTION IF EXISTS public.medicine_stock_movements_append_only();");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018160000CreateMedicineStockAlertsTable implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018160000_create_medicine_stock_alerts_table";
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // Limites de alerta por medicamento; nulos usam o padrão do avaliador
+            st.execute("""
+                ALTER TABLE public.medicines
+                    ADD COLUMN IF NOT EXISTS low_stock_threshold INTEGER CHECK (low_stock_threshold >= 0),
+                    ADD COLUMN IF NOT EXISTS low_stock_days INTEGER CHECK (low_stock_days >= 0);
+            """);
+
+            // Um alerta ativo por medicamento, mantido pelo MedicineStockAlertJob.
+            // days_until_empty é nulo quando não houve consumo na janela avaliada
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS public.medicine_stock_alerts (
+                    medicine_uuid UUID PRIMARY KEY REFERENCES public.medicines(uuid) ON DELETE CASCADE,
+                    level VARCHAR(10) NOT NULL CHECK (level IN ('out','low')),
+                    quantity INTEGER NOT NULL,
+                    daily_consumption NUMERIC(12,3) NOT NULL,
+                    days_until_empty NUMERIC(12,1),
+                    evaluated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                );
+            """);
+        }
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS public.medicine_stock_alerts;");
+            st.execute("""
+                ALTER TABLE public.medicines
+                    DROP COLUMN IF EXISTS low_stock_threshold,
+                    DROP COLUMN IF EXISTS low_stock_days;
+            """);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018160100AddMedicineStockAlertIndexes implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018160100_add_medicine_stock_alert_indexes";
+    }
+
+    @Override
+    public boolean transactional() {
+        // CREATE INDEX CONCURRENTLY não pode rodar dentro de transação
+        return false;
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        // Avaliação incremental: medicamentos alterados desde a última execução
+        MigrationRunner.createIndexConcurrently(conn, "idx_medicines_updated_at",
+                "ON public.medicines (updated_at)");
+        // Consumo recente por medicamento, lido só do índice (quantity no INCLUDE)
+        MigrationRunner.createIndexConcurrently(conn, "idx_medicine_applications_medicine_applied",
+                "ON public.medicine_applications (medicine_uuid, applied_at) INCLUDE (quantity)");
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX IF EXISTS public.idx_medicines_updated_at;");
+            st.execute("DROP INDEX IF EXISTS public.idx_medicine_applications_medicine_applied;");
+        }
+    }
+}
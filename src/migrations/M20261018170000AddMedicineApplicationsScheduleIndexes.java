@@ -0,0 +1,44 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018170000AddMedicineApplicationsScheduleIndexes implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018170000_add_medicine_applications_schedule_indexes";
+    }
+
+    @Override
+    public boolean transactional() {
+        // CREATE INDEX CONCURRENTLY não pode rodar dentro de transação
+        return false;
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        // Lista de doses (MedicineApplicationController.getWorklist): doses únicas pela data da próxima aplicação
+        MigrationRunner.createIndexConcurrently(conn, "idx_medicine_applications_next_single",
+                """
+                ON public.medicine_applications (next_application_at)
+                WHERE next_application_at IS NOT NULL
+                  AND (frequency IS NULL OR frequency = 'DOES_NOT_REPEAT')
+                """);
+        // e séries recorrentes ainda não encerradas no período (ends_at nulo = sem fim)
+        MigrationRunner.createIndexConcurrently(conn, "idx_medicine_applications_recurring_ends",
+                """
+                ON public.medicine_applications (ends_at)
+                WHERE frequency IS NOT NULL AND frequency <> 'DOES_NOT_REPEAT'
+                """);
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX IF EXISTS public.idx_medicine_applications_next_single;");
+            st.execute("DROP INDEX IF EXISTS public.idx_medicine_applications_recurring_ends;");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018180000CreateMedicineApplicationOccurrencesTable implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018180000_create_medicine_application_occurrences_table";
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // Doses das aplicações expandidas para uma janela móvel (MedicineApplicationOccurrenceController).
+            // animal_uuid e medicine_uuid são cópias da aplicação, para filtrar sem o join
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS public.medicine_application_occurrences (
+                    application_uuid UUID NOT NULL
+                        REFERENCES public.medicine_applications(application_uuid) ON DELETE CASCADE,
+                    occurrence_date DATE NOT NULL,
+                    animal_uuid UUID NOT NULL,
+                    medicine_uuid UUID NOT NULL,
+                    applied BOOLEAN NOT NULL DEFAULT FALSE,
+                    PRIMARY KEY (application_uuid, occurrence_date)
+                );
+            """);
+
+            st.execute("""
+                CREATE INDEX IF NOT EXISTS idx_medicine_application_occurrences_date_animal
+                    ON public.medicine_application_occurrences (occurrence_date, animal_uuid);
+            """);
+
+            // Período já materializado (linha única); sem linha, a tabela ainda não foi montada
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS public.medicine_application_occurrence_window (
+                    id SMALLINT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+                    materialized_from DATE NOT NULL,
+                    materialized_until DATE NOT NULL,
+                    refreshed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                );
+            """);
+        }
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS public.medicine_application_occurrence_window;");
+            st.execute("DROP TABLE IF EXISTS public.medicine_application_occurrences;");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018190000CreateCalendarSyncStateTable implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018190000_create_calendar_sync_state_table";
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // syncToken da última leitura de alterações de cada calendário (CalendarSyncJob);
+            // sync_token nulo força a leitura completa
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS public.calendar_sync_state (
+                    calendar_id TEXT PRIMARY KEY,
+                    sync_token TEXT,
+                    last_full_sync_at TIMESTAMP,
+                    last_synced_at TIMESTAMP
+                );
+            """);
+        }
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS public.calendar_sync_state;");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018190100AddMedicineApplicationsCalendarIdIndex implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018190100_add_medicine_applications_calendar_id_index";
+    }
+
+    @Override
+    public boolean transactional() {
+        // CREATE INDEX CONCURRENTLY não pode rodar dentro de transação
+        return false;
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        // Sincronização do Google Calendar (CalendarSyncController.applyChanges): evento alterado -> aplicação
+        MigrationRunner.createIndexConcurrently(conn, "idx_medicine_applications_google_calendar_id",
+                """
+                ON public.medicine_applications (google_calendar_id)
+                WHERE google_calendar_id IS NOT NULL
+                """);
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX IF EXISTS public.idx_medicine_applications_google_calendar_id;");
+        }
+    }
+}
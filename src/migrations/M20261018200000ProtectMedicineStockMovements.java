@@ -0,0 +1,60 @@
+package migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class M20261018200000ProtectMedicineStockMovements implements Migration {
+
+    @Override
+    public String name() {
+        return "20261018200000_protect_medicine_stock_movements";
+    }
+
+    @Override
+    public void up(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // O livro também não aceita remoções: correções entram como ajuste
+            st.execute("DROP TRIGGER IF EXISTS trg_medicine_stock_movements_append_only ON public.medicine_stock_movements;");
+            st.execute("""
+                CREATE TRIGGER trg_medicine_stock_movements_append_only
+                    BEFORE UPDATE OR DELETE ON public.medicine_stock_movements
+                    FOR EACH ROW EXECUTE FUNCTION public.medicine_stock_movements_append_only();
+            """);
+
+            // Remover o medicamento não pode levar o histórico junto: medicamentos com movimentações
+            // são inativados (MedicineController.delete). Os snapshots continuam em cascata,
+            // já que um medicamento sem movimentações tem só o saldo inicial
+            st.execute("""
+                ALTER TABLE public.medicine_stock_movements
+                    DROP CONSTRAINT IF EXISTS medicine_stock_movements_medicine_uuid_fkey;
+            """);
+            st.execute("""
+                ALTER TABLE public.medicine_stock_movements
+                    ADD CONSTRAINT medicine_stock_movements_medicine_uuid_fkey
+                    FOREIGN KEY (medicine_uuid) REFERENCES public.medicines(uuid) ON DELETE RESTRICT;
+            """);
+        }
+    }
+
+    @Override
+    public void down(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                ALTER TABLE public.medicine_stock_movements
+                    DROP CONSTRAINT IF EXISTS medicine_stock_movements_medicine_uuid_fkey;
+            """);
+            st.execute("""
+                ALTER TABLE public.medicine_stock_movements
+                    ADD CONSTRAINT medicine_stock_movements_medicine_uuid_fkey
+                    FOREIGN KEY (medicine_uuid) REFERENCES public.medicines(uuid) ON DELETE CASCADE;
+            """);
+            st.execute("DROP TRIGGER IF EXISTS trg_medicine_stock_movements_append_only ON public.medicine_stock_movements;");
+            st.execute("""
+                CREATE TRIGGER trg_medicine_stock_movements_append_only
+                    BEFORE UPDATE ON public.medicine_stock_movements
+                    FOR EACH ROW EXECUTE FUNCTION public.medicine_stock_movements_append_only();
+            """);
+        }
+    }
+}
@@ -7,4 +7,15 @@ public interface Migration {
     String name();
     void up(Connection conn) throws SQLException;
     void down(Connection conn) throws SQLException;
+
+    /**
+     * Indica se a migration deve rodar dentro de uma transação.
+     * Migrations com CREATE INDEX CONCURRENTLY precisam retornar false, pois o PostgreSQL
+     * não permite esse comando dentro de um bloco de transação.
+     *
+     * @return true (padrão) para rodar em transação, false para rodar em autocommit
+     */
+    default boolean transactional() {
+        return true;
+    }
 }
@@ -21,22 +21,73 @@ public class MigrationRunner {
         migrations.sort(Comparator.comparing(Migration::name));
         for (Migration m : migrations) {
             if (!isApplied(conn, m.name())) {
-                try {
-                    conn.setAutoCommit(false);
-                    m.up(conn);
-                    markApplied(conn, m.name());
-                    conn.commit();
-                    System.out.println("Applied: " + m.name());
-                } catch (SQLException ex) {
-                    conn.rollback();
-                    throw ex;
-                } finally {
-                    conn.setAutoCommit(true);
+                if (m.transactional()) {
+                    runInTransaction(conn, m);
+                } else {
+                    runWithoutTransaction(conn, m);
                 }
+                System.out.println("Applied: " + m.name());
             }
         }
     }
 
+    /**
+     * Cria um índice com CREATE INDEX CONCURRENTLY, sem bloquear escritas na tabela.
+     * Só pode ser usado em migrations com {@link Migration#transactional()} false.
+     * Se uma execução anterior falhou no meio da criação, o índice inválido que sobrou é removido e recriado.
+     *
+     * @param conn Conexão em autocommit
+     * @param indexName Nome do índice (schema public)
+     * @param definition Restante do comando após o nome, ex: "ON public.animals (name, uuid)"
+     * @throws SQLException Se ocorrer erro na criação do índice
+     */
+    public static void createIndexConcurrently(Connection conn, String indexName, String definition) throws SQLException {
+        Boolean valid = null;
+        try (PreparedStatement ps = conn.prepareStatement("""
+                SELECT i.indisvalid
+                  FROM pg_class c
+                  JOIN pg_index i ON i.indexrelid = c.oid
+                  JOIN pg_namespace n ON n.oid = c.relnamespace
+                 WHERE n.nspname = 'public' AND c.relname = ?
+            """)) {
+            ps.setString(1, indexName);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) valid = rs.getBoolean(1);
+            }
+        }
+        if (Boolean.TRUE.equals(valid)) return;
+
+        // Um comando por execute: vários comandos na mesma string viram uma transação implícita
+        try (Statement st = conn.createStatement()) {
+            if (valid != null) {
+                st.execute("DROP INDEX CONCURRENTLY IF EXISTS public." + indexName);
+            }
+            st.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + indexName + " " + definition);
+        }
+    }
+
+    private static void runInTransaction(Connection conn, Migration m) throws SQLException {
+        try {
+            conn.setAutoCommit(false);
+            m.up(conn);
+            markApplied(conn, m.name());
+            conn.commit();
+        } catch (SQLException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static void runWithoutTransaction(Connection conn, Migration m) throws SQLException {
+        // Cada comando é confirmado isoladamente; a migration deve ser idempotente (IF NOT EXISTS),
+        // pois se falhar no meio será executada de novo na próxima inicialização
+        conn.setAutoCommit(true);
+        m.up(conn);
+        markApplied(conn, m.name());
+    }
+
     private static List<Migration> discover() {
         List<Migration> list = new ArrayList<>();
         String pkgPath = "migrations";
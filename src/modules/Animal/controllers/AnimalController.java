@@ -1,6 +1,7 @@
 package modules.Animal.controllers;
 
 import modules.Animal.models.Animal;
+import modules.Animal.models.AnimalStatistics;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -16,10 +17,34 @@ public class AnimalController {
         VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())
         """;
 
-    private static final String SELECT_SQL = """
+    private static final String SELECT_BY_UUID_SQL = """
         SELECT *
         FROM public.animals
-        ORDER BY name ASC
+        WHERE uuid = ?
+    """;
+
+    // Paginação por keyset: busca a partir do último (name, uuid) já exibido, sem OFFSET
+    private static final String SELECT_FIRST_PAGE_SQL = """
+        SELECT *
+        FROM public.animals
+        ORDER BY name ASC, uuid ASC
+        LIMIT ?
+    """;
+
+    private static final String SELECT_PAGE_AFTER_SQL = """
+        SELECT *
+        FROM public.animals
+        WHERE (name, uuid) > (?, ?)
+        ORDER BY name ASC, uuid ASC
+        LIMIT ?
+    """;
+
+    // Contagem agregada para o dashboard: no máximo uma linha por (status, espécie)
+    private static final String STATISTICS_SQL = """
+        SELECT status, species, COUNT(*) AS total
+        FROM public.animals
+        WHERE status IS NOT NULL
+        GROUP BY status, species
     """;
 
     private static final String UPDATE_SQL = """
@@ -108,56 +133,115 @@ public class AnimalController {
     }
 
     /**
-     * Retorna uma lista com todos os animais cadastrados no banco de dados.
+     * Busca um animal pelo UUID.
      * 
      * @param conn Conexão com o banco de dados
-     * @return Lista de objetos Animal contendo todos os animais cadastrados
+     * @param animalId UUID do animal
+     * @return Animal encontrado, ou null se não existir
      * @throws SQLException Se ocorrer erro na operação do banco de dados
      */
-    public static List<Animal> getAllAnimals(Connection conn) throws SQLException {
-        List<Animal> animals = new ArrayList<>();
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(SELECT_SQL)) {
-            while (rs.next()) {
-                UUID uuid = (UUID) rs.getObject("uuid");
-                String name = rs.getString("name");
-                String sex = rs.getString("sex");
-                String species = rs.getString("species");
-                String breed = rs.getString("breed");
-                String size = rs.getString("size");
-                String color = rs.getString("color");
-                Date birthdate = rs.getDate("birthdate");
-                String microchip = rs.getString("microchip");
-                String rga = rs.getString("rga");
-                boolean castrated = rs.getBoolean("castrated");
-                String fiv = rs.getString("fiv");
-                String felv = rs.getString("felv");
-                String status = rs.getString("status");
-                String notes = rs.getString("notes");
-                Timestamp createdAt = rs.getTimestamp("created_at");
-                Timestamp updatedAt = rs.getTimestamp("updated_at");
-
-                Animal animal = new Animal(
-                        uuid,
-                        name,
-                        sex,
-                        species,
-                        breed,
-                        size,
-                        color,
-                        birthdate != null ? birthdate.toLocalDate() : null,
-                        microchip,
-                        rga,
-                        castrated,
-                        fiv,
-                        felv,
-                        status,
-                        notes,
-                        createdAt != null ? createdAt.toLocalDateTime() : LocalDateTime.now(),
-                        updatedAt != null ? updatedAt.toLocalDateTime() : LocalDateTime.now()
-                );
-                animals.add(animal);
+    public static Animal getAnimalByUuid(Connection conn, UUID animalId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_BY_UUID_SQL)) {
+            ps.setObject(1, animalId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapAnimal(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Retorna uma página de animais ordenada por nome, usando paginação por keyset.
+     * Para a primeira página, passe {@code afterName} e {@code afterUuid} nulos; para as seguintes,
+     * passe o nome e o UUID do último animal da página anterior.
+     * 
+     * @param conn Conexão com o banco de dados
+     * @param afterName Nome do último animal já carregado (ou null para a primeira página)
+     * @param afterUuid UUID do último animal já carregado (ou null para a primeira página)
+     * @param limit Quantidade máxima de animais na página
+     * @return Lista de animais da página (vazia quando não há mais registros)
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static List<Animal> getAnimalsPage(Connection conn, String afterName, UUID afterUuid, int limit) throws SQLException {
+        boolean firstPage = afterName == null || afterUuid == null;
+        List<Animal> animals = new ArrayList<>(limit);
+        try (PreparedStatement ps = conn.prepareStatement(firstPage ? SELECT_FIRST_PAGE_SQL : SELECT_PAGE_AFTER_SQL)) {
+            if (firstPage) {
+                ps.setInt(1, limit);
+            } else {
+                ps.setString(1, afterName);
+                ps.setObject(2, afterUuid);
+                ps.setInt(3, limit);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    animals.add(mapAnimal(rs));
+                }
             }
         }
         return animals;
     }
+
+    /**
+     * Retorna a quantidade de animais por status e espécie, agregada no banco de dados.
+     * 
+     * @param conn Conexão com o banco de dados
+     * @return Estatísticas com as contagens por status e espécie
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static AnimalStatistics getStatistics(Connection conn) throws SQLException {
+        AnimalStatistics statistics = new AnimalStatistics();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(STATISTICS_SQL)) {
+            while (rs.next()) {
+                statistics.put(rs.getString("status"), rs.getString("species"), rs.getInt("total"));
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Converte a linha atual do ResultSet em um objeto Animal.
+     * 
+     * @param rs ResultSet posicionado na linha a ser convertida
+     * @return Animal com os dados da linha
+     * @throws SQLException Se ocorrer erro ao ler as colunas
+     */
+    private static Animal mapAnimal(ResultSet rs) throws SQLException {
+        UUID uuid = (UUID) rs.getObject("uuid");
+        String name = rs.getString("name");
+        String sex = rs.getString("sex");
+        String species = rs.getString("species");
+        String breed = rs.getString("breed");
+        String size = rs.getString("size");
+        String color = rs.getString("color");
+        Date birthdate = rs.getDate("birthdate");
+        String microchip = rs.getString("microchip");
+        String rga = rs.getString("rga");
+        boolean castrated = rs.getBoolean("castrated");
+        String fiv = rs.getString("fiv");
+        String felv = rs.getString("felv");
+        String status = rs.getString("status");
+        String notes = rs.getString("notes");
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+
+        return new Animal(
+                uuid,
+                name,
+                sex,
+                species,
+                breed,
+                size,
+                color,
+                birthdate != null ? birthdate.toLocalDate() : null,
+                microchip,
+                rga,
+                castrated,
+                fiv,
+                felv,
+                status,
+                notes,
+                createdAt != null ? createdAt.toLocalDateTime() : LocalDateTime.now(),
+                updatedAt != null ? updatedAt.toLocalDateTime() : LocalDateTime.now()
+        );
+    }
 }
@@ -0,0 +1,42 @@
+package modules.Animal.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class AnimalStatistics {
+
+    // status -> (espécie -> quantidade)
+    private final Map<String, Map<String, Integer>> counts = new HashMap<>();
+
+    /**
+     * Registra a quantidade de animais de um status e espécie.
+     *
+     * @param status Status do animal ("quarantine", "sheltered", "adopted" ou "lost")
+     * @param species Espécie do animal ("dog" ou "cat")
+     * @param count Quantidade de animais
+     */
+    public void put(String status, String species, int count) {
+        counts.computeIfAbsent(status, s -> new HashMap<>()).put(species, count);
+    }
+
+    /**
+     * Retorna a quantidade de animais de um status e espécie.
+     *
+     * @param status Status do animal
+     * @param species Espécie do animal
+     * @return Quantidade de animais, ou 0 se não houver nenhum
+     */
+    public int count(String status, String species) {
+        return counts.getOrDefault(status, Map.of()).getOrDefault(species, 0);
+    }
+
+    /**
+     * Retorna a quantidade total de animais (cães e gatos) de um status.
+     *
+     * @param status Status do animal
+     * @return Soma das quantidades de cães e gatos do status
+     */
+    public int total(String status) {
+        return count(status, "dog") + count(status, "cat");
+    }
+}
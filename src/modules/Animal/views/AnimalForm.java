@@ -34,7 +34,6 @@ public class AnimalForm extends GridPane {
     private TextArea notesField;
     private ComboBox<String> castratedComboBox;
 
-    private Connection conn;
     private final BorderPane mainLayout;
     private final Animal animalToEdit;
 
@@ -55,12 +54,6 @@ public class AnimalForm extends GridPane {
         // Garante datas e nomes em pt-BR (mês/dia no popup do calendário)
         Locale.setDefault(PT_BR);
 
-        try {
-            this.conn = Database.getConnection();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
         // estilo base
         getStyleClass().add("form-bg");
         setPadding(new Insets(30, 40, 30, 40));
@@ -361,17 +354,18 @@ public class AnimalForm extends GridPane {
             LocalDateTime.now()
         );
 
-        try {
+        try (Connection conn = Database.getConnection()) {
             if (animalToEdit == null) {
                 AnimalController.addAnimal(conn, animal);
             } else {
                 AnimalController.updateAnimal(conn, animal);
             }
-            mainLayout.setCenter(new AnimalView(mainLayout));
         } catch (SQLException e) {
             e.printStackTrace();
             new Alert(Alert.AlertType.ERROR, "Erro ao salvar animal: " + e.getMessage()).showAndWait();
+            return;
         }
+        mainLayout.setCenter(new AnimalView(mainLayout));
     }
 
     /**
@@ -1,12 +1,15 @@
 package modules.Animal.views;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.Group;
+import javafx.scene.Node;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
@@ -18,6 +21,7 @@ import modules.Shared.views.MenuView;
 import modules.Attachment.views.AttachmentView;
 import modules.MedicineApplication.views.MedicineApplicationForm;
 import config.Database;
+import utils.FxAsync;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
@@ -25,13 +29,24 @@ import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class AnimalView extends VBox {
 
+    // Quantidade de animais buscada por vez (paginação por keyset em AnimalController)
+    private static final int PAGE_SIZE = 100;
+
     private TableView<Animal> tableView;
     private ObservableList<Animal> animalList;
-    private Connection conn;
+
+    // Próxima página já buscada em background, aguardando o usuário rolar até o fim da tabela
+    private List<Animal> prefetchedPage;
+    private boolean pageLoading;
+    private boolean showPageWhenLoaded;
+    private boolean lastPageReached;
+    // Barra de rolagem vertical da tabela (criada junto com o skin)
+    private ScrollBar verticalBar;
 
     // Referência ao layout principal para navegação entre telas
     private final BorderPane mainLayout;
@@ -39,14 +54,6 @@ public class AnimalView extends VBox {
     public AnimalView(BorderPane mainLayout) {
         this.mainLayout = mainLayout;
 
-        try {
-            this.conn = Database.getConnection();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            new Alert(Alert.AlertType.ERROR, "Erro ao conectar com o banco de dados.").showAndWait();
-            return;
-        }
-
         initializeComponents();
         setupLayout();
         loadAnimals();
@@ -292,7 +299,7 @@ public class AnimalView extends VBox {
                     Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "Tem certeza que deseja deletar este animal?", ButtonType.YES, ButtonType.NO);
                     alert.showAndWait().ifPresent(response -> {
                         if (response == ButtonType.YES) {
-                            try {
+                            try (Connection conn = Database.getConnection()) {
                                 AnimalController.deleteAnimal(conn, animal.getUuid());
                                 getTableView().getItems().remove(animal);
                             } catch (SQLException e) {
@@ -336,6 +343,40 @@ public class AnimalView extends VBox {
         tableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         tableView.getStyleClass().add("custom-table");
         tableView.setPlaceholder(new Label("Nenhum animal cadastrado"));
+
+        // A barra de rolagem só existe depois que o skin da tabela é criado
+        tableView.skinProperty().addListener((obs, oldSkin, newSkin) -> Platform.runLater(this::attachScrollListener));
+    }
+
+    /**
+     * Exibe a próxima página quando o usuário rola perto do fim da tabela, ou quando a barra de
+     * rolagem some (ex.: janela maximizada) e as linhas já não enchem a tabela.
+     */
+    private void attachScrollListener() {
+        for (Node node : tableView.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                verticalBar = bar;
+                bar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= bar.getMax() * 0.9) showNextPage();
+                });
+                bar.visibleProperty().addListener((obs, wasVisible, visible) -> {
+                    if (!visible) fillViewport();
+                });
+            }
+        }
+        fillViewport();
+    }
+
+    /**
+     * Exibe mais páginas enquanto as linhas não enchem a área visível da tabela (sem barra de rolagem,
+     * o usuário não tem como rolar para pedir a próxima) ou a rolagem já está perto do fim.
+     */
+    private void fillViewport() {
+        if (verticalBar == null || animalList.isEmpty() || (lastPageReached && prefetchedPage == null)) return;
+        // Mede a tabela com as linhas recém-adicionadas antes de decidir
+        tableView.applyCss();
+        tableView.layout();
+        if (!verticalBar.isVisible() || verticalBar.getValue() >= verticalBar.getMax() * 0.9) showNextPage();
     }
 
     /**
@@ -397,20 +438,59 @@ public class AnimalView extends VBox {
     }
 
     /**
-     * Carrega todos os animais do banco de dados e atualiza a tabela.
-     * 
-     * @throws SQLException Se ocorrer erro na operação do banco de dados (tratado internamente com Alert)
+     * Carrega a primeira página de animais em background e atualiza a tabela.
+     * As páginas seguintes são carregadas conforme o usuário rola a tabela.
      */
     private void loadAnimals() {
-        try {
-            List<Animal> animals = AnimalController.getAllAnimals(conn);
-            animalList.clear();
-            animalList.addAll(animals);
-            tableView.setItems(animalList);
-        } catch (SQLException e) {
+        animalList.clear();
+        prefetchedPage = null;
+        lastPageReached = false;
+        showPageWhenLoaded = true;
+        fetchNextPage();
+    }
+
+    /**
+     * Adiciona a página já buscada na tabela e dispara a busca da seguinte (prefetch).
+     * Se a página ainda não chegou, ela é exibida assim que a busca terminar.
+     */
+    private void showNextPage() {
+        if (prefetchedPage == null) {
+            showPageWhenLoaded = true;
+            fetchNextPage();
+            return;
+        }
+        animalList.addAll(prefetchedPage);
+        prefetchedPage = null;
+        fetchNextPage();
+        Platform.runLater(this::fillViewport);
+    }
+
+    /**
+     * Busca em background a página seguinte ao último animal da tabela.
+     * Erros de banco de dados são tratados internamente com Alert.
+     */
+    private void fetchNextPage() {
+        if (pageLoading || lastPageReached || prefetchedPage != null) return;
+        pageLoading = true;
+
+        Animal last = animalList.isEmpty() ? null : animalList.get(animalList.size() - 1);
+        String afterName = last != null ? last.getName() : null;
+        UUID afterUuid = last != null ? last.getUuid() : null;
+
+        FxAsync.load(this, conn -> AnimalController.getAnimalsPage(conn, afterName, afterUuid, PAGE_SIZE), page -> {
+            pageLoading = false;
+            if (page.size() < PAGE_SIZE) lastPageReached = true;
+            prefetchedPage = page;
+            if (showPageWhenLoaded) {
+                showPageWhenLoaded = false;
+                showNextPage();
+            }
+        }, e -> {
+            pageLoading = false;
+            showPageWhenLoaded = false;
             e.printStackTrace();
             new Alert(Alert.AlertType.ERROR, "Erro ao buscar animais: " + e.getMessage()).showAndWait();
-        }
+        });
     }
 
     /**
@@ -2,25 +2,46 @@
 package modules.Attachment.controllers;
 
 import modules.Attachment.models.Attachment;
-import modules.Attachment.services.GoogleDriveOAuthService;
+import modules.Attachment.services.AttachmentDeletionWorker;
+import modules.Attachment.services.AttachmentStorages;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class AttachmentController {
 
     private static final String INSERT_SQL = """
         INSERT INTO public.attachments
-        (file, description, animal_uuid, created_at)
-        VALUES (?, ?, ?, now())
+        (file, description, animal_uuid, content_hash, created_at)
+        VALUES (?, ?, ?, ?, now())
         """;
 
     private static final String SELECT_BY_ANIMAL_SQL = "SELECT * FROM public.attachments WHERE animal_uuid = ?";
 
-    private static final String DELETE_SQL = "DELETE FROM public.attachments WHERE uuid = ?";
+    private static final String DELETE_SQL = "DELETE FROM public.attachments WHERE uuid = ? RETURNING file, animal_uuid";
+
+    // Deduplicação é por animal, então só anexos do mesmo animal podem compartilhar o arquivo
+    private static final String FILE_STILL_REFERENCED_SQL =
+            "SELECT EXISTS (SELECT 1 FROM public.attachments WHERE animal_uuid = ? AND file = ?)";
+
+    private static final String SELECT_ALL_FILES_SQL = "SELECT DISTINCT file FROM public.attachments";
+
+    // Serializa, por animal e conteúdo, a busca do arquivo e o registro do anexo (ver addAttachmentReusingFile)
+    private static final String LOCK_CONTENT_SQL = "SELECT pg_advisory_xact_lock(hashtext(?))";
+
+    // FOR SHARE: enquanto o novo anexo não for confirmado, a remoção do anexo encontrado espera,
+    // e depois vê o novo anexo e não apaga o arquivo compartilhado
+    private static final String SELECT_FILE_BY_HASH_SQL = """
+        SELECT file
+          FROM public.attachments
+         WHERE animal_uuid = ? AND content_hash = ?
+         LIMIT 1
+           FOR SHARE
+        """;
 
     /**
      * Adiciona um novo anexo ao banco de dados.
@@ -34,43 +55,117 @@ public class AttachmentController {
             ps.setString(1, attachment.getFile());
             ps.setString(2, attachment.getDescription());
             ps.setObject(3, attachment.getAnimalUuid());
+            ps.setString(4, attachment.getContentHash());
             ps.executeUpdate();
         }
     }
 
     /**
-     * Remove um anexo do banco de dados e do Google Drive.
-     * Primeiro busca o anexo para extrair a URL do arquivo e deletá-lo do Google Drive,
-     * depois remove o registro do banco de dados.
+     * Registra o anexo reaproveitando um arquivo já enviado para o animal com o mesmo conteúdo
+     * (attachment.getContentHash()), se houver. A busca trava o anexo encontrado: uma remoção
+     * concorrente dele não apaga o arquivo que o novo anexo passa a usar.
+     * <p>
+     * Antes da busca, a transação trava o par animal/conteúdo até o fim (advisory lock): dois envios
+     * do mesmo arquivo novo não registram o anexo ao mesmo tempo, e o segundo encontra o arquivo do primeiro.
+     * A trava não cobre o upload, que fica fora da transação; por isso, depois do upload,
+     * o anexo deve ser registrado também por aqui, e o arquivo enviado descartado se outro envio
+     * tiver chegado antes.
+     * Deve ser chamado dentro de uma transação.
+     * 
+     * @param conn Conexão com o banco de dados (dentro de uma transação)
+     * @param attachment Anexo a ser registrado; recebe a URL do arquivo reaproveitado
+     * @return true se o anexo foi registrado, false se o conteúdo ainda não foi enviado (nada é gravado)
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static boolean addAttachmentReusingFile(Connection conn, Attachment attachment) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(LOCK_CONTENT_SQL)) {
+            ps.setString(1, "attachment:" + attachment.getAnimalUuid() + ":" + attachment.getContentHash());
+            ps.execute();
+        }
+
+        String file;
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_FILE_BY_HASH_SQL)) {
+            ps.setObject(1, attachment.getAnimalUuid());
+            ps.setString(2, attachment.getContentHash());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return false;
+                file = rs.getString("file");
+            }
+        }
+        attachment.setFile(file);
+        addAttachment(conn, attachment);
+        return true;
+    }
+
+    /**
+     * Remove um anexo do banco de dados e registra a remoção do seu arquivo do armazenamento
+     * (Google Drive ou diretório local), feita em background pelo {@link AttachmentDeletionWorker}.
+     * O arquivo só é removido do armazenamento se nenhum outro anexo (deduplicado) ainda apontar para ele.
      * 
      * @param conn Conexão com o banco de dados
      * @param attachmentId UUID do anexo a ser removido
      * @throws SQLException Se ocorrer erro na operação do banco de dados
      */
     public static void deleteAttachment(Connection conn, UUID attachmentId) throws SQLException {
-        // Primeiro, busca o anexo para obter a URL do arquivo e deletá-lo do Google Drive
-        String selectSql = "SELECT file FROM public.attachments WHERE uuid = ?";
-        
-        try (PreparedStatement selectPs = conn.prepareStatement(selectSql)) {
-            selectPs.setObject(1, attachmentId);
-            try (ResultSet rs = selectPs.executeQuery()) {
-                if (rs.next()) {
-                    String url = rs.getString("file");
-                    // Deleta o arquivo do Google Drive se for um link válido
-                    if (url != null && url.contains("drive.google.com")) {
-                        String fileUuid = GoogleDriveOAuthService.extractFileIdFromUrl(url);
-                        if (fileUuid != null) {
-                            GoogleDriveOAuthService.deleteFile(fileUuid);
-                        }
+        boolean autoCommit = conn.getAutoCommit();
+        boolean enqueued = false;
+        conn.setAutoCommit(false);
+        try {
+            String url = null;
+            UUID animalId = null;
+            try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
+                ps.setObject(1, attachmentId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        url = rs.getString("file");
+                        animalId = (UUID) rs.getObject("animal_uuid");
                     }
                 }
             }
+
+            // Registra a remoção do arquivo na mesma transação, se a referência for de um
+            // armazenamento conhecido e não houver outro anexo usando
+            if (url != null && AttachmentStorages.forReference(url) != null && !isFileReferenced(conn, animalId, url)) {
+                AttachmentDeletionOutboxController.enqueue(conn, url, animalId);
+                enqueued = true;
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            conn.setAutoCommit(autoCommit);
         }
-        
-        // Agora remove o registro do banco de dados
-        try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
-            ps.setObject(1, attachmentId);
-            ps.executeUpdate();
+
+        if (enqueued) AttachmentDeletionWorker.wakeUp();
+    }
+
+    private static boolean isFileReferenced(Connection conn, UUID animalId, String url) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(FILE_STILL_REFERENCED_SQL)) {
+            ps.setObject(1, animalId);
+            ps.setString(2, url);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Percorre as referências de arquivo de todos os anexos, sem carregar a tabela inteira na memória.
+     * Deve ser chamado dentro de uma transação: só assim o driver do PostgreSQL busca as linhas aos poucos.
+     * 
+     * @param conn Conexão com o banco de dados (dentro de uma transação)
+     * @param consumer Recebe cada referência (URL) distinta
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void forEachFile(Connection conn, Consumer<String> consumer) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_ALL_FILES_SQL)) {
+            ps.setFetchSize(5000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getString("file"));
+                }
+            }
         }
     }
 
@@ -100,6 +195,7 @@ public class AttachmentController {
                             animalId,
                             createdAt != null ? createdAt.toLocalDateTime() : LocalDateTime.now()
                     );
+                    attachment.setContentHash(rs.getString("content_hash"));
                     attachments.add(attachment);
                 }
             }
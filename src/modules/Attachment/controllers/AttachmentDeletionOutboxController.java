@@ -0,0 +1,130 @@
+package modules.Attachment.controllers;
+
+import modules.Attachment.models.AttachmentDeletionEntry;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class AttachmentDeletionOutboxController {
+
+    private static final String ENQUEUE_SQL = """
+        INSERT INTO public.attachment_deletion_outbox (file, animal_uuid)
+        VALUES (?, ?)
+    """;
+
+    // Reserva um lote por um tempo (lease) em um único comando, como no outbox do Google Calendar.
+    // Um anexo enviado depois pode ter reaproveitado o arquivo (deduplicação): isso vem junto na reserva
+    private static final String CLAIM_SQL = """
+        WITH claimed AS (
+            UPDATE public.attachment_deletion_outbox o
+               SET next_attempt_at = now() + (? * interval '1 second')
+             WHERE o.uuid IN (
+                   SELECT uuid
+                     FROM public.attachment_deletion_outbox
+                    WHERE next_attempt_at <= now()
+                      AND attempts < ?
+                    ORDER BY created_at
+                    LIMIT ?
+                      FOR UPDATE SKIP LOCKED
+             )
+            RETURNING o.uuid, o.file, o.animal_uuid, o.attempts, o.created_at
+        )
+        SELECT c.uuid, c.file, c.animal_uuid, c.attempts,
+               EXISTS (SELECT 1 FROM public.attachments a
+                        WHERE a.animal_uuid = c.animal_uuid AND a.file = c.file) AS still_referenced
+          FROM claimed c
+         ORDER BY c.created_at
+    """;
+
+    private static final String DELETE_SQL = "DELETE FROM public.attachment_deletion_outbox WHERE uuid = ?";
+
+    private static final String MARK_FAILED_SQL = """
+        UPDATE public.attachment_deletion_outbox
+           SET attempts = attempts + 1,
+               next_attempt_at = now() + (? * interval '1 second'),
+               last_error = ?
+         WHERE uuid = ?
+    """;
+
+    /**
+     * Registra a remoção pendente de um arquivo do armazenamento.
+     * Deve ser chamado na mesma transação que remove o anexo.
+     *
+     * @param conn Conexão com o banco de dados (dentro da transação do anexo)
+     * @param file Referência (URL) do arquivo
+     * @param animalUuid UUID do animal ao qual o arquivo pertencia
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void enqueue(Connection conn, String file, UUID animalUuid) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(ENQUEUE_SQL)) {
+            ps.setString(1, file);
+            ps.setObject(2, animalUuid);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Reserva um lote de remoções pendentes cujo horário de nova tentativa já chegou.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param limit Tamanho máximo do lote
+     * @param maxAttempts Remoções com essa quantidade de tentativas não são mais reservadas
+     * @param leaseSeconds Tempo durante o qual o lote fica reservado para este worker
+     * @return Remoções reservadas, na ordem em que foram registradas
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static List<AttachmentDeletionEntry> claimBatch(Connection conn, int limit, int maxAttempts, long leaseSeconds) throws SQLException {
+        List<AttachmentDeletionEntry> out = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(CLAIM_SQL)) {
+            ps.setDouble(1, leaseSeconds);
+            ps.setInt(2, maxAttempts);
+            ps.setInt(3, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new AttachmentDeletionEntry(
+                            (UUID) rs.getObject("uuid"),
+                            rs.getString("file"),
+                            (UUID) rs.getObject("animal_uuid"),
+                            rs.getInt("attempts"),
+                            rs.getBoolean("still_referenced")
+                    ));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Conclui uma remoção, tirando-a do outbox.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param outboxUuid UUID do registro no outbox
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void markDone(Connection conn, UUID outboxUuid) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
+            ps.setObject(1, outboxUuid);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Registra a falha de uma tentativa e agenda a próxima.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param outboxUuid UUID do registro no outbox
+     * @param error Mensagem de erro da tentativa
+     * @param retryInSeconds Atraso até a próxima tentativa
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void markFailed(Connection conn, UUID outboxUuid, String error, long retryInSeconds) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(MARK_FAILED_SQL)) {
+            ps.setDouble(1, retryInSeconds);
+            ps.setString(2, error);
+            ps.setObject(3, outboxUuid);
+            ps.executeUpdate();
+        }
+    }
+}
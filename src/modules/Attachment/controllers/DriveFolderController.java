@@ -0,0 +1,69 @@
+package modules.Attachment.controllers;
+
+import java.sql.*;
+import java.util.UUID;
+
+public class DriveFolderController {
+
+    private static final String SELECT_SQL = "SELECT folder_id FROM public.animal_drive_folders WHERE animal_uuid = ?";
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO public.animal_drive_folders (animal_uuid, folder_id)
+        VALUES (?, ?)
+        ON CONFLICT (animal_uuid) DO UPDATE
+           SET folder_id = EXCLUDED.folder_id,
+               created_at = now()
+    """;
+
+    // Só remove se ainda for a mesma pasta, para não apagar uma pasta recém-gravada por outra estação
+    private static final String DELETE_SQL = "DELETE FROM public.animal_drive_folders WHERE animal_uuid = ? AND folder_id = ?";
+
+    /**
+     * Busca o ID da pasta do animal no Google Drive.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param animalUuid UUID do animal
+     * @return ID da pasta no Google Drive, ou null se ainda não foi registrada
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static String findFolderId(Connection conn, UUID animalUuid) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_SQL)) {
+            ps.setObject(1, animalUuid);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString("folder_id") : null;
+            }
+        }
+    }
+
+    /**
+     * Registra (ou substitui) o ID da pasta do animal no Google Drive.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param animalUuid UUID do animal
+     * @param folderId ID da pasta no Google Drive
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void saveFolderId(Connection conn, UUID animalUuid, String folderId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(UPSERT_SQL)) {
+            ps.setObject(1, animalUuid);
+            ps.setString(2, folderId);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Remove o registro da pasta do animal (usado quando o Google Drive informa que ela não existe mais).
+     *
+     * @param conn Conexão com o banco de dados
+     * @param animalUuid UUID do animal
+     * @param folderId ID da pasta que não existe mais
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void deleteFolderId(Connection conn, UUID animalUuid, String folderId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
+            ps.setObject(1, animalUuid);
+            ps.setString(2, folderId);
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package modules.Attachment.controllers;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.UUID;
+
+public class UploadSessionController {
+
+    // O Google Drive descarta sessões de upload após uma semana; usamos uma margem
+    private static final String SELECT_SQL = """
+        SELECT session_uri
+          FROM public.attachment_upload_sessions
+         WHERE animal_uuid = ? AND file_path = ? AND file_size = ? AND file_modified_at = ?
+           AND created_at > now() - interval '6 days'
+    """;
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO public.attachment_upload_sessions (animal_uuid, file_path, file_size, file_modified_at, session_uri)
+        VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (animal_uuid, file_path, file_size, file_modified_at) DO UPDATE
+           SET session_uri = EXCLUDED.session_uri,
+               created_at = now()
+    """;
+
+    private static final String DELETE_SQL = """
+        DELETE FROM public.attachment_upload_sessions
+         WHERE animal_uuid = ? AND file_path = ? AND file_size = ? AND file_modified_at = ?
+    """;
+
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM public.attachment_upload_sessions WHERE created_at <= now() - interval '6 days'";
+
+    /**
+     * Busca a sessão de upload ainda válida de um arquivo.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param animalUuid UUID do animal
+     * @param filePath Caminho absoluto do arquivo
+     * @param fileSize Tamanho do arquivo em bytes
+     * @param fileModifiedAt Data de modificação do arquivo
+     * @return URI da sessão de upload, ou null se não houver sessão válida
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static String findSessionUri(Connection conn, UUID animalUuid, String filePath, long fileSize,
+                                        Instant fileModifiedAt) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_SQL)) {
+            bindFile(ps, animalUuid, filePath, fileSize, fileModifiedAt);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString("session_uri") : null;
+            }
+        }
+    }
+
+    /**
+     * Registra a sessão de upload de um arquivo, descartando as sessões já expiradas.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param animalUuid UUID do animal
+     * @param filePath Caminho absoluto do arquivo
+     * @param fileSize Tamanho do arquivo em bytes
+     * @param fileModifiedAt Data de modificação do arquivo
+     * @param sessionUri URI da sessão de upload no Google Drive
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void saveSessionUri(Connection conn, UUID animalUuid, String filePath, long fileSize,
+                                      Instant fileModifiedAt, String sessionUri) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate(DELETE_EXPIRED_SQL);
+        }
+        try (PreparedStatement ps = conn.prepareStatement(UPSERT_SQL)) {
+            bindFile(ps, animalUuid, filePath, fileSize, fileModifiedAt);
+            ps.setString(5, sessionUri);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Remove a sessão de upload de um arquivo (upload concluído, cancelado ou sessão expirada).
+     *
+     * @param conn Conexão com o banco de dados
+     * @param animalUuid UUID do animal
+     * @param filePath Caminho absoluto do arquivo
+     * @param fileSize Tamanho do arquivo em bytes
+     * @param fileModifiedAt Data de modificação do arquivo
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void deleteSession(Connection conn, UUID animalUuid, String filePath, long fileSize,
+                                     Instant fileModifiedAt) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
+            bindFile(ps, animalUuid, filePath, fileSize, fileModifiedAt);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void bindFile(PreparedStatement ps, UUID animalUuid, String filePath, long fileSize,
+                                 Instant fileModifiedAt) throws SQLException {
+        ps.setObject(1, animalUuid);
+        ps.setString(2, filePath);
+        ps.setLong(3, fileSize);
+        ps.setTimestamp(4, Timestamp.from(fileModifiedAt));
+    }
+}
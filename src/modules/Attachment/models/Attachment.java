@@ -10,6 +10,7 @@ public class Attachment {
     private String description;
     private UUID animalUuid;
     private LocalDateTime createdAt;
+    private String contentHash;
 
     /**
      * Construtor da classe Attachment.
@@ -97,4 +98,18 @@ public class Attachment {
      * @param createdAt Data de criação do registro
      */
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    /**
+     * Retorna o hash SHA-256 do conteúdo do arquivo.
+     * 
+     * @return Hash em hexadecimal, ou null para anexos enviados antes do cálculo de hash
+     */
+    public String getContentHash() { return contentHash; }
+
+    /**
+     * Define o hash SHA-256 do conteúdo do arquivo.
+     * 
+     * @param contentHash Hash em hexadecimal
+     */
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
 }
@@ -0,0 +1,64 @@
+package modules.Attachment.models;
+
+import java.util.UUID;
+
+public class AttachmentDeletionEntry {
+
+    private final UUID uuid;
+    private final String file;
+    private final UUID animalUuid;
+    private final int attempts;
+    private final boolean stillReferenced;
+
+    /**
+     * Construtor da classe AttachmentDeletionEntry.
+     *
+     * @param uuid UUID do registro no outbox
+     * @param file Referência (URL) do arquivo a ser removido do armazenamento
+     * @param animalUuid UUID do animal ao qual o arquivo pertencia
+     * @param attempts Quantidade de tentativas já feitas
+     * @param stillReferenced Indica se algum anexo voltou a usar o arquivo depois do pedido de remoção
+     */
+    public AttachmentDeletionEntry(UUID uuid, String file, UUID animalUuid, int attempts, boolean stillReferenced) {
+        this.uuid = uuid;
+        this.file = file;
+        this.animalUuid = animalUuid;
+        this.attempts = attempts;
+        this.stillReferenced = stillReferenced;
+    }
+
+    /**
+     * Retorna o UUID do registro no outbox.
+     *
+     * @return UUID do registro
+     */
+    public UUID getUuid() { return uuid; }
+
+    /**
+     * Retorna a referência do arquivo a ser removido.
+     *
+     * @return Referência (URL) do arquivo
+     */
+    public String getFile() { return file; }
+
+    /**
+     * Retorna o UUID do animal ao qual o arquivo pertencia.
+     *
+     * @return UUID do animal
+     */
+    public UUID getAnimalUuid() { return animalUuid; }
+
+    /**
+     * Retorna a quantidade de tentativas já feitas.
+     *
+     * @return Quantidade de tentativas
+     */
+    public int getAttempts() { return attempts; }
+
+    /**
+     * Indica se algum anexo voltou a usar o arquivo (deduplicação) depois do pedido de remoção.
+     *
+     * @return true se o arquivo não deve mais ser removido
+     */
+    public boolean isStillReferenced() { return stillReferenced; }
+}
@@ -0,0 +1,109 @@
+package modules.Attachment.services;
+
+import config.BackgroundJobs;
+import config.Database;
+import modules.Attachment.controllers.AttachmentDeletionOutboxController;
+import modules.Attachment.models.AttachmentDeletionEntry;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Worker que drena a tabela attachment_deletion_outbox, removendo do armazenamento
+ * (Google Drive ou diretório local) os arquivos dos anexos já excluídos do banco.
+ */
+public class AttachmentDeletionWorker {
+
+    private static final int BATCH_SIZE = 50;
+    private static final long POLL_INTERVAL_SECONDS = 60;
+    // Tempo que um lote fica reservado; se o worker morrer no meio, outro retoma depois disso
+    private static final long LEASE_SECONDS = 300;
+
+    // Backoff exponencial: 30s, 60s, 120s... até 6h; depois de MAX_ATTEMPTS a remoção fica parada
+    // no outbox (com last_error) para análise manual
+    private static final long BASE_BACKOFF_SECONDS = 30;
+    private static final long MAX_BACKOFF_SECONDS = 6 * 3600;
+    private static final int MAX_ATTEMPTS = 20;
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static final AtomicBoolean running = new AtomicBoolean();
+    private static volatile boolean drainRequested;
+
+    /**
+     * Inicia o polling periódico do outbox. Chamadas repetidas são ignoradas.
+     */
+    public static void start() {
+        if (!started.compareAndSet(false, true)) return;
+        BackgroundJobs.scheduleWithFixedDelay("attachment-deletion", AttachmentDeletionWorker::drain,
+                0, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Pede uma drenagem imediata (chamado após registrar uma remoção no outbox),
+     * sem esperar o próximo ciclo de polling.
+     */
+    public static void wakeUp() {
+        if (started.get()) BackgroundJobs.execute("attachment-deletion", AttachmentDeletionWorker::drain);
+    }
+
+    /**
+     * Processa lotes até o outbox não ter mais remoções prontas.
+     * Execuções concorrentes são coalescidas: quem chega durante uma drenagem só pede mais uma rodada.
+     */
+    private static void drain() {
+        drainRequested = true;
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            while (drainRequested) {
+                drainRequested = false;
+                List<AttachmentDeletionEntry> batch;
+                do {
+                    batch = Database.withConnection(conn ->
+                            AttachmentDeletionOutboxController.claimBatch(conn, BATCH_SIZE, MAX_ATTEMPTS, LEASE_SECONDS));
+                    for (AttachmentDeletionEntry entry : batch) {
+                        process(entry);
+                    }
+                } while (batch.size() == BATCH_SIZE);
+            }
+        } catch (SQLException e) {
+            System.err.println("Falha ao ler o outbox de remoção de anexos: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Remove um arquivo do armazenamento e registra o resultado no banco.
+     *
+     * @param entry Remoção reservada do outbox
+     * @throws SQLException Se ocorrer erro ao registrar o resultado
+     */
+    private static void process(AttachmentDeletionEntry entry) throws SQLException {
+        // Reaproveitado por um anexo novo, ou de um armazenamento que não existe mais: nada a remover
+        AttachmentStorage storage = AttachmentStorages.forReference(entry.getFile());
+        boolean done = entry.isStillReferenced() || storage == null || storage.delete(entry.getFile());
+
+        Database.withConnection(conn -> {
+            if (done) {
+                AttachmentDeletionOutboxController.markDone(conn, entry.getUuid());
+            } else {
+                long retryIn = backoffSeconds(entry.getAttempts());
+                System.err.println("Falha ao remover o arquivo " + entry.getFile() + " (tentativa "
+                        + (entry.getAttempts() + 1) + ", nova tentativa em " + retryIn + "s)");
+                AttachmentDeletionOutboxController.markFailed(conn, entry.getUuid(),
+                        "Não foi possível remover o arquivo do armazenamento", retryIn);
+            }
+            return null;
+        });
+    }
+
+    private static long backoffSeconds(int attempts) {
+        long delay = BASE_BACKOFF_SECONDS << Math.min(attempts, 20);
+        delay = Math.min(delay, MAX_BACKOFF_SECONDS);
+        // Jitter de até 20% para as estações não tentarem todas ao mesmo tempo
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+}
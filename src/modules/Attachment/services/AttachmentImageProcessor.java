@@ -0,0 +1,385 @@
+package modules.Attachment.services;
+
+import config.Env;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Etapa de pré-processamento de imagens antes do upload: reduz fotos grandes para uma dimensão
+ * máxima, recomprime JPEGs e remove os metadados EXIF (inclusive localização GPS).
+ * A orientação EXIF é aplicada nos pixels antes de ser removida, para a foto não ficar deitada.
+ * Também gera as miniaturas dos anexos guardados em diretório local ({@link #writeThumbnail}).
+ */
+public class AttachmentImageProcessor {
+
+    // Maior lado da imagem após a redução (0 desativa a redução)
+    private static final int MAX_DIMENSION = Env.intValue("ATTACHMENT_IMAGE_MAX_DIMENSION", 2048, 0);
+    private static final float JPEG_QUALITY = envQuality("ATTACHMENT_JPEG_QUALITY", 0.85f);
+
+    /**
+     * Resultado do processamento de um arquivo.
+     */
+    public static class Result {
+        private final File file;
+        private final long originalBytes;
+        private final long processedBytes;
+        private final Path temporaryDirectory;
+
+        private Result(File file, long originalBytes, long processedBytes, Path temporaryDirectory) {
+            this.file = file;
+            this.originalBytes = originalBytes;
+            this.processedBytes = processedBytes;
+            this.temporaryDirectory = temporaryDirectory;
+        }
+
+        /**
+         * Retorna o arquivo a ser enviado (o processado, ou o original se o processamento não compensou).
+         *
+         * @return Arquivo a ser enviado
+         */
+        public File getFile() { return file; }
+
+        /**
+         * Retorna o tamanho do arquivo original.
+         *
+         * @return Tamanho em bytes
+         */
+        public long getOriginalBytes() { return originalBytes; }
+
+        /**
+         * Retorna o tamanho do arquivo a ser enviado.
+         *
+         * @return Tamanho em bytes
+         */
+        public long getProcessedBytes() { return processedBytes; }
+
+        /**
+         * Retorna quantos bytes deixaram de ser enviados.
+         *
+         * @return Bytes economizados (0 se o original for enviado)
+         */
+        public long getBytesSaved() { return originalBytes - processedBytes; }
+
+        /**
+         * Remove o arquivo temporário gerado pelo processamento, se houver.
+         * Deve ser chamado depois do upload.
+         */
+        public void deleteTemporaryFile() {
+            if (temporaryDirectory != null) deleteTemporary(temporaryDirectory, file);
+        }
+    }
+
+    /**
+     * Processa um arquivo antes do upload. PDFs e imagens que não podem ser lidas são enviados como estão.
+     * O arquivo processado mantém o nome do original (em um diretório temporário), para o Drive
+     * receber o mesmo nome e extensão.
+     *
+     * @param file Arquivo selecionado pelo usuário
+     * @return Resultado com o arquivo a ser enviado
+     */
+    public static Result process(File file) {
+        long originalBytes = file.length();
+        String format = formatOf(file.getName());
+        if (format == null) return new Result(file, originalBytes, originalBytes, null);
+
+        Path tempDir = null;
+        try {
+            Exif exif = "jpeg".equals(format) ? readExif(file) : Exif.NONE;
+
+            BufferedImage image = readScaled(file, format, MAX_DIMENSION);
+            if (image == null) return new Result(file, originalBytes, originalBytes, null);
+            boolean resized = Math.max(image.getWidth(), image.getHeight()) < maxSourceDimension(file);
+            image = applyOrientation(image, exif.orientation);
+
+            tempDir = Files.createTempDirectory("friendly-paw-upload-");
+            File output = tempDir.resolve(file.getName()).toFile();
+            if ("jpeg".equals(format)) {
+                writeJpeg(toRgb(image), output);
+            } else {
+                ImageIO.write(image, "png", output);
+            }
+
+            long processedBytes = output.length();
+            // Sem redução, só compensa se ficou menor ou se havia EXIF a remover
+            if (!resized && !exif.present && processedBytes >= originalBytes) {
+                deleteTemporary(tempDir, output);
+                return new Result(file, originalBytes, originalBytes, null);
+            }
+            return new Result(output, originalBytes, processedBytes, tempDir);
+        } catch (Exception e) {
+            // Ex.: JPEG CMYK, arquivo corrompido: envia o original
+            System.err.println("Não foi possível otimizar " + file.getName() + ": " + e.getMessage());
+            if (tempDir != null) deleteTemporary(tempDir, tempDir.resolve(file.getName()).toFile());
+            return new Result(file, originalBytes, originalBytes, null);
+        }
+    }
+
+    /**
+     * Gera a miniatura de um anexo em JPEG: imagens reduzidas (com a orientação EXIF aplicada)
+     * e a primeira página de PDFs.
+     *
+     * @param file Arquivo do anexo
+     * @param size Maior lado da miniatura em pixels
+     * @param output Arquivo onde a miniatura é gravada
+     * @return true se a miniatura foi gravada, false se o formato não tem prévia
+     * @throws IOException Se o arquivo não puder ser lido ou a miniatura não puder ser gravada
+     */
+    public static boolean writeThumbnail(File file, int size, File output) throws IOException {
+        BufferedImage image;
+        if (file.getName().toLowerCase().endsWith(".pdf")) {
+            image = renderFirstPage(file, size);
+        } else {
+            String format = formatOf(file.getName());
+            if (format == null) return false;
+            image = readScaled(file, format, size);
+            if (image != null && "jpeg".equals(format)) image = applyOrientation(image, readExif(file).orientation);
+        }
+        if (image == null) return false;
+        writeJpeg(toRgb(image), output);
+        return true;
+    }
+
+    /**
+     * Renderiza a primeira página de um PDF com o maior lado em {@code size} pixels.
+     */
+    private static BufferedImage renderFirstPage(File file, int size) throws IOException {
+        try (PDDocument document = Loader.loadPDF(file)) {
+            if (document.getNumberOfPages() == 0) return null;
+            PDRectangle box = document.getPage(0).getCropBox();
+            float longest = Math.max(box.getWidth(), box.getHeight());
+            float scale = longest > 0 ? size / longest : 1f;
+            return new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    private static void deleteTemporary(Path directory, File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            System.err.println("Erro ao remover arquivo temporário: " + e.getMessage());
+        }
+    }
+
+    private static String formatOf(String fileName) {
+        String ext = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
+        return switch (ext) {
+            case "jpg", "jpeg" -> "jpeg";
+            case "png" -> "png";
+            default -> null;
+        };
+    }
+
+    private static int maxSourceDimension(File file) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = firstReader(iis);
+            if (reader == null) return 0;
+            try {
+                reader.setInput(iis, true, true);
+                return Math.max(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Lê a imagem já reduzida para {@code maxDimension} (0 não reduz). Imagens muito maiores que o limite
+     * são lidas com subamostragem (sem decodificar todos os pixels), mantendo pelo menos o dobro do
+     * tamanho final para a redução suave seguinte não perder qualidade.
+     */
+    private static BufferedImage readScaled(File file, String format, int maxDimension) throws IOException {
+        BufferedImage image;
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+            ImageReader reader = firstReader(iis);
+            if (reader == null) return null;
+            try {
+                reader.setInput(iis, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (maxDimension > 0) {
+                    int subsampling = Math.max(1, longest / (maxDimension * 2));
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        if (maxDimension <= 0) return image;
+        boolean hasAlpha = image.getColorModel().hasAlpha() && !"jpeg".equals(format);
+        // Reduções pela metade até ficar perto do limite, depois o ajuste final
+        while (Math.max(image.getWidth(), image.getHeight()) > maxDimension * 2) {
+            image = resize(image, image.getWidth() / 2, image.getHeight() / 2, hasAlpha);
+        }
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        if (longest > maxDimension) {
+            double scale = (double) maxDimension / longest;
+            image = resize(image,
+                    Math.max(1, (int) Math.round(image.getWidth() * scale)),
+                    Math.max(1, (int) Math.round(image.getHeight() * scale)),
+                    hasAlpha);
+        }
+        return image;
+    }
+
+    private static ImageReader firstReader(ImageInputStream iis) {
+        if (iis == null) return null;
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+        return readers.hasNext() ? readers.next() : null;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height, boolean hasAlpha) {
+        BufferedImage out = new BufferedImage(width, height,
+                hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) return image;
+        BufferedImage out = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setColor(Color.WHITE); // JPEG não tem transparência
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static void writeJpeg(BufferedImage image, File output) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            // Sem metadados: o EXIF original não é copiado
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Aplica a orientação EXIF (1 a 8) nos pixels.
+     */
+    private static BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) return image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform t = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);   // espelhada na horizontal
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);  // 180°
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);   // espelhada na vertical
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);    // transposta
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);   // 90° horário
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);  // transversa
+            default -> new AffineTransform(0, -1, 1, 0, 0, w);  // 90° anti-horário
+        };
+        boolean swap = orientation >= 5;
+        BufferedImage out = new BufferedImage(swap ? h : w, swap ? w : h,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.drawImage(image, t, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private record Exif(boolean present, int orientation) {
+        static final Exif NONE = new Exif(false, 1);
+    }
+
+    /**
+     * Procura o segmento APP1/EXIF do JPEG e lê a tag de orientação (0x0112) do IFD0.
+     */
+    private static Exif readExif(File file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readUnsignedShort() != 0xFFD8) return Exif.NONE;
+            while (true) {
+                int marker = in.readUnsignedShort();
+                // Início dos dados da imagem (SOS) ou fim: não há EXIF
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) return Exif.NONE;
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) return Exif.NONE;
+                if (marker == 0xFFE1 && length > 14) {
+                    byte[] data = new byte[length];
+                    in.readFully(data);
+                    if (data[0] == 'E' && data[1] == 'x' && data[2] == 'i' && data[3] == 'f' && data[4] == 0 && data[5] == 0) {
+                        return new Exif(true, readOrientation(data, 6));
+                    }
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return Exif.NONE;
+        }
+    }
+
+    private static int readOrientation(byte[] data, int tiffStart) {
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        buf.order(data[tiffStart] == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiffStart + buf.getInt(tiffStart + 4);
+        if (ifd < tiffStart || ifd + 2 > data.length) return 1;
+        int entries = buf.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > data.length) break;
+            if ((buf.getShort(entry) & 0xFFFF) == 0x0112) return buf.getShort(entry + 8) & 0xFFFF;
+        }
+        return 1;
+    }
+
+    private static float envQuality(String name, float fallback) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) return fallback;
+        try {
+            float quality = Float.parseFloat(value.trim());
+            return quality > 0 && quality <= 1 ? quality : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package modules.Attachment.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Onde os arquivos dos anexos ficam guardados. A referência devolvida por {@link #store}
+ * é o que fica salvo na coluna file de attachments (uma URL que pode ser aberta no navegador).
+ * A implementação em uso é escolhida por {@link AttachmentStorages}.
+ */
+public interface AttachmentStorage {
+
+    /**
+     * Recebe o progresso de um upload. Lançar uma exceção interrompe o upload.
+     */
+    @FunctionalInterface
+    interface UploadProgressListener {
+        /**
+         * Chamado quando o progresso do upload muda.
+         * 
+         * @param fraction Fração já enviada (0.0 a 1.0)
+         * @throws IOException Para interromper o upload (ex.: cancelamento pelo usuário)
+         */
+        void progressChanged(double fraction) throws IOException;
+    }
+
+    /**
+     * Armazena um arquivo como anexo de um animal.
+     * 
+     * @param file Arquivo a ser armazenado
+     * @param animalId UUID do animal ao qual o arquivo pertence
+     * @param progressListener Recebe o progresso do envio; pode interromper o upload lançando exceção
+     * @return Referência (URL) do arquivo armazenado
+     * @throws IOException Se o arquivo não existir, o formato não for suportado, ocorrer erro no envio
+     *         ou o envio for interrompido pelo listener
+     */
+    String store(File file, UUID animalId, UploadProgressListener progressListener) throws IOException;
+
+    /**
+     * Remove um arquivo armazenado.
+     * Este método trata exceções internamente e não as propaga.
+     * 
+     * @param reference Referência devolvida por {@link #store}
+     * @return true se o arquivo foi removido com sucesso, false caso contrário
+     */
+    boolean delete(String reference);
+
+    /**
+     * Indica se uma referência pertence a este armazenamento.
+     * 
+     * @param reference Referência salva no anexo
+     * @return true se o arquivo está guardado neste armazenamento
+     */
+    boolean handles(String reference);
+
+    /**
+     * Busca uma miniatura do arquivo em disco, fora da thread que chamou.
+     * 
+     * @param reference Referência devolvida por {@link #store}
+     * @param size Maior lado da miniatura em pixels
+     * @return Future com o caminho de uma imagem local, ou null se não houver miniatura para o arquivo
+     */
+    CompletableFuture<Path> thumbnail(String reference, int size);
+}
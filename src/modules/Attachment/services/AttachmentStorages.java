@@ -0,0 +1,70 @@
+package modules.Attachment.services;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Escolhe o armazenamento dos anexos pela variável de ambiente ATTACHMENT_STORAGE:
+ * "drive" (padrão) envia ao Google Drive; "local" grava em ATTACHMENT_STORAGE_DIR,
+ * que pode ser um disco local ou um compartilhamento de rede (NAS).
+ */
+public final class AttachmentStorages {
+
+    private static final AttachmentStorage DRIVE = new DriveAttachmentStorage();
+    private static final AttachmentStorage LOCAL = new LocalAttachmentStorage(localRoot());
+    private static final AttachmentStorage CURRENT = "local".equalsIgnoreCase(env("ATTACHMENT_STORAGE")) ? LOCAL : DRIVE;
+
+    private AttachmentStorages() { }
+
+    /**
+     * Retorna o armazenamento usado para novos anexos.
+     * 
+     * @return Armazenamento configurado
+     */
+    public static AttachmentStorage current() {
+        return CURRENT;
+    }
+
+    /**
+     * Retorna o armazenamento onde está um arquivo já salvo. Anexos antigos continuam
+     * acessíveis mesmo depois de trocar o armazenamento configurado.
+     * 
+     * @param reference Referência salva no anexo
+     * @return Armazenamento do arquivo, ou null se a referência não for de nenhum deles
+     */
+    public static AttachmentStorage forReference(String reference) {
+        if (reference == null || reference.isBlank()) return null;
+        if (DRIVE.handles(reference)) return DRIVE;
+        if (LOCAL.handles(reference)) return LOCAL;
+        return null;
+    }
+
+    /**
+     * Determina o tipo MIME do arquivo baseado na extensão.
+     * Aceita apenas: PNG, JPEG, JPG e PDF.
+     * 
+     * @param fileName Nome do arquivo (com ou sem caminho completo)
+     * @return String representando o tipo MIME do arquivo
+     * @throws IllegalArgumentException Se o formato do arquivo não for suportado
+     */
+    static String getMimeType(String fileName) {
+        String ext = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
+        return switch (ext) {
+            case "jpg", "jpeg" -> "image/jpeg";
+            case "png" -> "image/png";
+            case "pdf" -> "application/pdf";
+            default -> throw new IllegalArgumentException("Formato não suportado: " + ext + ". Aceito apenas: PNG, JPEG, JPG, PDF");
+        };
+    }
+
+    private static Path localRoot() {
+        String dir = env("ATTACHMENT_STORAGE_DIR");
+        if (dir != null && !dir.isBlank()) return Paths.get(dir);
+        return Paths.get(System.getProperty("user.home"), "friendly-paw", "anexos-dos-animais");
+    }
+
+    private static String env(String name) {
+        String value = System.getenv(name);
+        return value != null ? value.trim() : null;
+    }
+}
@@ -0,0 +1,231 @@
+package modules.Attachment.services;
+
+import config.Database;
+import config.Env;
+import modules.Attachment.controllers.AttachmentController;
+import modules.Attachment.models.Attachment;
+import utils.FileHashing;
+
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fila de upload de anexos: otimiza as imagens e envia os arquivos ao armazenamento em background,
+ * com poucos uploads em paralelo, e só registra o anexo no banco depois que o envio terminou.
+ */
+public class AttachmentUploadQueue {
+
+    // Poucos uploads simultâneos: mais que isso só divide a banda de upload entre eles
+    private static final int THREADS = Env.intValue("ATTACHMENT_UPLOAD_THREADS", 3, 1);
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ThreadFactory THREAD_FACTORY = runnable -> {
+        Thread t = new Thread(runnable, "attachment-upload-" + THREAD_COUNTER.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    };
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            THREADS, THREADS,
+            30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            THREAD_FACTORY
+    );
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Recebe os eventos de um upload. Os métodos são chamados na thread do upload,
+     * não na JavaFX Application Thread.
+     */
+    public interface Listener {
+        /**
+         * Chamado quando a imagem foi otimizada, antes do envio.
+         *
+         * @param originalBytes Tamanho do arquivo original
+         * @param processedBytes Tamanho do arquivo que será enviado
+         */
+        default void onProcessed(long originalBytes, long processedBytes) { }
+
+        /**
+         * Chamado quando o mesmo conteúdo já estava armazenado para o animal e o arquivo
+         * existente foi reaproveitado, sem novo upload.
+         */
+        default void onReused() { }
+
+        /**
+         * Chamado quando o progresso do envio muda.
+         *
+         * @param fraction Fração já enviada (0.0 a 1.0)
+         */
+        void onProgress(double fraction);
+
+        /**
+         * Chamado quando o arquivo foi enviado e o anexo registrado no banco.
+         *
+         * @param attachment Anexo registrado
+         */
+        void onSuccess(Attachment attachment);
+
+        /**
+         * Chamado quando o envio ou o registro do anexo falhou.
+         *
+         * @param error Causa da falha
+         */
+        void onFailure(Throwable error);
+
+        /**
+         * Chamado quando o upload foi cancelado.
+         */
+        void onCancelled();
+    }
+
+    /**
+     * Upload enfileirado, que pode ser cancelado enquanto não terminou.
+     */
+    public static class UploadTask {
+        private final File file;
+        private volatile boolean cancelled;
+
+        private UploadTask(File file) {
+            this.file = file;
+        }
+
+        /**
+         * Retorna o arquivo do upload.
+         *
+         * @return Arquivo sendo enviado
+         */
+        public File getFile() { return file; }
+
+        /**
+         * Cancela o upload. Se ainda estiver na fila, ele nem começa; se estiver em andamento,
+         * é interrompido na próxima parte enviada e o arquivo parcial é descartado.
+         */
+        public void cancel() {
+            // Só marca: a própria thread do upload percebe e notifica o listener
+            cancelled = true;
+        }
+
+        /**
+         * Indica se o upload foi cancelado.
+         *
+         * @return true se o upload foi cancelado
+         */
+        public boolean isCancelled() { return cancelled; }
+    }
+
+    /**
+     * Enfileira o upload de um arquivo como anexo de um animal.
+     *
+     * @param file Arquivo a ser enviado
+     * @param animalUuid UUID do animal ao qual o anexo pertence
+     * @param description Descrição do anexo (pode ser null)
+     * @param optimizeImages Se true, imagens são reduzidas e recomprimidas antes do envio
+     * @param listener Recebe o progresso e o resultado do upload
+     * @return Upload enfileirado
+     */
+    public static UploadTask submit(File file, UUID animalUuid, String description, boolean optimizeImages,
+                                    Listener listener) {
+        UploadTask task = new UploadTask(file);
+        EXECUTOR.execute(() -> run(task, animalUuid, description, optimizeImages, listener));
+        return task;
+    }
+
+    private static void run(UploadTask task, UUID animalUuid, String description, boolean optimizeImages,
+                            Listener listener) {
+        if (task.isCancelled()) {
+            listener.onCancelled();
+            return;
+        }
+
+        AttachmentStorage storage = AttachmentStorages.current();
+        AttachmentImageProcessor.Result processed = null;
+        Attachment attachment = new Attachment(null, null, description, animalUuid, LocalDateTime.now());
+        String fileUrl = null;
+        boolean reused;
+        try {
+            // Hash do arquivo original: o mesmo arquivo enviado de novo é reconhecido antes de qualquer processamento.
+            // A busca e o registro do anexo reaproveitado ficam na mesma transação (ver addAttachmentReusingFile)
+            attachment.setContentHash(FileHashing.sha256Hex(task.getFile()));
+            if (task.isCancelled()) throw new InterruptedIOException("Upload cancelado");
+            reused = Database.inTransaction(conn ->
+                    AttachmentController.addAttachmentReusingFile(conn, attachment));
+
+            if (!reused) {
+                File toUpload = task.getFile();
+                if (optimizeImages) {
+                    processed = AttachmentImageProcessor.process(toUpload);
+                    toUpload = processed.getFile();
+                    listener.onProcessed(processed.getOriginalBytes(), processed.getProcessedBytes());
+                }
+                fileUrl = storage.store(toUpload, animalUuid, fraction -> {
+                    if (task.isCancelled()) throw new InterruptedIOException("Upload cancelado");
+                    listener.onProgress(fraction);
+                });
+            }
+        } catch (Exception e) {
+            if (task.isCancelled()) {
+                listener.onCancelled();
+            } else {
+                listener.onFailure(e);
+            }
+            return;
+        } finally {
+            if (processed != null) processed.deleteTemporaryFile();
+        }
+
+        if (reused) {
+            listener.onReused();
+            listener.onSuccess(attachment);
+            return;
+        }
+
+        // Cancelado depois do envio, ou falha ao registrar: remove o arquivo enviado agora para não
+        // deixar órfão no armazenamento
+        if (task.isCancelled()) {
+            storage.delete(fileUrl);
+            listener.onCancelled();
+            return;
+        }
+
+        String uploadedUrl = fileUrl;
+        try {
+            // Outro envio do mesmo conteúdo (outra estação, ou o mesmo arquivo escolhido duas vezes) pode ter
+            // registrado o anexo durante este upload: nesse caso o arquivo dele é usado e o enviado agora descartado
+            reused = Database.inTransaction(conn -> {
+                if (AttachmentController.addAttachmentReusingFile(conn, attachment)) return true;
+                attachment.setFile(uploadedUrl);
+                AttachmentController.addAttachment(conn, attachment);
+                return false;
+            });
+        } catch (Exception e) {
+            storage.delete(fileUrl);
+            listener.onFailure(e);
+            return;
+        }
+        if (reused) {
+            storage.delete(fileUrl);
+            listener.onReused();
+        }
+        listener.onSuccess(attachment);
+    }
+
+    /**
+     * Encerra a fila, interrompendo os uploads em andamento.
+     * Chamado no encerramento da aplicação.
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+}
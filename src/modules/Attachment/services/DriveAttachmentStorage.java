@@ -0,0 +1,45 @@
+package modules.Attachment.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Anexos no Google Drive, na pasta anexos-dos-animais/{animalId}.
+ * A referência é o link de visualização do arquivo no Drive.
+ */
+class DriveAttachmentStorage implements AttachmentStorage {
+
+    @Override
+    public String store(File file, UUID animalId, UploadProgressListener progressListener) throws IOException {
+        try {
+            return GoogleDriveOAuthService.uploadFile(file, animalId, progressListener);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Erro de autenticação no Google Drive: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean delete(String reference) {
+        // Chamado pelo AttachmentDeletionWorker em background: sem autorização salva, falha (e é tentado
+        // de novo depois, possivelmente por outra estação) em vez de abrir o login no navegador
+        if (!GoogleDriveOAuthService.isAuthorized()) return false;
+        String fileUuid = GoogleDriveOAuthService.extractFileIdFromUrl(reference);
+        return fileUuid != null && GoogleDriveOAuthService.deleteFile(fileUuid);
+    }
+
+    @Override
+    public boolean handles(String reference) {
+        return reference != null && reference.contains("drive.google.com");
+    }
+
+    @Override
+    public CompletableFuture<Path> thumbnail(String reference, int size) {
+        String fileUuid = GoogleDriveOAuthService.extractFileIdFromUrl(reference);
+        if (fileUuid == null) return CompletableFuture.completedFuture(null);
+        return ThumbnailCache.get(fileUuid, size);
+    }
+}
@@ -0,0 +1,211 @@
+package modules.Attachment.services;
+
+import config.BackgroundJobs;
+import config.Database;
+import config.Env;
+import modules.Attachment.controllers.AttachmentController;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Job que procura arquivos órfãos na árvore "anexos-dos-animais" do Google Drive: arquivos que
+ * nenhum anexo do banco referencia mais (remoções que falharam, animais excluídos etc.).
+ * Conforme DRIVE_ORPHAN_RECONCILIATION, só relata os órfãos ("report", padrão), também os remove
+ * ("delete") ou fica desligado ("off").
+ */
+public class DriveOrphanReconciler {
+
+    private static final String MODE = envMode();
+    private static final long INTERVAL_HOURS = Env.longValue("DRIVE_ORPHAN_RECONCILIATION_HOURS", 24, 1);
+    // Espera a aplicação terminar de abrir antes da primeira execução
+    private static final long INITIAL_DELAY_MINUTES = 10;
+
+    // Um arquivo recém-enviado só é registrado no banco quando o upload termina:
+    // arquivos mais novos que isso nunca são considerados órfãos
+    private static final long GRACE_PERIOD_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    // Pastas de animais consultadas por listagem (a consulta vira um "or" de parents)
+    private static final int FOLDERS_PER_LISTING = 50;
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Resultado de uma reconciliação.
+     */
+    public static class Report {
+        private int foldersScanned;
+        private long filesScanned;
+        private long orphans;
+        private long orphanBytes;
+        private long deleted;
+        private long failed;
+
+        /**
+         * Retorna a quantidade de pastas percorridas.
+         *
+         * @return Quantidade de pastas
+         */
+        public int getFoldersScanned() { return foldersScanned; }
+
+        /**
+         * Retorna a quantidade de arquivos listados no Google Drive.
+         *
+         * @return Quantidade de arquivos
+         */
+        public long getFilesScanned() { return filesScanned; }
+
+        /**
+         * Retorna a quantidade de arquivos órfãos encontrados.
+         *
+         * @return Quantidade de órfãos
+         */
+        public long getOrphans() { return orphans; }
+
+        /**
+         * Retorna o espaço ocupado pelos arquivos órfãos.
+         *
+         * @return Tamanho total dos órfãos em bytes
+         */
+        public long getOrphanBytes() { return orphanBytes; }
+
+        /**
+         * Retorna a quantidade de órfãos removidos.
+         *
+         * @return Quantidade de arquivos removidos
+         */
+        public long getDeleted() { return deleted; }
+
+        /**
+         * Retorna a quantidade de órfãos que não puderam ser removidos.
+         *
+         * @return Quantidade de falhas
+         */
+        public long getFailed() { return failed; }
+
+        @Override
+        public String toString() {
+            return foldersScanned + " pastas, " + filesScanned + " arquivos, " + orphans + " órfãos ("
+                    + (orphanBytes / (1024 * 1024)) + " MB), " + deleted + " removidos, " + failed + " falhas";
+        }
+    }
+
+    /**
+     * Agenda a reconciliação periódica, a não ser que esteja desligada. Chamadas repetidas são ignoradas.
+     */
+    public static void start() {
+        if ("off".equals(MODE) || !started.compareAndSet(false, true)) return;
+        BackgroundJobs.scheduleLongRunning("drive-orphan-reconciliation", () -> {
+            try {
+                reconcile("delete".equals(MODE));
+            } catch (Exception e) {
+                System.err.println("Falha na reconciliação de arquivos órfãos do Google Drive: " + e.getMessage());
+            }
+        }, TimeUnit.MINUTES.toSeconds(INITIAL_DELAY_MINUTES), TimeUnit.HOURS.toSeconds(INTERVAL_HOURS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Compara os arquivos da árvore de anexos no Google Drive com os anexos do banco. Só uma estação
+     * por vez faz a reconciliação; nas demais, a execução é ignorada.
+     *
+     * @param deleteOrphans Se true, os órfãos são removidos do Drive; se false, só contados e relatados
+     * @return Resultado da reconciliação, ou null se ela não foi executada
+     * @throws Exception Se ocorrer erro ao ler o banco ou o Google Drive
+     */
+    public static Report reconcile(boolean deleteOrphans) throws Exception {
+        // Estação sem autorização do Drive salva: a listagem abriria o login no navegador sem
+        // ninguém ter pedido. Fica para uma estação autorizada
+        if (!GoogleDriveOAuthService.isAuthorized()) {
+            System.out.println("Reconciliação do Google Drive ignorada: esta estação não tem autorização do Drive salva");
+            return null;
+        }
+        if (!running.compareAndSet(false, true)) return null;
+        try {
+            Optional<Report> report = Database.runExclusively("drive-orphan-reconciliation",
+                    () -> Optional.ofNullable(scan(deleteOrphans)));
+            if (report == null) {
+                System.out.println("Reconciliação do Google Drive ignorada: em execução em outra estação");
+                return null;
+            }
+            return report.orElse(null);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Faz a reconciliação (ver {@link #reconcile}).
+     *
+     * @return Resultado, ou null se a reconciliação foi interrompida
+     */
+    private static Report scan(boolean deleteOrphans) throws Exception {
+        Set<String> knownFileIds = loadKnownFileIds();
+        // Sem nenhum anexo no Drive, todo arquivo pareceria órfão (ex.: banco errado ou vazio):
+        // não arrisca e nem chega a abrir o Drive
+        if (knownFileIds.isEmpty()) {
+            System.out.println("Reconciliação do Google Drive ignorada: nenhum anexo no Drive registrado no banco");
+            return null;
+        }
+
+        Report report = new Report();
+        String root = GoogleDriveOAuthService.getAttachmentsFolderId();
+        List<String> folders = new ArrayList<>();
+        folders.add(root); // arquivos soltos na raiz também contam
+        GoogleDriveOAuthService.listChildren(List.of(root), true, "id", folder -> folders.add(folder.getId()));
+        report.foldersScanned = folders.size();
+
+        long cutoff = System.currentTimeMillis() - GRACE_PERIOD_MILLIS;
+        for (int start = 0; start < folders.size(); start += FOLDERS_PER_LISTING) {
+            List<String> chunk = folders.subList(start, Math.min(start + FOLDERS_PER_LISTING, folders.size()));
+            // Remove só depois de listar o grupo todo: apagar no meio da paginação pode pular itens
+            List<String> orphans = new ArrayList<>();
+            GoogleDriveOAuthService.listChildren(chunk, false, "id,name,createdTime,size", file -> {
+                report.filesScanned++;
+                if (knownFileIds.contains(file.getId())) return;
+                if (file.getCreatedTime() == null || file.getCreatedTime().getValue() > cutoff) return;
+                report.orphans++;
+                report.orphanBytes += file.getSize() != null ? file.getSize() : 0;
+                orphans.add(file.getId());
+                if (!deleteOrphans) System.out.println("Arquivo órfão no Google Drive: " + file.getId() + " (" + file.getName() + ")");
+            });
+
+            if (deleteOrphans && !orphans.isEmpty()) {
+                List<String> failed = GoogleDriveOAuthService.deleteFiles(orphans);
+                report.deleted += orphans.size() - failed.size();
+                report.failed += failed.size();
+            }
+        }
+
+        System.out.println("Reconciliação do Google Drive (" + (deleteOrphans ? "remoção" : "relatório") + "): " + report);
+        return report;
+    }
+
+    /**
+     * Carrega os IDs de todos os arquivos do Google Drive referenciados por anexos.
+     */
+    private static Set<String> loadKnownFileIds() throws SQLException {
+        Set<String> ids = new HashSet<>();
+        Database.inTransaction(conn -> {
+            AttachmentController.forEachFile(conn, file -> {
+                String id = GoogleDriveOAuthService.extractFileIdFromUrl(file);
+                if (id != null && file.contains("drive.google.com")) ids.add(id);
+            });
+            return null;
+        });
+        return ids;
+    }
+
+    private static String envMode() {
+        String value = System.getenv("DRIVE_ORPHAN_RECONCILIATION");
+        if (value == null || value.isBlank()) return "report";
+        value = value.trim().toLowerCase();
+        return value.equals("delete") || value.equals("off") ? value : "report";
+    }
+}
@@ -0,0 +1,274 @@
+package modules.Attachment.services;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.EmptyContent;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.json.JsonHttpContent;
+import com.google.api.services.drive.Drive;
+import com.google.api.services.drive.model.File;
+import config.Database;
+import config.Env;
+import modules.Attachment.controllers.UploadSessionController;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Upload resumable para o Google Drive feito direto sobre o protocolo HTTP, em partes.
+ * A URI da sessão fica salva em attachment_upload_sessions: se a conexão cair ou a aplicação
+ * for reiniciada, enviar o mesmo arquivo de novo continua de onde o Drive parou.
+ */
+class DriveResumableUpload {
+
+    private static final String UPLOAD_URL =
+            "https://www.googleapis.com/upload/drive/v3/files?uploadType=resumable&fields=id,webViewLink";
+
+    // O protocolo exige partes múltiplas de 256 KB (exceto a última)
+    private static final int CHUNK_GRANULARITY = 256 * 1024;
+    static final int CHUNK_SIZE = chunkSizeFromEnv();
+
+    // Erros transitórios (rede, 5xx, 429) são repetidos com backoff exponencial
+    private static final int MAX_RETRIES = 8;
+    private static final long BASE_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private static final int STATUS_RESUME_INCOMPLETE = 308;
+
+    private final Drive service;
+    private final HttpRequestFactory requestFactory;
+    private final java.io.File file;
+    private final String mimeType;
+    private final UUID animalId;
+    private final AttachmentStorage.UploadProgressListener progressListener;
+
+    private final String filePath;
+    private final long fileSize;
+    private final Instant fileModifiedAt;
+
+    DriveResumableUpload(Drive service, java.io.File file, String mimeType, UUID animalId,
+                         AttachmentStorage.UploadProgressListener progressListener) {
+        this.service = service;
+        this.requestFactory = service.getRequestFactory();
+        this.file = file;
+        this.mimeType = mimeType;
+        this.animalId = animalId;
+        this.progressListener = progressListener;
+        this.filePath = file.getAbsolutePath();
+        this.fileSize = file.length();
+        this.fileModifiedAt = Instant.ofEpochMilli(file.lastModified());
+    }
+
+    /**
+     * Envia o arquivo, retomando a sessão salva se houver uma.
+     *
+     * @param metadata Metadados do arquivo no Drive (nome e pasta), usados só se uma nova sessão for criada
+     * @return Arquivo criado no Drive (id e webViewLink)
+     * @throws IOException Se o upload falhar, inclusive depois de esgotar as novas tentativas,
+     *         ou se for interrompido pelo listener de progresso
+     */
+    File upload(File metadata) throws IOException {
+        String sessionUri = loadSessionUri();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // Offset desconhecido (-1): pergunta ao Drive quanto ele já recebeu
+            long offset = sessionUri != null ? -1 : 0;
+            int retries = 0;
+
+            while (true) {
+                ChunkResult result;
+                try {
+                    if (sessionUri == null) {
+                        sessionUri = startSession(metadata);
+                        offset = 0;
+                    }
+                    result = offset < 0 ? queryStatus(sessionUri) : sendChunk(sessionUri, channel, offset);
+                    retries = 0;
+                } catch (IOException e) {
+                    if (!isTransient(e) || ++retries > MAX_RETRIES) throw e;
+                    System.err.println("Falha transitória no upload de " + file.getName() + " (tentativa "
+                            + retries + "): " + e.getMessage());
+                    sleep(backoffMillis(retries));
+                    offset = -1;
+                    continue;
+                }
+
+                if (result == null) {
+                    // Sessão expirada ou descartada pelo Drive: recomeça do zero
+                    deleteSessionUri();
+                    sessionUri = null;
+                    continue;
+                }
+                if (result.file != null) {
+                    deleteSessionUri();
+                    progressListener.progressChanged(1.0);
+                    return result.file;
+                }
+
+                offset = result.nextOffset;
+                try {
+                    progressListener.progressChanged(fileSize == 0 ? 0.0 : (double) offset / fileSize);
+                } catch (IOException e) {
+                    // Interrompido (ex.: cancelado pelo usuário): a sessão não deve ser retomada depois
+                    deleteSessionUri();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Resultado de uma requisição na sessão: o arquivo criado (upload concluído)
+     * ou o próximo byte que o Drive espera receber.
+     */
+    private record ChunkResult(long nextOffset, File file) { }
+
+    private String startSession(File metadata) throws IOException {
+        HttpRequest request = requestFactory.buildPostRequest(new GenericUrl(UPLOAD_URL),
+                new JsonHttpContent(service.getJsonFactory(), metadata));
+        request.getHeaders().set("X-Upload-Content-Type", mimeType);
+        request.getHeaders().set("X-Upload-Content-Length", fileSize);
+        HttpResponse response = execute(request);
+        try {
+            if (!response.isSuccessStatusCode()) {
+                throw GoogleJsonResponseException.from(service.getJsonFactory(), response);
+            }
+            String sessionUri = response.getHeaders().getLocation();
+            if (sessionUri == null) throw new IOException("Google Drive não retornou a URI da sessão de upload");
+            saveSessionUri(sessionUri);
+            return sessionUri;
+        } finally {
+            response.disconnect();
+        }
+    }
+
+    private ChunkResult sendChunk(String sessionUri, FileChannel channel, long offset) throws IOException {
+        int length = (int) Math.min(CHUNK_SIZE, fileSize - offset);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Arquivo alterado durante o upload: " + file.getName());
+            }
+        }
+
+        HttpRequest request = requestFactory.buildPutRequest(new GenericUrl(sessionUri),
+                new ByteArrayContent(mimeType, buffer.array()));
+        request.getHeaders().setContentRange(length == 0
+                ? "bytes */" + fileSize
+                : "bytes " + offset + "-" + (offset + length - 1) + "/" + fileSize);
+        return handleSessionResponse(execute(request));
+    }
+
+    private ChunkResult queryStatus(String sessionUri) throws IOException {
+        HttpRequest request = requestFactory.buildPutRequest(new GenericUrl(sessionUri), new EmptyContent());
+        request.getHeaders().setContentRange("bytes */" + fileSize);
+        return handleSessionResponse(execute(request));
+    }
+
+    private ChunkResult handleSessionResponse(HttpResponse response) throws IOException {
+        try {
+            int status = response.getStatusCode();
+            if (status == 200 || status == 201) {
+                return new ChunkResult(fileSize, response.parseAs(File.class));
+            }
+            if (status == STATUS_RESUME_INCOMPLETE) {
+                // Range: bytes=0-N → o Drive já tem até o byte N; sem Range, não recebeu nada
+                String range = response.getHeaders().getRange();
+                long next = range == null ? 0 : Long.parseLong(range.substring(range.lastIndexOf('-') + 1)) + 1;
+                return new ChunkResult(next, null);
+            }
+            if (status == 404 || status == 410) return null;
+            throw new HttpResponseException(response);
+        } finally {
+            response.disconnect();
+        }
+    }
+
+    private HttpRequest configure(HttpRequest request) {
+        // Erros e o 308 (que aqui não é redirecionamento) são tratados por esta classe;
+        // a credencial continua renovando o token e repetindo a requisição em caso de 401
+        return request.setThrowExceptionOnExecuteError(false)
+                .setFollowRedirects(false)
+                .setParser(service.getObjectParser());
+    }
+
+    private HttpResponse execute(HttpRequest request) throws IOException {
+        return configure(request).execute();
+    }
+
+    private static boolean isTransient(IOException e) {
+        if (e instanceof HttpResponseException http) {
+            int status = http.getStatusCode();
+            return status >= 500 || status == 429;
+        }
+        if (e instanceof EOFException) return false; // arquivo local mudou: não adianta repetir
+        // Erros de rede (conexão recusada, timeout, reset) podem ser retomados
+        return true;
+    }
+
+    private static long backoffMillis(int retries) {
+        long delay = Math.min(BASE_BACKOFF_MILLIS << Math.min(retries - 1, 10), MAX_BACKOFF_MILLIS);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Upload interrompido");
+        }
+    }
+
+    private String loadSessionUri() {
+        try {
+            return Database.withConnection(conn ->
+                    UploadSessionController.findSessionUri(conn, animalId, filePath, fileSize, fileModifiedAt));
+        } catch (SQLException e) {
+            // Sem a sessão salva o upload só recomeça do zero
+            System.err.println("Erro ao buscar sessão de upload: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveSessionUri(String sessionUri) {
+        try {
+            Database.withConnection(conn -> {
+                UploadSessionController.saveSessionUri(conn, animalId, filePath, fileSize, fileModifiedAt, sessionUri);
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Erro ao salvar sessão de upload: " + e.getMessage());
+        }
+    }
+
+    private void deleteSessionUri() {
+        try {
+            Database.withConnection(conn -> {
+                UploadSessionController.deleteSession(conn, animalId, filePath, fileSize, fileModifiedAt);
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Erro ao remover sessão de upload: " + e.getMessage());
+        }
+    }
+
+    private static int chunkSizeFromEnv() {
+        int kb = Env.intValue("DRIVE_UPLOAD_CHUNK_SIZE_KB", 1024, 1);
+        // Arredonda para cima até um múltiplo de 256 KB
+        long bytes = kb * 1024L;
+        long chunks = (bytes + CHUNK_GRANULARITY - 1) / CHUNK_GRANULARITY;
+        return (int) Math.min(chunks * CHUNK_GRANULARITY, 64L * 1024 * 1024);
+    }
+}
@@ -1,6 +1,10 @@
 package modules.Attachment.services;
 
 import com.google.api.client.auth.oauth2.*;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.client.http.*;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
@@ -10,15 +14,22 @@ import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.DriveScopes;
 import com.google.api.services.drive.model.FileList;
 import com.google.api.services.drive.model.Permission;
+import config.Database;
+import modules.Attachment.controllers.DriveFolderController;
 
 import java.io.*;
 import java.net.InetSocketAddress;
 import com.sun.net.httpserver.HttpServer;
 import java.security.GeneralSecurityException;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class GoogleDriveOAuthService {
     
@@ -26,11 +37,18 @@ public class GoogleDriveOAuthService {
     private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
     private static final String TOKENS_DIRECTORY_PATH = "tokens";
     private static final String FOLDER_NAME = "anexos-dos-animais";
+    private static final String FOLDER_MIME_TYPE = "application/vnd.google-apps.folder";
+
+    // Limites da API do Google Drive: itens por página na listagem e requisições por batch
+    private static final int LIST_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 100;
     
     // OAuth 2.0 credentials
     private static final String GOOGLE_CLIENT_ID = System.getenv("GOOGLE_DRIVE_CLIENT_ID");
     private static final String GOOGLE_CLIENT_SECRET = System.getenv("GOOGLE_DRIVE_CLIENT_SECRET");
     private static final String REDIRECT_URI = "http://localhost:3000/oauth2callback";
+    // Tempo máximo esperando o usuário autorizar no navegador
+    private static final long AUTHORIZATION_TIMEOUT_MINUTES = 5;
     
     private static final List<String> SCOPES = Arrays.asList(
         DriveScopes.DRIVE, 
@@ -38,8 +56,14 @@ public class GoogleDriveOAuthService {
     );
     
     private static Drive driveService;
-    private static String friendlyPawFolderUuid = null;
-    private static Credential credential;
+    private static volatile String friendlyPawFolderUuid = null;
+
+    // Cache animal → pasta no Drive. Também fica salvo em animal_drive_folders, para que uploads
+    // seguintes (inclusive após reiniciar a aplicação) não precisem consultar o Drive
+    private static final ConcurrentHashMap<UUID, String> animalFolderIds = new ConcurrentHashMap<>();
+    // Um lock por animal evita que uploads simultâneos criem a mesma pasta duas vezes
+    private static final ConcurrentHashMap<UUID, Object> animalFolderLocks = new ConcurrentHashMap<>();
+    private static volatile Credential credential;
     private static HttpServer localServer;
     
     /**
@@ -81,7 +105,7 @@ public class GoogleDriveOAuthService {
             localServer.start();
             System.out.println("Aguardando autorização no navegador...");
             
-            String code = codeFuture.get();
+            String code = codeFuture.get(AUTHORIZATION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
             return code;
         } catch (Exception e) {
             throw new IOException("Erro ao autorizar: " + e.getMessage());
@@ -106,16 +130,7 @@ public class GoogleDriveOAuthService {
             throw new IllegalStateException("GOOGLE_DRIVE_CLIENT_ID e GOOGLE_DRIVE_CLIENT_SECRET devem estar configuradas");
         }
         
-        HttpTransport httpTransport = new NetHttpTransport.Builder().build();
-        AuthorizationCodeFlow flow = new AuthorizationCodeFlow.Builder(
-            BearerToken.authorizationHeaderAccessMethod(), httpTransport, JSON_FACTORY,
-            new GenericUrl("https://oauth2.googleapis.com/token"),
-            new ClientParametersAuthentication(GOOGLE_CLIENT_ID, GOOGLE_CLIENT_SECRET),
-            GOOGLE_CLIENT_ID, "https://accounts.google.com/o/oauth2/auth")
-            .setScopes(SCOPES)
-            .setDataStoreFactory(new FileDataStoreFactory(new java.io.File(TOKENS_DIRECTORY_PATH)))
-            .build();
-
+        AuthorizationCodeFlow flow = buildFlow();
         Credential storedCredential = flow.loadCredential("user");
         if (storedCredential != null && storedCredential.getRefreshToken() != null) {
             credential = storedCredential;
@@ -137,6 +152,37 @@ public class GoogleDriveOAuthService {
         return credential;
     }
 
+    /**
+     * Verifica, sem abrir o navegador, se esta estação já tem uma autorização do Google Drive salva.
+     * Jobs de background devem chamar antes de usar o Drive: sem autorização, a primeira chamada
+     * abriria o fluxo OAuth interativo sem o usuário ter pedido.
+     * 
+     * @return true se há credencial com refresh token em memória ou salva em disco
+     */
+    public static boolean isAuthorized() {
+        Credential current = credential;
+        if (current != null && current.getRefreshToken() != null) return true;
+        if (GOOGLE_CLIENT_ID == null || GOOGLE_CLIENT_SECRET == null) return false;
+        try {
+            Credential stored = buildFlow().loadCredential("user");
+            return stored != null && stored.getRefreshToken() != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static AuthorizationCodeFlow buildFlow() throws IOException {
+        HttpTransport httpTransport = new NetHttpTransport.Builder().build();
+        return new AuthorizationCodeFlow.Builder(
+            BearerToken.authorizationHeaderAccessMethod(), httpTransport, JSON_FACTORY,
+            new GenericUrl("https://oauth2.googleapis.com/token"),
+            new ClientParametersAuthentication(GOOGLE_CLIENT_ID, GOOGLE_CLIENT_SECRET),
+            GOOGLE_CLIENT_ID, "https://accounts.google.com/o/oauth2/auth")
+            .setScopes(SCOPES)
+            .setDataStoreFactory(new FileDataStoreFactory(new java.io.File(TOKENS_DIRECTORY_PATH)))
+            .build();
+    }
+
     /**
      * Cria ou obtém uma instância do serviço Drive (singleton).
      * Se o serviço já foi inicializado, retorna a instância existente.
@@ -145,7 +191,7 @@ public class GoogleDriveOAuthService {
      * @throws IOException Se ocorrer erro ao obter credenciais
      * @throws GeneralSecurityException Se ocorrer erro na autenticação
      */
-    private static Drive getDriveServiceInstance() throws IOException, GeneralSecurityException {
+    private static synchronized Drive getDriveServiceInstance() throws IOException, GeneralSecurityException {
         if (driveService == null) {
             credential = getCredentials();
             driveService = new Drive.Builder(new NetHttpTransport.Builder().build(), JSON_FACTORY, credential)
@@ -162,11 +208,11 @@ public class GoogleDriveOAuthService {
      * @throws IOException Se ocorrer erro na operação do Google Drive
      * @throws GeneralSecurityException Se ocorrer erro na autenticação
      */
-    private static String getOrCreateFriendlyPawFolder() throws IOException, GeneralSecurityException {
+    private static synchronized String getOrCreateFriendlyPawFolder() throws IOException, GeneralSecurityException {
         if (friendlyPawFolderUuid != null) return friendlyPawFolderUuid;
         
         Drive service = getDriveServiceInstance();
-        String query = "name='" + FOLDER_NAME + "' and mimeType='application/vnd.google-apps.folder' and trashed=false";
+        String query = "name='" + FOLDER_NAME + "' and mimeType='" + FOLDER_MIME_TYPE + "' and trashed=false";
         FileList result = service.files().list().setQ(query).setPageSize(1).execute();
         
         if (result.getFiles() != null && !result.getFiles().isEmpty()) {
@@ -174,7 +220,7 @@ public class GoogleDriveOAuthService {
         } else {
             com.google.api.services.drive.model.File folder = service.files().create(
                 new com.google.api.services.drive.model.File().setName(FOLDER_NAME)
-                    .setMimeType("application/vnd.google-apps.folder"))
+                    .setMimeType(FOLDER_MIME_TYPE))
                 .setFields("id").execute();
             friendlyPawFolderUuid = folder.getId();
             service.permissions().create(folder.getId(), 
@@ -183,6 +229,68 @@ public class GoogleDriveOAuthService {
         return friendlyPawFolderUuid;
     }
 
+    /**
+     * Retorna o ID da pasta do animal, usando o cache em memória e a tabela animal_drive_folders
+     * antes de consultar o Google Drive.
+     * 
+     * @param animalId UUID do animal
+     * @return ID da pasta do animal no Google Drive
+     * @throws IOException Se ocorrer erro na operação do Google Drive
+     * @throws GeneralSecurityException Se ocorrer erro na autenticação
+     */
+    private static String getAnimalFolder(UUID animalId) throws IOException, GeneralSecurityException {
+        String folderId = animalFolderIds.get(animalId);
+        if (folderId != null) return folderId;
+
+        synchronized (animalFolderLocks.computeIfAbsent(animalId, id -> new Object())) {
+            folderId = animalFolderIds.get(animalId);
+            if (folderId != null) return folderId;
+
+            try {
+                folderId = Database.withConnection(conn -> DriveFolderController.findFolderId(conn, animalId));
+            } catch (SQLException e) {
+                // O cache é só uma otimização: sem banco, resolve direto no Drive
+                System.err.println("Erro ao buscar pasta do animal no cache: " + e.getMessage());
+            }
+
+            if (folderId == null) {
+                folderId = getOrCreateAnimalFolder(animalId);
+                String resolved = folderId;
+                try {
+                    Database.withConnection(conn -> {
+                        DriveFolderController.saveFolderId(conn, animalId, resolved);
+                        return null;
+                    });
+                } catch (SQLException e) {
+                    System.err.println("Erro ao salvar pasta do animal no cache: " + e.getMessage());
+                }
+            }
+
+            animalFolderIds.put(animalId, folderId);
+            return folderId;
+        }
+    }
+
+    /**
+     * Descarta a pasta do animal do cache (memória e banco), depois que o Google Drive informou
+     * que ela não existe mais. A pasta raiz também é descartada, pois pode ter sido removida junto.
+     * 
+     * @param animalId UUID do animal
+     * @param folderId ID da pasta que não existe mais
+     */
+    private static void invalidateAnimalFolder(UUID animalId, String folderId) {
+        animalFolderIds.remove(animalId, folderId);
+        friendlyPawFolderUuid = null;
+        try {
+            Database.withConnection(conn -> {
+                DriveFolderController.deleteFolderId(conn, animalId, folderId);
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Erro ao invalidar pasta do animal no cache: " + e.getMessage());
+        }
+    }
+
     /**
      * Busca ou cria a pasta do animal dentro de anexos-dos-animais.
      * A pasta é nomeada com o UUID do animal e criada dentro da pasta "anexos-dos-animais".
@@ -195,7 +303,7 @@ public class GoogleDriveOAuthService {
     private static String getOrCreateAnimalFolder(UUID animalId) throws IOException, GeneralSecurityException {
         Drive service = getDriveServiceInstance();
         String animalFolderName = animalId.toString();
-        String query = "name='" + animalFolderName + "' and mimeType='application/vnd.google-apps.folder' " +
+        String query = "name='" + animalFolderName + "' and mimeType='" + FOLDER_MIME_TYPE + "' " +
                        "and parents in '" + getOrCreateFriendlyPawFolder() + "' and trashed=false";
         
         FileList result = service.files().list().setQ(query).setPageSize(1).execute();
@@ -205,7 +313,7 @@ public class GoogleDriveOAuthService {
         
         com.google.api.services.drive.model.File folder = service.files().create(
             new com.google.api.services.drive.model.File().setName(animalFolderName)
-                .setMimeType("application/vnd.google-apps.folder")
+                .setMimeType(FOLDER_MIME_TYPE)
                 .setParents(Arrays.asList(getOrCreateFriendlyPawFolder())))
             .setFields("id").execute();
         
@@ -227,52 +335,212 @@ public class GoogleDriveOAuthService {
      * @throws IllegalArgumentException Se o formato do arquivo não for suportado (aceito apenas: PNG, JPEG, JPG, PDF)
      */
     public static String uploadFile(java.io.File file, UUID animalId) throws IOException, GeneralSecurityException {
+        return uploadFile(file, animalId, fraction -> { });
+    }
+
+    /**
+     * Upload de arquivo para Google Drive organizado por animal, informando o progresso.
+     * O arquivo herda o compartilhamento público (somente leitura) da pasta do animal,
+     * então não é preciso criar uma permissão para cada arquivo.
+     * 
+     * @param file Arquivo a ser enviado para o Google Drive
+     * @param animalId UUID do animal ao qual o arquivo pertence
+     * @param progressListener Recebe o progresso do envio; pode interromper o upload lançando exceção
+     * @return URL de visualização do arquivo no Google Drive
+     * @throws IOException Se o arquivo não existir, formato não for suportado, ocorrer erro no upload
+     *         ou o upload for interrompido pelo listener
+     * @throws GeneralSecurityException Se ocorrer erro na autenticação
+     */
+    public static String uploadFile(java.io.File file, UUID animalId, AttachmentStorage.UploadProgressListener progressListener)
+            throws IOException, GeneralSecurityException {
         if (file == null || !file.exists()) {
             throw new IOException("Arquivo não existe ou é inválido");
         }
         
         String mimeType;
         try {
-            mimeType = getMimeType(file.getName());
+            mimeType = AttachmentStorages.getMimeType(file.getName());
         } catch (IllegalArgumentException e) {
             throw new IOException("Formato de arquivo não suportado: " + e.getMessage());
         }
         
         Drive service = getDriveServiceInstance();
-        String animalFolderUuid = getOrCreateAnimalFolder(animalId);
+        String animalFolderUuid = getAnimalFolder(animalId);
         
         String fileName = UUID.randomUUID().toString() + "_" + file.getName();
         
-        com.google.api.services.drive.model.File uploadedFile = service.files().create(
-            new com.google.api.services.drive.model.File()
-                .setName(fileName)
-                .setParents(Arrays.asList(animalFolderUuid)),
-            new FileContent(mimeType, file))
-            .setFields("id,webViewLink").execute();
-        
-        service.permissions().create(uploadedFile.getId(), 
-            new Permission().setType("anyone").setRole("reader")).execute();
+        com.google.api.services.drive.model.File uploadedFile;
+        try {
+            uploadedFile = createFile(service, fileName, animalFolderUuid, mimeType, file, animalId, progressListener);
+        } catch (GoogleJsonResponseException e) {
+            if (e.getStatusCode() != 404) throw e;
+            // Pasta em cache removida do Drive: descarta, resolve de novo e tenta mais uma vez
+            invalidateAnimalFolder(animalId, animalFolderUuid);
+            uploadedFile = createFile(service, fileName, getAnimalFolder(animalId), mimeType, file, animalId, progressListener);
+        }
         
         return uploadedFile.getWebViewLink();
     }
 
+    private static com.google.api.services.drive.model.File createFile(
+            Drive service, String fileName, String folderId, String mimeType, java.io.File file,
+            UUID animalId, AttachmentStorage.UploadProgressListener progressListener) throws IOException {
+        com.google.api.services.drive.model.File metadata = new com.google.api.services.drive.model.File()
+                .setName(fileName)
+                .setParents(Arrays.asList(folderId));
+
+        // Arquivos grandes vão em partes, em uma sessão que sobrevive a quedas de conexão e reinícios
+        if (file.length() > DriveResumableUpload.CHUNK_SIZE) {
+            return new DriveResumableUpload(service, file, mimeType, animalId, progressListener).upload(metadata);
+        }
+
+        // Arquivos pequenos vão em uma única requisição
+        progressListener.progressChanged(0.0);
+        com.google.api.services.drive.model.File created = service.files()
+                .create(metadata, new FileContent(mimeType, file))
+                .setFields("id,webViewLink").execute();
+        progressListener.progressChanged(1.0);
+        return created;
+    }
+
     /**
      * Deleta um arquivo do Google Drive pelo seu UUID.
      * Este método trata exceções internamente e não as propaga.
      * 
      * @param fileUuid UUID do arquivo a ser deletado do Google Drive
-     * @return true se o arquivo foi deletado com sucesso, false caso contrário
+     * @return true se o arquivo foi deletado com sucesso (ou já não existia), false caso contrário
      */
     public static boolean deleteFile(String fileUuid) {
         try {
             getDriveServiceInstance().files().delete(fileUuid).execute();
             return true;
+        } catch (GoogleJsonResponseException e) {
+            // Já removido (ex.: nova tentativa depois de uma resposta perdida): nada mais a fazer
+            if (e.getStatusCode() == 404) return true;
+            System.err.println("Erro ao deletar: " + e.getMessage());
+            return false;
         } catch (Exception e) {
             System.err.println("Erro ao deletar: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Retorna o ID da pasta "anexos-dos-animais", onde ficam as pastas de cada animal.
+     * 
+     * @return ID da pasta raiz dos anexos no Google Drive
+     * @throws IOException Se ocorrer erro na operação do Google Drive
+     * @throws GeneralSecurityException Se ocorrer erro na autenticação
+     */
+    public static String getAttachmentsFolderId() throws IOException, GeneralSecurityException {
+        return getOrCreateFriendlyPawFolder();
+    }
+
+    /**
+     * Lista, página a página, os itens (não excluídos) que estão diretamente dentro das pastas informadas.
+     * Várias pastas são consultadas na mesma listagem, com os filtros combinados por "or".
+     * 
+     * @param parentIds IDs das pastas (no máximo algumas dezenas, por causa do tamanho da consulta)
+     * @param folders true para listar só pastas, false para listar só arquivos
+     * @param fields Campos de cada item a retornar (ex.: "id,name"), para a resposta trazer só o necessário
+     * @param consumer Recebe cada item listado
+     * @throws IOException Se ocorrer erro na operação do Google Drive
+     * @throws GeneralSecurityException Se ocorrer erro na autenticação
+     */
+    public static void listChildren(List<String> parentIds, boolean folders, String fields,
+                                    Consumer<com.google.api.services.drive.model.File> consumer)
+            throws IOException, GeneralSecurityException {
+        if (parentIds.isEmpty()) return;
+        List<String> parents = new ArrayList<>();
+        for (String id : parentIds) parents.add("'" + id + "' in parents");
+        String query = "(" + String.join(" or ", parents) + ") and mimeType " + (folders ? "=" : "!=")
+                + " '" + FOLDER_MIME_TYPE + "' and trashed=false";
+
+        Drive service = getDriveServiceInstance();
+        String pageToken = null;
+        do {
+            FileList page = service.files().list()
+                    .setQ(query)
+                    .setPageSize(LIST_PAGE_SIZE)
+                    .setPageToken(pageToken)
+                    .setFields("nextPageToken,files(" + fields + ")")
+                    .execute();
+            if (page.getFiles() != null) page.getFiles().forEach(consumer);
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
+    }
+
+    /**
+     * Deleta vários arquivos do Google Drive em requisições batch (até {@link #MAX_BATCH_SIZE} por requisição).
+     * Arquivos que já não existem contam como deletados.
+     * 
+     * @param fileUuids IDs dos arquivos a serem deletados
+     * @return IDs dos arquivos que não puderam ser deletados
+     * @throws IOException Se ocorrer erro de comunicação com o Google Drive
+     * @throws GeneralSecurityException Se ocorrer erro na autenticação
+     */
+    public static List<String> deleteFiles(List<String> fileUuids) throws IOException, GeneralSecurityException {
+        Drive service = getDriveServiceInstance();
+        List<String> failed = new ArrayList<>();
+        for (int start = 0; start < fileUuids.size(); start += MAX_BATCH_SIZE) {
+            List<String> chunk = fileUuids.subList(start, Math.min(start + MAX_BATCH_SIZE, fileUuids.size()));
+            BatchRequest batch = service.batch();
+            for (String fileUuid : chunk) {
+                service.files().delete(fileUuid).queue(batch, new JsonBatchCallback<Void>() {
+                    @Override
+                    public void onSuccess(Void result, HttpHeaders responseHeaders) { }
+
+                    @Override
+                    public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                        if (error.getCode() == 404) return;
+                        System.err.println("Erro ao deletar " + fileUuid + ": " + error.getMessage());
+                        failed.add(fileUuid);
+                    }
+                });
+            }
+            batch.execute();
+        }
+        return failed;
+    }
+
+    /**
+     * Busca os dados de miniatura de um arquivo no Google Drive.
+     * 
+     * @param fileUuid ID do arquivo no Google Drive
+     * @return Arquivo com id, modifiedTime e thumbnailLink (null se o Drive não gerou miniatura)
+     * @throws IOException Se ocorrer erro na operação do Google Drive
+     * @throws GeneralSecurityException Se ocorrer erro na autenticação
+     */
+    public static com.google.api.services.drive.model.File getThumbnailInfo(String fileUuid)
+            throws IOException, GeneralSecurityException {
+        return getDriveServiceInstance().files().get(fileUuid)
+                .setFields("id,modifiedTime,thumbnailLink")
+                .execute();
+    }
+
+    /**
+     * Baixa a miniatura de um arquivo. O Drive gera miniaturas para imagens e para a primeira página de PDFs.
+     * 
+     * @param thumbnailLink Link da miniatura retornado por {@link #getThumbnailInfo(String)}
+     * @param size Maior lado da miniatura em pixels
+     * @param out Destino dos bytes da imagem
+     * @throws IOException Se ocorrer erro ao baixar a miniatura
+     * @throws GeneralSecurityException Se ocorrer erro na autenticação
+     */
+    public static void downloadThumbnail(String thumbnailLink, int size, OutputStream out)
+            throws IOException, GeneralSecurityException {
+        // O link termina com o tamanho (ex.: "=s220"); trocamos pelo tamanho desejado
+        String url = thumbnailLink.replaceFirst("=s\\d+$", "") + "=s" + size;
+        HttpResponse response = getDriveServiceInstance().getRequestFactory()
+                .buildGetRequest(new GenericUrl(url))
+                .execute();
+        try {
+            response.download(out);
+        } finally {
+            response.disconnect();
+        }
+    }
+
     /**
      * Extrai o ID do arquivo a partir de uma URL do Google Drive.
      * Funciona com URLs no formato: https://drive.google.com/file/d/{FILE_ID}/view
@@ -287,22 +555,4 @@ public class GoogleDriveOAuthService {
         int end = driveUrl.indexOf("/", start);
         return end == -1 ? driveUrl.substring(start) : driveUrl.substring(start, end);
     }
-
-    /**
-     * Determina o tipo MIME do arquivo baseado na extensão.
-     * Aceita apenas: PNG, JPEG, JPG e PDF.
-     * 
-     * @param fileName Nome do arquivo (com ou sem caminho completo)
-     * @return String representando o tipo MIME do arquivo
-     * @throws IllegalArgumentException Se o formato do arquivo não for suportado
-     */
-    private static String getMimeType(String fileName) {
-        String ext = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
-        return switch (ext) {
-            case "jpg", "jpeg" -> "image/jpeg";
-            case "png" -> "image/png";
-            case "pdf" -> "application/pdf";
-            default -> throw new IllegalArgumentException("Formato não suportado: " + ext + ". Aceito apenas: PNG, JPEG, JPG, PDF");
-        };
-    }
 }
@@ -0,0 +1,140 @@
+package modules.Attachment.services;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Anexos em um diretório local ou em um compartilhamento de rede (NAS).
+ * Estrutura: {raiz}/{2 primeiros caracteres do animalId}/{animalId}/{uuid}_arquivo.png,
+ * para que nenhum diretório acumule milhares de entradas.
+ * A referência é a URI file: do arquivo, que o navegador abre como os links do Drive.
+ */
+class LocalAttachmentStorage implements AttachmentStorage {
+
+    // Copiado em partes para informar o progresso; em rede, o próprio transferTo já envia em blocos
+    private static final long TRANSFER_CHUNK = 4L * 1024 * 1024;
+
+    private final Path root;
+
+    LocalAttachmentStorage(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String store(File file, UUID animalId, UploadProgressListener progressListener) throws IOException {
+        if (file == null || !file.exists()) {
+            throw new IOException("Arquivo não existe ou é inválido");
+        }
+        try {
+            AttachmentStorages.getMimeType(file.getName());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Formato de arquivo não suportado: " + e.getMessage());
+        }
+
+        String animal = animalId.toString();
+        Path directory = root.resolve(animal.substring(0, 2)).resolve(animal);
+        Files.createDirectories(directory);
+
+        String fileUuid = UUID.randomUUID().toString();
+        Path target = directory.resolve(fileUuid + "_" + file.getName());
+        // Copia para um arquivo temporário no mesmo diretório e move: quem lista o diretório
+        // nunca vê um anexo pela metade, nem se a cópia for interrompida
+        Path temp = directory.resolve(fileUuid + ".part");
+        try {
+            copy(file.toPath(), temp, progressListener);
+            move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target.toUri().toString();
+    }
+
+    private static void copy(Path source, Path temp, UploadProgressListener progressListener) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            progressListener.progressChanged(0.0);
+            while (position < size) {
+                // transferTo deixa o kernel copiar direto entre os arquivos, sem passar pelo heap
+                long transferred = in.transferTo(position, Math.min(TRANSFER_CHUNK, size - position), out);
+                if (transferred <= 0 && in.size() <= position) {
+                    throw new EOFException("Arquivo alterado durante a cópia: " + source.getFileName());
+                }
+                position += transferred;
+                progressListener.progressChanged((double) position / size);
+            }
+            out.force(true);
+        }
+        progressListener.progressChanged(1.0);
+    }
+
+    private static void move(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Alguns compartilhamentos de rede não oferecem rename atômico
+            Files.move(temp, target);
+        }
+    }
+
+    @Override
+    public boolean delete(String reference) {
+        try {
+            Path path = toPath(reference);
+            if (path == null) {
+                System.err.println("Erro ao deletar: arquivo fora do diretório de anexos: " + reference);
+                return false;
+            }
+            Files.deleteIfExists(path);
+            try {
+                // Remove a pasta do animal quando ela fica vazia
+                Files.deleteIfExists(path.getParent());
+            } catch (DirectoryNotEmptyException e) {
+                // ainda há outros anexos do animal
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println("Erro ao deletar: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean handles(String reference) {
+        return reference != null && reference.startsWith("file:");
+    }
+
+    @Override
+    public CompletableFuture<Path> thumbnail(String reference, int size) {
+        // Miniatura gerada uma vez (imagem reduzida ou primeira página do PDF) e guardada no cache local:
+        // a view não relê a foto inteira do compartilhamento de rede a cada exibição
+        Path path = toPath(reference);
+        if (path == null) return CompletableFuture.completedFuture(null);
+        return ThumbnailCache.getLocal(path, size);
+    }
+
+    /**
+     * Converte a referência em caminho, apenas se estiver dentro do diretório de anexos.
+     */
+    private Path toPath(String reference) {
+        try {
+            Path path = Paths.get(URI.create(reference)).toAbsolutePath().normalize();
+            return path.startsWith(root) ? path : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
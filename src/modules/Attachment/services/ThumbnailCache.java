@@ -0,0 +1,327 @@
+package modules.Attachment.services;
+
+import com.google.api.services.drive.model.File;
+import config.Env;
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache em disco (LRU) das miniaturas dos anexos, no diretório de cache do usuário.
+ * As miniaturas são baixadas do Google Drive (ou geradas a partir do arquivo, nos anexos em diretório
+ * local) em background e ficam salvas entre execuções, com o arquivo nomeado pelo ID do arquivo,
+ * o tamanho e a data de modificação.
+ * As imagens já decodificadas também ficam em memória ({@link #image}), em quantidade limitada.
+ */
+public class ThumbnailCache {
+
+    private static final Path DIRECTORY = cacheDirectory();
+    private static final long MAX_BYTES = Env.longValue("THUMBNAIL_CACHE_MAX_MB", 200, 1) * 1024 * 1024;
+    private static final int MAX_IMAGES = Env.intValue("THUMBNAIL_IMAGE_CACHE_SIZE", 300, 1);
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            2, 2,
+            30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread t = new Thread(runnable, "thumbnail-" + THREAD_COUNTER.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+    );
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    // Nome do arquivo em disco → tamanho, em ordem de acesso (o primeiro é o menos usado)
+    private static final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // "fileId_tamanho" → nome do arquivo em disco
+    private static final Map<String, String> keysByFile = new HashMap<>();
+    private static long totalBytes;
+    private static boolean loaded;
+    // Arquivos com a data de modificação já atualizada nesta execução (ver lookup)
+    private static final Set<String> touched = new HashSet<>();
+
+    // "caminho@tamanho" → imagem decodificada, em ordem de acesso. Só usado na FX thread
+    private static final LinkedHashMap<String, Image> images = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > MAX_IMAGES;
+        }
+    };
+
+    // Evita baixar a mesma miniatura duas vezes quando ela é pedida por várias células ao mesmo tempo
+    private static final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Retorna a miniatura de um arquivo do Google Drive, baixando-a em background se ainda não estiver em cache.
+     * Os anexos nunca são alterados no Drive (cada envio cria um arquivo novo), então uma miniatura
+     * em cache é usada sem consultar o Drive.
+     *
+     * @param fileId ID do arquivo no Google Drive
+     * @param size Maior lado da miniatura em pixels
+     * @return Future com o caminho da imagem em disco, ou null se o Drive não tiver miniatura para o arquivo
+     */
+    public static CompletableFuture<Path> get(String fileId, int size) {
+        String fileKey = fileId + "_" + size;
+        return submit(fileKey, () -> load(fileId, size, fileKey));
+    }
+
+    /**
+     * Retorna a miniatura de um anexo guardado em diretório local (ou compartilhamento de rede), gerando-a
+     * em background se ainda não estiver em cache. Assim como no Drive, os anexos nunca são alterados
+     * (cada envio cria um arquivo novo), então uma miniatura em cache é usada sem reler o arquivo.
+     *
+     * @param source Caminho do anexo
+     * @param size Maior lado da miniatura em pixels
+     * @return Future com o caminho da imagem em disco, ou null se o arquivo não existir ou não tiver prévia
+     */
+    public static CompletableFuture<Path> getLocal(Path source, int size) {
+        // O caminho vira um ID sem separadores, como os IDs do Drive
+        String fileKey = "local-" + UUID.nameUUIDFromBytes(source.toAbsolutePath().toString()
+                .getBytes(StandardCharsets.UTF_8)) + "_" + size;
+        return submit(fileKey, () -> generate(source, size, fileKey));
+    }
+
+    /**
+     * Executa a busca de uma miniatura no executor, compartilhando o future entre pedidos simultâneos.
+     */
+    private static CompletableFuture<Path> submit(String fileKey, ThumbnailLoader loader) {
+        CompletableFuture<Path> existing = inFlight.get(fileKey);
+        if (existing != null) return existing;
+
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        CompletableFuture<Path> raced = inFlight.putIfAbsent(fileKey, future);
+        if (raced != null) return raced;
+
+        EXECUTOR.execute(() -> {
+            try {
+                future.complete(loader.load());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                inFlight.remove(fileKey, future);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Retorna a imagem de uma miniatura em cache, decodificada no tamanho de exibição. A mesma imagem
+     * é devolvida enquanto estiver entre as mais usadas: rolar a tabela não decodifica o arquivo de novo.
+     * Deve ser chamado na JavaFX Application Thread.
+     *
+     * @param path Caminho da miniatura em disco (devolvido por {@link #get})
+     * @param size Maior lado da imagem exibida, em pixels
+     * @return Imagem (carregada em background na primeira vez)
+     */
+    public static Image image(Path path, int size) {
+        return images.computeIfAbsent(path + "@" + size,
+                key -> new Image(path.toUri().toString(), size, size, true, true, true));
+    }
+
+    private static Path load(String fileId, int size, String fileKey) throws Exception {
+        Path cached = lookup(fileKey);
+        if (cached != null) return cached;
+
+        File info = GoogleDriveOAuthService.getThumbnailInfo(fileId);
+        if (info.getThumbnailLink() == null) return null;
+
+        long modified = info.getModifiedTime() != null ? info.getModifiedTime().getValue() : 0;
+        return write(fileKey, modified, temp -> {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                GoogleDriveOAuthService.downloadThumbnail(info.getThumbnailLink(), size, out);
+            }
+            return true;
+        });
+    }
+
+    private static Path generate(Path source, int size, String fileKey) throws Exception {
+        Path cached = lookup(fileKey);
+        if (cached != null) return cached;
+        if (!Files.exists(source)) return null;
+
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        return write(fileKey, modified, temp ->
+                AttachmentImageProcessor.writeThumbnail(source.toFile(), size, temp.toFile()));
+    }
+
+    /**
+     * Grava uma miniatura no cache. Escreve em um arquivo temporário e move: uma miniatura
+     * interrompida nunca fica no cache.
+     *
+     * @return Caminho da miniatura, ou null se o writer não gerou miniatura
+     */
+    private static Path write(String fileKey, long modified, ThumbnailWriter writer) throws Exception {
+        String name = fileKey + "_" + modified + ".img";
+        Files.createDirectories(DIRECTORY);
+        Path temp = Files.createTempFile(DIRECTORY, fileKey, ".part");
+        try {
+            if (!writer.write(temp)) return null;
+            Path target = DIRECTORY.resolve(name);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            store(fileKey, name, Files.size(target));
+            return target;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThumbnailLoader {
+        Path load() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface ThumbnailWriter {
+        boolean write(Path temp) throws Exception;
+    }
+
+    private static synchronized Path lookup(String fileKey) {
+        ensureLoaded();
+        String name = keysByFile.get(fileKey);
+        if (name == null) return null;
+
+        Path path = DIRECTORY.resolve(name);
+        if (!Files.exists(path)) {
+            remove(name);
+            return null;
+        }
+        entries.get(name); // marca como usado recentemente
+        // Persiste a ordem de uso para a próxima execução. Uma vez por execução basta: a ordem
+        // entre execuções não precisa ser exata, e a tabela pede a mesma miniatura a cada rolagem
+        if (touched.add(name)) {
+            try {
+                Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException e) {
+                // só afeta a ordem de remoção
+            }
+        }
+        return path;
+    }
+
+    private static synchronized void store(String fileKey, String name, long bytes) {
+        ensureLoaded();
+        String previous = keysByFile.put(fileKey, name);
+        if (previous != null && !previous.equals(name)) deleteEntry(previous);
+
+        Long old = entries.put(name, bytes);
+        totalBytes += bytes - (old != null ? old : 0);
+        evict();
+    }
+
+    private static void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > MAX_BYTES && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            totalBytes -= eldest.getValue();
+            it.remove();
+            keysByFile.values().remove(eldest.getKey());
+            try {
+                Files.deleteIfExists(DIRECTORY.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                System.err.println("Erro ao remover miniatura do cache: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void deleteEntry(String name) {
+        remove(name);
+        try {
+            Files.deleteIfExists(DIRECTORY.resolve(name));
+        } catch (IOException e) {
+            System.err.println("Erro ao remover miniatura do cache: " + e.getMessage());
+        }
+    }
+
+    private static void remove(String name) {
+        touched.remove(name);
+        Long bytes = entries.remove(name);
+        if (bytes != null) totalBytes -= bytes;
+        keysByFile.values().remove(name);
+    }
+
+    /**
+     * Lê o conteúdo do diretório na primeira utilização, do arquivo usado há mais tempo para o mais recente.
+     */
+    private static void ensureLoaded() {
+        if (loaded) return;
+        loaded = true;
+        if (!Files.isDirectory(DIRECTORY)) return;
+
+        record CachedFile(Path path, long modified, long size) { }
+        List<CachedFile> files = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(DIRECTORY)) {
+            for (Path path : ds) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".part")) {
+                    Files.deleteIfExists(path); // download interrompido em uma execução anterior
+                    continue;
+                }
+                if (!name.endsWith(".img")) continue;
+                files.add(new CachedFile(path, Files.getLastModifiedTime(path).toMillis(), Files.size(path)));
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao ler o cache de miniaturas: " + e.getMessage());
+            return;
+        }
+
+        files.sort(Comparator.comparingLong(CachedFile::modified));
+        for (CachedFile f : files) {
+            String name = f.path().getFileName().toString();
+            // fileId_tamanho_modificação.img
+            int lastSeparator = name.lastIndexOf('_');
+            if (lastSeparator <= 0) continue;
+            String fileKey = name.substring(0, lastSeparator);
+            String previous = keysByFile.put(fileKey, name);
+            if (previous != null) deleteEntry(previous);
+            entries.put(name, f.size());
+            totalBytes += f.size();
+        }
+        evict();
+    }
+
+    private static Path cacheDirectory() {
+        String override = System.getenv("THUMBNAIL_CACHE_DIR");
+        if (override != null && !override.isBlank()) return Paths.get(override);
+
+        String os = System.getProperty("os.name", "").toLowerCase();
+        String home = System.getProperty("user.home");
+        if (os.contains("win") && System.getenv("LOCALAPPDATA") != null) {
+            return Paths.get(System.getenv("LOCALAPPDATA"), "FriendlyPaw", "thumbnails");
+        }
+        if (os.contains("mac")) {
+            return Paths.get(home, "Library", "Caches", "FriendlyPaw", "thumbnails");
+        }
+        String xdg = System.getenv("XDG_CACHE_HOME");
+        return (xdg != null && !xdg.isBlank() ? Paths.get(xdg) : Paths.get(home, ".cache"))
+                .resolve("friendly-paw").resolve("thumbnails");
+    }
+}
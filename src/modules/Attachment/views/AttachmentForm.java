@@ -1,32 +1,38 @@
 package modules.Attachment.views;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
-import modules.Attachment.controllers.AttachmentController;
 import modules.Attachment.models.Attachment;
-import modules.Attachment.services.GoogleDriveOAuthService;
+import modules.Attachment.services.AttachmentUploadQueue;
 import modules.Animal.views.AnimalView;
-import config.Database;
 
 import java.io.File;
-import java.io.IOException;
-import java.security.GeneralSecurityException;
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public class AttachmentForm extends GridPane {
 
     private TextField urlField;
     private TextArea descriptionField;
-    private File selectedFile;
+    private List<File> selectedFiles = new ArrayList<>();
     private Button selectFileButton;
+    private Button saveButton;
+    private Button cancelUploadsButton;
+    private CheckBox optimizeImagesCheck;
+    private Label savingsLabel;
+    private long bytesSaved;
+
+    // Uploads em andamento (um por arquivo) e a lista visual com o progresso de cada um
+    private final VBox uploadsBox = new VBox(8);
+    private final List<AttachmentUploadQueue.UploadTask> uploadTasks = new ArrayList<>();
+    private final List<File> failedFiles = new ArrayList<>();
+    private int pendingUploads;
 
-    private Connection conn;
     private BorderPane mainLayout;
     private UUID animalUuid;
 
@@ -37,12 +43,6 @@ public class AttachmentForm extends GridPane {
         urlField = new TextField();
         descriptionField = new TextArea();
 
-        try {
-            this.conn = Database.getConnection();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
         // === estilo base (mesmo padrão do AnimalForm/MedicineForm) ===
         getStyleClass().add("form-bg");
         setPadding(new Insets(30, 40, 30, 40));
@@ -62,12 +62,12 @@ public class AttachmentForm extends GridPane {
         double HALF = 280, FULL = 580;
 
         // Botão Selecionar + campo nome/URL (lado a lado)
-        selectFileButton = new Button("Selecionar arquivo");
+        selectFileButton = new Button("Selecionar arquivos");
         selectFileButton.getStyleClass().add("form-btn-upload");
         selectFileButton.setPrefWidth(HALF);
         selectFileButton.setOnAction(e -> selectFile());
 
-        urlField.setPromptText("Arquivo selecionado / URL (Drive)");
+        urlField.setPromptText("Arquivos selecionados");
         urlField.setEditable(false);
         urlField.setPrefWidth(HALF);
         urlField.getStyleClass().add("form-input-readonly");
@@ -82,6 +82,31 @@ public class AttachmentForm extends GridPane {
         addRowHalf("Arquivo:", selectFileButton, "Nome/URL:", urlField, r++, HALF);
         addRowFull("Descrição:", descriptionField, r++, FULL);
 
+        // Fotos de celular costumam ter 8–12 MB; reduzidas ficam bem menores e continuam legíveis
+        optimizeImagesCheck = new CheckBox("Otimizar imagens antes do envio (reduz e remove metadados)");
+        optimizeImagesCheck.setSelected(true);
+        optimizeImagesCheck.getStyleClass().add("form-label");
+        savingsLabel = new Label();
+        savingsLabel.getStyleClass().add("form-label");
+        VBox optimizeBox = new VBox(6, optimizeImagesCheck, savingsLabel);
+        optimizeBox.setPrefWidth(FULL);
+        optimizeBox.setMaxWidth(FULL);
+        HBox optimizeWrapper = new HBox(optimizeBox);
+        optimizeWrapper.setAlignment(Pos.CENTER);
+        add(optimizeWrapper, 0, r++, 4, 1);
+
+        // Lista de uploads (aparece ao salvar)
+        ScrollPane uploadsScroll = new ScrollPane(uploadsBox);
+        uploadsScroll.setFitToWidth(true);
+        uploadsScroll.setPrefViewportHeight(160);
+        uploadsScroll.setPrefWidth(FULL);
+        uploadsScroll.setMaxWidth(FULL);
+        uploadsScroll.managedProperty().bind(uploadsScroll.visibleProperty());
+        uploadsScroll.visibleProperty().bind(javafx.beans.binding.Bindings.isNotEmpty(uploadsBox.getChildren()));
+        HBox uploadsWrapper = new HBox(uploadsScroll);
+        uploadsWrapper.setAlignment(Pos.CENTER);
+        add(uploadsWrapper, 0, r++, 4, 1);
+
         // ===== botões =====
         Button backButton = new Button("Voltar");
         backButton.getStyleClass().add("form-btn-cancel");
@@ -90,12 +115,18 @@ public class AttachmentForm extends GridPane {
             mainLayout.setCenter(new modules.Attachment.views.AttachmentView(mainLayout, animalUuid))
         );
 
-        Button saveButton = new Button("Salvar");
+        cancelUploadsButton = new Button("Cancelar envios");
+        cancelUploadsButton.getStyleClass().add("form-btn-cancel");
+        cancelUploadsButton.setPrefWidth(150);
+        cancelUploadsButton.setDisable(true);
+        cancelUploadsButton.setOnAction(e -> uploadTasks.forEach(AttachmentUploadQueue.UploadTask::cancel));
+
+        saveButton = new Button("Salvar");
         saveButton.getStyleClass().add("form-btn-save");
         saveButton.setPrefWidth(150);
         saveButton.setOnAction(e -> saveAttachment());
 
-        HBox buttonBox = new HBox(15, backButton, saveButton);
+        HBox buttonBox = new HBox(15, backButton, cancelUploadsButton, saveButton);
         buttonBox.setAlignment(Pos.CENTER);
         add(buttonBox, 0, r, 4, 1);
 
@@ -174,8 +205,8 @@ public class AttachmentForm extends GridPane {
     }
 
     /**
-     * Abre um diálogo de seleção de arquivo e armazena o arquivo selecionado.
-     * O nome do arquivo é exibido no campo urlField após a seleção.
+     * Abre um diálogo de seleção de arquivos e armazena os arquivos selecionados.
+     * O nome do arquivo (ou a quantidade de arquivos) é exibido no campo urlField após a seleção.
      */
     private void selectFile() {
         FileChooser fileChooser = new FileChooser();
@@ -185,24 +216,23 @@ public class AttachmentForm extends GridPane {
         FileChooser.ExtensionFilter all = new FileChooser.ExtensionFilter("Todos suportados", "*.png", "*.jpg", "*.jpeg", "*.pdf");
         fileChooser.getExtensionFilters().addAll(all, images, pdf);
 
-        selectedFile = fileChooser.showOpenDialog(null);
+        List<File> files = fileChooser.showOpenMultipleDialog(null);
 
-        if (selectedFile != null) {
+        if (files != null && !files.isEmpty()) {
+            selectedFiles = new ArrayList<>(files);
             // Mostra o nome do arquivo no campo (continua read-only)
-            urlField.setText(selectedFile.getName());
+            urlField.setText(files.size() == 1 ? files.get(0).getName() : files.size() + " arquivos selecionados");
         }
     }
 
     /**
-     * Salva um novo anexo no banco de dados e faz upload para o Google Drive.
-     * Valida se um arquivo foi selecionado antes de prosseguir.
-     * 
-     * @throws IOException Se ocorrer erro ao fazer upload do arquivo para o Google Drive (tratado internamente com Alert)
-     * @throws GeneralSecurityException Se ocorrer erro na autenticação com Google Drive (tratado internamente com Alert)
-     * @throws SQLException Se ocorrer erro na operação do banco de dados (tratado internamente com Alert)
+     * Envia os arquivos selecionados ao armazenamento de anexos em background, mostrando o progresso de cada um.
+     * Cada anexo só é registrado no banco depois que o seu upload termina.
+     * Ao final, volta para a lista de anexos; se algum envio falhou, os arquivos com falha
+     * continuam selecionados para uma nova tentativa.
      */
     private void saveAttachment() {
-        if (selectedFile == null) {
+        if (selectedFiles.isEmpty()) {
             new Alert(Alert.AlertType.WARNING, "Por favor, selecione um arquivo para fazer upload.").showAndWait();
             return;
         }
@@ -210,27 +240,143 @@ public class AttachmentForm extends GridPane {
         String description = descriptionField.getText();
         if (description != null && description.trim().isEmpty()) description = null;
 
-        try {
-            String fileUrl = GoogleDriveOAuthService.uploadFile(selectedFile, this.animalUuid);
-
-            Attachment attachment = new Attachment(
-                null,
-                fileUrl,
-                description,
-                this.animalUuid,
-                LocalDateTime.now()
-            );
-
-            AttachmentController.addAttachment(conn, attachment);
-            mainLayout.setCenter(new AttachmentView(mainLayout, this.animalUuid));
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Erro");
-            alert.setHeaderText("Erro ao fazer upload do arquivo");
-            alert.setContentText("Ocorreu um erro ao fazer upload do arquivo: " + e.getMessage());
-            alert.showAndWait();
+        uploadsBox.getChildren().clear();
+        uploadTasks.clear();
+        failedFiles.clear();
+        pendingUploads = selectedFiles.size();
+        bytesSaved = 0;
+        savingsLabel.setText("");
+        setUploading(true);
+
+        for (File file : selectedFiles) {
+            UploadRow row = new UploadRow(file);
+            uploadsBox.getChildren().add(row);
+            AttachmentUploadQueue.UploadTask task =
+                    AttachmentUploadQueue.submit(file, animalUuid, description, optimizeImagesCheck.isSelected(), row);
+            row.setTask(task);
+            uploadTasks.add(task);
+        }
+    }
+
+    /**
+     * Chamado (na FX thread) quando um upload termina, com sucesso ou não.
+     */
+    private void onUploadFinished() {
+        if (--pendingUploads > 0) return;
+
+        setUploading(false);
+        selectedFiles = new ArrayList<>(failedFiles);
+
+        if (failedFiles.isEmpty()) {
+            // Só navega se o usuário ainda estiver neste formulário
+            if (getScene() != null) mainLayout.setCenter(new AttachmentView(mainLayout, animalUuid));
+            return;
+        }
+
+        urlField.setText(failedFiles.size() + " arquivo(s) com falha");
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Erro");
+        alert.setHeaderText("Erro ao fazer upload do arquivo");
+        alert.setContentText("Não foi possível enviar " + failedFiles.size()
+                + " arquivo(s). Clique em Salvar para tentar novamente.");
+        alert.showAndWait();
+    }
+
+    private void setUploading(boolean uploading) {
+        saveButton.setDisable(uploading);
+        selectFileButton.setDisable(uploading);
+        optimizeImagesCheck.setDisable(uploading);
+        cancelUploadsButton.setDisable(!uploading);
+    }
+
+    /**
+     * Linha da lista de uploads: nome do arquivo, barra de progresso, situação e botão de cancelar.
+     * Recebe os eventos da fila (em threads de upload) e os repassa para a FX thread.
+     */
+    private class UploadRow extends HBox implements AttachmentUploadQueue.Listener {
+        private final File file;
+        private final ProgressBar progressBar = new ProgressBar(0);
+        private final Label statusLabel = new Label("Na fila");
+        private final Button cancelButton = new Button("Cancelar");
+        // O mesmo conteúdo já estava armazenado para o animal e foi reaproveitado
+        private boolean reused;
+
+        UploadRow(File file) {
+            super(10);
+            this.file = file;
+            setAlignment(Pos.CENTER_LEFT);
+
+            Label nameLabel = new Label(file.getName());
+            nameLabel.getStyleClass().add("form-label");
+            nameLabel.setPrefWidth(220);
+            progressBar.setPrefWidth(160);
+            statusLabel.setPrefWidth(90);
+            cancelButton.getStyleClass().add("form-btn-cancel");
+            cancelButton.setDisable(true);
+
+            getChildren().addAll(nameLabel, progressBar, statusLabel, cancelButton);
+        }
+
+        void setTask(AttachmentUploadQueue.UploadTask task) {
+            cancelButton.setDisable(false);
+            cancelButton.setOnAction(e -> {
+                task.cancel();
+                cancelButton.setDisable(true);
+                statusLabel.setText("Cancelando...");
+            });
+        }
+
+        @Override
+        public void onProcessed(long originalBytes, long processedBytes) {
+            if (processedBytes >= originalBytes) return;
+            Platform.runLater(() -> {
+                bytesSaved += originalBytes - processedBytes;
+                savingsLabel.setText(String.format("Economia com a otimização: %.1f MB", bytesSaved / (1024.0 * 1024.0)));
+            });
+        }
+
+        @Override
+        public void onReused() {
+            Platform.runLater(() -> reused = true);
+        }
+
+        @Override
+        public void onProgress(double fraction) {
+            Platform.runLater(() -> {
+                progressBar.setProgress(fraction);
+                statusLabel.setText(Math.round(fraction * 100) + "%");
+            });
+        }
+
+        @Override
+        public void onSuccess(Attachment attachment) {
+            Platform.runLater(() -> {
+                progressBar.setProgress(1);
+                statusLabel.setText(reused ? "Já existia" : "Enviado");
+                cancelButton.setDisable(true);
+                onUploadFinished();
+            });
+        }
+
+        @Override
+        public void onFailure(Throwable error) {
+            error.printStackTrace();
+            Platform.runLater(() -> {
+                statusLabel.setText("Falhou");
+                statusLabel.setTooltip(new Tooltip(error.getMessage()));
+                cancelButton.setDisable(true);
+                failedFiles.add(file);
+                onUploadFinished();
+            });
+        }
+
+        @Override
+        public void onCancelled() {
+            Platform.runLater(() -> {
+                statusLabel.setText("Cancelado");
+                cancelButton.setDisable(true);
+                onUploadFinished();
+            });
         }
     }
 }
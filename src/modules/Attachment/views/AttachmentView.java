@@ -1,5 +1,6 @@
 package modules.Attachment.views;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -12,26 +13,39 @@ import javafx.scene.layout.*;
 import javafx.scene.shape.SVGPath;
 import modules.Attachment.controllers.AttachmentController;
 import modules.Attachment.models.Attachment;
+import modules.Attachment.services.AttachmentStorage;
+import modules.Attachment.services.AttachmentStorages;
+import modules.Attachment.services.ThumbnailCache;
 import modules.Animal.views.AnimalView;
 import config.Database;
+import utils.FxAsync;
 import modules.Shared.views.MenuView;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class AttachmentView extends VBox {
 
+    // Maior lado das miniaturas (tabela) e da prévia, em pixels
+    private static final int THUMBNAIL_SIZE = 96;
+    private static final int PREVIEW_SIZE = 640;
+
     private TableView<Attachment> tableView;
+    private VBox previewPane;
+    private ImageView previewImage;
+    private Label previewPlaceholder;
+    private Label previewDescription;
+    private Hyperlink previewLink;
     private ObservableList<Attachment> attachmentList;
-    private Connection conn;
     private final BorderPane mainLayout;
     private final UUID animalUuid;
 
@@ -39,14 +53,6 @@ public class AttachmentView extends VBox {
         this.mainLayout = mainLayout;
         this.animalUuid = animalUuid;
 
-        try {
-            this.conn = Database.getConnection();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            new Alert(Alert.AlertType.ERROR, "Erro ao conectar com o banco de dados.").showAndWait();
-            return;
-        }
-
         initializeComponents();
         setupLayout();
         loadAttachments();
@@ -147,6 +153,46 @@ public class AttachmentView extends VBox {
         attachmentList = FXCollections.observableArrayList();
         tableView.setItems(attachmentList);
 
+        // Coluna: Miniatura (baixada em background e guardada no cache local)
+        TableColumn<Attachment, String> thumbnailColumn = new TableColumn<>("prévia");
+        thumbnailColumn.setCellValueFactory(new PropertyValueFactory<>("file"));
+        thumbnailColumn.setPrefWidth(80);
+        thumbnailColumn.setMinWidth(80);
+        thumbnailColumn.setMaxWidth(90);
+        thumbnailColumn.setSortable(false);
+        thumbnailColumn.setCellFactory(column -> new TableCell<>() {
+            private final ImageView imageView = new ImageView();
+            // Anexo cuja miniatura está na célula (ou sendo carregada)
+            private String shownFile;
+            {
+                setAlignment(Pos.CENTER);
+                imageView.setFitWidth(48);
+                imageView.setFitHeight(48);
+                imageView.setPreserveRatio(true);
+            }
+            @Override
+            protected void updateItem(String file, boolean empty) {
+                super.updateItem(file, empty);
+                if (empty || file == null || file.isBlank()) {
+                    shownFile = null;
+                    imageView.setImage(null);
+                    setGraphic(null);
+                    return;
+                }
+                setGraphic(imageView);
+                // Mesmo anexo (a tabela chama updateItem de novo a cada rolagem ou atualização): mantém a imagem
+                if (file.equals(shownFile)) return;
+                shownFile = file;
+                imageView.setImage(null);
+                loadThumbnail(file, THUMBNAIL_SIZE, path -> {
+                    // A célula pode ter sido reaproveitada para outro anexo enquanto a miniatura carregava
+                    if (file.equals(getItem())) {
+                        imageView.setImage(ThumbnailCache.image(path, 48));
+                    }
+                });
+            }
+        });
+
         // Coluna: Arquivo (link)
         TableColumn<Attachment, String> fileColumn = new TableColumn<>("arquivo");
         fileColumn.setCellValueFactory(new PropertyValueFactory<>("file"));
@@ -229,7 +275,7 @@ public class AttachmentView extends VBox {
                             ButtonType.YES, ButtonType.NO);
                     alert.showAndWait().ifPresent(response -> {
                         if (response == ButtonType.YES) {
-                            try {
+                            try (Connection conn = Database.getConnection()) {
                                 AttachmentController.deleteAttachment(conn, attachment.getUuid());
                                 getTableView().getItems().remove(attachment);
                             } catch (SQLException e) {
@@ -248,10 +294,106 @@ public class AttachmentView extends VBox {
             }
         });
 
-        tableView.getColumns().addAll(fileColumn, descriptionColumn, createdAtColumn, actionColumn);
+        tableView.getColumns().addAll(thumbnailColumn, fileColumn, descriptionColumn, createdAtColumn, actionColumn);
         tableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         tableView.getStyleClass().add("custom-table");
         tableView.setPlaceholder(new Label("Nenhum anexo cadastrado"));
+
+        // Painel de prévia do anexo selecionado
+        previewImage = new ImageView();
+        previewImage.setFitWidth(360);
+        previewImage.setFitHeight(420);
+        previewImage.setPreserveRatio(true);
+
+        previewPlaceholder = new Label("Selecione um anexo para ver a prévia");
+        previewPlaceholder.getStyleClass().add("preview-placeholder");
+        previewPlaceholder.setWrapText(true);
+
+        previewDescription = new Label();
+        previewDescription.getStyleClass().add("preview-description");
+        previewDescription.setWrapText(true);
+
+        previewLink = new Hyperlink("Abrir no navegador");
+        previewLink.setVisible(false);
+
+        StackPane imageBox = new StackPane(previewPlaceholder, previewImage);
+        imageBox.setPrefSize(360, 420);
+        imageBox.setMinHeight(200);
+
+        previewPane = new VBox(12, imageBox, previewDescription, previewLink);
+        previewPane.getStyleClass().add("preview-pane");
+        previewPane.setPadding(new Insets(16));
+        previewPane.setPrefWidth(392);
+        previewPane.setMinWidth(392);
+
+        tableView.getSelectionModel().selectedItemProperty().addListener((obs, old, selected) -> showPreview(selected));
+    }
+
+    /**
+     * Mostra a prévia do anexo selecionado no painel lateral.
+     * 
+     * @param attachment Anexo selecionado, ou null para limpar a prévia
+     */
+    private void showPreview(Attachment attachment) {
+        previewImage.setImage(null);
+        previewLink.setVisible(attachment != null);
+        previewDescription.setText(attachment != null && attachment.getDescription() != null ? attachment.getDescription() : "");
+        if (attachment == null) {
+            previewPlaceholder.setText("Selecione um anexo para ver a prévia");
+            return;
+        }
+
+        String file = attachment.getFile();
+        previewPlaceholder.setText("Carregando prévia...");
+        previewLink.setOnAction(event -> {
+            try {
+                java.awt.Desktop.getDesktop().browse(new java.net.URI(file));
+            } catch (Exception e) {
+                new Alert(Alert.AlertType.ERROR, "Não foi possível abrir o arquivo.").showAndWait();
+            }
+        });
+        loadThumbnail(file, PREVIEW_SIZE, path -> {
+            if (tableView.getSelectionModel().getSelectedItem() != attachment) return;
+            previewPlaceholder.setText("");
+            previewImage.setImage(new Image(path.toUri().toString(), true));
+        }, () -> {
+            if (tableView.getSelectionModel().getSelectedItem() != attachment) return;
+            previewPlaceholder.setText("Prévia indisponível");
+        });
+    }
+
+    /**
+     * Busca a miniatura de um anexo no armazenamento dele (cache local, Google Drive ou diretório) fora da FX thread.
+     * O callback é chamado na FX thread apenas se houver miniatura.
+     * 
+     * @param fileUrl Referência (URL) do arquivo
+     * @param size Maior lado da miniatura em pixels
+     * @param onLoaded Callback com o caminho da imagem em disco
+     */
+    private void loadThumbnail(String fileUrl, int size, Consumer<Path> onLoaded) {
+        loadThumbnail(fileUrl, size, onLoaded, () -> { });
+    }
+
+    /**
+     * Busca a miniatura de um anexo no armazenamento dele (cache local, Google Drive ou diretório) fora da FX thread.
+     * Os callbacks são chamados na FX thread.
+     * 
+     * @param fileUrl Referência (URL) do arquivo
+     * @param size Maior lado da miniatura em pixels
+     * @param onLoaded Callback com o caminho da imagem em disco
+     * @param onUnavailable Callback quando o arquivo não tem miniatura ou ela não pôde ser carregada
+     */
+    private void loadThumbnail(String fileUrl, int size, Consumer<Path> onLoaded, Runnable onUnavailable) {
+        AttachmentStorage storage = AttachmentStorages.forReference(fileUrl);
+        if (storage == null) {
+            onUnavailable.run();
+            return;
+        }
+        storage.thumbnail(fileUrl, size).whenComplete((path, error) -> {
+            if (error != null) System.err.println("Erro ao carregar miniatura: " + error.getMessage());
+            if (error == null && path != null) Platform.runLater(() -> onLoaded.accept(path));
+            else Platform.runLater(onUnavailable);
+        });
     }
 
     private void setupLayout() {
@@ -301,10 +443,14 @@ public class AttachmentView extends VBox {
         rightBar.setMaxWidth(Region.USE_PREF_SIZE);
         leftBar.setMaxWidth(Region.USE_PREF_SIZE);
 
-        VBox content = new VBox(30, tableView);
+        HBox tableAndPreview = new HBox(20, tableView, previewPane);
+        HBox.setHgrow(tableView, Priority.ALWAYS);
+        VBox.setVgrow(tableAndPreview, Priority.ALWAYS);
+
+        VBox content = new VBox(30, tableAndPreview);
         content.setAlignment(Pos.CENTER);
         content.setPadding(new Insets(40, 60, 40, 60));
-        VBox.setVgrow(tableView, Priority.ALWAYS);
+        VBox.setVgrow(content, Priority.ALWAYS);
 
         this.setAlignment(Pos.TOP_CENTER);
         this.getChildren().addAll(topBar, content);
@@ -315,19 +461,16 @@ public class AttachmentView extends VBox {
     }
 
     /**
-     * Carrega todos os anexos do animal do banco de dados e atualiza a tabela.
-     * 
-     * @throws SQLException Se ocorrer erro na operação do banco de dados (tratado internamente com Alert)
+     * Carrega todos os anexos do animal do banco de dados em background e atualiza a tabela.
+     * Erros de banco de dados são tratados internamente com Alert.
      */
     private void loadAttachments() {
-        try {
-            List<Attachment> attachments = AttachmentController.getAttachmentsForAnimal(conn, animalUuid);
-            attachmentList.clear();
-            attachmentList.addAll(attachments);
-            tableView.setItems(attachmentList);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            new Alert(Alert.AlertType.ERROR, "Erro ao buscar anexos: " + e.getMessage()).showAndWait();
-        }
+        FxAsync.load(this,
+            conn -> AttachmentController.getAttachmentsForAnimal(conn, animalUuid),
+            attachmentList::setAll,
+            e -> {
+                e.printStackTrace();
+                new Alert(Alert.AlertType.ERROR, "Erro ao buscar anexos: " + e.getMessage()).showAndWait();
+            });
     }
 }
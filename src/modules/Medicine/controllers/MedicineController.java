@@ -1,6 +1,9 @@
 package modules.Medicine.controllers;
 
+import config.Database;
 import modules.Medicine.models.Medicine;
+import modules.Medicine.models.StockMovement;
+import utils.Session;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -9,8 +12,67 @@ import java.util.UUID;
 
 public class MedicineController {
 
+    // Quantidade gravada para medicamentos sem controle de estoque
+    public static final int UNLIMITED_STOCK = -1;
+
     private final Connection conn;
 
+    /**
+     * Lançada quando o estoque do medicamento não tem a quantidade pedida.
+     */
+    public static class InsufficientStockException extends SQLException {
+        private final int available;
+
+        /**
+         * Construtor da exceção.
+         * 
+         * @param requested Quantidade pedida
+         * @param available Quantidade disponível em estoque
+         */
+        public InsufficientStockException(int requested, int available) {
+            super("A quantidade informada (" + requested + ") excede o estoque disponível (" + available + ").");
+            this.available = available;
+        }
+
+        /**
+         * Retorna a quantidade disponível em estoque no momento da tentativa.
+         * 
+         * @return Quantidade disponível
+         */
+        public int getAvailable() { return available; }
+    }
+
+    /**
+     * Lançada quando o estoque mudou (ex.: uma aplicação deu baixa) depois que o formulário de edição
+     * o carregou: gravar a quantidade digitada desfaria essa mudança.
+     */
+    public static class StaleStockException extends SQLException {
+        private final int current;
+
+        /**
+         * Construtor da exceção.
+         * 
+         * @param expected Quantidade carregada pelo formulário
+         * @param current Quantidade atual em estoque
+         */
+        public StaleStockException(int expected, int current) {
+            super("O estoque foi alterado por outra operação enquanto o medicamento era editado (era "
+                    + describeStock(expected) + ", agora é " + describeStock(current) + ").");
+            this.current = current;
+        }
+
+        /**
+         * Retorna a quantidade em estoque no momento da tentativa.
+         * 
+         * @return Quantidade atual, ou {@link #UNLIMITED_STOCK} se o estoque for ilimitado
+         */
+        public int getCurrent() { return current; }
+
+        private static String describeStock(int stock) {
+            return stock == UNLIMITED_STOCK ? "ilimitado" : String.valueOf(stock);
+        }
+    }
+
     /**
      * Construtor do MedicineController.
      * 
@@ -21,7 +83,8 @@ public class MedicineController {
     }
 
     /**
-     * Insere um novo medicamento no banco de dados.
+     * Insere um novo medicamento no banco de dados e abre o seu livro de estoque
+     * (a quantidade inicial entra como recebimento).
      * 
      * @param name Nome do medicamento
      * @param brandId UUID da marca do medicamento
@@ -31,15 +94,33 @@ public class MedicineController {
      * @throws SQLException Se ocorrer erro na operação do banco de dados
      */
     public void insert(String name, UUID brandId, Integer quantity, String description, Boolean isActive) throws SQLException {
-        String sql = "INSERT INTO public.medicines (name, brand_uuid, quantity, description, is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, now(), now())";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, name);
-            ps.setObject(2, brandId);
-            ps.setObject(3, quantity != null ? quantity : -1);
-            ps.setString(4, description);
-            ps.setBoolean(5, isActive);
-            ps.executeUpdate();
-        }
+        String sql = "INSERT INTO public.medicines (name, brand_uuid, quantity, description, is_active, created_at, updated_at) VALUES (?, ?, ?, ?, ?, now(), now()) RETURNING uuid";
+        int stock = normalizeStock(quantity);
+        inTransaction(conn -> {
+            UUID uuid;
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, name);
+                ps.setObject(2, brandId);
+                ps.setObject(3, quantity != null ? quantity : UNLIMITED_STOCK);
+                ps.setString(4, description);
+                ps.setBoolean(5, isActive);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    uuid = (UUID) rs.getObject("uuid");
+                }
+            }
+
+            MedicineStockController stockController = new MedicineStockController(conn);
+            if (stock == UNLIMITED_STOCK) {
+                stockController.resetBalance(uuid, UNLIMITED_STOCK);
+            } else {
+                stockController.resetBalance(uuid, 0);
+                if (stock > 0) {
+                    stockController.recordMovement(uuid, StockMovement.Type.RECEIPT, stock, null, currentUserUuid(), "Cadastro do medicamento");
+                }
+            }
+            return null;
+        });
     }
 
     /**
@@ -53,14 +134,15 @@ public class MedicineController {
         List<Medicine> medicines = new ArrayList<>();
         String sql = """
                 SELECT m.uuid, m.name, m.brand_uuid, mb.name as brand_name, m.quantity, 
-                       m.description, m.is_active, m.created_at, m.updated_at
+                       m.description, m.is_active, m.created_at, m.updated_at,
+                       m.low_stock_threshold, m.low_stock_days
                 FROM public.medicines m
                 LEFT JOIN public.medicine_brands mb ON m.brand_uuid = mb.uuid
                 ORDER BY m.created_at DESC
                 """;
         try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
-                medicines.add(new Medicine((UUID) rs.getObject("uuid"), rs.getString("name"), (UUID) rs.getObject("brand_uuid"), rs.getString("brand_name"), (Integer) rs.getObject("quantity"), rs.getString("description"), rs.getBoolean("is_active"), rs.getTimestamp("created_at").toLocalDateTime(), rs.getTimestamp("updated_at").toLocalDateTime()));
+                medicines.add(mapMedicine(rs));
             }
         }
         return medicines;
@@ -76,7 +158,8 @@ public class MedicineController {
     public Medicine findByUuid(UUID uuid) throws SQLException {
         String sql = """
                 SELECT m.uuid, m.name, m.brand_uuid, mb.name as brand_name, m.quantity, 
-                       m.description, m.is_active, m.created_at, m.updated_at
+                       m.description, m.is_active, m.created_at, m.updated_at,
+                       m.low_stock_threshold, m.low_stock_days
                 FROM public.medicines m
                 LEFT JOIN public.medicine_brands mb ON m.brand_uuid = mb.uuid
                 WHERE m.uuid = ?
@@ -85,7 +168,7 @@ public class MedicineController {
             stmt.setObject(1, uuid);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Medicine((UUID) rs.getObject("uuid"), rs.getString("name"), (UUID) rs.getObject("brand_uuid"), rs.getString("brand_name"), (Integer) rs.getObject("quantity"), rs.getString("description"), rs.getBoolean("is_active"), rs.getTimestamp("created_at").toLocalDateTime(), rs.getTimestamp("updated_at").toLocalDateTime());
+                    return mapMedicine(rs);
                 }
             }
         }
@@ -94,39 +177,277 @@ public class MedicineController {
 
     /**
      * Atualiza os dados de um medicamento existente no banco de dados.
+     * A quantidade só é gravada se o usuário a alterou, e só se o estoque ainda for o que o formulário
+     * carregou; a diferença é registrada no livro de estoque como ajuste.
      * 
      * @param uuid UUID do medicamento a ser atualizado
      * @param name Novo nome do medicamento
      * @param brandId Novo UUID da marca do medicamento
+     * @param expectedQuantity Quantidade carregada pelo formulário antes da edição
      * @param quantity Nova quantidade disponível do medicamento
      * @param description Nova descrição do medicamento
      * @param isActive Novo status de ativação do medicamento
+     * @throws StaleStockException Se a quantidade foi alterada e o estoque mudou desde que foi carregado
      * @throws SQLException Se ocorrer erro na operação do banco de dados
      */
-    public void update(UUID uuid, String name, UUID brandId, Integer quantity, String description, Boolean isActive) throws SQLException {
+    public void update(UUID uuid, String name, UUID brandId, Integer expectedQuantity, Integer quantity, String description, Boolean isActive) throws SQLException {
+        int expectedStock = normalizeStock(expectedQuantity);
+        int newStock = normalizeStock(quantity);
+        if (newStock == expectedStock) {
+            // Quantidade não foi alterada: não sobrescreve baixas feitas enquanto o formulário estava aberto
+            String sql = "UPDATE public.medicines SET name = ?, brand_uuid = ?, description = ?, is_active = ?, updated_at = now() WHERE uuid = ?";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, name);
+                ps.setObject(2, brandId);
+                ps.setString(3, description);
+                ps.setBoolean(4, isActive);
+                ps.setObject(5, uuid);
+                ps.executeUpdate();
+            }
+            return;
+        }
+
         String sql = "UPDATE public.medicines SET name = ?, brand_uuid = ?, quantity = ?, description = ?, is_active = ?, updated_at = now() WHERE uuid = ?";
+        inTransaction(conn -> {
+            // Trava a linha antes de ler a quantidade anterior, para o ajuste refletir exatamente a mudança
+            Integer oldQuantity;
+            try (PreparedStatement ps = conn.prepareStatement("SELECT quantity FROM public.medicines WHERE uuid = ? FOR UPDATE")) {
+                ps.setObject(1, uuid);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) return null;
+                    oldQuantity = (Integer) rs.getObject("quantity");
+                }
+            }
+            int oldStock = normalizeStock(oldQuantity);
+            if (oldStock != expectedStock) throw new StaleStockException(expectedStock, oldStock);
+
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, name);
+                ps.setObject(2, brandId);
+                ps.setObject(3, newStock);
+                ps.setString(4, description);
+                ps.setBoolean(5, isActive);
+                ps.setObject(6, uuid);
+                ps.executeUpdate();
+            }
+
+            MedicineStockController stockController = new MedicineStockController(conn);
+            if (oldStock == UNLIMITED_STOCK || newStock == UNLIMITED_STOCK) {
+                // Passou a ter (ou deixou de ter) controle de estoque: o saldo recomeça do valor informado
+                stockController.resetBalance(uuid, newStock);
+            } else {
+                stockController.recordMovement(uuid, StockMovement.Type.ADJUSTMENT, newStock - oldStock, null, currentUserUuid(), "Edição do medicamento");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Ativa ou inativa um medicamento sem alterar os demais dados (inclusive o estoque).
+     * 
+     * @param uuid UUID do medicamento
+     * @param isActive Novo status de ativação do medicamento
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public void updateActive(UUID uuid, Boolean isActive) throws SQLException {
+        String sql = "UPDATE public.medicines SET is_active = ?, updated_at = now() WHERE uuid = ?";
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, name);
-            ps.setObject(2, brandId);
-            ps.setObject(3, quantity != null ? quantity : -1);
-            ps.setString(4, description);
-            ps.setBoolean(5, isActive);
-            ps.setObject(6, uuid);
+            ps.setBoolean(1, isActive);
+            ps.setObject(2, uuid);
             ps.executeUpdate();
         }
     }
 
     /**
-     * Remove um medicamento do banco de dados.
+     * Define os limites de alerta de estoque do medicamento (ver MedicineStockAlertController).
+     * 
+     * @param uuid UUID do medicamento
+     * @param lowStockThreshold Alerta quando o estoque chegar a esta quantidade, ou null para não usar
+     * @param lowStockDays Alerta quando o estoque durar no máximo estes dias no consumo atual, ou null para o padrão
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public void updateStockAlertThresholds(UUID uuid, Integer lowStockThreshold, Integer lowStockDays) throws SQLException {
+        // updated_at faz a próxima avaliação incremental reavaliar o alerta
+        String sql = "UPDATE public.medicines SET low_stock_threshold = ?, low_stock_days = ?, updated_at = now() WHERE uuid = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setObject(1, lowStockThreshold, Types.INTEGER);
+            ps.setObject(2, lowStockDays, Types.INTEGER);
+            ps.setObject(3, uuid);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Dá baixa no estoque de um medicamento em um único comando condicional, sem ler a quantidade antes:
+     * aplicações simultâneas do mesmo medicamento nunca perdem atualizações nem deixam o estoque negativo.
+     * Medicamentos com estoque ilimitado (-1 ou nulo) não são alterados.
+     * Deve ser chamado na mesma transação que registra a aplicação.
+     * 
+     * @param uuid UUID do medicamento
+     * @param quantity Quantidade a ser retirada (maior que zero)
+     * @return Nova quantidade em estoque, ou {@link #UNLIMITED_STOCK} se o estoque for ilimitado
+     * @throws InsufficientStockException Se o estoque não tiver a quantidade pedida
+     * @throws SQLException Se o medicamento não existir ou ocorrer erro na operação do banco de dados
+     */
+    public int decrementStock(UUID uuid, int quantity) throws SQLException {
+        if (quantity <= 0) throw new IllegalArgumentException("A quantidade deve ser maior que zero");
+
+        // quantity >= ? (positivo) já exclui o estoque ilimitado (-1) e o nulo
+        String sql = """
+                UPDATE public.medicines
+                   SET quantity = quantity - ?, updated_at = now()
+                 WHERE uuid = ? AND quantity >= ?
+                RETURNING quantity
+                """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, quantity);
+            ps.setObject(2, uuid);
+            ps.setInt(3, quantity);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return rs.getInt("quantity");
+            }
+        }
+
+        // Nenhuma linha alterada: estoque ilimitado, insuficiente ou medicamento inexistente.
+        // FOR SHARE: a movimentação registrada em seguida fica protegida de um snapshot concorrente
+        try (PreparedStatement ps = conn.prepareStatement("SELECT quantity FROM public.medicines WHERE uuid = ? FOR SHARE")) {
+            ps.setObject(1, uuid);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Medicamento não encontrado: " + uuid);
+                Integer available = (Integer) rs.getObject("quantity");
+                if (available == null || available == UNLIMITED_STOCK) return UNLIMITED_STOCK;
+                throw new InsufficientStockException(quantity, available);
+            }
+        }
+    }
+
+    /**
+     * Registra a entrada de estoque de um medicamento (compra, doação): soma a quantidade ao estoque
+     * e registra o recebimento no livro, na mesma transação.
+     * 
+     * @param uuid UUID do medicamento
+     * @param quantity Quantidade recebida (maior que zero)
+     * @param note Observação livre (ex.: lote, fornecedor; pode ser null)
+     * @return Nova quantidade em estoque
+     * @throws SQLException Se o medicamento não existir, não tiver controle de estoque ou ocorrer erro na operação do banco de dados
+     */
+    public int receiveStock(UUID uuid, int quantity, String note) throws SQLException {
+        if (quantity <= 0) throw new IllegalArgumentException("A quantidade deve ser maior que zero");
+
+        // quantity >= 0 exclui o estoque ilimitado (-1) e o nulo
+        String sql = """
+                UPDATE public.medicines
+                   SET quantity = quantity + ?, updated_at = now()
+                 WHERE uuid = ? AND quantity >= 0
+                RETURNING quantity
+                """;
+        int[] stock = new int[1];
+        inTransaction(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, quantity);
+                ps.setObject(2, uuid);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) throw new SQLException("Medicamento não encontrado ou sem controle de estoque: " + uuid);
+                    stock[0] = rs.getInt("quantity");
+                }
+            }
+            new MedicineStockController(conn).recordMovement(uuid, StockMovement.Type.RECEIPT, quantity, null, currentUserUuid(), note);
+            return null;
+        });
+        return stock[0];
+    }
+
+    /**
+     * Dá baixa no estoque de unidades vencidas (ou descartadas) de um medicamento e registra a baixa
+     * no livro como EXPIRY, na mesma transação.
+     * 
+     * @param uuid UUID do medicamento
+     * @param quantity Quantidade descartada (maior que zero)
+     * @param note Observação livre (ex.: lote vencido; pode ser null)
+     * @return Nova quantidade em estoque
+     * @throws InsufficientStockException Se o estoque não tiver a quantidade informada
+     * @throws SQLException Se o medicamento não existir, não tiver controle de estoque ou ocorrer erro na operação do banco de dados
+     */
+    public int writeOffExpired(UUID uuid, int quantity, String note) throws SQLException {
+        int[] stock = new int[1];
+        inTransaction(conn -> {
+            stock[0] = decrementStock(uuid, quantity);
+            if (stock[0] == UNLIMITED_STOCK) throw new SQLException("Medicamento sem controle de estoque: " + uuid);
+            new MedicineStockController(conn).recordMovement(uuid, StockMovement.Type.EXPIRY, -quantity, null, currentUserUuid(), note);
+            return null;
+        });
+        return stock[0];
+    }
+
+    /**
+     * Retorna as movimentações mais recentes do livro de estoque de um medicamento.
+     * 
+     * @param uuid UUID do medicamento
+     * @param limit Quantidade máxima de movimentações
+     * @return Movimentações, da mais recente para a mais antiga
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public List<StockMovement> listStockMovements(UUID uuid, int limit) throws SQLException {
+        return new MedicineStockController(conn).listMovements(uuid, limit);
+    }
+
+    /**
+     * Remove um medicamento do banco de dados. Medicamentos com movimentações no livro de estoque
+     * não podem ser removidos (o histórico é preservado): nesse caso o medicamento é inativado.
      * 
      * @param uuid UUID do medicamento a ser removido
+     * @return true se o medicamento foi removido, false se foi apenas inativado
      * @throws SQLException Se ocorrer erro na operação do banco de dados
      */
-    public void delete(UUID uuid) throws SQLException {
-        String sql = "DELETE FROM public.medicines WHERE uuid = ?";
+    public boolean delete(UUID uuid) throws SQLException {
+        String sql = """
+                DELETE FROM public.medicines m
+                 WHERE m.uuid = ?
+                   AND NOT EXISTS (SELECT 1 FROM public.medicine_stock_movements s WHERE s.medicine_uuid = m.uuid)
+                """;
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setObject(1, uuid);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) return true;
         }
+        updateActive(uuid, false);
+        return false;
+    }
+
+    /**
+     * Executa a operação em uma transação, ou dentro da transação do chamador se já houver uma aberta.
+     */
+    private void inTransaction(Database.SqlFunction<Void> work) throws SQLException {
+        if (!conn.getAutoCommit()) {
+            work.apply(conn);
+            return;
+        }
+        conn.setAutoCommit(false);
+        try {
+            work.apply(conn);
+            conn.commit();
+        } catch (SQLException | RuntimeException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Converte a linha atual do ResultSet em um objeto Medicine.
+     */
+    private static Medicine mapMedicine(ResultSet rs) throws SQLException {
+        Medicine medicine = new Medicine((UUID) rs.getObject("uuid"), rs.getString("name"), (UUID) rs.getObject("brand_uuid"), rs.getString("brand_name"), (Integer) rs.getObject("quantity"), rs.getString("description"), rs.getBoolean("is_active"), rs.getTimestamp("created_at").toLocalDateTime(), rs.getTimestamp("updated_at").toLocalDateTime());
+        medicine.setLowStockThreshold((Integer) rs.getObject("low_stock_threshold"));
+        medicine.setLowStockDays((Integer) rs.getObject("low_stock_days"));
+        return medicine;
+    }
+
+    private static int normalizeStock(Integer quantity) {
+        return quantity == null || quantity < 0 ? UNLIMITED_STOCK : quantity;
+    }
+
+    private static UUID currentUserUuid() {
+        return Session.get() != null ? Session.get().getUuid() : null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,182 @@
+package modules.Medicine.controllers;
+
+import modules.Medicine.models.MedicineStockAlert;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Alertas de estoque dos medicamentos: sem estoque, abaixo do limite mínimo ou com estoque
+ * para menos dias do que o limite, projetados pelo consumo recente em medicine_applications.
+ * Medicamentos inativos ou com estoque ilimitado nunca geram alerta.
+ * <p>
+ * Não há data de validade no cadastro, então não há alerta de vencimento: unidades vencidas
+ * saem do estoque pela baixa por validade (MedicineController.writeOffExpired) e só aparecem
+ * aqui como estoque menor. Baixas por validade não entram no consumo médio.
+ */
+public class MedicineStockAlertController {
+
+    // Janela do consumo médio: longa o bastante para suavizar tratamentos pontuais
+    public static final int CONSUMPTION_WINDOW_DAYS = 30;
+    // Usado quando o medicamento não tem low_stock_days próprio
+    public static final int DEFAULT_LOW_STOCK_DAYS = 14;
+
+    private static final int BATCH_SIZE = 500;
+
+    private final Connection conn;
+
+    // O consumo só é somado para medicamentos que podem gerar alerta; o LATERAL usa o índice
+    // (medicine_uuid, applied_at) e lê só a janela, não o histórico inteiro
+    private static final String SELECT_CHANGED_SQL = """
+        SELECT m.uuid, m.quantity, m.is_active, m.low_stock_threshold, m.low_stock_days,
+               COALESCE(c.consumed, 0) AS consumed
+          FROM public.medicines m
+          LEFT JOIN LATERAL (
+                SELECT SUM(a.quantity) AS consumed
+                  FROM public.medicine_applications a
+                 WHERE a.medicine_uuid = m.uuid
+                   AND a.applied_at >= LOCALTIMESTAMP - make_interval(days => ?)
+                   AND m.is_active AND m.quantity >= 0
+          ) c ON true
+         WHERE m.updated_at > ?
+    """;
+
+    private static final String UPSERT_ALERT_SQL = """
+        INSERT INTO public.medicine_stock_alerts
+        (medicine_uuid, level, quantity, daily_consumption, days_until_empty, evaluated_at)
+        VALUES (?, ?, ?, ?, ?, now())
+        ON CONFLICT (medicine_uuid) DO UPDATE
+           SET level = EXCLUDED.level,
+               quantity = EXCLUDED.quantity,
+               daily_consumption = EXCLUDED.daily_consumption,
+               days_until_empty = EXCLUDED.days_until_empty,
+               evaluated_at = EXCLUDED.evaluated_at
+    """;
+
+    private static final String DELETE_ALERT_SQL = "DELETE FROM public.medicine_stock_alerts WHERE medicine_uuid = ?";
+
+    private static final String SELECT_ALERTS_SQL = """
+        SELECT a.medicine_uuid, m.name, a.level, a.quantity, a.daily_consumption,
+               a.days_until_empty, a.evaluated_at
+          FROM public.medicine_stock_alerts a
+          JOIN public.medicines m ON m.uuid = a.medicine_uuid
+         ORDER BY CASE a.level WHEN 'out' THEN 0 ELSE 1 END,
+                  a.days_until_empty NULLS LAST, m.name
+         LIMIT ?
+    """;
+
+    /**
+     * Construtor do MedicineStockAlertController.
+     *
+     * @param conn Conexão com o banco de dados
+     */
+    public MedicineStockAlertController(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * Reavalia os alertas dos medicamentos alterados depois de {@code since} (quantidade, limites,
+     * status ou uma aplicação, que atualiza updated_at ao dar baixa no estoque), criando, atualizando
+     * ou removendo o alerta de cada um. As linhas são lidas em blocos e gravadas em lotes, então
+     * a memória não cresce com a quantidade de medicamentos. Deve ser chamado dentro de uma transação.
+     *
+     * @param since Considera apenas medicamentos com updated_at posterior a esta data
+     * @return Quantidade de medicamentos avaliados
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public int evaluate(Timestamp since) throws SQLException {
+        int evaluated = 0;
+        int pending = 0;
+        try (PreparedStatement select = conn.prepareStatement(SELECT_CHANGED_SQL);
+             PreparedStatement upsert = conn.prepareStatement(UPSERT_ALERT_SQL);
+             PreparedStatement delete = conn.prepareStatement(DELETE_ALERT_SQL)) {
+            select.setFetchSize(BATCH_SIZE);
+            select.setInt(1, CONSUMPTION_WINDOW_DAYS);
+            select.setTimestamp(2, since);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = (UUID) rs.getObject("uuid");
+                    Integer quantity = (Integer) rs.getObject("quantity");
+                    Integer threshold = (Integer) rs.getObject("low_stock_threshold");
+                    Integer lowDays = (Integer) rs.getObject("low_stock_days");
+                    double dailyConsumption = rs.getLong("consumed") / (double) CONSUMPTION_WINDOW_DAYS;
+
+                    MedicineStockAlert.Level level = null;
+                    Double daysUntilEmpty = null;
+                    if (rs.getBoolean("is_active") && quantity != null && quantity >= 0) {
+                        if (dailyConsumption > 0) daysUntilEmpty = quantity / dailyConsumption;
+                        level = classify(quantity, daysUntilEmpty, threshold, lowDays);
+                    }
+
+                    if (level == null) {
+                        delete.setObject(1, uuid);
+                        delete.addBatch();
+                    } else {
+                        upsert.setObject(1, uuid);
+                        upsert.setString(2, level.name().toLowerCase());
+                        upsert.setInt(3, quantity);
+                        upsert.setDouble(4, dailyConsumption);
+                        upsert.setObject(5, daysUntilEmpty, Types.NUMERIC);
+                        upsert.addBatch();
+                    }
+                    evaluated++;
+                    if (++pending == BATCH_SIZE) {
+                        upsert.executeBatch();
+                        delete.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                upsert.executeBatch();
+                delete.executeBatch();
+            }
+        }
+        return evaluated;
+    }
+
+    /**
+     * Retorna os alertas ativos, primeiro os medicamentos sem estoque e depois os que acabam antes.
+     *
+     * @param limit Quantidade máxima de alertas
+     * @return Lista de alertas
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public List<MedicineStockAlert> listAlerts(int limit) throws SQLException {
+        List<MedicineStockAlert> alerts = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_ALERTS_SQL)) {
+            ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    BigDecimal days = rs.getBigDecimal("days_until_empty");
+                    alerts.add(new MedicineStockAlert(
+                            (UUID) rs.getObject("medicine_uuid"),
+                            rs.getString("name"),
+                            MedicineStockAlert.Level.valueOf(rs.getString("level").toUpperCase()),
+                            rs.getInt("quantity"),
+                            rs.getDouble("daily_consumption"),
+                            days != null ? days.doubleValue() : null,
+                            rs.getTimestamp("evaluated_at").toLocalDateTime()
+                    ));
+                }
+            }
+        }
+        return alerts;
+    }
+
+    /**
+     * Define o nível de alerta de um medicamento com estoque finito.
+     *
+     * @return Nível do alerta, ou null se o estoque estiver dentro dos limites
+     */
+    private static MedicineStockAlert.Level classify(int quantity, Double daysUntilEmpty, Integer threshold, Integer lowDays) {
+        if (quantity == 0) return MedicineStockAlert.Level.OUT;
+        if (threshold != null && quantity <= threshold) return MedicineStockAlert.Level.LOW;
+        int days = lowDays != null ? lowDays : DEFAULT_LOW_STOCK_DAYS;
+        if (daysUntilEmpty != null && daysUntilEmpty <= days) return MedicineStockAlert.Level.LOW;
+        return null;
+    }
+}
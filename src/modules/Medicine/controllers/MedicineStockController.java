@@ -0,0 +1,237 @@
+package modules.Medicine.controllers;
+
+import modules.Medicine.models.StockMovement;
+
+import java.sql.*;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Livro de estoque dos medicamentos: movimentações (só inserção) e snapshots periódicos do saldo.
+ * O saldo é o último snapshot somado às movimentações posteriores a ele, então a consulta
+ * lê só as movimentações recentes, não o histórico inteiro.
+ * <p>
+ * Quem grava no livro precisa estar na mesma transação que trava a linha do medicamento
+ * (UPDATE ou SELECT ... FOR UPDATE/FOR SHARE): assim um snapshot, que trava a linha com FOR UPDATE,
+ * nunca deixa de fora uma movimentação ainda não confirmada.
+ */
+public class MedicineStockController {
+
+    private final Connection conn;
+
+    private static final String INSERT_MOVEMENT_SQL = """
+        INSERT INTO public.medicine_stock_movements
+        (medicine_uuid, movement_type, delta, application_uuid, user_uuid, note)
+        VALUES (?, ?, ?, ?, ?, ?)
+        RETURNING id
+    """;
+
+    // Último snapshot como base; sem snapshot, o saldo parte de zero
+    private static final String BALANCE_SQL = """
+        WITH s AS (
+            SELECT balance, last_movement_id
+              FROM public.medicine_stock_snapshots
+             WHERE medicine_uuid = ?
+             ORDER BY last_movement_id DESC, id DESC
+             LIMIT 1
+        )
+        SELECT COALESCE((SELECT balance FROM s), 0) AS snapshot_balance,
+               COALESCE(SUM(m.delta), 0) AS delta,
+               COALESCE(MAX(m.id), (SELECT last_movement_id FROM s), 0) AS last_movement_id
+          FROM public.medicine_stock_movements m
+         WHERE m.medicine_uuid = ?
+           AND m.id > COALESCE((SELECT last_movement_id FROM s), 0)
+    """;
+
+    private static final String INSERT_SNAPSHOT_SQL = """
+        INSERT INTO public.medicine_stock_snapshots (medicine_uuid, balance, last_movement_id)
+        VALUES (?, ?, ?)
+    """;
+
+    private static final String SELECT_MOVEMENTS_SQL = """
+        SELECT id, medicine_uuid, movement_type, delta, application_uuid, user_uuid, note, created_at
+          FROM public.medicine_stock_movements
+         WHERE medicine_uuid = ?
+         ORDER BY id DESC
+         LIMIT ?
+    """;
+
+    // Medicamentos com muitas movimentações desde o último snapshot. A contagem para em ? linhas
+    // (LIMIT) e usa o índice (medicine_uuid, id): não percorre o histórico inteiro
+    private static final String SELECT_NEEDING_SNAPSHOT_SQL = """
+        SELECT med.uuid AS medicine_uuid
+          FROM public.medicines med
+          LEFT JOIN LATERAL (
+                SELECT last_movement_id
+                  FROM public.medicine_stock_snapshots s
+                 WHERE s.medicine_uuid = med.uuid
+                 ORDER BY last_movement_id DESC, id DESC
+                 LIMIT 1
+          ) s ON true
+         WHERE (SELECT COUNT(*)
+                  FROM (SELECT 1
+                          FROM public.medicine_stock_movements m
+                         WHERE m.medicine_uuid = med.uuid
+                           AND m.id > COALESCE(s.last_movement_id, 0)
+                         LIMIT ?) recent) >= ?
+    """;
+
+    /**
+     * Construtor do MedicineStockController.
+     *
+     * @param conn Conexão com o banco de dados
+     */
+    public MedicineStockController(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * Registra uma movimentação no livro de estoque.
+     * Deve ser chamado na transação que alterou (e travou) a linha do medicamento.
+     *
+     * @param medicineUuid UUID do medicamento
+     * @param type Tipo da movimentação
+     * @param delta Variação do estoque (positiva na entrada, negativa na saída)
+     * @param applicationUuid UUID da aplicação (apenas em APPLICATION; pode ser null)
+     * @param userUuid UUID do usuário responsável (pode ser null)
+     * @param note Observação livre (pode ser null)
+     * @return ID da movimentação registrada
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public long recordMovement(UUID medicineUuid, StockMovement.Type type, int delta, UUID applicationUuid,
+                               UUID userUuid, String note) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_MOVEMENT_SQL)) {
+            ps.setObject(1, medicineUuid);
+            ps.setString(2, type.name().toLowerCase());
+            ps.setInt(3, delta);
+            ps.setObject(4, applicationUuid);
+            ps.setObject(5, userUuid);
+            ps.setString(6, note);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong("id");
+            }
+        }
+    }
+
+    /**
+     * Registra um saldo absoluto a partir deste ponto do livro, sem somar ao anterior.
+     * Usado no cadastro e quando o estoque passa de finito para ilimitado (ou o contrário).
+     * Deve ser chamado na transação que alterou (e travou) a linha do medicamento.
+     *
+     * @param medicineUuid UUID do medicamento
+     * @param balance Novo saldo, ou {@link MedicineController#UNLIMITED_STOCK} se ilimitado
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public void resetBalance(UUID medicineUuid, int balance) throws SQLException {
+        insertSnapshot(medicineUuid, balance, readBalance(medicineUuid).lastMovementId);
+    }
+
+    /**
+     * Grava um snapshot do saldo atual do medicamento, para que as próximas consultas de saldo
+     * não precisem somar as movimentações anteriores. Deve ser chamado dentro de uma transação.
+     *
+     * @param medicineUuid UUID do medicamento
+     * @return Saldo gravado no snapshot, ou null se o medicamento não existir mais
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public Integer takeSnapshot(UUID medicineUuid) throws SQLException {
+        // Trava o medicamento: movimentações em transações ainda abertas terminam antes do snapshot
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM public.medicines WHERE uuid = ? FOR UPDATE")) {
+            ps.setObject(1, medicineUuid);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+            }
+        }
+        Balance current = readBalance(medicineUuid);
+        insertSnapshot(medicineUuid, current.balance, current.lastMovementId);
+        return current.balance;
+    }
+
+    /**
+     * Lista os medicamentos com pelo menos {@code minMovements} movimentações desde o último snapshot.
+     *
+     * @param minMovements Quantidade mínima de movimentações desde o último snapshot
+     * @return UUIDs dos medicamentos
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public List<UUID> findMedicinesNeedingSnapshot(int minMovements) throws SQLException {
+        List<UUID> out = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_NEEDING_SNAPSHOT_SQL)) {
+            ps.setInt(1, minMovements);
+            ps.setInt(2, minMovements);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add((UUID) rs.getObject("medicine_uuid"));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Retorna as movimentações mais recentes de um medicamento (auditoria).
+     *
+     * @param medicineUuid UUID do medicamento
+     * @param limit Quantidade máxima de movimentações
+     * @return Movimentações, da mais recente para a mais antiga
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public List<StockMovement> listMovements(UUID medicineUuid, int limit) throws SQLException {
+        List<StockMovement> out = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_MOVEMENTS_SQL)) {
+            ps.setObject(1, medicineUuid);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    out.add(new StockMovement(
+                            rs.getLong("id"),
+                            (UUID) rs.getObject("medicine_uuid"),
+                            StockMovement.Type.valueOf(rs.getString("movement_type").toUpperCase()),
+                            rs.getInt("delta"),
+                            (UUID) rs.getObject("application_uuid"),
+                            (UUID) rs.getObject("user_uuid"),
+                            rs.getString("note"),
+                            ZonedDateTime.ofInstant(createdAt.toInstant(), ZoneId.systemDefault())
+                    ));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Saldo calculado e a última movimentação considerada no cálculo.
+     */
+    private record Balance(int balance, long lastMovementId) { }
+
+    private Balance readBalance(UUID medicineUuid) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(BALANCE_SQL)) {
+            ps.setObject(1, medicineUuid);
+            ps.setObject(2, medicineUuid);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                int snapshot = rs.getInt("snapshot_balance");
+                long lastMovementId = rs.getLong("last_movement_id");
+                // Estoque ilimitado: as movimentações ficam só como histórico de consumo
+                int balance = snapshot == MedicineController.UNLIMITED_STOCK
+                        ? MedicineController.UNLIMITED_STOCK
+                        : snapshot + rs.getInt("delta");
+                return new Balance(balance, lastMovementId);
+            }
+        }
+    }
+
+    private void insertSnapshot(UUID medicineUuid, int balance, long lastMovementId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SNAPSHOT_SQL)) {
+            ps.setObject(1, medicineUuid);
+            ps.setInt(2, balance);
+            ps.setLong(3, lastMovementId);
+            ps.executeUpdate();
+        }
+    }
+}
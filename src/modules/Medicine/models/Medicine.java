@@ -14,6 +14,8 @@ public class Medicine {
     private Boolean isActive;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Integer lowStockThreshold;
+    private Integer lowStockDays;
 
     /**
      * Construtor da classe Medicine.
@@ -165,4 +167,32 @@ public class Medicine {
      * @param updatedAt Data da última atualização do registro
      */
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    /**
+     * Retorna a quantidade em estoque a partir da qual o medicamento entra em alerta.
+     * 
+     * @return Quantidade mínima, ou null se não houver limite por quantidade
+     */
+    public Integer getLowStockThreshold() { return lowStockThreshold; }
+    
+    /**
+     * Define a quantidade em estoque a partir da qual o medicamento entra em alerta.
+     * 
+     * @param lowStockThreshold Quantidade mínima, ou null para não usar limite por quantidade
+     */
+    public void setLowStockThreshold(Integer lowStockThreshold) { this.lowStockThreshold = lowStockThreshold; }
+
+    /**
+     * Retorna com quantos dias de estoque restantes (no consumo atual) o medicamento entra em alerta.
+     * 
+     * @return Dias de estoque, ou null para usar o padrão
+     */
+    public Integer getLowStockDays() { return lowStockDays; }
+    
+    /**
+     * Define com quantos dias de estoque restantes (no consumo atual) o medicamento entra em alerta.
+     * 
+     * @param lowStockDays Dias de estoque, ou null para usar o padrão
+     */
+    public void setLowStockDays(Integer lowStockDays) { this.lowStockDays = lowStockDays; }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package modules.Medicine.models;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class MedicineStockAlert {
+
+    public enum Level { OUT, LOW }
+
+    private final UUID medicineUuid;
+    private final String medicineName;
+    private final Level level;
+    private final int quantity;
+    private final double dailyConsumption;
+    private final Double daysUntilEmpty;
+    private final LocalDateTime evaluatedAt;
+
+    /**
+     * Construtor da classe MedicineStockAlert.
+     *
+     * @param medicineUuid UUID do medicamento
+     * @param medicineName Nome do medicamento
+     * @param level Nível do alerta (sem estoque ou estoque baixo)
+     * @param quantity Quantidade em estoque na avaliação
+     * @param dailyConsumption Consumo médio diário na janela avaliada
+     * @param daysUntilEmpty Dias até o estoque acabar no ritmo atual, ou null se não houve consumo
+     * @param evaluatedAt Data e hora da avaliação
+     */
+    public MedicineStockAlert(UUID medicineUuid, String medicineName, Level level, int quantity,
+                              double dailyConsumption, Double daysUntilEmpty, LocalDateTime evaluatedAt) {
+        this.medicineUuid = medicineUuid;
+        this.medicineName = medicineName;
+        this.level = level;
+        this.quantity = quantity;
+        this.dailyConsumption = dailyConsumption;
+        this.daysUntilEmpty = daysUntilEmpty;
+        this.evaluatedAt = evaluatedAt;
+    }
+
+    /**
+     * Retorna o UUID do medicamento.
+     *
+     * @return UUID do medicamento
+     */
+    public UUID getMedicineUuid() { return medicineUuid; }
+
+    /**
+     * Retorna o nome do medicamento.
+     *
+     * @return Nome do medicamento
+     */
+    public String getMedicineName() { return medicineName; }
+
+    /**
+     * Retorna o nível do alerta.
+     *
+     * @return OUT (sem estoque) ou LOW (estoque baixo)
+     */
+    public Level getLevel() { return level; }
+
+    /**
+     * Retorna a quantidade em estoque na avaliação.
+     *
+     * @return Quantidade em estoque
+     */
+    public int getQuantity() { return quantity; }
+
+    /**
+     * Retorna o consumo médio diário na janela avaliada.
+     *
+     * @return Unidades consumidas por dia
+     */
+    public double getDailyConsumption() { return dailyConsumption; }
+
+    /**
+     * Retorna a projeção de dias até o estoque acabar.
+     *
+     * @return Dias até acabar, ou null se não houve consumo na janela avaliada
+     */
+    public Double getDaysUntilEmpty() { return daysUntilEmpty; }
+
+    /**
+     * Retorna a data e hora da avaliação.
+     *
+     * @return Data e hora da avaliação
+     */
+    public LocalDateTime getEvaluatedAt() { return evaluatedAt; }
+}
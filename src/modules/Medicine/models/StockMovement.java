@@ -0,0 +1,98 @@
+package modules.Medicine.models;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+public class StockMovement {
+
+    public enum Type { RECEIPT, APPLICATION, ADJUSTMENT, EXPIRY }
+
+    private final long id;
+    private final UUID medicineUuid;
+    private final Type type;
+    private final int delta;
+    private final UUID applicationUuid;
+    private final UUID userUuid;
+    private final String note;
+    private final ZonedDateTime createdAt;
+
+    /**
+     * Construtor da classe StockMovement.
+     *
+     * @param id ID sequencial da movimentação no livro de estoque
+     * @param medicineUuid UUID do medicamento
+     * @param type Tipo da movimentação
+     * @param delta Variação do estoque (positiva na entrada, negativa na saída)
+     * @param applicationUuid UUID da aplicação que consumiu o estoque (apenas em APPLICATION)
+     * @param userUuid UUID do usuário responsável, se conhecido
+     * @param note Observação livre
+     * @param createdAt Data e hora da movimentação
+     */
+    public StockMovement(long id, UUID medicineUuid, Type type, int delta, UUID applicationUuid, UUID userUuid,
+                         String note, ZonedDateTime createdAt) {
+        this.id = id;
+        this.medicineUuid = medicineUuid;
+        this.type = type;
+        this.delta = delta;
+        this.applicationUuid = applicationUuid;
+        this.userUuid = userUuid;
+        this.note = note;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Retorna o ID sequencial da movimentação.
+     *
+     * @return ID da movimentação
+     */
+    public long getId() { return id; }
+
+    /**
+     * Retorna o UUID do medicamento.
+     *
+     * @return UUID do medicamento
+     */
+    public UUID getMedicineUuid() { return medicineUuid; }
+
+    /**
+     * Retorna o tipo da movimentação.
+     *
+     * @return Tipo (RECEIPT, APPLICATION, ADJUSTMENT ou EXPIRY)
+     */
+    public Type getType() { return type; }
+
+    /**
+     * Retorna a variação do estoque.
+     *
+     * @return Variação (positiva na entrada, negativa na saída)
+     */
+    public int getDelta() { return delta; }
+
+    /**
+     * Retorna o UUID da aplicação que consumiu o estoque.
+     *
+     * @return UUID da aplicação, ou null se a movimentação não for uma aplicação
+     */
+    public UUID getApplicationUuid() { return applicationUuid; }
+
+    /**
+     * Retorna o UUID do usuário responsável.
+     *
+     * @return UUID do usuário, ou null se desconhecido
+     */
+    public UUID getUserUuid() { return userUuid; }
+
+    /**
+     * Retorna a observação da movimentação.
+     *
+     * @return Observação, ou null
+     */
+    public String getNote() { return note; }
+
+    /**
+     * Retorna a data e hora da movimentação.
+     *
+     * @return Data e hora da movimentação
+     */
+    public ZonedDateTime getCreatedAt() { return createdAt; }
+}
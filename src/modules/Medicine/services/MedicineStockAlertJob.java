@@ -0,0 +1,93 @@
+package modules.Medicine.services;
+
+import config.BackgroundJobs;
+import config.Database;
+import config.Env;
+import modules.Medicine.controllers.MedicineStockAlertController;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Job que mantém os alertas de estoque dos medicamentos (medicine_stock_alerts).
+ * Cada execução reavalia só os medicamentos alterados desde a anterior; uma vez por dia
+ * reavalia todos, porque a janela de consumo avança mesmo sem alterações.
+ */
+public class MedicineStockAlertJob {
+
+    private static final long INTERVAL_MINUTES = Env.longValue("MEDICINE_STOCK_ALERT_MINUTES", 15, 1);
+    private static final long FULL_RUN_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(24);
+    private static final long INITIAL_DELAY_SECONDS = 30;
+
+    // Transações que alteraram um medicamento antes do início da execução, mas confirmaram
+    // depois, ficam com updated_at anterior à marca: a próxima execução volta um pouco atrás
+    private static final long OVERLAP_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static final AtomicBoolean running = new AtomicBoolean();
+    private static volatile boolean runRequested;
+
+    // Início (no relógio do banco) da última execução bem-sucedida; null força a avaliação completa
+    private static Timestamp watermark;
+    private static long lastFullRun;
+
+    /**
+     * Agenda a avaliação periódica dos alertas. Chamadas repetidas são ignoradas.
+     */
+    public static void start() {
+        if (!started.compareAndSet(false, true)) return;
+        BackgroundJobs.scheduleWithFixedDelay("medicine-stock-alerts", MedicineStockAlertJob::run,
+                INITIAL_DELAY_SECONDS, TimeUnit.MINUTES.toSeconds(INTERVAL_MINUTES), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Pede uma avaliação imediata em background (ex.: depois de uma aplicação ou de editar um medicamento),
+     * sem esperar o próximo ciclo.
+     */
+    public static void wakeUp() {
+        if (started.get()) BackgroundJobs.execute("medicine-stock-alerts", MedicineStockAlertJob::run);
+    }
+
+    /**
+     * Reavalia os alertas dos medicamentos alterados desde a última execução.
+     * Pedidos que chegam durante uma execução são agrupados em uma única execução seguinte.
+     */
+    static void run() {
+        runRequested = true;
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            while (runRequested) {
+                runRequested = false;
+                evaluate();
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static void evaluate() {
+        boolean full = watermark == null || System.currentTimeMillis() - lastFullRun >= FULL_RUN_INTERVAL_MILLIS;
+        Timestamp since = full ? new Timestamp(0) : watermark;
+        try {
+            Timestamp runStart = Database.inTransaction(conn -> {
+                Timestamp now;
+                try (PreparedStatement ps = conn.prepareStatement("SELECT LOCALTIMESTAMP");
+                     ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    now = rs.getTimestamp(1);
+                }
+                int evaluated = new MedicineStockAlertController(conn).evaluate(since);
+                if (full) System.out.println("Alertas de estoque reavaliados: " + evaluated + " medicamentos");
+                return now;
+            });
+            watermark = new Timestamp(runStart.getTime() - OVERLAP_MILLIS);
+            if (full) lastFullRun = System.currentTimeMillis();
+        } catch (SQLException e) {
+            System.err.println("Falha ao avaliar alertas de estoque: " + e.getMessage());
+        }
+    }
+}
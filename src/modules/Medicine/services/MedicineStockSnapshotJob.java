@@ -0,0 +1,76 @@
+package modules.Medicine.services;
+
+import config.BackgroundJobs;
+import config.Database;
+import modules.Medicine.controllers.MedicineStockController;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Job que grava snapshots do saldo dos medicamentos com muitas movimentações recentes,
+ * mantendo a consulta de saldo proporcional só às movimentações desde o último snapshot.
+ */
+public class MedicineStockSnapshotJob {
+
+    // Movimentações desde o último snapshot a partir das quais vale gravar outro
+    private static final int MIN_MOVEMENTS = 50;
+    private static final long INTERVAL_HOURS = 6;
+    private static final long INITIAL_DELAY_MINUTES = 5;
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * Agenda a execução periódica do job. Chamadas repetidas são ignoradas.
+     */
+    public static void start() {
+        if (!started.compareAndSet(false, true)) return;
+        BackgroundJobs.scheduleWithFixedDelay("medicine-stock-snapshots", MedicineStockSnapshotJob::run,
+                TimeUnit.MINUTES.toSeconds(INITIAL_DELAY_MINUTES), TimeUnit.HOURS.toSeconds(INTERVAL_HOURS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Grava um snapshot para cada medicamento com pelo menos {@link #MIN_MOVEMENTS} movimentações
+     * desde o último. Cada snapshot é uma transação curta, que trava só aquele medicamento.
+     */
+    static void run() {
+        try {
+            List<UUID> medicines = Database.withConnection(conn ->
+                    new MedicineStockController(conn).findMedicinesNeedingSnapshot(MIN_MOVEMENTS));
+            for (UUID medicineUuid : medicines) {
+                Database.inTransaction(conn -> {
+                    Integer balance = new MedicineStockController(conn).takeSnapshot(medicineUuid);
+                    if (balance != null) checkDrift(conn, medicineUuid, balance);
+                    return null;
+                });
+            }
+        } catch (SQLException e) {
+            System.err.println("Falha ao gravar snapshots de estoque: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compara o saldo do livro com a quantidade em medicines e avisa se divergirem
+     * (ex.: quantidade alterada direto no banco, fora da aplicação).
+     */
+    private static void checkDrift(Connection conn, UUID medicineUuid, int balance) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT quantity FROM public.medicines WHERE uuid = ?")) {
+            ps.setObject(1, medicineUuid);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return;
+                Integer quantity = (Integer) rs.getObject("quantity");
+                int stock = quantity == null || quantity < 0 ? -1 : quantity;
+                if (stock != balance) {
+                    System.err.println("Estoque divergente no medicamento " + medicineUuid
+                            + ": quantidade " + stock + ", livro de estoque " + balance);
+                }
+            }
+        }
+    }
+}
@@ -10,24 +10,31 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import modules.MedicineBrand.controllers.MedicineBrandController;
 import modules.Medicine.controllers.MedicineController;
+import modules.Medicine.controllers.MedicineStockAlertController;
 import modules.Medicine.models.Medicine;
+import modules.Medicine.models.StockMovement;
 import modules.Medicine.views.MedicineView;
 import modules.MedicineBrand.models.MedicineBrand;
+import modules.Medicine.services.MedicineStockAlertJob;
 import config.Database;
+import utils.FxAsync;
 
-import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 public class MedicineEditForm extends VBox {
 
+    private static final int STOCK_HISTORY_LIMIT = 50;
+    private static final DateTimeFormatter HISTORY_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
     private TextField nameField;
     private ComboBox<MedicineBrand> brandComboBox;
     private TextField quantityField;
     private TextArea descriptionField;
+    private TextField lowStockThresholdField;
+    private TextField lowStockDaysField;
     private Medicine medicine;
-    private MedicineController controller;
-    private Connection conn;
     private BorderPane mainLayout;
     private MedicineView medicineView;
 
@@ -35,13 +42,11 @@ public class MedicineEditForm extends VBox {
      * Construtor do formulário de edição de medicamento.
      * 
      * @param medicine Medicamento a ser editado
-     * @param controller Controller responsável pelas operações de medicamento
      * @param mainLayout Layout principal para navegação
      * @param medicineView View de medicamentos para recarregar dados após salvar
      */
-    public MedicineEditForm(Medicine medicine, MedicineController controller, BorderPane mainLayout, MedicineView medicineView) {
+    public MedicineEditForm(Medicine medicine, BorderPane mainLayout, MedicineView medicineView) {
         this.medicine = medicine;
-        this.controller = controller;
         this.mainLayout = mainLayout;
         this.medicineView = medicineView;
 
@@ -50,12 +55,6 @@ public class MedicineEditForm extends VBox {
         this.setAlignment(Pos.CENTER);
         this.getStyleClass().add("form-bg");
 
-        try {
-            conn = Database.getConnection();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
         Label titleLabel = new Label("Editar medicamento");
         titleLabel.getStyleClass().add("form-title");
         
@@ -140,6 +139,38 @@ public class MedicineEditForm extends VBox {
         HBox brandQuantityRow = new HBox(20, brandBox, quantityBox);
         brandQuantityRow.setAlignment(Pos.CENTER);
 
+        // Limites de alerta de estoque (vazios: sem limite por quantidade / padrão de dias)
+        Label lowStockThresholdLabel = new Label("Alertar com estoque até:");
+        lowStockThresholdLabel.getStyleClass().add("form-label");
+
+        lowStockThresholdField = new TextField();
+        lowStockThresholdField.setPromptText("Quantidade (opcional)");
+        lowStockThresholdField.setPrefWidth(280);
+        lowStockThresholdField.setMaxWidth(280);
+        lowStockThresholdField.getStyleClass().add("form-input");
+
+        VBox lowStockThresholdBox = new VBox(8, lowStockThresholdLabel, lowStockThresholdField);
+        lowStockThresholdBox.setPrefWidth(280);
+        lowStockThresholdBox.setMaxWidth(280);
+        lowStockThresholdBox.setAlignment(Pos.CENTER_LEFT);
+
+        Label lowStockDaysLabel = new Label("Alertar com estoque para (dias):");
+        lowStockDaysLabel.getStyleClass().add("form-label");
+
+        lowStockDaysField = new TextField();
+        lowStockDaysField.setPromptText("Padrão: " + MedicineStockAlertController.DEFAULT_LOW_STOCK_DAYS);
+        lowStockDaysField.setPrefWidth(280);
+        lowStockDaysField.setMaxWidth(280);
+        lowStockDaysField.getStyleClass().add("form-input");
+
+        VBox lowStockDaysBox = new VBox(8, lowStockDaysLabel, lowStockDaysField);
+        lowStockDaysBox.setPrefWidth(280);
+        lowStockDaysBox.setMaxWidth(280);
+        lowStockDaysBox.setAlignment(Pos.CENTER_LEFT);
+
+        HBox stockAlertRow = new HBox(20, lowStockThresholdBox, lowStockDaysBox);
+        stockAlertRow.setAlignment(Pos.CENTER);
+
         // Descrição
         Label descriptionLabel = new Label("Descrição:");
         descriptionLabel.getStyleClass().add("form-label");
@@ -177,7 +208,23 @@ public class MedicineEditForm extends VBox {
         HBox buttonBox = new HBox(15, backButton, saveButton);
         buttonBox.setAlignment(Pos.CENTER);
 
-        VBox formContent = new VBox(20, nameBox, brandQuantityRow, descriptionBox);
+        // Movimentações de estoque, gravadas na hora e registradas no livro de estoque
+        Button receiveButton = new Button("Registrar entrada");
+        receiveButton.getStyleClass().add("form-btn-cancel");
+        receiveButton.setOnAction(e -> recordStockMovement(StockMovement.Type.RECEIPT));
+
+        Button writeOffButton = new Button("Baixa por validade");
+        writeOffButton.getStyleClass().add("form-btn-cancel");
+        writeOffButton.setOnAction(e -> recordStockMovement(StockMovement.Type.EXPIRY));
+
+        Button historyButton = new Button("Histórico de estoque");
+        historyButton.getStyleClass().add("form-btn-cancel");
+        historyButton.setOnAction(e -> showStockHistory());
+
+        HBox stockButtonBox = new HBox(15, receiveButton, writeOffButton, historyButton);
+        stockButtonBox.setAlignment(Pos.CENTER);
+
+        VBox formContent = new VBox(20, nameBox, brandQuantityRow, stockButtonBox, stockAlertRow, descriptionBox);
         formContent.setAlignment(Pos.CENTER);
         formContent.setPadding(new Insets(10, 0, 10, 0));
 
@@ -186,45 +233,44 @@ public class MedicineEditForm extends VBox {
     }
 
     /**
-     * Carrega a lista de marcas de medicamentos do banco de dados e popula o ComboBox.
+     * Carrega a lista de marcas de medicamentos do banco de dados em background e popula o ComboBox.
      */
     private void loadBrands() {
-        try {
-            MedicineBrandController brandController = new MedicineBrandController(conn);
-            List<MedicineBrand> brands = brandController.listAll();
-            ObservableList<MedicineBrand> brandsList = FXCollections.observableArrayList(brands);
-            brandComboBox.setItems(brandsList);
-
-            brandComboBox.setCellFactory(param -> new ListCell<MedicineBrand>() {
-                @Override
-                protected void updateItem(MedicineBrand item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty || item == null) {
-                        setText(null);
-                    } else {
-                        setText(item.getName());
-                    }
+        brandComboBox.setCellFactory(param -> new ListCell<MedicineBrand>() {
+            @Override
+            protected void updateItem(MedicineBrand item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    setText(item.getName());
                 }
-            });
-
-            brandComboBox.setButtonCell(new ListCell<MedicineBrand>() {
-                @Override
-                protected void updateItem(MedicineBrand item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty || item == null) {
-                        setText(null);
-                    } else {
-                        setText(item.getName());
-                    }
+            }
+        });
+
+        brandComboBox.setButtonCell(new ListCell<MedicineBrand>() {
+            @Override
+            protected void updateItem(MedicineBrand item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    setText(item.getName());
                 }
-            });
-        } catch (SQLException e) {
+            }
+        });
+
+        FxAsync.load(this, conn -> new MedicineBrandController(conn).listAll(), brands -> {
+            ObservableList<MedicineBrand> brandsList = FXCollections.observableArrayList(brands);
+            brandComboBox.setItems(brandsList);
+            selectMedicineBrand();
+        }, e -> {
             e.printStackTrace();
             Alert alert = new Alert(Alert.AlertType.ERROR, "Erro ao carregar marcas: " + e.getMessage());
             alert.setTitle("Erro");
             alert.setHeaderText(null);
             alert.showAndWait();
-        }
+        });
     }
 
     /**
@@ -240,15 +286,22 @@ public class MedicineEditForm extends VBox {
                 quantityField.setText("");
             }
             descriptionField.setText(medicine.getDescription() != null ? medicine.getDescription() : "");
+            lowStockThresholdField.setText(medicine.getLowStockThreshold() != null ? medicine.getLowStockThreshold().toString() : "");
+            lowStockDaysField.setText(medicine.getLowStockDays() != null ? medicine.getLowStockDays().toString() : "");
+            selectMedicineBrand();
+        }
+    }
 
-            if (medicine.getBrandUuid() != null) {
-                brandComboBox.getItems().forEach(brand -> {
-                    if (brand.getUuid().equals(medicine.getBrandUuid())) {
-                        brandComboBox.setValue(brand);
-                    }
-                });
+    /**
+     * Seleciona no ComboBox a marca do medicamento sendo editado, se as marcas já foram carregadas.
+     */
+    private void selectMedicineBrand() {
+        if (medicine == null || medicine.getBrandUuid() == null) return;
+        brandComboBox.getItems().forEach(brand -> {
+            if (brand.getUuid().equals(medicine.getBrandUuid())) {
+                brandComboBox.setValue(brand);
             }
-        }
+        });
     }
 
     /**
@@ -278,30 +331,187 @@ public class MedicineEditForm extends VBox {
             return;
         }
 
+        Integer lowStockThreshold;
+        Integer lowStockDays;
+        try {
+            lowStockThreshold = parseOptionalNonNegative(lowStockThresholdField.getText());
+            lowStockDays = parseOptionalNonNegative(lowStockDaysField.getText());
+        } catch (NumberFormatException e) {
+            Alert alert = new Alert(Alert.AlertType.WARNING, "Os limites de alerta devem ser números inteiros não negativos!");
+            alert.setTitle("Erro de validação");
+            alert.setHeaderText(null);
+            alert.showAndWait();
+            return;
+        }
+
         MedicineBrand selectedBrand = brandComboBox.getValue();
         java.util.UUID brandUuid = selectedBrand != null ? selectedBrand.getUuid() : null;
         String description = descriptionField.getText().trim();
         // O status ativo/inativo só pode ser alterado através do botão na tabela
         Boolean isActive = medicine.getIsActive();
 
+        Integer finalQuantity = quantity;
         try {
-            controller.update(medicine.getUuid(), name, brandUuid, quantity, description, isActive);
-            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Medicamento editado com sucesso!");
-            alert.setTitle("Sucesso");
+            Database.inTransaction(conn -> {
+                MedicineController controller = new MedicineController(conn);
+                controller.update(medicine.getUuid(), name, brandUuid, medicine.getQuantity(), finalQuantity, description, isActive);
+                controller.updateStockAlertThresholds(medicine.getUuid(), lowStockThreshold, lowStockDays);
+                return null;
+            });
+        } catch (MedicineController.StaleStockException e) {
+            // Outra estação mexeu no estoque: mostra a quantidade atual para o usuário decidir de novo
+            int current = e.getCurrent();
+            medicine.setQuantity(current);
+            quantityField.setText(current != MedicineController.UNLIMITED_STOCK ? String.valueOf(current) : "");
+            Alert alert = new Alert(Alert.AlertType.WARNING, e.getMessage() + "\nA quantidade atual foi carregada no formulário; confira e salve novamente.");
+            alert.setTitle("Estoque alterado");
             alert.setHeaderText(null);
             alert.showAndWait();
-            // Recarrega os dados e volta para a view
-            if (medicineView != null) {
-                medicineView.loadData();
-            }
-            goBack();
+            return;
         } catch (SQLException e) {
             e.printStackTrace();
             Alert alert = new Alert(Alert.AlertType.ERROR, "Erro ao editar o medicamento: " + e.getMessage());
             alert.setTitle("Erro");
             alert.setHeaderText(null);
             alert.showAndWait();
+            return;
+        }
+
+        MedicineStockAlertJob.wakeUp();
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION, "Medicamento editado com sucesso!");
+        alert.setTitle("Sucesso");
+        alert.setHeaderText(null);
+        alert.showAndWait();
+        // Recarrega os dados e volta para a view
+        if (medicineView != null) {
+            medicineView.loadData();
+        }
+        goBack();
+    }
+
+    /**
+     * Registra uma entrada ou uma baixa por validade no estoque do medicamento.
+     * A quantidade pedida é somada (ou subtraída) ao estoque atual, não ao valor exibido no formulário.
+     * 
+     * @param type RECEIPT para entrada, EXPIRY para baixa por validade
+     */
+    private void recordStockMovement(StockMovement.Type type) {
+        if (medicine.getQuantity() == null || medicine.getQuantity() == MedicineController.UNLIMITED_STOCK) {
+            Alert alert = new Alert(Alert.AlertType.WARNING, "Este medicamento não tem controle de estoque.");
+            alert.setTitle("Estoque ilimitado");
+            alert.setHeaderText(null);
+            alert.showAndWait();
+            return;
+        }
+
+        boolean receipt = type == StockMovement.Type.RECEIPT;
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.setTitle(receipt ? "Registrar entrada" : "Baixa por validade");
+        dialog.setHeaderText(null);
+        dialog.setContentText(receipt ? "Quantidade recebida:" : "Quantidade vencida:");
+        String text = dialog.showAndWait().orElse(null);
+        if (text == null) return;
+
+        int amount;
+        try {
+            amount = Integer.parseInt(text.trim());
+            if (amount <= 0) throw new NumberFormatException("Valor não positivo: " + amount);
+        } catch (NumberFormatException e) {
+            Alert alert = new Alert(Alert.AlertType.WARNING, "Quantidade deve ser um número inteiro maior que zero!");
+            alert.setTitle("Erro de validação");
+            alert.setHeaderText(null);
+            alert.showAndWait();
+            return;
+        }
+
+        int stock;
+        try {
+            stock = Database.withConnection(conn -> {
+                MedicineController controller = new MedicineController(conn);
+                return receipt
+                        ? controller.receiveStock(medicine.getUuid(), amount, "Entrada de estoque")
+                        : controller.writeOffExpired(medicine.getUuid(), amount, "Baixa por validade");
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            Alert alert = new Alert(Alert.AlertType.ERROR, "Erro ao movimentar o estoque: " + e.getMessage());
+            alert.setTitle("Erro");
+            alert.setHeaderText(null);
+            alert.showAndWait();
+            return;
+        }
+
+        // A quantidade gravada passa a ser a base do formulário (ver MedicineController.update)
+        medicine.setQuantity(stock);
+        quantityField.setText(String.valueOf(stock));
+        MedicineStockAlertJob.wakeUp();
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION, "Estoque atualizado: " + stock + " unidade(s).");
+        alert.setTitle("Sucesso");
+        alert.setHeaderText(null);
+        alert.showAndWait();
+    }
+
+    /**
+     * Mostra as movimentações mais recentes do livro de estoque do medicamento.
+     */
+    private void showStockHistory() {
+        List<StockMovement> movements;
+        try {
+            movements = Database.withConnection(conn ->
+                    new MedicineController(conn).listStockMovements(medicine.getUuid(), STOCK_HISTORY_LIMIT));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            Alert alert = new Alert(Alert.AlertType.ERROR, "Erro ao carregar o histórico de estoque: " + e.getMessage());
+            alert.setTitle("Erro");
+            alert.setHeaderText(null);
+            alert.showAndWait();
+            return;
+        }
+
+        StringBuilder history = new StringBuilder();
+        for (StockMovement movement : movements) {
+            history.append(HISTORY_DATE_FORMAT.format(movement.getCreatedAt()))
+                    .append("  ").append(describeMovement(movement.getType()))
+                    .append("  ").append(movement.getDelta() > 0 ? "+" : "").append(movement.getDelta());
+            if (movement.getNote() != null) history.append("  (").append(movement.getNote()).append(')');
+            history.append('\n');
         }
+
+        TextArea historyArea = new TextArea(movements.isEmpty() ? "Nenhuma movimentação registrada." : history.toString());
+        historyArea.setEditable(false);
+        historyArea.setWrapText(true);
+        historyArea.setPrefSize(520, 300);
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Histórico de estoque");
+        alert.setHeaderText("Últimas movimentações de " + medicine.getName());
+        alert.getDialogPane().setContent(historyArea);
+        alert.showAndWait();
+    }
+
+    private static String describeMovement(StockMovement.Type type) {
+        return switch (type) {
+            case RECEIPT -> "Entrada";
+            case APPLICATION -> "Aplicação";
+            case ADJUSTMENT -> "Ajuste";
+            case EXPIRY -> "Baixa por validade";
+        };
+    }
+
+    /**
+     * Converte o texto de um campo numérico opcional.
+     * 
+     * @param text Texto digitado
+     * @return Número informado, ou null se o campo estiver vazio
+     * @throws NumberFormatException Se o texto não for um inteiro não negativo
+     */
+    private static Integer parseOptionalNonNegative(String text) {
+        if (text == null || text.trim().isEmpty()) return null;
+        int value = Integer.parseInt(text.trim());
+        if (value < 0) throw new NumberFormatException("Valor negativo: " + value);
+        return value;
     }
 
     /**
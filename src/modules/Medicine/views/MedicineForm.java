@@ -12,10 +12,10 @@ import modules.MedicineBrand.controllers.MedicineBrandController;
 import modules.Medicine.controllers.MedicineController;
 import modules.MedicineBrand.models.MedicineBrand;
 import config.Database;
+import utils.FxAsync;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.List;
 
 public class MedicineForm extends VBox {
 
@@ -23,7 +23,6 @@ public class MedicineForm extends VBox {
     private ComboBox<MedicineBrand> brandComboBox;
     private TextField quantityField;
     private TextArea descriptionField;
-    private Connection conn;
     private BorderPane mainLayout;
     private MedicineView medicineView;
 
@@ -41,12 +40,6 @@ public class MedicineForm extends VBox {
         this.setAlignment(Pos.CENTER);
         this.getStyleClass().add("form-bg");
 
-        try {
-            conn = Database.getConnection();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
         setupComponents();
     }
 
@@ -181,45 +174,43 @@ public class MedicineForm extends VBox {
     }
 
     /**
-     * Carrega a lista de marcas de medicamentos do banco de dados e popula o ComboBox.
+     * Carrega a lista de marcas de medicamentos do banco de dados em background e popula o ComboBox.
      */
     private void loadBrands() {
-        try {
-            MedicineBrandController brandController = new MedicineBrandController(conn);
-            List<MedicineBrand> brands = brandController.listAll();
-            ObservableList<MedicineBrand> brandsList = FXCollections.observableArrayList(brands);
-            brandComboBox.setItems(brandsList);
-
-            brandComboBox.setCellFactory(param -> new ListCell<MedicineBrand>() {
-                @Override
-                protected void updateItem(MedicineBrand item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty || item == null) {
-                        setText(null);
-                    } else {
-                        setText(item.getName());
-                    }
+        brandComboBox.setCellFactory(param -> new ListCell<MedicineBrand>() {
+            @Override
+            protected void updateItem(MedicineBrand item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    setText(item.getName());
                 }
-            });
-
-            brandComboBox.setButtonCell(new ListCell<MedicineBrand>() {
-                @Override
-                protected void updateItem(MedicineBrand item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty || item == null) {
-                        setText(null);
-                    } else {
-                        setText(item.getName());
-                    }
+            }
+        });
+
+        brandComboBox.setButtonCell(new ListCell<MedicineBrand>() {
+            @Override
+            protected void updateItem(MedicineBrand item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null) {
+                    setText(null);
+                } else {
+                    setText(item.getName());
                 }
-            });
-        } catch (SQLException e) {
+            }
+        });
+
+        FxAsync.load(this, conn -> new MedicineBrandController(conn).listAll(), brands -> {
+            ObservableList<MedicineBrand> brandsList = FXCollections.observableArrayList(brands);
+            brandComboBox.setItems(brandsList);
+        }, e -> {
             e.printStackTrace();
             Alert alert = new Alert(Alert.AlertType.ERROR, "Erro ao carregar marcas: " + e.getMessage());
             alert.setTitle("Erro");
             alert.setHeaderText(null);
             alert.showAndWait();
-        }
+        });
     }
 
     /**
@@ -255,25 +246,27 @@ public class MedicineForm extends VBox {
         // Medicamentos são criados ativos por padrão
         Boolean isActive = true;
 
-        try {
+        try (Connection conn = Database.getConnection()) {
             MedicineController controller = new MedicineController(conn);
             controller.insert(name, brandUuid, quantity, description, isActive);
-            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Medicamento cadastrado com sucesso!");
-            alert.setTitle("Sucesso");
-            alert.setHeaderText(null);
-            alert.showAndWait();
-            // Recarrega os dados e volta para a view
-            if (medicineView != null) {
-                medicineView.loadData();
-            }
-            goBack();
         } catch (SQLException e) {
             e.printStackTrace();
             Alert alert = new Alert(Alert.AlertType.ERROR, "Erro ao salvar o medicamento: " + e.getMessage());
             alert.setTitle("Erro");
             alert.setHeaderText(null);
             alert.showAndWait();
+            return;
+        }
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION, "Medicamento cadastrado com sucesso!");
+        alert.setTitle("Sucesso");
+        alert.setHeaderText(null);
+        alert.showAndWait();
+        // Recarrega os dados e volta para a view
+        if (medicineView != null) {
+            medicineView.loadData();
         }
+        goBack();
     }
 
     /**
@@ -22,6 +22,7 @@ import modules.Medicine.models.Medicine;
 import modules.Shared.views.MenuView;
 import modules.MedicineBrand.views.MedicineBrandView;
 import config.Database;
+import utils.FxAsync;
 
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -31,8 +32,6 @@ public class MedicineView extends VBox {
 
     private TableView<Medicine> table;
     private ObservableList<Medicine> medicinesList;
-    private Connection conn;
-    private MedicineController controller;
     private BorderPane mainLayout;
 
     /**
@@ -43,15 +42,6 @@ public class MedicineView extends VBox {
     public MedicineView(BorderPane mainLayout) {
         this.mainLayout = mainLayout;
 
-        try {
-            this.conn = Database.getConnection();
-            this.controller = new MedicineController(conn);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            new Alert(Alert.AlertType.ERROR, "Erro ao conectar com o banco de dados.").showAndWait();
-            return;
-        }
-
         initializeComponents();
         setupLayout();
         loadData();
@@ -478,16 +468,13 @@ public class MedicineView extends VBox {
     }
 
     /**
-     * Carrega a lista de medicamentos do banco de dados e atualiza a tabela.
+     * Carrega a lista de medicamentos do banco de dados em background e atualiza a tabela.
      */
     public void loadData() {
-        try {
-            medicinesList.clear();
-            medicinesList.addAll(controller.listAll());
-        } catch (SQLException e) {
+        FxAsync.load(this, conn -> new MedicineController(conn).listAll(), medicinesList::setAll, e -> {
             e.printStackTrace();
             new Alert(Alert.AlertType.ERROR, "Erro ao buscar medicamentos: " + e.getMessage()).showAndWait();
-        }
+        });
     }
 
     /**
@@ -506,7 +493,7 @@ public class MedicineView extends VBox {
     private void editSelected(Medicine selected) {
         if (selected == null) return;
 
-        MedicineEditForm form = new MedicineEditForm(selected, controller, mainLayout, this);
+        MedicineEditForm form = new MedicineEditForm(selected, mainLayout, this);
         mainLayout.setCenter(form);
     }
 
@@ -527,16 +514,17 @@ public class MedicineView extends VBox {
 
         confirm.showAndWait().ifPresent(type -> {
             if (type == ButtonType.YES) {
-                try {
-                    Boolean newStatus = !selected.getIsActive();
-                    controller.update(selected.getUuid(), selected.getName(), selected.getBrandUuid(), 
-                                    selected.getQuantity(), selected.getDescription(), newStatus);
-                    loadData();
-                    String message = newStatus ? "Medicamento ativado com sucesso!" : "Medicamento inativado com sucesso!";
-                    new Alert(Alert.AlertType.INFORMATION, message).showAndWait();
+                Boolean newStatus = !selected.getIsActive();
+                try (Connection conn = Database.getConnection()) {
+                    // Só o status: regravar a quantidade carregada na tela desfaria baixas feitas depois
+                    new MedicineController(conn).updateActive(selected.getUuid(), newStatus);
                 } catch (SQLException e) {
                     new Alert(Alert.AlertType.ERROR, "Erro ao alterar status do medicamento: " + e.getMessage()).showAndWait();
+                    return;
                 }
+                loadData();
+                String message = newStatus ? "Medicamento ativado com sucesso!" : "Medicamento inativado com sucesso!";
+                new Alert(Alert.AlertType.INFORMATION, message).showAndWait();
             }
         });
     }
@@ -557,13 +545,18 @@ public class MedicineView extends VBox {
 
         confirm.showAndWait().ifPresent(type -> {
             if (type == ButtonType.YES) {
-                try {
-                    controller.delete(selected.getUuid());
-                    loadData();
-                    new Alert(Alert.AlertType.INFORMATION, "Medicamento excluído com sucesso!").showAndWait();
+                boolean deleted;
+                try (Connection conn = Database.getConnection()) {
+                    deleted = new MedicineController(conn).delete(selected.getUuid());
                 } catch (SQLException e) {
                     new Alert(Alert.AlertType.ERROR, "Erro ao excluir medicamento: " + e.getMessage()).showAndWait();
+                    return;
                 }
+                loadData();
+                String message = deleted
+                        ? "Medicamento excluído com sucesso!"
+                        : "O medicamento tem histórico de estoque e não pode ser excluído; ele foi inativado.";
+                new Alert(Alert.AlertType.INFORMATION, message).showAndWait();
             }
         });
     }
@@ -0,0 +1,207 @@
+package modules.MedicineApplication.controllers;
+
+import modules.MedicineApplication.models.CalendarOutboxEntry;
+import modules.MedicineApplication.models.CalendarOutboxEntry.Operation;
+import modules.MedicineApplication.models.MedicineApplication;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class CalendarOutboxController {
+
+    private static final String ENQUEUE_SQL = """
+        INSERT INTO public.calendar_outbox (application_uuid, operation, event_id, next_attempt_at)
+        VALUES (?, ?, ?, GREATEST(now(), COALESCE(?, now())))
+    """;
+
+    // Reserva um lote por um tempo (lease) em um único comando: workers de outras estações pulam
+    // as linhas travadas (SKIP LOCKED) e não pegam as reservadas até o lease expirar.
+    // Os dados atuais da aplicação vêm junto para montar o evento sem outra consulta.
+    private static final String CLAIM_SQL = """
+        WITH claimed AS (
+            UPDATE public.calendar_outbox o
+               SET next_attempt_at = now() + (? * interval '1 second')
+             WHERE o.uuid IN (
+                   SELECT uuid
+                     FROM public.calendar_outbox
+                    WHERE next_attempt_at <= now()
+                      AND attempts < ?
+                    ORDER BY created_at
+                    LIMIT ?
+                      FOR UPDATE SKIP LOCKED
+             )
+            RETURNING o.uuid, o.application_uuid, o.operation, o.event_id, o.attempts, o.created_at
+        )
+        SELECT c.uuid AS outbox_uuid, c.application_uuid AS outbox_application_uuid,
+               c.operation AS outbox_operation, c.event_id AS outbox_event_id, c.attempts AS outbox_attempts,
+               ma.application_uuid, ma.medicine_uuid, ma.user_uuid, ma.animal_uuid,
+               ma.applied_at, ma.quantity, ma.next_application_at, ma.frequency, ma.ends_at, ma.created_at, ma.google_calendar_id,
+               a.name AS animal_name, m.name AS medicine_name
+          FROM claimed c
+          LEFT JOIN public.medicine_applications ma
+                 ON ma.application_uuid = c.application_uuid AND c.operation = 'create'
+          LEFT JOIN public.animals a ON a.uuid = ma.animal_uuid
+          LEFT JOIN public.medicines m ON m.uuid = ma.medicine_uuid
+         ORDER BY c.created_at
+    """;
+
+    private static final String DELETE_SQL = "DELETE FROM public.calendar_outbox WHERE uuid = ?";
+
+    // next_attempt_at no futuro: criação reservada por um worker (lease) ou aguardando nova tentativa
+    private static final String DELETE_PENDING_CREATES_SQL = """
+        WITH deleted AS (
+            DELETE FROM public.calendar_outbox
+             WHERE application_uuid = ? AND operation = 'create'
+            RETURNING next_attempt_at
+        )
+        SELECT COUNT(*) AS deleted, MAX(next_attempt_at) AS busy_until FROM deleted
+    """;
+
+    private static final String SET_EVENT_ID_SQL = """
+        UPDATE public.medicine_applications
+           SET google_calendar_id = ?
+         WHERE application_uuid = ?
+    """;
+
+    private static final String MARK_FAILED_SQL = """
+        UPDATE public.calendar_outbox
+           SET attempts = attempts + 1,
+               next_attempt_at = now() + (? * interval '1 second'),
+               last_error = ?
+         WHERE uuid = ?
+    """;
+
+    /**
+     * Registra uma operação pendente no Google Calendar.
+     * Deve ser chamado na mesma transação que altera a aplicação.
+     *
+     * @param conn Conexão com o banco de dados (dentro da transação da aplicação)
+     * @param applicationUuid UUID da aplicação de medicamento
+     * @param operation Operação a ser feita no Google Calendar
+     * @param eventId ID do evento no Google Calendar
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void enqueue(Connection conn, UUID applicationUuid, Operation operation, String eventId) throws SQLException {
+        enqueue(conn, applicationUuid, operation, eventId, null);
+    }
+
+    /**
+     * Registra uma operação pendente no Google Calendar que só pode ser feita a partir de um horário.
+     * Deve ser chamado na mesma transação que altera a aplicação.
+     *
+     * @param conn Conexão com o banco de dados (dentro da transação da aplicação)
+     * @param applicationUuid UUID da aplicação de medicamento
+     * @param operation Operação a ser feita no Google Calendar
+     * @param eventId ID do evento no Google Calendar
+     * @param notBefore Primeiro horário em que a operação pode ser feita, ou null para já
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void enqueue(Connection conn, UUID applicationUuid, Operation operation, String eventId,
+                               Timestamp notBefore) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(ENQUEUE_SQL)) {
+            ps.setObject(1, applicationUuid);
+            ps.setString(2, operation.name().toLowerCase());
+            ps.setString(3, eventId);
+            ps.setTimestamp(4, notBefore);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Remove as criações de evento ainda pendentes de uma aplicação.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param applicationUuid UUID da aplicação de medicamento
+     * @return null se não havia criação pendente; senão, o horário até o qual alguma das criações removidas
+     *         ainda pode estar em andamento em um worker (fim do lease, ou da espera da nova tentativa)
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static Timestamp deletePendingCreates(Connection conn, UUID applicationUuid) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_PENDING_CREATES_SQL)) {
+            ps.setObject(1, applicationUuid);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt("deleted") > 0 ? rs.getTimestamp("busy_until") : null;
+            }
+        }
+    }
+
+    /**
+     * Reserva um lote de operações pendentes cujo horário de nova tentativa já chegou.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param limit Tamanho máximo do lote
+     * @param maxAttempts Operações com essa quantidade de tentativas não são mais reservadas
+     * @param leaseSeconds Tempo durante o qual o lote fica reservado para este worker
+     * @return Operações reservadas, na ordem em que foram registradas
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static List<CalendarOutboxEntry> claimBatch(Connection conn, int limit, int maxAttempts, long leaseSeconds) throws SQLException {
+        List<CalendarOutboxEntry> out = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(CLAIM_SQL)) {
+            ps.setDouble(1, leaseSeconds);
+            ps.setInt(2, maxAttempts);
+            ps.setInt(3, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    MedicineApplication application = rs.getObject("application_uuid") != null
+                            ? MedicineApplicationController.mapRow(rs)
+                            : null;
+                    out.add(new CalendarOutboxEntry(
+                            (UUID) rs.getObject("outbox_uuid"),
+                            (UUID) rs.getObject("outbox_application_uuid"),
+                            Operation.valueOf(rs.getString("outbox_operation").toUpperCase()),
+                            rs.getString("outbox_event_id"),
+                            rs.getInt("outbox_attempts"),
+                            application,
+                            rs.getString("animal_name"),
+                            rs.getString("medicine_name")
+                    ));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Conclui uma operação: remove do outbox e, na criação, grava o ID do evento na aplicação.
+     * Deve ser chamado dentro de uma transação.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param entry Operação concluída
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void markDone(Connection conn, CalendarOutboxEntry entry) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
+            ps.setObject(1, entry.getUuid());
+            ps.executeUpdate();
+        }
+        if (entry.getOperation() == Operation.CREATE) {
+            try (PreparedStatement ps = conn.prepareStatement(SET_EVENT_ID_SQL)) {
+                ps.setString(1, entry.getEventId());
+                ps.setObject(2, entry.getApplicationUuid());
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Registra a falha de uma tentativa e agenda a próxima.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param outboxUuid UUID do registro no outbox
+     * @param error Mensagem de erro da tentativa
+     * @param retryInSeconds Atraso até a próxima tentativa
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void markFailed(Connection conn, UUID outboxUuid, String error, long retryInSeconds) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(MARK_FAILED_SQL)) {
+            ps.setDouble(1, retryInSeconds);
+            ps.setString(2, error);
+            ps.setObject(3, outboxUuid);
+            ps.executeUpdate();
+        }
+    }
+}
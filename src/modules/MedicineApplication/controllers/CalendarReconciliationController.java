@@ -0,0 +1,120 @@
+package modules.MedicineApplication.controllers;
+
+import java.sql.*;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Consultas e correções do banco usadas na reconciliação entre medicine_applications
+ * e os eventos do Google Calendar (CalendarReconciler).
+ */
+public class CalendarReconciliationController {
+
+    private static final String SELECT_LINKED_SQL = """
+        SELECT google_calendar_id
+          FROM public.medicine_applications
+         WHERE google_calendar_id IS NOT NULL
+    """;
+
+    private static final String SELECT_LINKS_SQL = """
+        SELECT application_uuid, google_calendar_id
+          FROM public.medicine_applications
+         WHERE application_uuid = ANY(?)
+    """;
+
+    private static final String RELINK_SQL = """
+        UPDATE public.medicine_applications
+           SET google_calendar_id = ?
+         WHERE application_uuid = ? AND google_calendar_id IS NULL
+    """;
+
+    private static final String UNLINK_SQL = """
+        UPDATE public.medicine_applications
+           SET google_calendar_id = NULL
+         WHERE google_calendar_id = ANY(?)
+    """;
+
+    /**
+     * Percorre os IDs de evento de todas as aplicações vinculadas ao Google Calendar, sem carregar
+     * o resultado inteiro na memória. Deve ser chamado dentro de uma transação (cursor do driver).
+     *
+     * @param conn Conexão com o banco de dados
+     * @param consumer Recebe cada google_calendar_id
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void forEachLinkedEventId(Connection conn, Consumer<String> consumer) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_LINKED_SQL)) {
+            ps.setFetchSize(5000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getString("google_calendar_id"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca o evento vinculado a cada aplicação informada.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param applicationUuids UUIDs das aplicações
+     * @return google_calendar_id de cada aplicação existente (valor null se ela não estiver vinculada);
+     *         aplicações inexistentes ficam fora do mapa
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static Map<UUID, String> findLinks(Connection conn, Collection<UUID> applicationUuids) throws SQLException {
+        Map<UUID, String> links = new HashMap<>();
+        if (applicationUuids.isEmpty()) return links;
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_LINKS_SQL)) {
+            ps.setArray(1, conn.createArrayOf("uuid", applicationUuids.toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    links.put((UUID) rs.getObject("application_uuid"), rs.getString("google_calendar_id"));
+                }
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Vincula aplicações aos eventos já existentes no calendário, em lote. Aplicações que
+     * entretanto ganharam outro vínculo não são alteradas.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param eventIds ID do evento de cada aplicação
+     * @return Quantidade de aplicações vinculadas
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static int relink(Connection conn, Map<UUID, String> eventIds) throws SQLException {
+        if (eventIds.isEmpty()) return 0;
+        try (PreparedStatement ps = conn.prepareStatement(RELINK_SQL)) {
+            for (Map.Entry<UUID, String> entry : eventIds.entrySet()) {
+                ps.setString(1, entry.getValue());
+                ps.setObject(2, entry.getKey());
+                ps.addBatch();
+            }
+            int linked = 0;
+            for (int count : ps.executeBatch()) linked += Math.max(count, 0);
+            return linked;
+        }
+    }
+
+    /**
+     * Desvincula as aplicações cujos eventos não existem mais no calendário.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param eventIds IDs dos eventos ausentes
+     * @return Quantidade de aplicações desvinculadas
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static int unlink(Connection conn, Collection<String> eventIds) throws SQLException {
+        if (eventIds.isEmpty()) return 0;
+        try (PreparedStatement ps = conn.prepareStatement(UNLINK_SQL)) {
+            ps.setArray(1, conn.createArrayOf("text", eventIds.toArray()));
+            return ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package modules.MedicineApplication.controllers;
+
+import modules.MedicineApplication.models.CalendarEventChange;
+import modules.MedicineApplication.models.MedicineApplication;
+import modules.MedicineApplication.models.MedicineApplication.Frequency;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Estado e aplicação da leitura de alterações do Google Calendar (CalendarSyncJob): o que um
+ * veterinário muda direto no calendário volta para medicine_applications.
+ * <p>
+ * Um evento movido muda a próxima aplicação (início da série); uma recorrência alterada muda a
+ * frequência e o fim do tratamento; um evento removido só desvincula a aplicação (google_calendar_id
+ * nulo), sem apagar o registro da aplicação, que é histórico clínico do animal.
+ */
+public class CalendarSyncController {
+
+    private static final String SELECT_APPLICATIONS_SQL = """
+        SELECT application_uuid, medicine_uuid, user_uuid, animal_uuid,
+               applied_at, quantity, next_application_at, frequency, ends_at, created_at, google_calendar_id
+          FROM public.medicine_applications
+         WHERE google_calendar_id = ANY(?)
+           FOR UPDATE
+    """;
+
+    private static final String UPDATE_SCHEDULE_SQL = """
+        UPDATE public.medicine_applications
+           SET next_application_at = ?, frequency = ?, ends_at = ?
+         WHERE application_uuid = ?
+    """;
+
+    private static final String UNLINK_SQL = """
+        UPDATE public.medicine_applications
+           SET google_calendar_id = NULL
+         WHERE application_uuid = ?
+    """;
+
+    private static final String SAVE_TOKEN_SQL = """
+        INSERT INTO public.calendar_sync_state (calendar_id, sync_token, last_full_sync_at, last_synced_at)
+        VALUES (?, ?, CASE WHEN ? THEN now() END, now())
+        ON CONFLICT (calendar_id) DO UPDATE
+           SET sync_token = EXCLUDED.sync_token,
+               last_full_sync_at = COALESCE(EXCLUDED.last_full_sync_at, public.calendar_sync_state.last_full_sync_at),
+               last_synced_at = EXCLUDED.last_synced_at
+    """;
+
+    /**
+     * Resultado da aplicação de uma página de alterações.
+     *
+     * @param updated Aplicações com a agenda alterada
+     * @param unlinked Aplicações desvinculadas de eventos removidos
+     */
+    public record ApplyResult(int updated, int unlinked) { }
+
+    /**
+     * Retorna o syncToken salvo de um calendário.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param calendarId ID do calendário no Google Calendar
+     * @return syncToken da última leitura, ou null se for preciso fazer a leitura completa
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static String getSyncToken(Connection conn, String calendarId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT sync_token FROM public.calendar_sync_state WHERE calendar_id = ?")) {
+            ps.setString(1, calendarId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString("sync_token") : null;
+            }
+        }
+    }
+
+    /**
+     * Salva o syncToken de um calendário, ao fim de uma leitura. Null força a leitura completa na próxima vez.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param calendarId ID do calendário no Google Calendar
+     * @param syncToken syncToken devolvido pela última página, ou null
+     * @param fullSync Indica se a leitura foi completa
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void saveSyncToken(Connection conn, String calendarId, String syncToken, boolean fullSync) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SAVE_TOKEN_SQL)) {
+            ps.setString(1, calendarId);
+            ps.setString(2, syncToken);
+            ps.setBoolean(3, fullSync);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Aplica uma página de alterações do calendário às aplicações vinculadas aos eventos, em lote.
+     * Eventos sem aplicação (de outras origens, ou de aplicações já excluídas) e eventos iguais ao que
+     * está no banco (inclusive os criados pela própria aplicação) não geram alteração.
+     * Deve ser chamado dentro de uma transação.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param changes Alterações lidas do Google Calendar
+     * @return Quantidade de aplicações alteradas e desvinculadas
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static ApplyResult applyChanges(Connection conn, List<CalendarEventChange> changes) throws SQLException {
+        if (changes.isEmpty()) return new ApplyResult(0, 0);
+
+        Map<String, MedicineApplication> byEventId = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_APPLICATIONS_SQL)) {
+            ps.setArray(1, conn.createArrayOf("text",
+                    changes.stream().map(CalendarEventChange::getEventId).distinct().toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    MedicineApplication app = MedicineApplicationController.mapRow(rs);
+                    byEventId.put(app.getGoogleCalendarGoogleCalendarId(), app);
+                }
+            }
+        }
+        if (byEventId.isEmpty()) return new ApplyResult(0, 0);
+
+        int updated = 0;
+        int unlinked = 0;
+        // Pares animal/medicamento com a agenda alterada, para recalcular as doses materializadas
+        Set<List<UUID>> changedPairs = new LinkedHashSet<>();
+        try (PreparedStatement update = conn.prepareStatement(UPDATE_SCHEDULE_SQL);
+             PreparedStatement unlink = conn.prepareStatement(UNLINK_SQL)) {
+            for (CalendarEventChange change : changes) {
+                // remove: o mesmo evento duas vezes na página vale só a primeira alteração
+                MedicineApplication app = byEventId.remove(change.getEventId());
+                if (app == null) continue;
+
+                if (change.isCancelled()) {
+                    unlink.setObject(1, app.getApplicationUuid());
+                    unlink.addBatch();
+                    unlinked++;
+                } else if (applySchedule(app, change)) {
+                    setTimestamp(update, 1, app.getNextApplicationAt());
+                    update.setString(2, app.getFrequency().name());
+                    setTimestamp(update, 3, app.getEndsAt());
+                    update.setObject(4, app.getApplicationUuid());
+                    update.addBatch();
+                    changedPairs.add(List.of(app.getAnimalUuid(), app.getMedicineUuid()));
+                    updated++;
+                }
+            }
+            if (unlinked > 0) unlink.executeBatch();
+            if (updated > 0) update.executeBatch();
+        }
+
+        for (List<UUID> pair : changedPairs) {
+            MedicineApplicationOccurrenceController.refreshPair(conn, pair.get(0), pair.get(1));
+        }
+        return new ApplyResult(updated, unlinked);
+    }
+
+    /**
+     * Copia para a aplicação a agenda do evento. O horário da próxima aplicação e do fim do
+     * tratamento é mantido: o evento é de dia inteiro e só informa as datas.
+     *
+     * @param app Aplicação vinculada ao evento (alterada no lugar)
+     * @param change Alteração lida do Google Calendar
+     * @return true se algum campo mudou
+     */
+    private static boolean applySchedule(MedicineApplication app, CalendarEventChange change) {
+        ZonedDateTime currentStart = app.getNextApplicationAt() != null ? app.getNextApplicationAt() : app.getAppliedAt();
+        Frequency currentFrequency = app.getFrequency() != null ? app.getFrequency() : Frequency.DOES_NOT_REPEAT;
+
+        ZonedDateTime next = app.getNextApplicationAt();
+        if (!currentStart.toLocalDate().equals(change.getStartDate())) {
+            next = currentStart.with(change.getStartDate());
+        }
+
+        // Evento sem recorrência não informa o fim do tratamento: mantém o atual
+        ZonedDateTime endsAt = app.getEndsAt();
+        if (change.getFrequency().isRecurring()) {
+            LocalDate until = change.getUntil();
+            // Eventos criados antes da correção do UNTIL levam o dia seguinte ao fim do tratamento
+            // (UNTIL = ends_at + 1): não é uma alteração. Um adiamento de exatamente um dia feito
+            // no calendário fica indistinguível e também é ignorado
+            boolean legacyUntil = until != null && endsAt != null && until.equals(endsAt.toLocalDate().plusDays(1));
+            if (until == null) {
+                endsAt = null;
+            } else if (!legacyUntil && (endsAt == null || !endsAt.toLocalDate().equals(until))) {
+                endsAt = endsAt != null ? endsAt.with(until) : until.atStartOfDay(ZoneId.systemDefault());
+            }
+        }
+
+        if (Objects.equals(next, app.getNextApplicationAt())
+                && change.getFrequency() == currentFrequency
+                && Objects.equals(endsAt, app.getEndsAt())) {
+            return false;
+        }
+        app.setNextApplicationAt(next);
+        app.setFrequency(change.getFrequency());
+        app.setEndsAt(endsAt);
+        return true;
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, ZonedDateTime value) throws SQLException {
+        if (value != null) {
+            ps.setTimestamp(index, Timestamp.from(value.toInstant()));
+        } else {
+            ps.setNull(index, Types.TIMESTAMP_WITH_TIMEZONE);
+        }
+    }
+}
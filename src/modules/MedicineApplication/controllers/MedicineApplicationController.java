@@ -1,34 +1,77 @@
 package modules.MedicineApplication.controllers;
 
 import config.Database;
+import modules.Medicine.controllers.MedicineController;
+import modules.Medicine.controllers.MedicineStockController;
+import modules.Medicine.models.StockMovement;
+import modules.Medicine.services.MedicineStockAlertJob;
+import modules.MedicineApplication.models.DueDose;
 import modules.MedicineApplication.models.MedicineApplication;
+import modules.MedicineApplication.models.CalendarOutboxEntry.Operation;
 import modules.MedicineApplication.models.MedicineApplication.Frequency;
+import modules.MedicineApplication.models.Recurrence;
+import modules.MedicineApplication.services.CalendarOutboxWorker;
 import modules.MedicineApplication.services.GoogleCalendarService;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
 public class MedicineApplicationController {
 
     /**
-     * Cria uma nova aplicação (salva google_calendar_id se existir).
+     * Cria uma nova aplicação (salva google_calendar_id se existir) e dá baixa no estoque do medicamento
+     * na mesma transação, registrando a saída no livro de estoque: se o estoque não for suficiente, nada é registrado.
+     * Se {@code syncWithCalendar} for true, a criação do evento no Google Calendar é registrada no
+     * outbox na mesma transação e feita em background pelo {@link CalendarOutboxWorker}.
      * 
-     * @param application Objeto MedicineApplication a ser criado
+     * @param application Objeto MedicineApplication a ser criado (recebe o UUID gerado)
+     * @param syncWithCalendar Indica se a aplicação deve virar um evento no Google Calendar
+     * @throws MedicineController.InsufficientStockException Se o estoque do medicamento não tiver a quantidade aplicada
      * @throws SQLException Se ocorrer erro na operação do banco de dados
      */
-    public void create(MedicineApplication application) throws SQLException {
+    public void create(MedicineApplication application, boolean syncWithCalendar) throws SQLException {
+        Database.inTransaction(conn -> {
+            new MedicineController(conn).decrementStock(application.getMedicineUuid(), application.getQuantity());
+            UUID applicationUuid = insert(conn, application);
+            application.setApplicationUuid(applicationUuid);
+            new MedicineStockController(conn).recordMovement(application.getMedicineUuid(), StockMovement.Type.APPLICATION,
+                    -application.getQuantity(), applicationUuid, application.getUserUuid(), null);
+            if (syncWithCalendar) {
+                CalendarOutboxController.enqueue(conn, applicationUuid, Operation.CREATE,
+                        GoogleCalendarService.eventIdFor(applicationUuid));
+            }
+            MedicineApplicationOccurrenceController.refreshPair(conn, application.getAnimalUuid(), application.getMedicineUuid());
+            return null;
+        });
+
+        if (syncWithCalendar) CalendarOutboxWorker.wakeUp();
+        // A baixa pode ter levado o medicamento abaixo do limite de alerta
+        MedicineStockAlertJob.wakeUp();
+    }
+
+    /**
+     * Insere a aplicação no banco de dados.
+     * 
+     * @param conn Conexão com o banco de dados
+     * @param application Objeto MedicineApplication a ser inserido
+     * @return UUID gerado para a aplicação
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    private static UUID insert(Connection conn, MedicineApplication application) throws SQLException {
         String sql = """
             INSERT INTO public.medicine_applications
             (medicine_uuid, user_uuid, animal_uuid, applied_at, quantity, next_application_at, frequency, ends_at, google_calendar_id)
             VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            RETURNING application_uuid
         """;
 
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setObject(1, application.getMedicineUuid());
             pstmt.setObject(2, application.getUserUuid());
@@ -59,7 +102,10 @@ public class MedicineApplicationController {
                 pstmt.setNull(9, Types.VARCHAR);
             }
 
-            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return (UUID) rs.getObject(1);
+            }
         }
     }
 
@@ -114,9 +160,49 @@ public class MedicineApplicationController {
         }
     }
 
+    /**
+     * Lista as doses previstas e ainda não aplicadas entre duas datas, de todos os animais no abrigo
+     * (em quarentena ou abrigados). Dentro da janela materializada, as doses são lidas de
+     * medicine_application_occurrences; fora dela, vêm da expansão local da recorrência ({@link Recurrence}).
+     * Em nenhum caso o Google Calendar é consultado.
+     * <p>
+     * Uma dose conta como aplicada quando há uma aplicação do mesmo medicamento no mesmo animal
+     * registrada no dia dela ou depois, antes da dose seguinte. Essa nova aplicação passa a definir
+     * a agenda dali em diante, então as doses da agenda anterior a partir do dia dela são descartadas.
+     * 
+     * @param conn Conexão com o banco de dados
+     * @param from Data inicial, inclusive (doses anteriores a hoje aparecem como atrasadas)
+     * @param to Data final, inclusive
+     * @return Doses pendentes, ordenadas por data, animal e medicamento
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static List<DueDose> getWorklist(Connection conn, LocalDate from, LocalDate to) throws SQLException {
+        List<DueDose> materialized = MedicineApplicationOccurrenceController.findPending(conn, from, to);
+        if (materialized != null) return materialized;
+
+        LocalDate today = LocalDate.now();
+        List<DueDose> out = new ArrayList<>();
+        MedicineApplicationOccurrenceController.expand(conn, from, to, (dose, animalName, animalStatus, medicineName) -> {
+            if (dose.applied() || !isInShelter(animalStatus)) return;
+            MedicineApplication app = dose.application();
+            out.add(new DueDose(app.getApplicationUuid(), app.getAnimalUuid(), animalName,
+                    app.getMedicineUuid(), medicineName, app.getQuantity(), app.getFrequency(),
+                    dose.date(), dose.date().isBefore(today)));
+        });
+        out.sort(Comparator.comparing(DueDose::getDueDate)
+                .thenComparing(DueDose::getAnimalName, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(DueDose::getMedicineName, String.CASE_INSENSITIVE_ORDER));
+        return out;
+    }
+
+    private static boolean isInShelter(String animalStatus) {
+        return "quarantine".equals(animalStatus) || "sheltered".equals(animalStatus);
+    }
+
     /**
      * Deleta uma aplicação pelo UUID.
-     * - Se houver google_calendar_id, tenta apagar o evento do Google Calendar (best-effort).
+     * - Se a aplicação tem (ou ia ter) evento no Google Calendar, a exclusão do evento é registrada
+     *   no outbox na mesma transação e feita em background pelo {@link CalendarOutboxWorker}.
      * - Em qualquer caso, remove o registro do banco.
      * 
      * @param conn Conexão com o banco de dados
@@ -124,31 +210,58 @@ public class MedicineApplicationController {
      * @throws SQLException Se ocorrer erro na operação do banco de dados
      */
     public static void delete(Connection conn, UUID applicationUuid) throws SQLException {
-        // 1) Buscar google_calendar_id
-        String googleCalendarId = null;
-        try (PreparedStatement ps = conn.prepareStatement(
-                "SELECT google_calendar_id FROM public.medicine_applications WHERE application_uuid = ?")) {
-            ps.setObject(1, applicationUuid);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) googleCalendarId = rs.getString("google_calendar_id");
+        boolean enqueued = false;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            // 1) Buscar google_calendar_id (e o par animal/medicamento das doses materializadas)
+            String googleCalendarId = null;
+            UUID animalUuid = null;
+            UUID medicineUuid = null;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT google_calendar_id, animal_uuid, medicine_uuid FROM public.medicine_applications WHERE application_uuid = ? FOR UPDATE")) {
+                ps.setObject(1, applicationUuid);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        googleCalendarId = rs.getString("google_calendar_id");
+                        animalUuid = (UUID) rs.getObject("animal_uuid");
+                        medicineUuid = (UUID) rs.getObject("medicine_uuid");
+                    }
+                }
             }
-        }
 
-        // 2) Tentar deletar no Google Calendar (não bloqueia se falhar)
-        if (googleCalendarId != null && !googleCalendarId.isBlank()) {
-            try {
-                GoogleCalendarService.deleteEvent(googleCalendarId);
-            } catch (Exception e) {
-                System.err.println("Falha ao deletar evento no Google Calendar (googleCalendarId=" + googleCalendarId + "): " + e.getMessage());
+            // 2) Criação ainda pendente: o evento pode já ter sido criado por um worker em andamento,
+            //    então a exclusão também é registrada (evento inexistente conta como sucesso). Ela só roda
+            //    depois do lease da criação: antes, chegaria ao Google antes do evento, contaria o 404 como
+            //    sucesso e a criação em andamento deixaria o evento órfão
+            Timestamp pendingCreateUntil = CalendarOutboxController.deletePendingCreates(conn, applicationUuid);
+            boolean hasEvent = googleCalendarId != null && !googleCalendarId.isBlank();
+            if (hasEvent || pendingCreateUntil != null) {
+                String eventId = hasEvent ? googleCalendarId : GoogleCalendarService.eventIdFor(applicationUuid);
+                CalendarOutboxController.enqueue(conn, applicationUuid, Operation.DELETE, eventId, pendingCreateUntil);
+                enqueued = true;
             }
-        }
 
-        // 3) Remover do banco
-        try (PreparedStatement ps = conn.prepareStatement(
-                "DELETE FROM public.medicine_applications WHERE application_uuid = ?")) {
-            ps.setObject(1, applicationUuid);
-            ps.executeUpdate();
+            // 3) Remover do banco
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "DELETE FROM public.medicine_applications WHERE application_uuid = ?")) {
+                ps.setObject(1, applicationUuid);
+                ps.executeUpdate();
+            }
+
+            // 4) A agenda da aplicação anterior do mesmo par volta a valer a partir do dia desta
+            if (animalUuid != null && medicineUuid != null) {
+                MedicineApplicationOccurrenceController.refreshPair(conn, animalUuid, medicineUuid);
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            conn.setAutoCommit(autoCommit);
         }
+
+        if (enqueued) CalendarOutboxWorker.wakeUp();
     }
 
     /**
@@ -158,7 +271,7 @@ public class MedicineApplicationController {
      * @return Objeto MedicineApplication
      * @throws SQLException Se ocorrer erro na operação do banco de dados
      */
-    private static MedicineApplication mapRow(ResultSet rs) throws SQLException {
+    static MedicineApplication mapRow(ResultSet rs) throws SQLException {
         MedicineApplication m = new MedicineApplication();
 
         Object appId = rs.getObject("application_uuid");
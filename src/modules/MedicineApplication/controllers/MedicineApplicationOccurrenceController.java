@@ -0,0 +1,403 @@
+package modules.MedicineApplication.controllers;
+
+import modules.MedicineApplication.models.DueDose;
+import modules.MedicineApplication.models.MedicineApplication;
+import modules.MedicineApplication.models.Recurrence;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Doses das aplicações de medicamento materializadas em medicine_application_occurrences, para uma
+ * janela móvel de datas (de {@link #RETENTION_DAYS} dias atrás até {@link #HORIZON_DAYS} dias à frente).
+ * <p>
+ * A tabela é mantida de forma incremental: cada aplicação criada ou excluída recalcula só as doses
+ * do mesmo medicamento no mesmo animal ({@link #refreshPair}), e o MedicineApplicationOccurrenceJob
+ * avança a janela uma vez por dia ({@link #advanceWindow}). Assim a lista de doses vira uma leitura
+ * por intervalo de datas no índice (occurrence_date, animal_uuid).
+ * <p>
+ * Regras (as mesmas da expansão direta): uma nova aplicação do mesmo medicamento no mesmo animal
+ * substitui a agenda anterior a partir do dia dela, e marca como aplicada a dose anterior
+ * mais recente (a aplicação foi registrada no dia dela ou depois, antes da dose seguinte).
+ */
+public class MedicineApplicationOccurrenceController {
+
+    public static final int HORIZON_DAYS = 90;
+    // Doses passadas mantidas para a lista de atrasadas
+    public static final int RETENTION_DAYS = 90;
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Trava consultiva da janela: advanceWindow a pega exclusiva, refreshPair compartilhada. A linha da
+    // janela não serve para isso: antes da primeira montagem ela não existe e não há o que travar
+    private static final String WINDOW_LOCK_KEY = "medicine_application_occurrence_window";
+
+    /**
+     * Período materializado, com as duas datas inclusive.
+     *
+     * @param from Primeira data materializada
+     * @param until Última data materializada
+     */
+    public record Window(LocalDate from, LocalDate until) {
+        /**
+         * Verifica se o período cobre o intervalo inteiro.
+         *
+         * @param start Data inicial, inclusive
+         * @param end Data final, inclusive
+         * @return true se todas as datas do intervalo estão materializadas
+         */
+        public boolean covers(LocalDate start, LocalDate end) {
+            return !start.isBefore(from) && !end.isAfter(until);
+        }
+    }
+
+    /**
+     * Dose calculada a partir da recorrência de uma aplicação.
+     *
+     * @param application Aplicação que agendou a dose
+     * @param date Data da dose
+     * @param applied Se já houve aplicação registrada para a dose
+     */
+    public record ScheduledDose(MedicineApplication application, LocalDate date, boolean applied) { }
+
+    /**
+     * Recebe as doses calculadas, com o nome e o status do animal e o nome do medicamento.
+     */
+    @FunctionalInterface
+    public interface DoseConsumer {
+        void accept(ScheduledDose dose, String animalName, String animalStatus, String medicineName) throws SQLException;
+    }
+
+    private static final String APPLICATION_COLUMNS = """
+        ma.application_uuid, ma.medicine_uuid, ma.user_uuid, ma.animal_uuid, ma.applied_at, ma.quantity,
+        ma.next_application_at, ma.frequency, ma.ends_at, ma.created_at, ma.google_calendar_id
+    """;
+
+    // Aplicações que podem ter dose no período: doses únicas com a próxima aplicação no período e séries
+    // recorrentes iniciadas até o fim dele e não encerradas antes do início (índices parciais em
+    // next_application_at e ends_at). superseded_at é a aplicação seguinte do mesmo medicamento no
+    // mesmo animal: ela substitui a agenda anterior a partir daquele dia
+    private static final String CANDIDATES_SQL = """
+        WITH candidates AS (
+            SELECT %1$s
+              FROM public.medicine_applications ma
+             WHERE ma.next_application_at >= ? AND ma.next_application_at < ?
+               AND (ma.frequency IS NULL OR ma.frequency = 'DOES_NOT_REPEAT')
+            UNION ALL
+            SELECT %1$s
+              FROM public.medicine_applications ma
+             WHERE ma.frequency IS NOT NULL AND ma.frequency <> 'DOES_NOT_REPEAT'
+               AND (ma.ends_at IS NULL OR ma.ends_at >= ?)
+               AND COALESCE(ma.next_application_at, ma.applied_at) < ?
+        )
+        SELECT c.*, an.name AS animal_name, an.status AS animal_status, m.name AS medicine_name,
+               nx.applied_at AS superseded_at
+          FROM candidates c
+          JOIN public.animals an ON an.uuid = c.animal_uuid
+          JOIN public.medicines m ON m.uuid = c.medicine_uuid
+          LEFT JOIN LATERAL (
+                SELECT n.applied_at
+                  FROM public.medicine_applications n
+                 WHERE n.animal_uuid = c.animal_uuid
+                   AND n.medicine_uuid = c.medicine_uuid
+                   AND (n.applied_at, n.created_at) > (c.applied_at, c.created_at)
+                 ORDER BY n.applied_at, n.created_at
+                 LIMIT 1
+          ) nx ON true
+         WHERE nx.applied_at IS NULL OR nx.applied_at >= ?
+    """.formatted(APPLICATION_COLUMNS);
+
+    private static final String PAIR_APPLICATIONS_SQL = """
+        SELECT %s
+          FROM public.medicine_applications ma
+         WHERE ma.animal_uuid = ? AND ma.medicine_uuid = ?
+         ORDER BY ma.applied_at, ma.created_at
+    """.formatted(APPLICATION_COLUMNS);
+
+    private static final String INSERT_SQL = """
+        INSERT INTO public.medicine_application_occurrences
+        (application_uuid, occurrence_date, animal_uuid, medicine_uuid, applied)
+        VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (application_uuid, occurrence_date) DO UPDATE SET applied = EXCLUDED.applied
+    """;
+
+    private static final String PENDING_SQL = """
+        SELECT o.application_uuid, o.animal_uuid, an.name AS animal_name, o.medicine_uuid, m.name AS medicine_name,
+               ma.quantity, ma.frequency, o.occurrence_date
+          FROM public.medicine_application_occurrences o
+          JOIN public.medicine_applications ma ON ma.application_uuid = o.application_uuid
+          JOIN public.animals an ON an.uuid = o.animal_uuid
+          JOIN public.medicines m ON m.uuid = o.medicine_uuid
+         WHERE o.occurrence_date BETWEEN ? AND ?
+           AND NOT o.applied
+           AND an.status IN ('quarantine', 'sheltered')
+         ORDER BY o.occurrence_date, an.name, m.name
+    """;
+
+    /**
+     * Retorna o período materializado.
+     *
+     * @param conn Conexão com o banco de dados
+     * @return Período materializado, ou null se a tabela ainda não foi montada
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static Window getWindow(Connection conn) throws SQLException {
+        String sql = "SELECT materialized_from, materialized_until FROM public.medicine_application_occurrence_window WHERE id = 1";
+        try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? new Window(rs.getDate(1).toLocalDate(), rs.getDate(2).toLocalDate()) : null;
+        }
+    }
+
+    /**
+     * Lista as doses pendentes de um período a partir da tabela materializada.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param from Data inicial, inclusive
+     * @param to Data final, inclusive
+     * @return Doses pendentes ordenadas por data, animal e medicamento, ou null se o período
+     *         não estiver todo materializado (o chamador calcula as doses diretamente)
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static List<DueDose> findPending(Connection conn, LocalDate from, LocalDate to) throws SQLException {
+        Window window = getWindow(conn);
+        if (window == null || !window.covers(from, to)) return null;
+
+        LocalDate today = LocalDate.now();
+        List<DueDose> out = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(PENDING_SQL)) {
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate due = rs.getDate("occurrence_date").toLocalDate();
+                    out.add(new DueDose(
+                            (UUID) rs.getObject("application_uuid"),
+                            (UUID) rs.getObject("animal_uuid"),
+                            rs.getString("animal_name"),
+                            (UUID) rs.getObject("medicine_uuid"),
+                            rs.getString("medicine_name"),
+                            rs.getInt("quantity"),
+                            parseFrequency(rs.getString("frequency")),
+                            due,
+                            due.isBefore(today)
+                    ));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Calcula diretamente (sem a tabela) as doses de todas as aplicações entre duas datas.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param from Data inicial, inclusive
+     * @param to Data final, inclusive
+     * @param consumer Recebe cada dose calculada, aplicada ou não
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void expand(Connection conn, LocalDate from, LocalDate to, DoseConsumer consumer) throws SQLException {
+        Timestamp fromTs = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp afterTo = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        try (PreparedStatement ps = conn.prepareStatement(CANDIDATES_SQL)) {
+            ps.setFetchSize(BATCH_SIZE);
+            ps.setTimestamp(1, fromTs);
+            ps.setTimestamp(2, afterTo);
+            ps.setTimestamp(3, fromTs);
+            ps.setTimestamp(4, afterTo);
+            ps.setTimestamp(5, Timestamp.valueOf(from.plusDays(1).atStartOfDay()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    MedicineApplication app = MedicineApplicationController.mapRow(rs);
+                    Timestamp supersededTs = rs.getTimestamp("superseded_at");
+                    LocalDate superseded = supersededTs != null ? supersededTs.toLocalDateTime().toLocalDate() : null;
+                    String animalName = rs.getString("animal_name");
+                    String animalStatus = rs.getString("animal_status");
+                    String medicineName = rs.getString("medicine_name");
+                    for (ScheduledDose dose : expandSeries(app, superseded, from, to)) {
+                        consumer.accept(dose, animalName, animalStatus, medicineName);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Recalcula as doses materializadas de um medicamento em um animal. Deve ser chamado na transação
+     * que criou ou excluiu a aplicação, depois da alteração: a nova aplicação muda a agenda
+     * e o status das doses das aplicações anteriores do mesmo par.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param animalUuid UUID do animal
+     * @param medicineUuid UUID do medicamento
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static void refreshPair(Connection conn, UUID animalUuid, UUID medicineUuid) throws SQLException {
+        // Não deixa a janela avançar (nem ser montada) no meio do recálculo. Uma montagem em andamento
+        // termina antes, e a janela lida aqui já é a dela; se a montagem vier depois, ela espera esta
+        // transação e lê a aplicação já confirmada. Sem janela, não há o que manter
+        lockWindow(conn, true);
+        Window window = getWindow(conn);
+        if (window == null) return;
+
+        // Serializa recálculos concorrentes do mesmo par (duas aplicações salvas ao mesmo tempo)
+        try (PreparedStatement ps = conn.prepareStatement("SELECT pg_advisory_xact_lock(hashtext(?))")) {
+            ps.setString(1, "medicine_application_occurrences:" + animalUuid + ":" + medicineUuid);
+            ps.execute();
+        }
+
+        List<MedicineApplication> apps = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(PAIR_APPLICATIONS_SQL)) {
+            ps.setObject(1, animalUuid);
+            ps.setObject(2, medicineUuid);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) apps.add(MedicineApplicationController.mapRow(rs));
+            }
+        }
+
+        // Pela chave primária: as doses de uma aplicação excluída já saíram em cascata
+        if (apps.isEmpty()) return;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "DELETE FROM public.medicine_application_occurrences WHERE application_uuid = ANY(?)")) {
+            ps.setArray(1, conn.createArrayOf("uuid",
+                    apps.stream().map(MedicineApplication::getApplicationUuid).toArray()));
+            ps.executeUpdate();
+        }
+
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_SQL)) {
+            for (int i = 0; i < apps.size(); i++) {
+                LocalDate superseded = i + 1 < apps.size() ? apps.get(i + 1).getAppliedAt().toLocalDate() : null;
+                // Substituída antes da janela: nenhuma dose dela cai no período
+                if (superseded != null && !superseded.isAfter(window.from())) continue;
+                for (ScheduledDose dose : expandSeries(apps.get(i), superseded, window.from(), window.until())) {
+                    addInsert(insert, dose);
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Avança a janela materializada até {@code today + HORIZON_DAYS} e descarta as doses anteriores a
+     * {@code today - RETENTION_DAYS}. Na primeira execução, monta a tabela inteira.
+     * Deve ser chamado dentro de uma transação.
+     *
+     * @param conn Conexão com o banco de dados
+     * @param today Data de referência
+     * @return Quantidade de doses materializadas
+     * @throws SQLException Se ocorrer erro na operação do banco de dados
+     */
+    public static int advanceWindow(Connection conn, LocalDate today) throws SQLException {
+        LocalDate from = today.minusDays(RETENTION_DAYS);
+        LocalDate until = today.plusDays(HORIZON_DAYS);
+
+        // Espera os recálculos em andamento: aplicações salvas durante a montagem não ficam de fora
+        lockWindow(conn, false);
+        Window window = getWindow(conn);
+        int inserted;
+        if (window == null || window.until().isBefore(from)) {
+            // Primeira montagem (ou parada por mais tempo que a janela): recalcula tudo
+            try (Statement st = conn.createStatement()) {
+                st.execute("DELETE FROM public.medicine_application_occurrences");
+            }
+            inserted = materialize(conn, from, until);
+        } else {
+            inserted = window.until().isBefore(until) ? materialize(conn, window.until().plusDays(1), until) : 0;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "DELETE FROM public.medicine_application_occurrences WHERE occurrence_date < ?")) {
+                ps.setDate(1, Date.valueOf(from));
+                ps.executeUpdate();
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("""
+                INSERT INTO public.medicine_application_occurrence_window (id, materialized_from, materialized_until, refreshed_at)
+                VALUES (1, ?, ?, now())
+                ON CONFLICT (id) DO UPDATE
+                   SET materialized_from = EXCLUDED.materialized_from,
+                       materialized_until = GREATEST(public.medicine_application_occurrence_window.materialized_until,
+                                                     EXCLUDED.materialized_until),
+                       refreshed_at = EXCLUDED.refreshed_at
+                """)) {
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(until));
+            ps.executeUpdate();
+        }
+        return inserted;
+    }
+
+    /**
+     * Trava a janela materializada até o fim da transação.
+     *
+     * @param shared true para recalcular doses (vários ao mesmo tempo), false para avançar ou montar a janela
+     */
+    private static void lockWindow(Connection conn, boolean shared) throws SQLException {
+        String sql = shared ? "SELECT pg_advisory_xact_lock_shared(hashtext(?))" : "SELECT pg_advisory_xact_lock(hashtext(?))";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, WINDOW_LOCK_KEY);
+            ps.execute();
+        }
+    }
+
+    /**
+     * Grava as doses de todas as aplicações entre duas datas, em lotes.
+     */
+    private static int materialize(Connection conn, LocalDate from, LocalDate to) throws SQLException {
+        int[] count = {0};
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_SQL)) {
+            expand(conn, from, to, (dose, animalName, animalStatus, medicineName) -> {
+                addInsert(insert, dose);
+                if (++count[0] % BATCH_SIZE == 0) insert.executeBatch();
+            });
+            insert.executeBatch();
+        }
+        return count[0];
+    }
+
+    private static void addInsert(PreparedStatement insert, ScheduledDose dose) throws SQLException {
+        MedicineApplication app = dose.application();
+        insert.setObject(1, app.getApplicationUuid());
+        insert.setDate(2, Date.valueOf(dose.date()));
+        insert.setObject(3, app.getAnimalUuid());
+        insert.setObject(4, app.getMedicineUuid());
+        insert.setBoolean(5, dose.applied());
+        insert.addBatch();
+    }
+
+    /**
+     * Expande as doses de uma aplicação entre duas datas.
+     *
+     * @param app Aplicação
+     * @param superseded Dia da aplicação seguinte do mesmo medicamento no mesmo animal, ou null se não houver
+     * @param from Data inicial, inclusive
+     * @param to Data final, inclusive
+     * @return Doses da aplicação no período, com o status de cada uma
+     */
+    static List<ScheduledDose> expandSeries(MedicineApplication app, LocalDate superseded, LocalDate from, LocalDate to) {
+        List<ScheduledDose> out = new ArrayList<>();
+        Recurrence recurrence = app.toRecurrence();
+        if (recurrence == null) return out;
+
+        LocalDate appliedDate = app.getAppliedAt().toLocalDate();
+        for (LocalDate due : (Iterable<LocalDate>) recurrence.between(from, to)::iterator) {
+            if (superseded != null && !due.isBefore(superseded)) break;
+            LocalDate following = recurrence.nextOnOrAfter(due.plusDays(1));
+            boolean applied = due.equals(appliedDate)
+                    || (superseded != null && (following == null || superseded.isBefore(following)));
+            out.add(new ScheduledDose(app, due, applied));
+        }
+        return out;
+    }
+
+    private static MedicineApplication.Frequency parseFrequency(String value) {
+        if (value == null || value.isBlank()) return MedicineApplication.Frequency.DOES_NOT_REPEAT;
+        try {
+            return MedicineApplication.Frequency.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return MedicineApplication.Frequency.DOES_NOT_REPEAT;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package modules.MedicineApplication.models;
+
+import java.time.LocalDate;
+
+public class CalendarEventChange {
+
+    private final String eventId;
+    private final boolean cancelled;
+    private final LocalDate startDate;
+    private final MedicineApplication.Frequency frequency;
+    private final LocalDate until;
+
+    /**
+     * Construtor da classe CalendarEventChange.
+     *
+     * @param eventId ID do evento no Google Calendar
+     * @param cancelled Indica se o evento foi removido do calendário
+     * @param startDate Data da primeira ocorrência do evento (null se removido)
+     * @param frequency Frequência lida da RRULE do evento (null se removido)
+     * @param until Data final da recorrência, inclusive, ou null se não houver fim
+     */
+    public CalendarEventChange(String eventId, boolean cancelled, LocalDate startDate,
+                               MedicineApplication.Frequency frequency, LocalDate until) {
+        this.eventId = eventId;
+        this.cancelled = cancelled;
+        this.startDate = startDate;
+        this.frequency = frequency;
+        this.until = until;
+    }
+
+    /**
+     * Cria a alteração de um evento removido do calendário.
+     *
+     * @param eventId ID do evento no Google Calendar
+     * @return Alteração de remoção
+     */
+    public static CalendarEventChange cancelled(String eventId) {
+        return new CalendarEventChange(eventId, true, null, null, null);
+    }
+
+    /**
+     * Retorna o ID do evento no Google Calendar.
+     *
+     * @return ID do evento
+     */
+    public String getEventId() { return eventId; }
+
+    /**
+     * Retorna se o evento foi removido do calendário.
+     *
+     * @return true se o evento foi removido
+     */
+    public boolean isCancelled() { return cancelled; }
+
+    /**
+     * Retorna a data da primeira ocorrência do evento.
+     *
+     * @return Data inicial, ou null se o evento foi removido
+     */
+    public LocalDate getStartDate() { return startDate; }
+
+    /**
+     * Retorna a frequência lida da RRULE do evento.
+     *
+     * @return Frequência, ou null se o evento foi removido
+     */
+    public MedicineApplication.Frequency getFrequency() { return frequency; }
+
+    /**
+     * Retorna a data final da recorrência.
+     *
+     * @return Data final, inclusive, ou null se não houver fim
+     */
+    public LocalDate getUntil() { return until; }
+}
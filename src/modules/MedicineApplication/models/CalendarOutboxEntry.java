@@ -0,0 +1,99 @@
+package modules.MedicineApplication.models;
+
+import java.util.UUID;
+
+public class CalendarOutboxEntry {
+
+    public enum Operation { CREATE, DELETE }
+
+    private final UUID uuid;
+    private final UUID applicationUuid;
+    private final Operation operation;
+    private final String eventId;
+    private final int attempts;
+
+    // Dados atuais da aplicação (null se ela já foi removida ou se a operação é DELETE)
+    private final MedicineApplication application;
+    private final String animalName;
+    private final String medicineName;
+
+    /**
+     * Construtor da classe CalendarOutboxEntry.
+     *
+     * @param uuid UUID do registro no outbox
+     * @param applicationUuid UUID da aplicação de medicamento
+     * @param operation Operação a ser feita no Google Calendar
+     * @param eventId ID do evento no Google Calendar (chave de idempotência)
+     * @param attempts Quantidade de tentativas já feitas
+     * @param application Dados atuais da aplicação, ou null se não existir mais
+     * @param animalName Nome do animal da aplicação
+     * @param medicineName Nome do medicamento da aplicação
+     */
+    public CalendarOutboxEntry(UUID uuid, UUID applicationUuid, Operation operation, String eventId, int attempts,
+                               MedicineApplication application, String animalName, String medicineName) {
+        this.uuid = uuid;
+        this.applicationUuid = applicationUuid;
+        this.operation = operation;
+        this.eventId = eventId;
+        this.attempts = attempts;
+        this.application = application;
+        this.animalName = animalName;
+        this.medicineName = medicineName;
+    }
+
+    /**
+     * Retorna o UUID do registro no outbox.
+     *
+     * @return UUID do registro
+     */
+    public UUID getUuid() { return uuid; }
+
+    /**
+     * Retorna o UUID da aplicação de medicamento.
+     *
+     * @return UUID da aplicação
+     */
+    public UUID getApplicationUuid() { return applicationUuid; }
+
+    /**
+     * Retorna a operação a ser feita no Google Calendar.
+     *
+     * @return Operação (CREATE ou DELETE)
+     */
+    public Operation getOperation() { return operation; }
+
+    /**
+     * Retorna o ID do evento no Google Calendar.
+     *
+     * @return ID do evento
+     */
+    public String getEventId() { return eventId; }
+
+    /**
+     * Retorna a quantidade de tentativas já feitas.
+     *
+     * @return Quantidade de tentativas
+     */
+    public int getAttempts() { return attempts; }
+
+    /**
+     * Retorna os dados atuais da aplicação.
+     *
+     * @return Aplicação, ou null se ela já foi removida
+     */
+    public MedicineApplication getApplication() { return application; }
+
+    /**
+     * Retorna o nome do animal da aplicação.
+     *
+     * @return Nome do animal
+     */
+    public String getAnimalName() { return animalName; }
+
+    /**
+     * Retorna o nome do medicamento da aplicação.
+     *
+     * @return Nome do medicamento
+     */
+    public String getMedicineName() { return medicineName; }
+}
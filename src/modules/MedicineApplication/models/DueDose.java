@@ -0,0 +1,106 @@
+package modules.MedicineApplication.models;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public class DueDose {
+
+    private final UUID applicationUuid;
+    private final UUID animalUuid;
+    private final String animalName;
+    private final UUID medicineUuid;
+    private final String medicineName;
+    private final int quantity;
+    private final MedicineApplication.Frequency frequency;
+    private final LocalDate dueDate;
+    private final boolean overdue;
+
+    /**
+     * Construtor da classe DueDose.
+     *
+     * @param applicationUuid UUID da aplicação que agendou a dose
+     * @param animalUuid UUID do animal
+     * @param animalName Nome do animal
+     * @param medicineUuid UUID do medicamento
+     * @param medicineName Nome do medicamento
+     * @param quantity Quantidade da dose
+     * @param frequency Frequência do tratamento
+     * @param dueDate Data prevista da dose
+     * @param overdue Indica se a data da dose já passou
+     */
+    public DueDose(UUID applicationUuid, UUID animalUuid, String animalName, UUID medicineUuid, String medicineName,
+                   int quantity, MedicineApplication.Frequency frequency, LocalDate dueDate, boolean overdue) {
+        this.applicationUuid = applicationUuid;
+        this.animalUuid = animalUuid;
+        this.animalName = animalName;
+        this.medicineUuid = medicineUuid;
+        this.medicineName = medicineName;
+        this.quantity = quantity;
+        this.frequency = frequency;
+        this.dueDate = dueDate;
+        this.overdue = overdue;
+    }
+
+    /**
+     * Retorna o UUID da aplicação que agendou a dose.
+     *
+     * @return UUID da aplicação
+     */
+    public UUID getApplicationUuid() { return applicationUuid; }
+
+    /**
+     * Retorna o UUID do animal.
+     *
+     * @return UUID do animal
+     */
+    public UUID getAnimalUuid() { return animalUuid; }
+
+    /**
+     * Retorna o nome do animal.
+     *
+     * @return Nome do animal
+     */
+    public String getAnimalName() { return animalName; }
+
+    /**
+     * Retorna o UUID do medicamento.
+     *
+     * @return UUID do medicamento
+     */
+    public UUID getMedicineUuid() { return medicineUuid; }
+
+    /**
+     * Retorna o nome do medicamento.
+     *
+     * @return Nome do medicamento
+     */
+    public String getMedicineName() { return medicineName; }
+
+    /**
+     * Retorna a quantidade da dose.
+     *
+     * @return Quantidade da dose
+     */
+    public int getQuantity() { return quantity; }
+
+    /**
+     * Retorna a frequência do tratamento.
+     *
+     * @return Frequência do tratamento
+     */
+    public MedicineApplication.Frequency getFrequency() { return frequency; }
+
+    /**
+     * Retorna a data prevista da dose.
+     *
+     * @return Data prevista
+     */
+    public LocalDate getDueDate() { return dueDate; }
+
+    /**
+     * Retorna se a dose está atrasada (data prevista anterior a hoje, sem aplicação registrada).
+     *
+     * @return true se a dose está atrasada
+     */
+    public boolean isOverdue() { return overdue; }
+}
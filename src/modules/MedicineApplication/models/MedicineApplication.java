@@ -43,6 +43,18 @@ public class MedicineApplication {
          * @return String representando a RRULE
          */
         public String toRRULE(ZonedDateTime endDate) {
+            return toRRULE(null, endDate);
+        }
+
+        /**
+         * Converte para RRULE do Google Calendar, com as mesmas regras de fim de mês de {@link Recurrence}:
+         * sem elas, o Google pularia os meses sem o dia 29, 30 ou 31 (e os anos sem 29/02).
+         * 
+         * @param startDate Data da primeira ocorrência (pode ser null)
+         * @param endDate Data final da recorrência
+         * @return String representando a RRULE
+         */
+        public String toRRULE(ZonedDateTime startDate, ZonedDateTime endDate) {
             if (this == DOES_NOT_REPEAT) return null;
 
             StringBuilder rule = new StringBuilder("RRULE:");
@@ -54,15 +66,59 @@ public class MedicineApplication {
                 case EVERY_WEEKDAY -> rule.append("FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR");
             }
 
-            // Inclui o dia final (convenção amigável)
+            // Último dia existente entre 28 e o dia inicial: o dia 31 vira o último dia de cada mês
+            int day = startDate != null ? startDate.getDayOfMonth() : 0;
+            if (this == MONTHLY && day > 28) {
+                rule.append(";BYMONTHDAY=28");
+                for (int d = 29; d <= day; d++) rule.append(',').append(d);
+                rule.append(";BYSETPOS=-1");
+            } else if (this == ANNUALLY && day == 29 && startDate.getMonthValue() == 2) {
+                rule.append(";BYMONTH=2;BYMONTHDAY=28,29;BYSETPOS=-1");
+            }
+
+            // UNTIL é inclusivo: o dia final do tratamento ainda tem dose
             if (endDate != null) {
-                String until = endDate.plusDays(1)
+                String until = endDate
                         .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"));
                 rule.append(";UNTIL=").append(until);
             }
             return rule.toString();
         }
 
+        /**
+         * Converte uma RRULE do Google Calendar de volta para a frequência, aceitando as regras geradas
+         * por {@link #toRRULE(ZonedDateTime, ZonedDateTime)} (inclusive as de fim de mês).
+         * 
+         * @param rrule RRULE do evento (com ou sem o prefixo "RRULE:"), ou null se o evento não se repete
+         * @return Frequência correspondente, ou null se a regra não tiver equivalente (ex.: INTERVAL ou COUNT)
+         */
+        public static Frequency fromRRULE(String rrule) {
+            if (rrule == null || rrule.isBlank()) return DOES_NOT_REPEAT;
+
+            String freq = null;
+            String byDay = null;
+            for (String part : rrule.trim().replaceFirst("(?i)^RRULE:", "").split(";")) {
+                int eq = part.indexOf('=');
+                if (eq < 0) return null;
+                String key = part.substring(0, eq).trim().toUpperCase();
+                String value = part.substring(eq + 1).trim().toUpperCase();
+                switch (key) {
+                    case "FREQ" -> freq = value;
+                    case "BYDAY" -> byDay = value;
+                    case "UNTIL", "BYMONTHDAY", "BYMONTH", "BYSETPOS", "WKST" -> { }
+                    default -> { return null; }
+                }
+            }
+            if (freq == null) return null;
+            return switch (freq) {
+                case "DAILY" -> byDay == null ? DAILY : null;
+                case "WEEKLY" -> byDay == null ? WEEKLY : "MO,TU,WE,TH,FR".equals(byDay) ? EVERY_WEEKDAY : null;
+                case "MONTHLY" -> byDay == null ? MONTHLY : null;
+                case "YEARLY" -> byDay == null ? ANNUALLY : null;
+                default -> null;
+            };
+        }
+
         /**
          * Verifica se a frequência é recorrente (diferente de DOES_NOT_REPEAT).
          * 
@@ -267,4 +323,11 @@ public class MedicineApplication {
         return "MedicineApplication{uuid=%s, animal=%s, med=%s, qty=%s, googleCalendarId=%s}"
                 .formatted(applicationUuid, animalUuid, medicineUuid, quantity, googleCalendarGoogleCalendarId);
     }
+
+    /**
+     * Retorna a recorrência da aplicação, para expandir as datas das doses localmente.
+     * 
+     * @return Recorrência da aplicação, ou null se ela não tiver data de aplicação
+     */
+    public Recurrence toRecurrence() { return Recurrence.of(this); }
 }
@@ -0,0 +1,208 @@
+package modules.MedicineApplication.models;
+
+import modules.MedicineApplication.models.MedicineApplication.Frequency;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Recorrência de uma aplicação de medicamento, expandida localmente em datas de dose
+ * (as mesmas do evento de dia inteiro criado no Google Calendar).
+ * <p>
+ * A série começa na próxima aplicação (ou na própria aplicação, se não houver próxima) e vai até
+ * o fim do tratamento, inclusive. As datas são calculadas sob demanda: qualquer dose é encontrada
+ * em tempo constante a partir da data pedida, sem percorrer (nem guardar) as anteriores.
+ * <p>
+ * Regras de fim de mês: uma série mensal no dia 29, 30 ou 31 cai no último dia dos meses mais curtos
+ * (31/01 → 29/02 → 31/03), e uma anual em 29/02 cai em 28/02 nos anos não bissextos.
+ * Em "Dias úteis", a primeira dose vale mesmo se cair no fim de semana; as seguintes, só de segunda a sexta.
+ */
+public final class Recurrence {
+
+    private final Frequency frequency;
+    private final LocalDate start;
+    private final LocalDate until;
+
+    /**
+     * Construtor da classe Recurrence.
+     *
+     * @param frequency Frequência da série (null é tratado como DOES_NOT_REPEAT)
+     * @param start Data da primeira dose
+     * @param until Data limite da série, inclusive, ou null se não houver fim
+     */
+    public Recurrence(Frequency frequency, LocalDate start, LocalDate until) {
+        if (start == null) throw new IllegalArgumentException("A data inicial da recorrência é obrigatória");
+        this.frequency = frequency != null ? frequency : Frequency.DOES_NOT_REPEAT;
+        this.start = start;
+        this.until = this.frequency.isRecurring() ? until : start;
+    }
+
+    /**
+     * Cria a recorrência de uma aplicação a partir de frequency, next_application_at (ou applied_at) e ends_at.
+     *
+     * @param application Aplicação de medicamento
+     * @return Recorrência da aplicação, ou null se ela não tiver data de aplicação
+     */
+    public static Recurrence of(MedicineApplication application) {
+        ZonedDateTime first = application.getNextApplicationAt() != null
+                ? application.getNextApplicationAt()
+                : application.getAppliedAt();
+        if (first == null) return null;
+        return new Recurrence(application.getFrequency(), toLocalDate(first), toLocalDate(application.getEndsAt()));
+    }
+
+    /**
+     * Retorna a frequência da série.
+     *
+     * @return Frequência da série
+     */
+    public Frequency getFrequency() { return frequency; }
+
+    /**
+     * Retorna a data da primeira dose.
+     *
+     * @return Data da primeira dose
+     */
+    public LocalDate getStart() { return start; }
+
+    /**
+     * Retorna a data limite da série.
+     *
+     * @return Data limite, inclusive, ou null se a série não tiver fim
+     */
+    public LocalDate getUntil() { return until; }
+
+    /**
+     * Retorna a primeira dose na data informada ou depois dela, em tempo constante.
+     *
+     * @param date Data a partir da qual procurar
+     * @return Data da dose, ou null se a série já terminou
+     */
+    public LocalDate nextOnOrAfter(LocalDate date) {
+        LocalDate candidate = date.isAfter(start) ? seek(date) : start;
+        return until != null && candidate.isAfter(until) ? null : candidate;
+    }
+
+    /**
+     * Verifica se há dose na data informada.
+     *
+     * @param date Data a verificar
+     * @return true se a série tem uma dose nessa data
+     */
+    public boolean occursOn(LocalDate date) {
+        return date.equals(nextOnOrAfter(date));
+    }
+
+    /**
+     * Retorna todas as doses da série, em ordem. A stream é preguiçosa e infinita se a série não tiver fim:
+     * use limit, takeWhile ou {@link #between(LocalDate, LocalDate)}.
+     *
+     * @return Stream das datas de dose
+     */
+    public Stream<LocalDate> occurrences() {
+        return stream(start, until);
+    }
+
+    /**
+     * Retorna as doses entre duas datas, inclusive, em ordem. A primeira é localizada diretamente,
+     * sem expandir a série desde o início.
+     *
+     * @param from Data inicial, inclusive
+     * @param to Data final, inclusive
+     * @return Stream das datas de dose no intervalo
+     */
+    public Stream<LocalDate> between(LocalDate from, LocalDate to) {
+        LocalDate end = until != null && until.isBefore(to) ? until : to;
+        return stream(from, end);
+    }
+
+    /**
+     * Conta as doses entre duas datas, inclusive, sem gerar as datas quando a frequência
+     * permite calcular a quantidade diretamente.
+     *
+     * @param from Data inicial, inclusive
+     * @param to Data final, inclusive
+     * @return Quantidade de doses no intervalo
+     */
+    public long count(LocalDate from, LocalDate to) {
+        LocalDate first = nextOnOrAfter(from);
+        LocalDate end = until != null && until.isBefore(to) ? until : to;
+        if (first == null || first.isAfter(end)) return 0;
+        return switch (frequency) {
+            case DOES_NOT_REPEAT -> 1;
+            case DAILY -> ChronoUnit.DAYS.between(first, end) + 1;
+            case WEEKLY -> ChronoUnit.DAYS.between(first, end) / 7 + 1;
+            default -> between(first, end).count();
+        };
+    }
+
+    private Stream<LocalDate> stream(LocalDate from, LocalDate end) {
+        Iterator<LocalDate> iterator = new Iterator<>() {
+            private LocalDate next = nextOnOrAfter(from);
+
+            @Override
+            public boolean hasNext() {
+                return next != null && (end == null || !next.isAfter(end));
+            }
+
+            @Override
+            public LocalDate next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                LocalDate current = next;
+                next = frequency.isRecurring() ? nextOnOrAfter(current.plusDays(1)) : null;
+                return current;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * Primeira dose em {@code date} ou depois, para uma data posterior ao início, sem considerar o fim.
+     * Cada data é calculada a partir do início da série (e não da dose anterior), então o ajuste
+     * de fim de mês de um mês curto não se propaga para os seguintes.
+     */
+    private LocalDate seek(LocalDate date) {
+        switch (frequency) {
+            case DAILY:
+                return date;
+            case WEEKLY: {
+                long weeks = Math.floorDiv(ChronoUnit.DAYS.between(start, date) + 6, 7);
+                return start.plusWeeks(weeks);
+            }
+            case MONTHLY: {
+                long months = ChronoUnit.MONTHS.between(YearMonth.from(start), YearMonth.from(date));
+                LocalDate candidate = start.plusMonths(months);
+                return candidate.isBefore(date) ? start.plusMonths(months + 1) : candidate;
+            }
+            case ANNUALLY: {
+                long years = date.getYear() - start.getYear();
+                LocalDate candidate = start.plusYears(years);
+                return candidate.isBefore(date) ? start.plusYears(years + 1) : candidate;
+            }
+            case EVERY_WEEKDAY: {
+                DayOfWeek day = date.getDayOfWeek();
+                if (day == DayOfWeek.SATURDAY) return date.plusDays(2);
+                if (day == DayOfWeek.SUNDAY) return date.plusDays(1);
+                return date;
+            }
+            default:
+                // Sem repetição: não há dose depois do início
+                return LocalDate.MAX;
+        }
+    }
+
+    private static LocalDate toLocalDate(ZonedDateTime dateTime) {
+        return dateTime != null ? dateTime.withZoneSameInstant(ZoneId.systemDefault()).toLocalDate() : null;
+    }
+}
@@ -0,0 +1,169 @@
+package modules.MedicineApplication.services;
+
+import config.BackgroundJobs;
+import config.Database;
+import modules.MedicineApplication.controllers.CalendarOutboxController;
+import modules.MedicineApplication.models.CalendarOutboxEntry;
+import modules.MedicineApplication.models.MedicineApplication;
+import modules.MedicineApplication.services.GoogleCalendarService.BatchOperation;
+import modules.MedicineApplication.services.GoogleCalendarService.BatchResult;
+
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Worker que drena a tabela calendar_outbox, aplicando no Google Calendar as operações
+ * registradas junto com as aplicações de medicamento.
+ */
+public class CalendarOutboxWorker {
+
+    // Um lote do outbox vira uma única requisição batch no Google Calendar
+    private static final int BATCH_SIZE = GoogleCalendarService.MAX_BATCH_SIZE;
+    private static final long POLL_INTERVAL_SECONDS = 15;
+    // Tempo que um lote fica reservado; se o worker morrer no meio, outro retoma depois disso
+    private static final long LEASE_SECONDS = 120;
+
+    // Backoff exponencial: 10s, 20s, 40s... até 1h; depois de MAX_ATTEMPTS a operação fica parada
+    // no outbox (com last_error) para análise manual
+    private static final long BASE_BACKOFF_SECONDS = 10;
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+    private static final int MAX_ATTEMPTS = 15;
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static final AtomicBoolean running = new AtomicBoolean();
+    private static volatile boolean drainRequested;
+
+    /**
+     * Inicia o polling periódico do outbox. Chamadas repetidas são ignoradas.
+     */
+    public static void start() {
+        if (!started.compareAndSet(false, true)) return;
+        BackgroundJobs.scheduleWithFixedDelay("calendar-outbox", CalendarOutboxWorker::drain,
+                0, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Pede uma drenagem imediata (chamado após registrar uma operação no outbox),
+     * sem esperar o próximo ciclo de polling.
+     */
+    public static void wakeUp() {
+        if (started.get()) BackgroundJobs.execute("calendar-outbox", CalendarOutboxWorker::drain);
+    }
+
+    /**
+     * Processa lotes até o outbox não ter mais operações prontas.
+     * Execuções concorrentes são coalescidas: quem chega durante uma drenagem só pede mais uma rodada.
+     */
+    private static void drain() {
+        drainRequested = true;
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            while (drainRequested) {
+                drainRequested = false;
+                List<CalendarOutboxEntry> batch;
+                do {
+                    batch = Database.withConnection(conn ->
+                            CalendarOutboxController.claimBatch(conn, BATCH_SIZE, MAX_ATTEMPTS, LEASE_SECONDS));
+                    if (!batch.isEmpty()) process(batch);
+                } while (batch.size() == BATCH_SIZE);
+            }
+        } catch (SQLException e) {
+            System.err.println("Falha ao ler o outbox do Google Calendar: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Aplica um lote de operações no Google Calendar (em requisições batch) e registra
+     * o resultado de cada uma no banco.
+     *
+     * @param batch Operações reservadas do outbox
+     * @throws SQLException Se ocorrer erro ao registrar os resultados
+     */
+    private static void process(List<CalendarOutboxEntry> batch) throws SQLException {
+        List<CalendarOutboxEntry> done = new ArrayList<>();
+        List<CalendarOutboxEntry> sent = new ArrayList<>();
+        List<BatchOperation> operations = new ArrayList<>();
+        for (CalendarOutboxEntry entry : batch) {
+            BatchOperation operation = toBatchOperation(entry);
+            if (operation == null) {
+                done.add(entry); // aplicação removida antes da sincronização: nada a criar
+            } else {
+                sent.add(entry);
+                operations.add(operation);
+            }
+        }
+
+        List<String> errors = new ArrayList<>();
+        try {
+            List<BatchResult> results = GoogleCalendarService.executeBatch(operations);
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).isSuccess()) {
+                    done.add(sent.get(i));
+                    errors.add(null);
+                } else {
+                    errors.add(results.get(i).getError());
+                }
+            }
+        } catch (Exception e) {
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            sent.forEach(entry -> errors.add(error));
+        }
+
+        Database.inTransaction(conn -> {
+            for (CalendarOutboxEntry entry : done) {
+                CalendarOutboxController.markDone(conn, entry);
+            }
+            for (int i = 0; i < sent.size(); i++) {
+                String error = errors.get(i);
+                if (error == null) continue;
+                CalendarOutboxEntry entry = sent.get(i);
+                long retryIn = backoffSeconds(entry.getAttempts());
+                System.err.println("Falha ao sincronizar com o Google Calendar (aplicação "
+                        + entry.getApplicationUuid() + ", tentativa " + (entry.getAttempts() + 1)
+                        + ", nova tentativa em " + retryIn + "s): " + error);
+                CalendarOutboxController.markFailed(conn, entry.getUuid(), error, retryIn);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Converte uma operação do outbox em uma operação do batch do Google Calendar.
+     *
+     * @param entry Operação reservada do outbox
+     * @return Operação do batch, ou null se não houver nada a enviar
+     */
+    private static BatchOperation toBatchOperation(CalendarOutboxEntry entry) {
+        if (entry.getOperation() == CalendarOutboxEntry.Operation.DELETE) {
+            return BatchOperation.delete(entry.getEventId());
+        }
+
+        MedicineApplication app = entry.getApplication();
+        if (app == null) return null;
+
+        ZonedDateTime startDateTime = app.getNextApplicationAt() != null ? app.getNextApplicationAt() : app.getAppliedAt();
+        return BatchOperation.create(
+                entry.getEventId(),
+                entry.getAnimalName(),
+                entry.getMedicineName(),
+                String.valueOf(app.getQuantity()),
+                startDateTime,
+                app.getFrequency(),
+                app.getEndsAt()
+        );
+    }
+
+    private static long backoffSeconds(int attempts) {
+        long delay = BASE_BACKOFF_SECONDS << Math.min(attempts, 20);
+        delay = Math.min(delay, MAX_BACKOFF_SECONDS);
+        // Jitter de até 20% para as estações não tentarem todas ao mesmo tempo
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+}
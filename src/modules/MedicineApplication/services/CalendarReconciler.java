@@ -0,0 +1,344 @@
+package modules.MedicineApplication.services;
+
+import config.BackgroundJobs;
+import config.Database;
+import config.Env;
+import modules.MedicineApplication.controllers.CalendarReconciliationController;
+import modules.MedicineApplication.services.GoogleCalendarService.BatchOperation;
+import modules.MedicineApplication.services.GoogleCalendarService.BatchResult;
+import modules.MedicineApplication.services.GoogleCalendarService.EventIdPage;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Job que compara os eventos do Google Calendar com o google_calendar_id das aplicações de medicamento
+ * e corrige a divergência dos dois lados:
+ * - evento criado pela aplicação sem aplicação correspondente (aplicação excluída cuja remoção no
+ *   calendário não chegou a ser feita, ou evento duplicado): o evento é removido. Inclui os eventos
+ *   antigos, com ID gerado pelo Google (criados antes da aplicação ser salva, e cuja remoção podia
+ *   falhar sem aviso), reconhecidos pelo título "Aplicação de Medicamento - " ou pela propriedade
+ *   privada da aplicação e que nenhuma aplicação referencia;
+ * - evento criado pela aplicação, com a aplicação existente mas sem vínculo (resposta da criação
+ *   perdida): a aplicação é vinculada ao evento;
+ * - aplicação vinculada a um evento que não existe mais: a aplicação é desvinculada, como faz o
+ *   CalendarSyncJob quando o evento é removido no calendário.
+ * Eventos criados à mão no calendário nunca são tocados, a não ser que usem o mesmo título.
+ * Conforme CALENDAR_RECONCILIATION, só relata as divergências ("report", padrão), também as corrige
+ * ("repair") ou fica desligado ("off").
+ * <p>
+ * A memória usada é proporcional às aplicações vinculadas (um conjunto com os IDs de evento), e não
+ * ao calendário: os eventos são lidos página a página, só com o ID.
+ */
+public class CalendarReconciler {
+
+    private static final String MODE = envMode();
+    private static final long INTERVAL_HOURS = Env.longValue("CALENDAR_RECONCILIATION_HOURS", 24, 1);
+    // Espera a aplicação terminar de abrir antes da primeira execução
+    private static final long INITIAL_DELAY_MINUTES = 15;
+
+    // Operações de correção por transação (banco) ou por chamada de batch (Google)
+    private static final int REPAIR_CHUNK_SIZE = 500;
+    // Divergências listadas no log, por tipo, no modo relatório
+    private static final int MAX_LOGGED = 20;
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Resultado de uma reconciliação.
+     */
+    public static class Report {
+        private long eventsScanned;
+        private long linkedApplications;
+        private long orphanEvents;
+        private long legacyOrphanEvents;
+        private long unlinkedApplications;
+        private long orphanApplications;
+        private long deletedEvents;
+        private long relinked;
+        private long unlinked;
+        private long failed;
+
+        /**
+         * Retorna a quantidade de eventos listados no Google Calendar.
+         *
+         * @return Quantidade de eventos
+         */
+        public long getEventsScanned() { return eventsScanned; }
+
+        /**
+         * Retorna a quantidade de aplicações vinculadas a eventos no banco.
+         *
+         * @return Quantidade de aplicações vinculadas
+         */
+        public long getLinkedApplications() { return linkedApplications; }
+
+        /**
+         * Retorna a quantidade de eventos da aplicação sem aplicação correspondente.
+         *
+         * @return Quantidade de eventos órfãos
+         */
+        public long getOrphanEvents() { return orphanEvents; }
+
+        /**
+         * Retorna quantos dos eventos órfãos têm ID gerado pelo Google (criados antes dos IDs derivados do UUID).
+         *
+         * @return Quantidade de eventos órfãos antigos
+         */
+        public long getLegacyOrphanEvents() { return legacyOrphanEvents; }
+
+        /**
+         * Retorna a quantidade de aplicações sem vínculo cujo evento existe no calendário.
+         *
+         * @return Quantidade de aplicações a vincular
+         */
+        public long getUnlinkedApplications() { return unlinkedApplications; }
+
+        /**
+         * Retorna a quantidade de aplicações vinculadas a eventos que não existem mais.
+         *
+         * @return Quantidade de aplicações órfãs
+         */
+        public long getOrphanApplications() { return orphanApplications; }
+
+        /**
+         * Retorna a quantidade de eventos órfãos removidos.
+         *
+         * @return Quantidade de eventos removidos
+         */
+        public long getDeletedEvents() { return deletedEvents; }
+
+        /**
+         * Retorna a quantidade de aplicações vinculadas aos seus eventos.
+         *
+         * @return Quantidade de aplicações vinculadas
+         */
+        public long getRelinked() { return relinked; }
+
+        /**
+         * Retorna a quantidade de aplicações órfãs desvinculadas.
+         *
+         * @return Quantidade de aplicações desvinculadas
+         */
+        public long getUnlinked() { return unlinked; }
+
+        /**
+         * Retorna a quantidade de eventos órfãos que não puderam ser removidos.
+         *
+         * @return Quantidade de falhas
+         */
+        public long getFailed() { return failed; }
+
+        @Override
+        public String toString() {
+            return eventsScanned + " eventos, " + linkedApplications + " aplicações vinculadas, "
+                    + orphanEvents + " eventos órfãos (" + legacyOrphanEvents + " antigos, "
+                    + deletedEvents + " removidos, " + failed + " falhas), "
+                    + unlinkedApplications + " aplicações sem vínculo (" + relinked + " vinculadas), "
+                    + orphanApplications + " aplicações com evento inexistente (" + unlinked + " desvinculadas)";
+        }
+    }
+
+    /**
+     * Agenda a reconciliação periódica, a não ser que esteja desligada. Chamadas repetidas são ignoradas.
+     */
+    public static void start() {
+        if ("off".equals(MODE) || !started.compareAndSet(false, true)) return;
+        BackgroundJobs.scheduleLongRunning("calendar-reconciliation", () -> {
+            try {
+                reconcile("repair".equals(MODE));
+            } catch (Exception e) {
+                System.err.println("Falha na reconciliação com o Google Calendar: " + e.getMessage());
+            }
+        }, TimeUnit.MINUTES.toSeconds(INITIAL_DELAY_MINUTES), TimeUnit.HOURS.toSeconds(INTERVAL_HOURS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Compara os eventos do Google Calendar com as aplicações do banco. Só uma estação por vez
+     * faz a reconciliação; nas demais, a execução é ignorada.
+     *
+     * @param repair Se true, as divergências são corrigidas; se false, só contadas e relatadas
+     * @return Resultado da reconciliação, ou null se ela não foi executada
+     * @throws Exception Se ocorrer erro ao ler o banco ou o Google Calendar
+     */
+    public static Report reconcile(boolean repair) throws Exception {
+        if (!running.compareAndSet(false, true)) return null;
+        try {
+            Optional<Report> report = Database.runExclusively("calendar-reconciliation",
+                    () -> Optional.ofNullable(compare(repair)));
+            if (report == null) {
+                System.out.println("Reconciliação do Google Calendar ignorada: em execução em outra estação");
+                return null;
+            }
+            return report.orElse(null);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Faz a reconciliação (ver {@link #reconcile}).
+     *
+     * @return Resultado, ou null se a reconciliação foi interrompida
+     */
+    private static Report compare(boolean repair) throws Exception {
+        Report report = new Report();
+        // Eventos vinculados ainda não vistos na listagem: no fim, são os que não existem mais
+        Set<String> unseen = loadLinkedEventIds();
+        report.linkedApplications = unseen.size();
+
+        // Remove só depois de listar tudo: apagar no meio da paginação pode pular eventos
+        List<String> orphanEvents = new ArrayList<>();
+        String pageToken = null;
+        do {
+            EventIdPage page = GoogleCalendarService.listEventIds(pageToken);
+            report.eventsScanned += page.getEventIds().size();
+            checkPage(page, unseen, orphanEvents, report, repair);
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
+
+        // Calendário vazio com aplicações vinculadas: calendário errado (GOOGLE_CALENDAR_ID) ou sem acesso,
+        // e não o caso de todos os eventos terem sumido. Não desvincula nada
+        if (report.eventsScanned == 0 && !unseen.isEmpty()) {
+            System.out.println("Reconciliação do Google Calendar interrompida: nenhum evento no calendário "
+                    + GoogleCalendarService.getCalendarId() + ", mas " + unseen.size() + " aplicações vinculadas");
+            return null;
+        }
+
+        report.orphanEvents = orphanEvents.size();
+        report.orphanApplications = unseen.size();
+        if (repair) {
+            report.unlinked = unlinkMissing(unseen);
+            deleteOrphanEvents(orphanEvents, report);
+        } else {
+            logSample("Evento órfão", orphanEvents, 0);
+            logSample("Aplicação vinculada a evento inexistente", unseen, 0);
+        }
+
+        System.out.println("Reconciliação do Google Calendar (" + (repair ? "correção" : "relatório") + "): " + report);
+        return report;
+    }
+
+    /**
+     * Classifica os eventos de uma página. Os eventos criados pela aplicação (ID derivado do UUID
+     * da aplicação) e sem vínculo conhecido são conferidos no banco com uma consulta por página.
+     * Os antigos, com ID gerado pelo Google, não têm como ser ligados a uma aplicação: sem vínculo, são órfãos.
+     */
+    private static void checkPage(EventIdPage page, Set<String> unseen, List<String> orphanEvents,
+                                  Report report, boolean repair) throws SQLException {
+        Map<UUID, String> candidates = new HashMap<>();
+        for (String eventId : page.getEventIds()) {
+            if (unseen.remove(eventId)) continue; // vinculado a uma aplicação
+            UUID applicationUuid = GoogleCalendarService.applicationUuidFor(eventId);
+            if (applicationUuid != null) {
+                candidates.put(applicationUuid, eventId);
+            } else if (page.isAppEvent(eventId)) {
+                // Nenhum evento novo é criado com ID do Google, então a leitura anterior dos vínculos
+                // não perde nenhum: sem vínculo, a aplicação foi excluída ou nunca chegou a ser salva
+                orphanEvents.add(eventId);
+                report.legacyOrphanEvents++;
+            }
+        }
+        if (candidates.isEmpty()) return;
+
+        Map<UUID, String> toRelink = new HashMap<>();
+        Database.withConnection(conn -> {
+            Map<UUID, String> links = CalendarReconciliationController.findLinks(conn, candidates.keySet());
+            for (Map.Entry<UUID, String> candidate : candidates.entrySet()) {
+                String eventId = candidate.getValue();
+                if (!links.containsKey(candidate.getKey())) {
+                    // Aplicação excluída: evento órfão
+                    orphanEvents.add(eventId);
+                } else if (links.get(candidate.getKey()) == null) {
+                    toRelink.put(candidate.getKey(), eventId);
+                } else if (!eventId.equals(links.get(candidate.getKey()))) {
+                    // A aplicação tem outro evento (criado antes dos IDs derivados do UUID): este é duplicado
+                    orphanEvents.add(eventId);
+                }
+                // Igual ao vínculo: aplicação vinculada depois da leitura do banco
+            }
+            return null;
+        });
+
+        if (!repair) logSample("Aplicação sem vínculo com evento existente", toRelink.values(), report.unlinkedApplications);
+        report.unlinkedApplications += toRelink.size();
+        if (repair && !toRelink.isEmpty()) {
+            report.relinked += Database.inTransaction(conn -> CalendarReconciliationController.relink(conn, toRelink));
+        }
+    }
+
+    /**
+     * Remove do calendário os eventos órfãos, em chamadas batch.
+     */
+    private static void deleteOrphanEvents(List<String> orphanEvents, Report report) throws Exception {
+        for (int start = 0; start < orphanEvents.size(); start += REPAIR_CHUNK_SIZE) {
+            List<BatchOperation> operations = new ArrayList<>();
+            for (String eventId : orphanEvents.subList(start, Math.min(start + REPAIR_CHUNK_SIZE, orphanEvents.size()))) {
+                operations.add(BatchOperation.delete(eventId));
+            }
+            for (BatchResult result : GoogleCalendarService.executeBatch(operations)) {
+                if (result.isSuccess()) {
+                    report.deletedEvents++;
+                } else {
+                    report.failed++;
+                    System.err.println("Falha ao remover evento órfão " + result.getEventId() + ": " + result.getError());
+                }
+            }
+        }
+    }
+
+    /**
+     * Desvincula, em transações curtas, as aplicações cujos eventos não apareceram na listagem.
+     */
+    private static int unlinkMissing(Set<String> missing) throws SQLException {
+        int unlinked = 0;
+        Iterator<String> iterator = missing.iterator();
+        while (iterator.hasNext()) {
+            List<String> chunk = new ArrayList<>(REPAIR_CHUNK_SIZE);
+            while (iterator.hasNext() && chunk.size() < REPAIR_CHUNK_SIZE) chunk.add(iterator.next());
+            unlinked += Database.inTransaction(conn -> CalendarReconciliationController.unlink(conn, chunk));
+        }
+        return unlinked;
+    }
+
+    /**
+     * Carrega os IDs de evento de todas as aplicações vinculadas.
+     */
+    private static Set<String> loadLinkedEventIds() throws SQLException {
+        Set<String> ids = new HashSet<>();
+        Database.inTransaction(conn -> {
+            CalendarReconciliationController.forEachLinkedEventId(conn, ids::add);
+            return null;
+        });
+        return ids;
+    }
+
+    /**
+     * Lista no log até {@link #MAX_LOGGED} divergências de um tipo, contando as já listadas.
+     */
+    private static void logSample(String label, Iterable<String> eventIds, long alreadyLogged) {
+        long logged = alreadyLogged;
+        for (String eventId : eventIds) {
+            if (logged++ >= MAX_LOGGED) break;
+            System.out.println(label + ": " + eventId);
+        }
+    }
+
+    private static String envMode() {
+        String value = System.getenv("CALENDAR_RECONCILIATION");
+        if (value == null || value.isBlank()) return "report";
+        value = value.trim().toLowerCase();
+        return value.equals("repair") || value.equals("off") ? value : "report";
+    }
+}
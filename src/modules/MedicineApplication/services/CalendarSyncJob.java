@@ -0,0 +1,96 @@
+package modules.MedicineApplication.services;
+
+import config.BackgroundJobs;
+import config.Database;
+import config.Env;
+import modules.MedicineApplication.controllers.CalendarSyncController;
+import modules.MedicineApplication.services.GoogleCalendarService.ChangePage;
+import modules.MedicineApplication.services.GoogleCalendarService.SyncTokenExpiredException;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Job que traz para o banco as alterações feitas direto no Google Calendar (eventos movidos,
+ * recorrências alteradas, eventos removidos), lendo só o que mudou desde a leitura anterior
+ * (syncToken da API). Cada página de alterações é aplicada em uma transação.
+ */
+public class CalendarSyncJob {
+
+    private static final long INTERVAL_MINUTES = Env.longValue("CALENDAR_SYNC_MINUTES", 5, 1);
+    private static final long INITIAL_DELAY_SECONDS = 45;
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * Agenda a leitura periódica das alterações. Chamadas repetidas são ignoradas.
+     */
+    public static void start() {
+        if (!started.compareAndSet(false, true)) return;
+        BackgroundJobs.scheduleWithFixedDelay("calendar-sync", CalendarSyncJob::run,
+                INITIAL_DELAY_SECONDS, TimeUnit.MINUTES.toSeconds(INTERVAL_MINUTES), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Lê e aplica as alterações desde o último syncToken, em uma estação por vez (as demais pulam
+     * esta execução). Se o Google tiver invalidado o token, refaz a leitura completa, que devolve um token novo.
+     */
+    static void run() {
+        String calendarId = GoogleCalendarService.getCalendarId();
+        try {
+            Database.runExclusively("calendar-sync", () -> {
+                String syncToken = Database.withConnection(conn -> CalendarSyncController.getSyncToken(conn, calendarId));
+                try {
+                    sync(calendarId, syncToken);
+                } catch (SyncTokenExpiredException e) {
+                    System.out.println("syncToken do Google Calendar expirado; refazendo a leitura completa");
+                    sync(calendarId, null);
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Falha ao aplicar alterações do Google Calendar: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Falha ao ler alterações do Google Calendar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Percorre as páginas de alterações. O syncToken novo só é salvo depois da última página:
+     * se a leitura parar no meio, a próxima recomeça do token anterior (reaplicar é inofensivo,
+     * porque alterações iguais ao banco são ignoradas).
+     */
+    private static void sync(String calendarId, String syncToken) throws IOException, GeneralSecurityException, SQLException {
+        boolean full = syncToken == null;
+        int updated = 0;
+        int unlinked = 0;
+        int skipped = 0;
+        String pageToken = null;
+        ChangePage page;
+        do {
+            page = GoogleCalendarService.listEventChanges(syncToken, pageToken);
+            ChangePage current = page;
+            CalendarSyncController.ApplyResult result = Database.inTransaction(conn ->
+                    CalendarSyncController.applyChanges(conn, current.getChanges()));
+            updated += result.updated();
+            unlinked += result.unlinked();
+            skipped += page.getSkipped();
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
+
+        String nextSyncToken = page.getNextSyncToken();
+        Database.inTransaction(conn -> {
+            CalendarSyncController.saveSyncToken(conn, calendarId, nextSyncToken, full);
+            return null;
+        });
+
+        if (updated > 0 || unlinked > 0 || skipped > 0) {
+            System.out.println("Google Calendar sincronizado" + (full ? " (leitura completa)" : "") + ": "
+                    + updated + " aplicações alteradas, " + unlinked + " desvinculadas, "
+                    + skipped + " eventos ignorados");
+        }
+    }
+}
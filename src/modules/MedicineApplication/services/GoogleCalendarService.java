@@ -1,7 +1,12 @@
 package modules.MedicineApplication.services;
 
-import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
@@ -9,16 +14,30 @@ import com.google.api.services.calendar.Calendar;
 import com.google.api.services.calendar.CalendarScopes;
 import com.google.api.services.calendar.model.Event;
 import com.google.api.services.calendar.model.EventDateTime;
+import com.google.api.services.calendar.model.Events;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.auth.oauth2.ServiceAccountCredentials;
+import modules.MedicineApplication.models.CalendarEventChange;
 import modules.MedicineApplication.models.MedicineApplication;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.security.GeneralSecurityException;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class GoogleCalendarService {
 
@@ -29,6 +48,22 @@ public class GoogleCalendarService {
 
     private static final String SERVICE_ACCOUNT_FILE_PATH = "google-service-account.json";
 
+    // Limite de operações por requisição batch da API do Google Calendar
+    public static final int MAX_BATCH_SIZE = 50;
+
+    // Eventos por página na leitura de alterações (máximo aceito pela API: 2500)
+    public static final int CHANGES_PAGE_SIZE = 250;
+    // Na listagem só de IDs cada evento é pequeno: usa o máximo para fazer menos requisições
+    private static final int ID_PAGE_SIZE = 2500;
+
+    // Título dos eventos criados pela aplicação. Os eventos anteriores aos IDs derivados do UUID
+    // (ID gerado pelo Google) só são reconhecidos por ele
+    private static final String SUMMARY_PREFIX = "Aplicação de Medicamento - ";
+
+    // Propriedade privada que marca os eventos criados pela aplicação
+    private static final String APP_PROPERTY = "focinhoAmigo";
+    private static final String APP_PROPERTY_VALUE = "medicine-application";
+
     // Fallback padrão: "primary"
     private static final String CALENDAR_ID_FALLBACK =
         System.getenv("GOOGLE_CALENDAR_ID") != null
@@ -41,42 +76,104 @@ public class GoogleCalendarService {
      * 
      * @return ID do calendário do Google Calendar
      */
-    private static String getCalendarId() {
+    public static String getCalendarId() {
         String env = System.getenv("GOOGLE_CALENDAR_ID");
         return (env != null && !env.isBlank()) ? env : CALENDAR_ID_FALLBACK;
     }
 
+    // Cliente único, criado na primeira chamada e reutilizado por todas as operações: o transporte
+    // mantém as conexões HTTP (keep-alive) e a credencial guarda o token de acesso até ele expirar
+    private static volatile Calendar calendarService;
+
+    // Instrumentação: quantas vezes um token foi obtido do Google e quantas requisições foram feitas
+    // (registradas no log a cada renovação do token)
+    private static final AtomicLong TOKEN_FETCHES = new AtomicLong();
+    private static final AtomicLong API_CALLS = new AtomicLong();
+
     /**
      * Obtém as credenciais do Google Calendar a partir do arquivo de service account.
+     * O token é mantido em cache pela credencial e renovado antes de expirar, sem bloquear
+     * as requisições enquanto ainda é válido.
      * 
-     * @param HTTP_TRANSPORT Transporte HTTP para comunicação com a API
-     * @return Credencial autenticada do Google Calendar
+     * @return Credencial do Google Calendar com o escopo da API
      * @throws IOException Se ocorrer erro ao ler o arquivo de credenciais
      */
-    private static GoogleCredential getCredentials(final NetHttpTransport HTTP_TRANSPORT) throws IOException {
-        return GoogleCredential.fromStream(
-                new FileInputStream(SERVICE_ACCOUNT_FILE_PATH), HTTP_TRANSPORT, JSON_FACTORY
-        ).createScoped(SCOPES);
+    private static GoogleCredentials getCredentials() throws IOException {
+        try (InputStream in = new FileInputStream(SERVICE_ACCOUNT_FILE_PATH)) {
+            GoogleCredentials credentials = ServiceAccountCredentials.fromStream(in).createScoped(SCOPES);
+            credentials.addChangeListener(c -> {
+                long fetches = TOKEN_FETCHES.incrementAndGet();
+                System.out.println("Token do Google Calendar renovado (" + fetches + " tokens / "
+                        + API_CALLS.get() + " requisições)");
+            });
+            return credentials;
+        }
     }
 
     /**
-     * Cria e retorna uma instância do serviço do Google Calendar.
+     * Retorna a instância compartilhada do serviço do Google Calendar, criando-a na primeira chamada.
      * 
      * @return Instância configurada do serviço Calendar
      * @throws IOException Se ocorrer erro na operação do Google Calendar
      * @throws GeneralSecurityException Se ocorrer erro na autenticação com Google Calendar
      */
     public static Calendar getCalendarService() throws IOException, GeneralSecurityException {
+        Calendar service = calendarService;
+        if (service == null) {
+            synchronized (GoogleCalendarService.class) {
+                service = calendarService;
+                if (service == null) {
+                    service = buildCalendarService();
+                    calendarService = service;
+                }
+            }
+        }
+        return service;
+    }
+
+    private static Calendar buildCalendarService() throws IOException, GeneralSecurityException {
         final NetHttpTransport HTTP_TRANSPORT = GoogleNetHttpTransport.newTrustedTransport();
-        GoogleCredential credential = getCredentials(HTTP_TRANSPORT);
-        return new Calendar.Builder(HTTP_TRANSPORT, JSON_FACTORY, credential)
+        HttpCredentialsAdapter credentials = new HttpCredentialsAdapter(getCredentials());
+        HttpRequestInitializer initializer = request -> {
+            API_CALLS.incrementAndGet();
+            credentials.initialize(request);
+        };
+        return new Calendar.Builder(HTTP_TRANSPORT, JSON_FACTORY, initializer)
                 .setApplicationName(APPLICATION_NAME)
                 .build();
     }
 
+    /**
+     * Gera o ID do evento a partir do UUID da aplicação.
+     * O hexadecimal do UUID é válido como ID do Google Calendar (base32hex, 5 a 1024 caracteres)
+     * e serve como chave de idempotência: repetir a criação não duplica o evento.
+     * 
+     * @param applicationUuid UUID da aplicação de medicamento
+     * @return ID do evento no Google Calendar
+     */
+    public static String eventIdFor(UUID applicationUuid) {
+        return applicationUuid.toString().replace("-", "");
+    }
+
+    /**
+     * Obtém o UUID da aplicação a partir do ID de um evento criado por {@link #eventIdFor(UUID)}.
+     * 
+     * @param eventId ID do evento no Google Calendar
+     * @return UUID da aplicação, ou null se o evento não foi criado pela aplicação
+     *         (criado à mão no calendário, ou ocorrência alterada de uma série)
+     */
+    public static UUID applicationUuidFor(String eventId) {
+        if (eventId == null || !eventId.matches("[0-9a-f]{32}")) return null;
+        return UUID.fromString(eventId.substring(0, 8) + "-" + eventId.substring(8, 12) + "-"
+                + eventId.substring(12, 16) + "-" + eventId.substring(16, 20) + "-" + eventId.substring(20));
+    }
+
     /**
      * Cria um evento de DIA INTEIRO (end.date é exclusivo → usamos start + 1 dia).
+     * O evento é criado com o ID informado; se ele já existir (tentativa anterior que chegou ao Google
+     * mas cuja resposta se perdeu), a criação é considerada concluída.
      * 
+     * @param eventId ID do evento (ver {@link #eventIdFor(UUID)})
      * @param animalName Nome do animal
      * @param medicineName Nome do medicamento
      * @param quantity Quantidade do medicamento
@@ -88,6 +185,7 @@ public class GoogleCalendarService {
      * @throws GeneralSecurityException Se ocorrer erro na operação do Google Calendar
      */
     public static String createMedicineApplicationEvent(
+            String eventId,
             String animalName,
             String medicineName,
             String quantity,
@@ -97,42 +195,21 @@ public class GoogleCalendarService {
     ) throws IOException, GeneralSecurityException {
 
         Calendar service = getCalendarService();
+        Event event = buildEvent(animalName, medicineName, quantity, startDateTime, frequency, endDateTime)
+                .setId(eventId);
 
-        Event event = new Event()
-                .setSummary("Aplicação de Medicamento - " + animalName)
-                .setDescription(String.format(
-                        "Medicamento: %s%nQuantidade: %s%nAnimal: %s%nFrequência: %s",
-                        medicineName,
-                        quantity,
-                        animalName,
-                        (frequency != null ? frequency.getDisplayName() : "Não se repete")
-                ));
-
-        // All-day: end é EXCLUSIVO → 1 dia após o start
-        LocalDate startDate = startDateTime.toLocalDate();
-        LocalDate endExclusive = startDate.plusDays(1);
-
-        EventDateTime start = new EventDateTime()
-                .setDate(new com.google.api.client.util.DateTime(startDate.toString()));
-        EventDateTime end = new EventDateTime()
-                .setDate(new com.google.api.client.util.DateTime(endExclusive.toString()));
-
-        event.setStart(start);
-        event.setEnd(end);
-
-        // Recorrência (se houver)
-        if (frequency != null && frequency.isRecurring()) {
-            String rrule = frequency.toRRULE(endDateTime);
-            if (rrule != null) event.setRecurrence(Arrays.asList(rrule));
+        try {
+            event = service.events().insert(getCalendarId(), event).execute();
+            return event.getId();
+        } catch (GoogleJsonResponseException e) {
+            if (e.getStatusCode() == 409) return eventId; // já criado anteriormente
+            throw e;
         }
-
-        String calendarId = getCalendarId();
-        event = service.events().insert(calendarId, event).execute();
-        return event.getId();
     }
 
     /**
      * Deleta um evento pelo ID.
+     * Evento inexistente ou já removido (404/410) é considerado sucesso.
      * 
      * @param googleCalendarId ID do evento a ser deletado
      * @throws IOException Se ocorrer erro na operação do Google Calendar
@@ -140,47 +217,265 @@ public class GoogleCalendarService {
      */
     public static void deleteEvent(String googleCalendarId) throws IOException, GeneralSecurityException {
         Calendar service = getCalendarService();
-        service.events().delete(getCalendarId(), googleCalendarId).execute();
+        try {
+            service.events().delete(getCalendarId(), googleCalendarId).execute();
+        } catch (GoogleJsonResponseException e) {
+            if (e.getStatusCode() == 404 || e.getStatusCode() == 410) return;
+            throw e;
+        }
     }
 
     /**
-     * Atualiza o evento mantendo DIA INTEIRO e coerência com a criação.
+     * Executa várias operações no Google Calendar em requisições batch (até {@link #MAX_BATCH_SIZE}
+     * operações por requisição HTTP), em vez de uma requisição por operação.
+     * Assim como nas chamadas individuais, criação de evento já existente (409) e remoção de evento
+     * inexistente (404/410) são consideradas sucesso.
+     * 
+     * @param operations Operações a executar
+     * @return Resultado de cada operação, na mesma ordem da lista recebida
+     * @throws IOException Se ocorrer erro ao preparar as requisições
+     * @throws GeneralSecurityException Se ocorrer erro na autenticação com Google Calendar
+     */
+    public static List<BatchResult> executeBatch(List<BatchOperation> operations) throws IOException, GeneralSecurityException {
+        Calendar service = getCalendarService();
+        String calendarId = getCalendarId();
+        BatchResult[] results = new BatchResult[operations.size()];
+
+        for (int from = 0; from < operations.size(); from += MAX_BATCH_SIZE) {
+            int to = Math.min(from + MAX_BATCH_SIZE, operations.size());
+            BatchRequest batch = service.batch();
+            for (int i = from; i < to; i++) {
+                queue(service, batch, calendarId, operations.get(i), i, results);
+            }
+            String batchError = "sem resposta no batch";
+            try {
+                batch.execute();
+            } catch (IOException e) {
+                // Falha da requisição inteira (rede, autenticação): as operações sem resposta falharam
+                batchError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+            for (int i = from; i < to; i++) {
+                if (results[i] == null) results[i] = BatchResult.failure(operations.get(i).getEventId(), batchError);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private static void queue(Calendar service, BatchRequest batch, String calendarId,
+                              BatchOperation operation, int index, BatchResult[] results) throws IOException {
+        String eventId = operation.getEventId();
+        switch (operation.getType()) {
+            case CREATE -> service.events().insert(calendarId, operation.getEvent().setId(eventId))
+                    .queue(batch, new ResultCallback<>(eventId, index, results, 409));
+            case DELETE -> service.events().delete(calendarId, eventId)
+                    .queue(batch, new ResultCallback<>(eventId, index, results, 404, 410));
+        }
+    }
+
+    /**
+     * Callback de uma operação do batch: grava o resultado na posição da operação.
+     * Os códigos informados em ignoredStatusCodes são tratados como sucesso.
+     */
+    private static class ResultCallback<T> extends JsonBatchCallback<T> {
+        private final String eventId;
+        private final int index;
+        private final BatchResult[] results;
+        private final int[] ignoredStatusCodes;
+
+        ResultCallback(String eventId, int index, BatchResult[] results, int... ignoredStatusCodes) {
+            this.eventId = eventId;
+            this.index = index;
+            this.results = results;
+            this.ignoredStatusCodes = ignoredStatusCodes;
+        }
+
+        @Override
+        public void onSuccess(T response, HttpHeaders responseHeaders) {
+            results[index] = BatchResult.success(eventId);
+        }
+
+        @Override
+        public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+            for (int code : ignoredStatusCodes) {
+                if (error.getCode() == code) {
+                    results[index] = BatchResult.success(eventId);
+                    return;
+                }
+            }
+            results[index] = BatchResult.failure(eventId, error.getCode() + " " + error.getMessage());
+        }
+    }
+
+    /**
+     * Lê uma página dos eventos alterados no calendário desde a leitura que gerou o syncToken,
+     * inclusive os removidos. Sem syncToken, lê todos os eventos (leitura completa); a última página
+     * traz o syncToken para a próxima leitura.
+     * <p>
+     * Ocorrências alteradas individualmente em um evento recorrente (exceções da série) e eventos com
+     * recorrência sem equivalente em {@link MedicineApplication.Frequency} não têm como ser representados
+     * na aplicação: são contados em {@link ChangePage#getSkipped()} e ignorados.
+     * 
+     * @param syncToken syncToken da leitura anterior, ou null para a leitura completa
+     * @param pageToken Token da página seguinte, ou null para a primeira página
+     * @return Página de alterações
+     * @throws SyncTokenExpiredException Se o Google invalidou o syncToken (410): é preciso refazer a leitura completa
+     * @throws IOException Se ocorrer erro na operação do Google Calendar
+     * @throws GeneralSecurityException Se ocorrer erro na autenticação com Google Calendar
+     */
+    public static ChangePage listEventChanges(String syncToken, String pageToken) throws IOException, GeneralSecurityException {
+        Calendar.Events.List request = getCalendarService().events().list(getCalendarId())
+                .setShowDeleted(true)
+                .setSingleEvents(false)
+                .setMaxResults(CHANGES_PAGE_SIZE)
+                .setSyncToken(syncToken)
+                .setPageToken(pageToken);
+
+        Events events;
+        try {
+            events = request.execute();
+        } catch (GoogleJsonResponseException e) {
+            if (e.getStatusCode() == 410) throw new SyncTokenExpiredException(e);
+            throw e;
+        }
+
+        List<CalendarEventChange> changes = new ArrayList<>();
+        int skipped = 0;
+        if (events.getItems() != null) {
+            for (Event event : events.getItems()) {
+                CalendarEventChange change = toChange(event);
+                if (change != null) changes.add(change);
+                else skipped++;
+            }
+        }
+        return new ChangePage(changes, skipped, events.getNextPageToken(), events.getNextSyncToken());
+    }
+
+    /**
+     * Lê uma página com os IDs dos eventos do calendário (sem os removidos). Só o ID, o título e as
+     * propriedades privadas são pedidos ao Google, então cada página ocupa pouca memória mesmo em
+     * calendários grandes.
+     * 
+     * @param pageToken Token da página seguinte, ou null para a primeira página
+     * @return Página de IDs
+     * @throws IOException Se ocorrer erro na operação do Google Calendar
+     * @throws GeneralSecurityException Se ocorrer erro na autenticação com Google Calendar
+     */
+    public static EventIdPage listEventIds(String pageToken) throws IOException, GeneralSecurityException {
+        Events events = getCalendarService().events().list(getCalendarId())
+                .setSingleEvents(false)
+                .setMaxResults(ID_PAGE_SIZE)
+                .setFields("items(id,summary,extendedProperties/private),nextPageToken")
+                .setPageToken(pageToken)
+                .execute();
+
+        List<String> ids = new ArrayList<>();
+        Set<String> appEventIds = new HashSet<>();
+        if (events.getItems() != null) {
+            for (Event event : events.getItems()) {
+                ids.add(event.getId());
+                if (isAppEvent(event)) appEventIds.add(event.getId());
+            }
+        }
+        return new EventIdPage(ids, appEventIds, events.getNextPageToken());
+    }
+
+    /**
+     * Verifica se o evento foi criado pela aplicação: pela propriedade privada ou, nos eventos
+     * criados antes dela, pelo título.
+     */
+    private static boolean isAppEvent(Event event) {
+        Event.ExtendedProperties properties = event.getExtendedProperties();
+        if (properties != null && properties.getPrivate() != null
+                && APP_PROPERTY_VALUE.equals(properties.getPrivate().get(APP_PROPERTY))) {
+            return true;
+        }
+        return event.getSummary() != null && event.getSummary().startsWith(SUMMARY_PREFIX);
+    }
+
+    /**
+     * Converte um evento lido do Google na alteração correspondente da aplicação.
+     * 
+     * @param event Evento do Google Calendar
+     * @return Alteração, ou null se o evento não puder ser representado na aplicação
+     */
+    private static CalendarEventChange toChange(Event event) {
+        if (event.getRecurringEventId() != null) return null; // ocorrência alterada de uma série
+        if ("cancelled".equals(event.getStatus())) return CalendarEventChange.cancelled(event.getId());
+
+        LocalDate startDate = toLocalDate(event.getStart());
+        if (startDate == null) return null;
+
+        String rrule = null;
+        if (event.getRecurrence() != null) {
+            for (String line : event.getRecurrence()) {
+                if (!line.regionMatches(true, 0, "RRULE:", 0, 6)) continue; // EXDATE/RDATE
+                if (rrule != null) return null;
+                rrule = line;
+            }
+        }
+        MedicineApplication.Frequency frequency = MedicineApplication.Frequency.fromRRULE(rrule);
+        if (frequency == null) return null;
+        return new CalendarEventChange(event.getId(), false, startDate, frequency, parseUntil(rrule));
+    }
+
+    /**
+     * Data local de início do evento: a data dos eventos de dia inteiro, ou o dia do horário no fuso do sistema.
+     */
+    private static LocalDate toLocalDate(EventDateTime dateTime) {
+        if (dateTime == null) return null;
+        if (dateTime.getDate() != null) return LocalDate.parse(dateTime.getDate().toStringRfc3339().substring(0, 10));
+        if (dateTime.getDateTime() != null) {
+            return Instant.ofEpochMilli(dateTime.getDateTime().getValue()).atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+        return null;
+    }
+
+    /**
+     * Lê o UNTIL da RRULE (yyyyMMdd, com ou sem horário).
+     */
+    private static LocalDate parseUntil(String rrule) {
+        if (rrule == null) return null;
+        for (String part : rrule.substring(6).split(";")) {
+            if (part.regionMatches(true, 0, "UNTIL=", 0, 6) && part.length() >= 14) {
+                return LocalDate.parse(part.substring(6, 14), DateTimeFormatter.BASIC_ISO_DATE);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Monta um evento de DIA INTEIRO (end.date é exclusivo → usamos start + 1 dia).
      * 
-     * @param googleCalendarId ID do evento a ser atualizado
      * @param animalName Nome do animal
      * @param medicineName Nome do medicamento
      * @param quantity Quantidade do medicamento
      * @param startDateTime Data e hora de início do evento
      * @param frequency Frequência do evento
      * @param endDateTime Data e hora de término do evento
-     * @throws IOException Se ocorrer erro na operação do Google Calendar
-     * @throws GeneralSecurityException Se ocorrer erro na operação do Google Calendar
+     * @return Evento sem ID
      */
-    public static void updateEvent(
-            String googleCalendarId,
+    private static Event buildEvent(
             String animalName,
             String medicineName,
             String quantity,
             ZonedDateTime startDateTime,
             MedicineApplication.Frequency frequency,
             ZonedDateTime endDateTime
-    ) throws IOException, GeneralSecurityException {
-
-        Calendar service = getCalendarService();
-        String calendarId = getCalendarId();
-
-        Event event = service.events().get(calendarId, googleCalendarId).execute();
+    ) {
+        Event event = new Event()
+                .setSummary(SUMMARY_PREFIX + animalName)
+                .setDescription(String.format(
+                        "Medicamento: %s%nQuantidade: %s%nAnimal: %s%nFrequência: %s",
+                        medicineName,
+                        quantity,
+                        animalName,
+                        (frequency != null ? frequency.getDisplayName() : "Não se repete")
+                ));
 
-        event.setSummary("Aplicação de Medicamento - " + animalName)
-             .setDescription(String.format(
-                     "Medicamento: %s%nQuantidade: %s%nAnimal: %s%nFrequência: %s",
-                     medicineName,
-                     quantity,
-                     animalName,
-                     (frequency != null ? frequency.getDisplayName() : "Não se repete")
-             ));
+        event.setExtendedProperties(new Event.ExtendedProperties()
+                .setPrivate(Collections.singletonMap(APP_PROPERTY, APP_PROPERTY_VALUE)));
 
-        // All-day (end exclusivo)
+        // All-day: end é EXCLUSIVO → 1 dia após o start
         LocalDate startDate = startDateTime.toLocalDate();
         LocalDate endExclusive = startDate.plusDays(1);
 
@@ -192,13 +487,202 @@ public class GoogleCalendarService {
         event.setStart(start);
         event.setEnd(end);
 
+        // Recorrência (se houver)
         if (frequency != null && frequency.isRecurring()) {
-            String rrule = frequency.toRRULE(endDateTime);
-            event.setRecurrence(rrule != null ? Arrays.asList(rrule) : null);
-        } else {
-            event.setRecurrence(null);
+            String rrule = frequency.toRRULE(startDateTime, endDateTime);
+            if (rrule != null) event.setRecurrence(Arrays.asList(rrule));
+        }
+        return event;
+    }
+
+    /**
+     * Operação a ser executada em um batch do Google Calendar.
+     */
+    public static class BatchOperation {
+
+        public enum Type { CREATE, DELETE }
+
+        private final Type type;
+        private final String eventId;
+        private final Event event;
+
+        private BatchOperation(Type type, String eventId, Event event) {
+            this.type = type;
+            this.eventId = eventId;
+            this.event = event;
         }
 
-        service.events().update(calendarId, googleCalendarId, event).execute();
+        /**
+         * Cria a operação de criação de um evento de aplicação de medicamento.
+         * 
+         * @param eventId ID do evento (ver {@link #eventIdFor(UUID)})
+         * @param animalName Nome do animal
+         * @param medicineName Nome do medicamento
+         * @param quantity Quantidade do medicamento
+         * @param startDateTime Data e hora de início do evento
+         * @param frequency Frequência do evento
+         * @param endDateTime Data e hora de término do evento
+         * @return Operação de criação
+         */
+        public static BatchOperation create(String eventId, String animalName, String medicineName, String quantity,
+                                            ZonedDateTime startDateTime, MedicineApplication.Frequency frequency,
+                                            ZonedDateTime endDateTime) {
+            return new BatchOperation(Type.CREATE, eventId,
+                    buildEvent(animalName, medicineName, quantity, startDateTime, frequency, endDateTime));
+        }
+
+        /**
+         * Cria a operação de remoção de um evento.
+         * 
+         * @param eventId ID do evento a ser removido
+         * @return Operação de remoção
+         */
+        public static BatchOperation delete(String eventId) {
+            return new BatchOperation(Type.DELETE, eventId, null);
+        }
+
+        public Type getType() { return type; }
+
+        public String getEventId() { return eventId; }
+
+        Event getEvent() { return event; }
+    }
+
+    /**
+     * Página de eventos alterados lida por {@link #listEventChanges(String, String)}.
+     */
+    public static class ChangePage {
+
+        private final List<CalendarEventChange> changes;
+        private final int skipped;
+        private final String nextPageToken;
+        private final String nextSyncToken;
+
+        ChangePage(List<CalendarEventChange> changes, int skipped, String nextPageToken, String nextSyncToken) {
+            this.changes = changes;
+            this.skipped = skipped;
+            this.nextPageToken = nextPageToken;
+            this.nextSyncToken = nextSyncToken;
+        }
+
+        /**
+         * Retorna as alterações da página que podem ser aplicadas.
+         * 
+         * @return Alterações dos eventos
+         */
+        public List<CalendarEventChange> getChanges() { return changes; }
+
+        /**
+         * Retorna quantos eventos da página foram ignorados por não terem representação na aplicação.
+         * 
+         * @return Quantidade de eventos ignorados
+         */
+        public int getSkipped() { return skipped; }
+
+        /**
+         * Retorna o token da página seguinte.
+         * 
+         * @return Token da próxima página, ou null se esta for a última
+         */
+        public String getNextPageToken() { return nextPageToken; }
+
+        /**
+         * Retorna o syncToken para a próxima leitura de alterações (só na última página).
+         * 
+         * @return syncToken, ou null se ainda houver páginas
+         */
+        public String getNextSyncToken() { return nextSyncToken; }
+    }
+
+    /**
+     * Página de IDs de eventos lida por {@link #listEventIds(String)}.
+     */
+    public static class EventIdPage {
+
+        private final List<String> eventIds;
+        private final Set<String> appEventIds;
+        private final String nextPageToken;
+
+        EventIdPage(List<String> eventIds, Set<String> appEventIds, String nextPageToken) {
+            this.eventIds = eventIds;
+            this.appEventIds = appEventIds;
+            this.nextPageToken = nextPageToken;
+        }
+
+        /**
+         * Retorna os IDs dos eventos da página.
+         * 
+         * @return IDs dos eventos
+         */
+        public List<String> getEventIds() { return eventIds; }
+
+        /**
+         * Verifica se o evento foi criado pela aplicação (propriedade privada ou título), inclusive
+         * os eventos antigos, cujo ID foi gerado pelo Google.
+         * 
+         * @param eventId ID de um evento da página
+         * @return true se o evento foi criado pela aplicação
+         */
+        public boolean isAppEvent(String eventId) { return appEventIds.contains(eventId); }
+
+        /**
+         * Retorna o token da página seguinte.
+         * 
+         * @return Token da próxima página, ou null se esta for a última
+         */
+        public String getNextPageToken() { return nextPageToken; }
+    }
+
+    /**
+     * O Google invalidou o syncToken (HTTP 410): as alterações só podem ser obtidas
+     * com uma nova leitura completa.
+     */
+    public static class SyncTokenExpiredException extends IOException {
+        SyncTokenExpiredException(Throwable cause) {
+            super("syncToken do Google Calendar expirado", cause);
+        }
+    }
+
+    /**
+     * Resultado de uma operação executada em batch.
+     */
+    public static class BatchResult {
+
+        private final String eventId;
+        private final String error;
+
+        private BatchResult(String eventId, String error) {
+            this.eventId = eventId;
+            this.error = error;
+        }
+
+        static BatchResult success(String eventId) {
+            return new BatchResult(eventId, null);
+        }
+
+        static BatchResult failure(String eventId, String error) {
+            return new BatchResult(eventId, error);
+        }
+
+        /**
+         * Indica se a operação foi concluída.
+         * 
+         * @return true se a operação foi concluída com sucesso
+         */
+        public boolean isSuccess() { return error == null; }
+
+        /**
+         * Retorna o ID do evento da operação.
+         * 
+         * @return ID do evento no Google Calendar
+         */
+        public String getEventId() { return eventId; }
+
+        /**
+         * Retorna a mensagem de erro da operação.
+         * 
+         * @return Mensagem de erro, ou null em caso de sucesso
+         */
+        public String getError() { return error; }
     }
 }
@@ -0,0 +1,45 @@
+package modules.MedicineApplication.services;
+
+import config.BackgroundJobs;
+import config.Database;
+import modules.MedicineApplication.controllers.MedicineApplicationOccurrenceController;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Job que avança a janela das doses materializadas (medicine_application_occurrences): grava os dias
+ * que entraram no horizonte e descarta os que saíram da retenção. Na primeira execução monta a tabela.
+ * Roda de hora em hora para virar o dia logo depois da meia-noite; fora isso, cada execução não grava nada.
+ */
+public class MedicineApplicationOccurrenceJob {
+
+    private static final long INTERVAL_MINUTES = 60;
+    private static final long INITIAL_DELAY_SECONDS = 60;
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * Agenda a execução periódica do job. Chamadas repetidas são ignoradas.
+     */
+    public static void start() {
+        if (!started.compareAndSet(false, true)) return;
+        BackgroundJobs.scheduleWithFixedDelay("medicine-application-occurrences", MedicineApplicationOccurrenceJob::run,
+                INITIAL_DELAY_SECONDS, TimeUnit.MINUTES.toSeconds(INTERVAL_MINUTES), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Avança a janela até hoje + {@link MedicineApplicationOccurrenceController#HORIZON_DAYS} dias.
+     */
+    static void run() {
+        try {
+            int inserted = Database.inTransaction(conn ->
+                    MedicineApplicationOccurrenceController.advanceWindow(conn, LocalDate.now()));
+            if (inserted > 0) System.out.println("Doses materializadas: " + inserted);
+        } catch (SQLException e) {
+            System.err.println("Falha ao materializar doses das aplicações: " + e.getMessage());
+        }
+    }
+}
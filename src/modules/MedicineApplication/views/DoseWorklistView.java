@@ -0,0 +1,260 @@
+package modules.MedicineApplication.views;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.*;
+import modules.Animal.controllers.AnimalController;
+import modules.MedicineApplication.controllers.MedicineApplicationController;
+import modules.MedicineApplication.models.DueDose;
+import modules.MedicineApplication.models.MedicineApplication;
+import modules.Shared.views.MenuView;
+import utils.FxAsync;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Lista de doses do dia para a ronda: doses previstas e atrasadas de todos os animais no abrigo,
+ * sem precisar abrir as aplicações de cada animal.
+ */
+public class DoseWorklistView extends VBox {
+
+    // Quantos dias para trás a lista procura doses atrasadas por padrão
+    private static final int DEFAULT_OVERDUE_DAYS = 7;
+
+    private final BorderPane mainLayout;
+
+    private final TableView<DueDose> tableView = new TableView<>();
+    private final ObservableList<DueDose> doses = FXCollections.observableArrayList();
+    private final DatePicker fromPicker = new DatePicker(LocalDate.now().minusDays(DEFAULT_OVERDUE_DAYS));
+    private final DatePicker toPicker = new DatePicker(LocalDate.now());
+    private final Label summaryLabel = new Label();
+
+    /**
+     * Construtor da lista de doses.
+     *
+     * @param mainLayout Layout principal da aplicação para navegação entre telas
+     */
+    public DoseWorklistView(BorderPane mainLayout) {
+        this.mainLayout = mainLayout;
+
+        initializeComponents();
+        setupLayout();
+        loadDoses();
+    }
+
+    /**
+     * Inicializa a tabela e suas colunas.
+     */
+    private void initializeComponents() {
+        tableView.setItems(doses);
+        DateTimeFormatter dt = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+        // Data prevista
+        TableColumn<DueDose, LocalDate> dueCol = new TableColumn<>("data prevista");
+        dueCol.setCellValueFactory(new PropertyValueFactory<>("dueDate"));
+        dueCol.setCellFactory(col -> new TableCell<>() {
+            { setAlignment(Pos.CENTER); }
+            @Override protected void updateItem(LocalDate item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : dt.format(item));
+            }
+        });
+        dueCol.setPrefWidth(140);
+
+        // Animal
+        TableColumn<DueDose, String> animalCol = new TableColumn<>("animal");
+        animalCol.setCellValueFactory(new PropertyValueFactory<>("animalName"));
+
+        // Medicamento
+        TableColumn<DueDose, String> medCol = new TableColumn<>("medicamento");
+        medCol.setCellValueFactory(new PropertyValueFactory<>("medicineName"));
+
+        // Quantidade
+        TableColumn<DueDose, Integer> qtyCol = new TableColumn<>("quantidade");
+        qtyCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
+        qtyCol.setCellFactory(col -> new TableCell<>() {
+            { setAlignment(Pos.CENTER); }
+            @Override protected void updateItem(Integer item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.toString());
+            }
+        });
+        qtyCol.setPrefWidth(120);
+
+        // Frequência
+        TableColumn<DueDose, MedicineApplication.Frequency> freqCol = new TableColumn<>("frequência");
+        freqCol.setCellValueFactory(new PropertyValueFactory<>("frequency"));
+        freqCol.setCellFactory(col -> new TableCell<>() {
+            { setAlignment(Pos.CENTER); }
+            @Override protected void updateItem(MedicineApplication.Frequency item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.getDisplayName());
+            }
+        });
+        freqCol.setPrefWidth(140);
+
+        // Situação
+        TableColumn<DueDose, Boolean> statusCol = new TableColumn<>("situação");
+        statusCol.setCellValueFactory(new PropertyValueFactory<>("overdue"));
+        statusCol.setCellFactory(col -> new TableCell<>() {
+            { setAlignment(Pos.CENTER); }
+            @Override protected void updateItem(Boolean item, boolean empty) {
+                super.updateItem(item, empty);
+                getStyleClass().remove("dose-overdue");
+                if (empty || item == null) {
+                    setText(null);
+                    return;
+                }
+                setText(item ? "Atrasada" : "Prevista");
+                if (item) getStyleClass().add("dose-overdue");
+            }
+        });
+        statusCol.setPrefWidth(120);
+
+        // Ações (Aplicar)
+        TableColumn<DueDose, Void> actionCol = new TableColumn<>("ações");
+        actionCol.setPrefWidth(110);
+        actionCol.setMinWidth(110);
+        actionCol.setStyle("-fx-alignment: CENTER;");
+        actionCol.setCellFactory(param -> new TableCell<>() {
+            private final Button applyButton = new Button("Aplicar");
+            {
+                applyButton.getStyleClass().add("worklist-apply-btn");
+                applyButton.setTooltip(new Tooltip("Registrar a aplicação desta dose"));
+                applyButton.setOnAction(e -> {
+                    DueDose dose = getTableView().getItems().get(getIndex());
+                    if (dose != null) openApplicationForm(dose.getAnimalUuid());
+                });
+            }
+            @Override protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                setGraphic(empty ? null : applyButton);
+            }
+        });
+
+        tableView.getColumns().addAll(dueCol, animalCol, medCol, qtyCol, freqCol, statusCol, actionCol);
+
+        tableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        tableView.getStyleClass().add("custom-table");
+        tableView.setPlaceholder(new Label("Nenhuma dose pendente no período"));
+    }
+
+    /**
+     * Configura o layout da view: barra superior, filtro de período e tabela.
+     */
+    private void setupLayout() {
+        // Logo topo esquerdo
+        ImageView logo = new ImageView(new Image(getClass().getResourceAsStream("/assets/logo.png")));
+        logo.setFitWidth(140);
+        logo.setPreserveRatio(true);
+
+        Button logoBtn = new Button();
+        logoBtn.setGraphic(logo);
+        logoBtn.setOnAction(e -> mainLayout.setCenter(new MenuView(mainLayout, null)));
+        logoBtn.setCursor(javafx.scene.Cursor.HAND);
+        logoBtn.setStyle("-fx-background-color: transparent; -fx-padding: 0; -fx-border-color: transparent;");
+        logoBtn.setFocusTraversable(false);
+
+        // Título centralizado
+        Label title = new Label("Doses do dia");
+        title.getStyleClass().add("title");
+
+        // Botões topo direito
+        Button backButton = new Button("Voltar");
+        backButton.getStyleClass().add("top-btn");
+        backButton.setOnAction(e -> mainLayout.setCenter(new MenuView(mainLayout, null)));
+
+        HBox rightBar = new HBox(15, backButton);
+        rightBar.setAlignment(Pos.CENTER_RIGHT);
+
+        HBox leftBar = new HBox(logoBtn);
+        leftBar.setAlignment(Pos.CENTER_LEFT);
+
+        var sideMaxWidth = javafx.beans.binding.Bindings.max(leftBar.widthProperty(), rightBar.widthProperty());
+        leftBar.minWidthProperty().bind(sideMaxWidth);
+        rightBar.minWidthProperty().bind(sideMaxWidth);
+
+        BorderPane topBar = new BorderPane();
+        topBar.setLeft(leftBar);
+        topBar.setCenter(title);
+        topBar.setRight(rightBar);
+        BorderPane.setAlignment(title, Pos.CENTER);
+        topBar.setPadding(new Insets(30, 60, 0, 60));
+
+        title.setMaxWidth(Region.USE_PREF_SIZE);
+        rightBar.setMaxWidth(Region.USE_PREF_SIZE);
+        leftBar.setMaxWidth(Region.USE_PREF_SIZE);
+
+        // Filtro de período
+        Button refreshButton = new Button("Atualizar");
+        refreshButton.getStyleClass().add("top-btn");
+        refreshButton.setOnAction(e -> loadDoses());
+
+        HBox filterBar = new HBox(10, new Label("De:"), fromPicker, new Label("Até:"), toPicker, refreshButton, summaryLabel);
+        filterBar.setAlignment(Pos.CENTER_LEFT);
+        summaryLabel.getStyleClass().add("worklist-summary");
+
+        VBox content = new VBox(20, filterBar, tableView);
+        content.setAlignment(Pos.CENTER);
+        content.setPadding(new Insets(40, 60, 40, 60));
+        VBox.setVgrow(tableView, Priority.ALWAYS);
+        VBox.setVgrow(content, Priority.ALWAYS);
+
+        this.setAlignment(Pos.TOP_CENTER);
+        this.getChildren().addAll(topBar, content);
+        this.getStyleClass().add("main-bg");
+        this.getStylesheets().addAll(
+                getClass().getResource("/modules/MedicineApplication/styles/MedicineApplicationView.css").toExternalForm(),
+                getClass().getResource("/modules/MedicineApplication/styles/DoseWorklistView.css").toExternalForm()
+        );
+    }
+
+    /**
+     * Carrega em background as doses pendentes do período selecionado.
+     * Erros de banco de dados são tratados internamente com Alert.
+     */
+    private void loadDoses() {
+        LocalDate from = fromPicker.getValue();
+        LocalDate to = toPicker.getValue();
+        if (from == null || to == null || from.isAfter(to)) {
+            new Alert(Alert.AlertType.WARNING, "Selecione um período válido.").showAndWait();
+            return;
+        }
+
+        FxAsync.load(this, conn -> MedicineApplicationController.getWorklist(conn, from, to), result -> {
+            doses.setAll(result);
+            long overdue = result.stream().filter(DueDose::isOverdue).count();
+            summaryLabel.setText(result.size() + " doses pendentes" + (overdue > 0 ? " (" + overdue + " atrasadas)" : ""));
+        }, e -> {
+            e.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Erro ao buscar doses: " + e.getMessage()).showAndWait();
+        });
+    }
+
+    /**
+     * Abre o formulário de aplicação para o animal da dose.
+     *
+     * @param animalUuid UUID do animal
+     */
+    private void openApplicationForm(UUID animalUuid) {
+        FxAsync.load(this, conn -> AnimalController.getAnimalByUuid(conn, animalUuid), animal -> {
+            if (animal == null) {
+                new Alert(Alert.AlertType.WARNING, "Animal não encontrado.").showAndWait();
+                loadDoses();
+                return;
+            }
+            mainLayout.setCenter(new MedicineApplicationForm(mainLayout, animal));
+        }, e -> {
+            e.printStackTrace();
+            new Alert(Alert.AlertType.ERROR, "Erro ao buscar animal: " + e.getMessage()).showAndWait();
+        });
+    }
+}
@@ -1,6 +1,5 @@
 package modules.MedicineApplication.views;
 
-import config.Database;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -13,10 +12,9 @@ import modules.MedicineApplication.views.MedicineApplicationView;
 import modules.Medicine.models.Medicine;
 import modules.MedicineApplication.models.MedicineApplication;
 import modules.User.models.User;
+import utils.FxAsync;
 import utils.Session;
 
-import java.sql.Connection;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
@@ -31,9 +29,7 @@ public class MedicineApplicationForm extends VBox {
     private final BorderPane mainLayout;
     private final Animal selectedAnimal;
     private final User currentUser;
-    private Connection conn;
 
-    private final MedicineController medicineController;
     private final MedicineApplicationController appController = new MedicineApplicationController();
 
     // Campos do formulário
@@ -66,14 +62,6 @@ public class MedicineApplicationForm extends VBox {
         // Garante datas e nomes em pt-BR (mês/dia no popup do calendário)
         Locale.setDefault(PT_BR);
 
-        try {
-            this.conn = Database.getConnection();
-        } catch (SQLException e) {
-            showErrorAlert("Erro de Conexão", "Não foi possível conectar ao banco de dados.");
-        }
-
-        this.medicineController = new MedicineController(this.conn);
-
         setupUI();
         localizeDatePicker(appliedDatePicker);
         localizeDatePicker(nextDatePicker);
@@ -398,30 +386,31 @@ public class MedicineApplicationForm extends VBox {
     }
 
     /**
-     * Carrega a lista de medicamentos do banco de dados e popula o ComboBox.
-     *
-     * @throws SQLException Se ocorrer erro na operação do banco de dados (tratado internamente com Alert)
+     * Carrega a lista de medicamentos do banco de dados em background e popula o ComboBox.
+     * Erros de banco de dados são tratados internamente com Alert.
      */
     private void loadData() {
-        try {
-            var onlyActiveAndInStock = medicineController.listAll().stream()
-                    .filter(Medicine::getIsActive)
-                    .filter(medicine -> medicine.getQuantity() != 0)
-                    .toList();
+        medicineComboBox.setCellFactory(param -> new ListCell<>() {
+            @Override protected void updateItem(Medicine item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.getName());
+            }
+        });
+        medicineComboBox.setButtonCell(new ListCell<>() {
+            @Override protected void updateItem(Medicine item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.getName());
+            }
+        });
+
+        // Evita salvar antes da lista de medicamentos chegar
+        saveButton.setDisable(true);
 
+        FxAsync.load(this, conn -> new MedicineController(conn).listAll().stream()
+                .filter(Medicine::getIsActive)
+                .filter(medicine -> medicine.getQuantity() != 0)
+                .toList(), onlyActiveAndInStock -> {
             medicineComboBox.setItems(FXCollections.observableArrayList(onlyActiveAndInStock));
-            medicineComboBox.setCellFactory(param -> new ListCell<>() {
-                @Override protected void updateItem(Medicine item, boolean empty) {
-                    super.updateItem(item, empty);
-                    setText(empty || item == null ? null : item.getName());
-                }
-            });
-            medicineComboBox.setButtonCell(new ListCell<>() {
-                @Override protected void updateItem(Medicine item, boolean empty) {
-                    super.updateItem(item, empty);
-                    setText(empty || item == null ? null : item.getName());
-                }
-            });
 
             if (onlyActiveAndInStock.isEmpty()) {
                 medicineComboBox.getItems().clear();
@@ -433,9 +422,7 @@ public class MedicineApplicationForm extends VBox {
                 medicineComboBox.setPromptText("Selecione um medicamento");
                 saveButton.setDisable(false);
             }
-        } catch (SQLException e) {
-            showErrorAlert("Falha ao Carregar Dados", "Não foi possível carregar a lista de medicamentos.");
-        }
+        }, e -> showErrorAlert("Falha ao Carregar Dados", "Não foi possível carregar a lista de medicamentos."));
     }
 
     /**
@@ -506,6 +493,7 @@ public class MedicineApplicationForm extends VBox {
                 }
 
                 // Regra: se o estoque do medicamento for finito, não pode ultrapassar
+                // (verificação antecipada; a baixa no banco confere de novo, de forma atômica)
                 Integer medicineStock = selectedMedicine.getQuantity(); // pode ser null, -1 (ilimitado) ou >=0
                 boolean finiteStock = medicineStock != null && medicineStock != -1;
 
@@ -541,51 +529,15 @@ public class MedicineApplicationForm extends VBox {
                     newApp.setEndsAt(null);
                 }
 
-                // --- Google Calendar (opcional)
-                if ("Sim".equals(googleCalendarCombo.getValue())) {
-                    try {
-                        ZonedDateTime startDateTime =
-                                newApp.getNextApplicationAt() != null ? newApp.getNextApplicationAt() : newApp.getAppliedAt();
-
-                        String googleCalendarId =
-                                modules.MedicineApplication.services.GoogleCalendarService.createMedicineApplicationEvent(
-                                        selectedAnimal.getName(),
-                                        selectedMedicine.getName(),
-                                        String.valueOf(newApp.getQuantity()),
-                                        startDateTime,
-                                        newApp.getFrequency(),
-                                        newApp.getEndsAt()
-                                );
-
-                        newApp.setGoogleCalendarGoogleCalendarId(googleCalendarId);
-                    } catch (Exception calendarException) {
-                        showErrorAlert("Erro no Google Calendar",
-                                "Não foi possível criar o evento no Google Calendar: " + calendarException.getMessage());
-                        calendarException.printStackTrace();
-                    }
-                }
-
-                // --- Persiste a aplicação
-                appController.create(newApp);
-
-                // --- Baixa de estoque (apenas se quantidade finita)
-                Integer stock = selectedMedicine.getQuantity();
-                if (stock != null && stock != -1) {
-                    int newStock = stock - usedQty;
-                    if (newStock < 0) newStock = 0; // evita negativo
-                    try {
-                        medicineController.update(
-                                selectedMedicine.getUuid(),
-                                selectedMedicine.getName(),
-                                selectedMedicine.getBrandUuid(),
-                                newStock,
-                                selectedMedicine.getDescription(),
-                                selectedMedicine.getIsActive()
-                        );
-                    } catch (SQLException se) {
-                        showErrorAlert("Erro ao atualizar estoque",
-                                "A aplicação foi registrada, mas não foi possível atualizar a quantidade do medicamento: " + se.getMessage());
-                    }
+                // --- Persiste a aplicação e dá baixa no estoque na mesma transação
+                //     (o evento no Google Calendar, se pedido, é criado em background)
+                try {
+                    appController.create(newApp, "Sim".equals(googleCalendarCombo.getValue()));
+                } catch (MedicineController.InsufficientStockException se) {
+                    // Outra aplicação consumiu o estoque depois que o formulário foi aberto
+                    selectedMedicine.setQuantity(se.getAvailable());
+                    showErrorAlert("Quantidade indisponível", se.getMessage());
+                    return;
                 }
 
                 // --- Sucesso e retorno à listagem
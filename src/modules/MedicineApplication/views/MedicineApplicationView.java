@@ -1,6 +1,7 @@
 package modules.MedicineApplication.views;
 
 import config.Database;
+import utils.FxAsync;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -36,8 +37,6 @@ public class MedicineApplicationView extends VBox {
     private final Animal animal;          // recebemos o objeto Animal direto
     private final UUID animalUuid;
 
-    private Connection conn;
-
     private final TableView<MedicineApplication> tableView = new TableView<>();
     private final ObservableList<MedicineApplication> appList = FXCollections.observableArrayList();
 
@@ -49,17 +48,8 @@ public class MedicineApplicationView extends VBox {
         this.animal = animal;
         this.animalUuid = animal.getUuid();
 
-        try {
-            this.conn = Database.getConnection();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            new Alert(Alert.AlertType.ERROR, "Erro ao conectar com o banco de dados.").showAndWait();
-            return;
-        }
-
         initializeComponents();
         setupLayout();
-        loadMedicinesLookup();
         loadApplications();
     }
 
@@ -254,7 +244,7 @@ public class MedicineApplicationView extends VBox {
                             ButtonType.YES, ButtonType.NO);
                     alert.showAndWait().ifPresent(response -> {
                         if (response == ButtonType.YES) {
-                            try {
+                            try (Connection conn = Database.getConnection()) {
                                 MedicineApplicationController.delete(conn, app.getApplicationUuid());
                                 getTableView().getItems().remove(app);
                             } catch (SQLException ex) {
@@ -348,36 +338,44 @@ public class MedicineApplicationView extends VBox {
     /**
      * Carrega os medicamentos do banco de dados e cria um mapa de UUID para nome.
      * Utilizado para exibir o nome do medicamento na tabela a partir do UUID.
+     * Erros são logados mas não interrompem o carregamento das aplicações.
      * 
-     * @throws SQLException Se ocorrer erro na operação do banco de dados (erro logado mas não interrompe a execução)
+     * @param conn Conexão com o banco de dados
+     * @return Mapa de UUID do medicamento para o nome
      */
-    private void loadMedicinesLookup() {
+    private static Map<UUID, String> loadMedicinesLookup(Connection conn) {
+        Map<UUID, String> names = new HashMap<>();
         try {
             MedicineController medCtrl = new MedicineController(conn);
             for (Medicine m : medCtrl.listAll()) {
-                medicineNames.put(m.getUuid(), m.getName());
+                names.put(m.getUuid(), m.getName());
             }
         } catch (SQLException e) {
             System.err.println("Falha ao carregar medicamentos: " + e.getMessage());
         }
+        return names;
     }
 
     /**
-     * Carrega todas as aplicações de medicamento do animal do banco de dados e atualiza a tabela.
-     * 
-     * @throws SQLException Se ocorrer erro na operação do banco de dados (tratado internamente com Alert)
+     * Carrega em background o lookup de medicamentos e as aplicações do animal, e atualiza a tabela.
+     * Erros de banco de dados são tratados internamente com Alert.
      */
     private void loadApplications() {
-        try {
-            List<MedicineApplication> apps =
-                    MedicineApplicationController.getApplicationsForAnimal(conn, animalUuid);
-
-            appList.clear();
-            appList.addAll(apps);
-            tableView.setItems(appList);
-        } catch (SQLException e) {
+        FxAsync.load(this, conn -> new ApplicationsData(
+                loadMedicinesLookup(conn),
+                MedicineApplicationController.getApplicationsForAnimal(conn, animalUuid)
+        ), data -> {
+            medicineNames.clear();
+            medicineNames.putAll(data.medicineNames());
+            appList.setAll(data.applications());
+        }, e -> {
             e.printStackTrace();
             new Alert(Alert.AlertType.ERROR, "Erro ao buscar aplicações: " + e.getMessage()).showAndWait();
-        }
+        });
     }
+
+    /**
+     * Resultado do carregamento em background da tela.
+     */
+    private record ApplicationsData(Map<UUID, String> medicineNames, List<MedicineApplication> applications) {}
 }
@@ -9,14 +9,15 @@ import javafx.scene.layout.VBox;
 import modules.MedicineBrand.controllers.MedicineBrandController;
 import modules.MedicineBrand.models.MedicineBrand;
 import modules.MedicineBrand.views.MedicineBrandView;
+import config.Database;
 
+import java.sql.Connection;
 import java.sql.SQLException;
 
 public class MedicineBrandEditForm extends VBox {
 
     private TextField nameField;
     private MedicineBrand brand;
-    private MedicineBrandController controller;
     private BorderPane mainLayout;
     private MedicineBrandView medicineBrandView;
 
@@ -24,13 +25,11 @@ public class MedicineBrandEditForm extends VBox {
      * Construtor do formulário de edição de marca de medicamento.
      * 
      * @param brand Marca de medicamento a ser editada
-     * @param controller Controller responsável pelas operações de marca de medicamento
      * @param mainLayout Layout principal para navegação
      * @param medicineBrandView View de marcas para recarregar dados após salvar
      */
-    public MedicineBrandEditForm(MedicineBrand brand, MedicineBrandController controller, BorderPane mainLayout, MedicineBrandView medicineBrandView) {
+    public MedicineBrandEditForm(MedicineBrand brand, BorderPane mainLayout, MedicineBrandView medicineBrandView) {
         this.brand = brand;
-        this.controller = controller;
         this.mainLayout = mainLayout;
         this.medicineBrandView = medicineBrandView;
 
@@ -110,24 +109,26 @@ public class MedicineBrandEditForm extends VBox {
             alert.showAndWait();
             return;
         }
-        try {
-            controller.update(brand.getUuid(), name);
-            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Marca editada com sucesso!");
-            alert.setTitle("Sucesso");
-            alert.setHeaderText(null);
-            alert.showAndWait();
-            // Recarrega os dados e volta para a view
-            if (medicineBrandView != null) {
-                medicineBrandView.loadData();
-            }
-            goBack();
+        try (Connection conn = Database.getConnection()) {
+            new MedicineBrandController(conn).update(brand.getUuid(), name);
         } catch (SQLException e) {
             e.printStackTrace();
             Alert alert = new Alert(Alert.AlertType.ERROR, "Erro ao editar a marca: " + e.getMessage());
             alert.setTitle("Erro");
             alert.setHeaderText(null);
             alert.showAndWait();
+            return;
+        }
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION, "Marca editada com sucesso!");
+        alert.setTitle("Sucesso");
+        alert.setHeaderText(null);
+        alert.showAndWait();
+        // Recarrega os dados e volta para a view
+        if (medicineBrandView != null) {
+            medicineBrandView.loadData();
         }
+        goBack();
     }
 
     /**
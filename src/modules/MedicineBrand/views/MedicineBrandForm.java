@@ -17,7 +17,6 @@ import java.sql.SQLException;
 public class MedicineBrandForm extends VBox {
 
     private TextField nameField;
-    private Connection conn;
     private BorderPane mainLayout;
     private MedicineBrandView medicineBrandView;
 
@@ -35,12 +34,6 @@ public class MedicineBrandForm extends VBox {
         this.setAlignment(Pos.CENTER);
         this.getStyleClass().add("form-bg");
 
-        try {
-            conn = Database.getConnection();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
         setupComponents();
     }
 
@@ -113,25 +106,27 @@ public class MedicineBrandForm extends VBox {
             alert.showAndWait();
             return;
         }
-        try {
+        try (Connection conn = Database.getConnection()) {
             MedicineBrandController controller = new MedicineBrandController(conn);
             controller.insert(name);
-            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Marca cadastrada com sucesso!");
-            alert.setTitle("Sucesso");
-            alert.setHeaderText(null);
-            alert.showAndWait();
-            // Recarrega os dados e volta para a view
-            if (medicineBrandView != null) {
-                medicineBrandView.loadData();
-            }
-            goBack();
         } catch (SQLException e) {
             e.printStackTrace();
             Alert alert = new Alert(Alert.AlertType.ERROR, "Erro ao salvar a marca: " + e.getMessage());
             alert.setTitle("Erro");
             alert.setHeaderText(null);
             alert.showAndWait();
+            return;
+        }
+
+        Alert alert = new Alert(Alert.AlertType.INFORMATION, "Marca cadastrada com sucesso!");
+        alert.setTitle("Sucesso");
+        alert.setHeaderText(null);
+        alert.showAndWait();
+        // Recarrega os dados e volta para a view
+        if (medicineBrandView != null) {
+            medicineBrandView.loadData();
         }
+        goBack();
     }
 
     /**
@@ -15,6 +15,7 @@ import modules.MedicineBrand.models.MedicineBrand;
 import modules.Shared.views.MenuView;
 import modules.Medicine.views.MedicineView;
 import config.Database;
+import utils.FxAsync;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
@@ -27,8 +28,6 @@ public class MedicineBrandView extends VBox {
 
     private TableView<MedicineBrand> table;
     private ObservableList<MedicineBrand> brandsList;
-    private Connection conn;
-    private MedicineBrandController controller;
     private BorderPane mainLayout;
 
     /**
@@ -39,15 +38,6 @@ public class MedicineBrandView extends VBox {
     public MedicineBrandView(BorderPane mainLayout) {
         this.mainLayout = mainLayout;
 
-        try {
-            this.conn = Database.getConnection();
-            this.controller = new MedicineBrandController(conn);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            new Alert(Alert.AlertType.ERROR, "Erro ao conectar com o banco de dados.").showAndWait();
-            return;
-        }
-
         initializeComponents();
         setupLayout();
         loadData();
@@ -348,16 +338,13 @@ public class MedicineBrandView extends VBox {
     }
 
     /**
-     * Carrega a lista de marcas de medicamentos do banco de dados e atualiza a tabela.
+     * Carrega a lista de marcas de medicamentos do banco de dados em background e atualiza a tabela.
      */
     public void loadData() {
-        try {
-            brandsList.clear();
-            brandsList.addAll(controller.listAll());
-        } catch (SQLException e) {
+        FxAsync.load(this, conn -> new MedicineBrandController(conn).listAll(), brandsList::setAll, e -> {
             e.printStackTrace();
             new Alert(Alert.AlertType.ERROR, "Erro ao buscar marcas: " + e.getMessage()).showAndWait();
-        }
+        });
     }
 
     /**
@@ -376,7 +363,7 @@ public class MedicineBrandView extends VBox {
     private void editSelected(MedicineBrand selected) {
         if (selected == null) return;
 
-        MedicineBrandEditForm form = new MedicineBrandEditForm(selected, controller, mainLayout, this);
+        MedicineBrandEditForm form = new MedicineBrandEditForm(selected, mainLayout, this);
         mainLayout.setCenter(form);
     }
 
@@ -396,13 +383,14 @@ public class MedicineBrandView extends VBox {
 
         confirm.showAndWait().ifPresent(type -> {
             if (type == ButtonType.YES) {
-                try {
-                    controller.delete(selected.getUuid());
-                    loadData();
-                    new Alert(Alert.AlertType.INFORMATION, "Marca excluída com sucesso!").showAndWait();
+                try (Connection conn = Database.getConnection()) {
+                    new MedicineBrandController(conn).delete(selected.getUuid());
                 } catch (SQLException e) {
                     new Alert(Alert.AlertType.ERROR, "Erro ao excluir marca: " + e.getMessage()).showAndWait();
+                    return;
                 }
+                loadData();
+                new Alert(Alert.AlertType.INFORMATION, "Marca excluída com sucesso!").showAndWait();
             }
         });
     }
@@ -10,19 +10,23 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import modules.Animal.controllers.AnimalController;
-import modules.Animal.models.Animal;
+import modules.Animal.models.AnimalStatistics;
 import modules.Animal.views.AnimalView;
+import modules.Medicine.controllers.MedicineStockAlertController;
+import modules.Medicine.models.MedicineStockAlert;
 import modules.Medicine.views.MedicineView;
-import config.Database;
+import modules.MedicineApplication.views.DoseWorklistView;
+import utils.FxAsync;
 
-import java.sql.Connection;
-import java.sql.SQLException;
 import java.util.List;
 
 public class MenuView extends VBox {
 
+    // Alertas exibidos no painel; os demais ficam na tela de medicamentos
+    private static final int MAX_STOCK_ALERTS = 8;
+
     private BorderPane mainLayout;
-    private Connection conn;
+    private VBox stockAlertsList;
 
     /**
      * Construtor da view do menu principal.
@@ -33,16 +37,9 @@ public class MenuView extends VBox {
     public MenuView(BorderPane mainLayout, Stage stage) {
         this.mainLayout = mainLayout;
 
-        try {
-            this.conn = Database.getConnection();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            new Alert(Alert.AlertType.ERROR, "Erro ao conectar com o banco de dados.").showAndWait();
-            return;
-        }
-
         setupLayout();
         loadStatistics();
+        loadStockAlerts();
     }
 
     /**
@@ -97,7 +94,11 @@ public class MenuView extends VBox {
             this.mainLayout.setCenter(medicineView);
         });
 
-        HBox buttonBar = new HBox(15, animaisButton, medicamentosButton);
+        Button dosesButton = new Button("Doses do dia");
+        dosesButton.getStyleClass().add("top-btn");
+        dosesButton.setOnAction(e -> this.mainLayout.setCenter(new DoseWorklistView(this.mainLayout)));
+
+        HBox buttonBar = new HBox(15, dosesButton, animaisButton, medicamentosButton);
         buttonBar.setAlignment(Pos.CENTER_RIGHT);
 
         // Layout usando StackPane para centralizar o título absolutamente
@@ -125,7 +126,10 @@ public class MenuView extends VBox {
         // Área de estatísticas - três colunas
         VBox statisticsContainer = createStatisticsContainer();
         
-        VBox content = new VBox(40, statisticsContainer);
+        // Alertas de estoque dos medicamentos
+        VBox stockAlertsPanel = createStockAlertsPanel();
+
+        VBox content = new VBox(40, statisticsContainer, stockAlertsPanel);
         content.setAlignment(Pos.CENTER);
         content.setPadding(new Insets(40, 60, 40, 60));
 
@@ -250,58 +254,95 @@ public class MenuView extends VBox {
     }
 
     /**
-     * Carrega as estatísticas dos animais e atualiza os boxes.
+     * Cria o painel de alertas de estoque dos medicamentos, preenchido por {@link #loadStockAlerts()}.
      * 
-     * @throws SQLException Se ocorrer erro na operação do banco de dados (tratado internamente com Alert)
+     * @return VBox com o título e a lista de alertas
      */
-    private void loadStatistics() {
-        try {
-            List<Animal> animals = AnimalController.getAllAnimals(conn);
-            
-            // Inicializa contadores
-            int quarentenaDogs = 0, quarentenaCats = 0;
-            int abrigadosDogs = 0, abrigadosCats = 0;
-            int adotadosDogs = 0, adotadosCats = 0;
-
-            // Conta animais por status e espécie
-            for (Animal animal : animals) {
-                String status = animal.getStatus();
-                String species = animal.getSpecies();
-                
-                if (status != null && species != null) {
-                    if ("quarantine".equals(status)) {
-                        if ("dog".equals(species)) quarentenaDogs++;
-                        else if ("cat".equals(species)) quarentenaCats++;
-                    } else if ("sheltered".equals(status)) {
-                        if ("dog".equals(species)) abrigadosDogs++;
-                        else if ("cat".equals(species)) abrigadosCats++;
-                    } else if ("adopted".equals(status)) {
-                        if ("dog".equals(species)) adotadosDogs++;
-                        else if ("cat".equals(species)) adotadosCats++;
-                    }
-                }
-            }
+    private VBox createStockAlertsPanel() {
+        Label titleLabel = new Label("Alertas de estoque");
+        titleLabel.getStyleClass().add("alerts-title");
+
+        stockAlertsList = new VBox(6, new Label("Carregando..."));
 
-            // Atualiza os labels nos boxes
-            int quarentenaTotal = quarentenaDogs + quarentenaCats;
-            int abrigadosTotal = abrigadosDogs + abrigadosCats;
-            int adotadosTotal = adotadosDogs + adotadosCats;
+        VBox panel = new VBox(10, titleLabel, stockAlertsList);
+        panel.getStyleClass().add("alerts-panel");
+        panel.setPadding(new Insets(15, 20, 15, 20));
+        panel.setMaxWidth(900);
+        return panel;
+    }
 
-            quarentenaDogsLabel.setText(String.valueOf(quarentenaDogs));
-            quarentenaCatsLabel.setText(String.valueOf(quarentenaCats));
-            quarentenaTotalLabel.setText(String.valueOf(quarentenaTotal));
+    /**
+     * Carrega em background os alertas de estoque calculados pelo MedicineStockAlertJob.
+     * Erros não interrompem o menu: o painel apenas informa que os alertas não foram carregados.
+     */
+    private void loadStockAlerts() {
+        FxAsync.load(this, conn -> new MedicineStockAlertController(conn).listAlerts(MAX_STOCK_ALERTS), this::applyStockAlerts, e -> {
+            e.printStackTrace();
+            stockAlertsList.getChildren().setAll(new Label("Não foi possível carregar os alertas de estoque."));
+        });
+    }
 
-            abrigadosDogsLabel.setText(String.valueOf(abrigadosDogs));
-            abrigadosCatsLabel.setText(String.valueOf(abrigadosCats));
-            abrigadosTotalLabel.setText(String.valueOf(abrigadosTotal));
+    /**
+     * Preenche o painel com um item por alerta.
+     * 
+     * @param alerts Alertas ativos, dos mais urgentes para os menos urgentes
+     */
+    private void applyStockAlerts(List<MedicineStockAlert> alerts) {
+        if (alerts.isEmpty()) {
+            stockAlertsList.getChildren().setAll(new Label("Nenhum medicamento com estoque baixo."));
+            return;
+        }
+        stockAlertsList.getChildren().clear();
+        for (MedicineStockAlert alert : alerts) {
+            Label item = new Label(alert.getMedicineName() + " — " + describeStockAlert(alert));
+            item.getStyleClass().add(alert.getLevel() == MedicineStockAlert.Level.OUT ? "alert-out" : "alert-low");
+            stockAlertsList.getChildren().add(item);
+        }
+    }
 
-            adotadosDogsLabel.setText(String.valueOf(adotadosDogs));
-            adotadosCatsLabel.setText(String.valueOf(adotadosCats));
-            adotadosTotalLabel.setText(String.valueOf(adotadosTotal));
+    /**
+     * Descreve a situação do estoque de um alerta.
+     * 
+     * @param alert Alerta de estoque
+     * @return Texto com a quantidade e a previsão de término
+     */
+    private static String describeStockAlert(MedicineStockAlert alert) {
+        if (alert.getLevel() == MedicineStockAlert.Level.OUT) return "sem estoque";
+        String text = "estoque baixo: " + alert.getQuantity() + (alert.getQuantity() == 1 ? " unidade" : " unidades");
+        if (alert.getDaysUntilEmpty() != null) {
+            long days = (long) Math.floor(alert.getDaysUntilEmpty());
+            text += days < 1 ? " (acaba hoje)" : " (acaba em ~" + days + (days == 1 ? " dia)" : " dias)");
+        }
+        return text;
+    }
 
-        } catch (SQLException e) {
+    /**
+     * Carrega as estatísticas dos animais em background e atualiza os boxes.
+     * Erros de banco de dados são tratados internamente com Alert.
+     */
+    private void loadStatistics() {
+        FxAsync.load(this, AnimalController::getStatistics, this::applyStatistics, e -> {
             e.printStackTrace();
             new Alert(Alert.AlertType.ERROR, "Erro ao carregar estatísticas: " + e.getMessage()).showAndWait();
-        }
+        });
+    }
+
+    /**
+     * Atualiza os labels dos boxes com as contagens por status e espécie.
+     * 
+     * @param statistics Contagens de animais agregadas no banco de dados
+     */
+    private void applyStatistics(AnimalStatistics statistics) {
+        quarentenaDogsLabel.setText(String.valueOf(statistics.count("quarantine", "dog")));
+        quarentenaCatsLabel.setText(String.valueOf(statistics.count("quarantine", "cat")));
+        quarentenaTotalLabel.setText(String.valueOf(statistics.total("quarantine")));
+
+        abrigadosDogsLabel.setText(String.valueOf(statistics.count("sheltered", "dog")));
+        abrigadosCatsLabel.setText(String.valueOf(statistics.count("sheltered", "cat")));
+        abrigadosTotalLabel.setText(String.valueOf(statistics.total("sheltered")));
+
+        adotadosDogsLabel.setText(String.valueOf(statistics.count("adopted", "dog")));
+        adotadosCatsLabel.setText(String.valueOf(statistics.count("adopted", "cat")));
+        adotadosTotalLabel.setText(String.valueOf(statistics.total("adopted")));
     }
 }
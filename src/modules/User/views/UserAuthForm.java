@@ -21,7 +21,7 @@ public class UserAuthForm extends VBox {
     private final TextField emailField = new TextField();
     private final PasswordField passwordField = new PasswordField();
     private final Button loginButton = new Button("Login");
-    private Connection conn;
+    private boolean databaseReady;
 
     private final Consumer<User> onSuccess;
 
@@ -34,7 +34,9 @@ public class UserAuthForm extends VBox {
         this.onSuccess = onSuccess;
 
         try {
-            this.conn = Database.getConnection();
+            // Inicializa o pool de conexões (e as migrations) já na tela de login
+            Database.getDataSource();
+            this.databaseReady = true;
         } catch (SQLException e) {
             showError("Falha na conexão com o banco:\n" + e.getMessage());
             loginButton.setDisable(true);
@@ -164,7 +166,7 @@ public class UserAuthForm extends VBox {
      * @throws SQLException Se ocorrer erro na operação do banco de dados (tratado internamente com Alert)
      */
     private void doLogin() {
-        if (conn == null) {
+        if (!databaseReady) {
             showError("Sem conexão com o banco.");
             return;
         }
@@ -176,7 +178,7 @@ public class UserAuthForm extends VBox {
             return;
         }
 
-        try {
+        try (Connection conn = Database.getConnection()) {
             User user = UserAuthController.login(conn, email, password);
             if (user == null) {
                 showError("Credenciais inválidas.");
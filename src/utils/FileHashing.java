@@ -0,0 +1,44 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Cálculo de hash de arquivos sem carregar o conteúdo inteiro na memória.
+ */
+public class FileHashing {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Calcula o SHA-256 de um arquivo, lendo-o em blocos.
+     *
+     * @param file Arquivo a ser lido
+     * @return Hash em hexadecimal minúsculo (64 caracteres)
+     * @throws IOException Se ocorrer erro ao ler o arquivo
+     */
+    public static String sha256Hex(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e); // obrigatório em toda JVM
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,62 @@
+package utils;
+
+import config.AsyncDatabase;
+import config.Database;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Ponte entre o {@link AsyncDatabase} e as views JavaFX.
+ */
+public class FxAsync {
+
+    /**
+     * Executa uma consulta fora da FX thread e entrega o resultado (ou o erro) de volta nela.
+     * Se o {@code owner} sair da cena (usuário navegou para outra tela), a consulta é cancelada
+     * e nenhum callback é chamado.
+     *
+     * @param owner Nó da view dona da consulta
+     * @param work Operação de banco de dados
+     * @param onSuccess Callback executado na FX thread com o resultado
+     * @param onError Callback executado na FX thread com a causa do erro
+     * @param <T> Tipo do resultado
+     * @return Future da operação (pode ser cancelado pela view)
+     */
+    public static <T> CompletableFuture<T> load(Node owner,
+                                                Database.SqlFunction<T> work,
+                                                Consumer<T> onSuccess,
+                                                Consumer<Throwable> onError) {
+        CompletableFuture<T> future = AsyncDatabase.supply(work);
+
+        ChangeListener<Scene> detachListener = (obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) future.cancel(true);
+        };
+        owner.sceneProperty().addListener(detachListener);
+
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            owner.sceneProperty().removeListener(detachListener);
+            if (future.isCancelled()) return;
+            if (error != null) {
+                onError.accept(unwrap(error));
+            } else {
+                onSuccess.accept(result);
+            }
+        }));
+        return future;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}